@@ -0,0 +1,39 @@
+package bench;
+
+import jamjam.Deterministic;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview", "-Xms8g", "-Xmx8g"})
+public class DeterministicBenchmark {
+
+    @Benchmark
+    public double sum(final Sample sample) {
+        return Deterministic.sum(sample.x);
+    }
+
+    @Benchmark
+    public double parallelSum(final Sample sample) {
+        return Deterministic.sum(sample.x, true);
+    }
+
+    @Benchmark
+    public double mean(final Sample sample) {
+        return Deterministic.mean(sample.x);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVariance(final Sample sample) {
+        return Deterministic.unweightedUnbiasedVariance(sample.x);
+    }
+
+    @Benchmark
+    public double parallelUnweightedUnbiasedVariance(final Sample sample) {
+        return Deterministic.unweightedUnbiasedVariance(sample.x, true);
+    }
+}
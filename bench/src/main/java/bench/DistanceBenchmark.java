@@ -0,0 +1,144 @@
+package bench;
+
+import jamjam.probability.Metric;
+import jamjam.probability.SparseDistribution;
+import jamjam.probability.StatisticalDistance;
+import lombok.val;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reference distributions are made of magnitudes of {@link Sample}, actual ones of another sample of the same
+ * distribution. Named metrics run with and without validation, {@code distance} is parameterized by the metric too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview", "-Xms8g", "-Xmx8g"})
+public class DistanceBenchmark {
+    /**
+     * Every outcome but one in {@link #SPARSITY} is empty in sparse distributions.
+     */
+    static final int SPARSITY = 8;
+
+    @State(Scope.Benchmark)
+    public static class Distributions {
+        @Param({"false", "true"})
+        public boolean trusted;
+
+        public double[] reference;
+        public double[] actual;
+        public double[] support;
+        public SparseDistribution sparseReference;
+        public SparseDistribution sparseActual;
+
+        @Setup(Level.Trial)
+        public void setUp(final Sample sample) {
+            reference = sample.distribution.probabilities(sample.size, Sample.SEED);
+            actual = sample.distribution.probabilities(sample.size, Sample.SEED + 1);
+            support = new double[sample.size];
+            for (var i = 0; i < support.length; i++) support[i] = i;
+            sparseReference = SparseDistribution.of(sparse(reference));
+            sparseActual = SparseDistribution.of(sparse(actual));
+        }
+
+        /**
+         * Keeps outcomes {@code 0, SPARSITY, 2 * SPARSITY, ...} so that supports of both distributions are the same
+         * and all metrics are finite.
+         */
+        private static double[] sparse(final double[] dense) {
+            val x = new double[dense.length];
+            var largest = 0;
+            for (var i = 0; i < x.length; i += SPARSITY) {
+                x[i] = dense[i];
+                if (x[i] > x[largest]) largest = i;
+            }
+            return Distribution.normalize(x, largest);
+        }
+    }
+
+    /**
+     * {@link Distributions} rounded to single precision, allocated only by benchmarks of floats.
+     */
+    @State(Scope.Benchmark)
+    public static class FloatDistributions {
+        public float[] reference;
+        public float[] actual;
+
+        @Setup(Level.Trial)
+        public void setUp(final Distributions d) {
+            reference = Distribution.toFloats(d.reference);
+            actual = Distribution.toFloats(d.actual);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Dispatch {
+        @Param
+        public Metric metric;
+    }
+
+    @Benchmark
+    public double KullbackLeiblerDivergence(final Distributions d) {
+        return d.trusted
+            ? StatisticalDistance.KullbackLeiblerDivergence(d.reference, d.actual, true)
+            : StatisticalDistance.KullbackLeiblerDivergence(d.reference, d.actual);
+    }
+
+    @Benchmark
+    public double JensenShannonDivergence(final Distributions d) {
+        return StatisticalDistance.JensenShannonDivergence(d.reference, d.actual, d.trusted);
+    }
+
+    @Benchmark
+    public double HellingerDistance(final Distributions d) {
+        return StatisticalDistance.HellingerDistance(d.reference, d.actual, d.trusted);
+    }
+
+    @Benchmark
+    public double BhattacharyyaDistance(final Distributions d) {
+        return StatisticalDistance.BhattacharyyaDistance(d.reference, d.actual, d.trusted);
+    }
+
+    @Benchmark
+    public double TotalVariationDistance(final Distributions d) {
+        return StatisticalDistance.TotalVariationDistance(d.reference, d.actual, d.trusted);
+    }
+
+    @Benchmark
+    public double ChiSquaredDivergence(final Distributions d) {
+        return StatisticalDistance.ChiSquaredDivergence(d.reference, d.actual, d.trusted);
+    }
+
+    @Benchmark
+    public double WassersteinDistance(final Distributions d) {
+        return StatisticalDistance.WassersteinDistance(d.reference, d.actual, d.trusted);
+    }
+
+    @Benchmark
+    public double WassersteinDistanceSupport(final Distributions d) {
+        return StatisticalDistance.WassersteinDistance(d.reference, d.actual, d.support, d.trusted);
+    }
+
+    @Benchmark
+    public double distance(final Distributions d, final Dispatch dispatch) {
+        return StatisticalDistance.distance(dispatch.metric, d.reference, d.actual, d.trusted);
+    }
+
+    @Benchmark
+    public double distanceFloat(final Distributions d, final FloatDistributions floats, final Dispatch dispatch) {
+        return StatisticalDistance.distance(dispatch.metric, floats.reference, floats.actual, d.trusted);
+    }
+
+    @Benchmark
+    public double sparseKullbackLeiblerDivergence(final Distributions d) {
+        return StatisticalDistance.KullbackLeiblerDivergence(d.sparseReference, d.sparseActual, d.trusted);
+    }
+
+    @Benchmark
+    public double sparseDistance(final Distributions d, final Dispatch dispatch) {
+        return StatisticalDistance.distance(dispatch.metric, d.sparseReference, d.sparseActual, d.trusted);
+    }
+}
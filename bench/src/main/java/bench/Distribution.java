@@ -0,0 +1,128 @@
+package bench;
+
+import jamjam.Sum;
+import jamjam.aux.Utils;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Shapes of benchmark data. Samples are generated in parallel chunks with generators split off in a fixed order, so
+ * the data depends on the seed and the size only.
+ */
+public enum Distribution {
+    /**
+     * {@code U[0; 1)}, the friendliest case.
+     */
+    UNIFORM,
+    /**
+     * {@code N(0; 1)}, values of both signs cancel each other.
+     */
+    NORMAL,
+    /**
+     * {@code exp(N(0; 1))}, positive and right skewed like incomes or durations.
+     */
+    LOGNORMAL,
+    /**
+     * Pairs of opposite values of magnitudes up to {@code 2^64} with small perturbations, the condition number of the
+     * sum is far beyond {@code 1 / ulp(1)}.
+     */
+    ILL_CONDITIONED;
+
+    /**
+     * The number of values made by one generator.
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * Generates a sample.
+     *
+     * @param size The number of values.
+     * @param seed The seed.
+     * @return A new array.
+     */
+    public double @NonNull [] sample(final int size, final long seed) {
+        val x = new double[size];
+        // Ill-conditioned values come in pairs {x[i], x[i + half]}, the odd one out is the last.
+        val count = this == ILL_CONDITIONED ? size / 2 : size;
+        val chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        val root = Utils.splittableGenerator(seed);
+        val generators = new SplittableGenerator[chunks];
+        for (var c = 0; c < chunks; c++) generators[c] = root.split();
+        IntStream.range(0, chunks).parallel().forEach(c ->
+            fill(x, count, c * CHUNK_SIZE, (int) Math.min((long) (c + 1) * CHUNK_SIZE, count), generators[c]));
+        if (this == ILL_CONDITIONED && size % 2 == 1) x[size - 1] = root.nextDouble();
+        return x;
+    }
+
+    private void fill(final double[] x, final int count, final int from, final int to,
+                      final RandomGenerator generator) {
+        for (var i = from; i < to; i++)
+            switch (this) {
+                case UNIFORM -> x[i] = generator.nextDouble();
+                case NORMAL -> x[i] = generator.nextGaussian();
+                case LOGNORMAL -> x[i] = Math.exp(generator.nextGaussian());
+                case ILL_CONDITIONED -> {
+                    x[i] = Math.scalb(generator.nextDouble(-1., 1.), generator.nextInt(64));
+                    x[i + count] = -x[i] + generator.nextDouble();
+                }
+            }
+    }
+
+    /**
+     * Generates a discrete probability distribution out of magnitudes of a sample.
+     *
+     * @param size The number of outcomes, at least two.
+     * @param seed The seed.
+     * @return A distribution that passes the validation of {@link jamjam.probability.StatisticalDistance}.
+     */
+    public double @NonNull [] probabilities(final int size, final long seed) {
+        val x = sample(size, seed);
+        var largest = 0;
+        for (var i = 0; i < size; i++) {
+            x[i] = Math.abs(x[i]);
+            if (x[i] > x[largest]) largest = i;
+        }
+        return normalize(x, largest);
+    }
+
+    /**
+     * Rounds a distribution to single precision, the largest value absorbs rounding errors.
+     *
+     * @return A distribution that adds up to 1 in single precision as {@link jamjam.probability.StatisticalDistance}
+     * requires for floats.
+     */
+    static float @NonNull [] toFloats(final double @NonNull [] p) {
+        val x = new float[p.length];
+        var largest = 0;
+        for (var i = 0; i < x.length; i++) {
+            x[i] = (float) p[i];
+            if (x[i] > x[largest]) largest = i;
+        }
+        x[largest] = 0f;
+        x[largest] = (float) (1. - Sum.sum(x));
+        double sum;
+        for (var i = 0; i < Integer.SIZE && (float) (sum = Sum.sum(x)) != 1f; i++)
+            x[largest] = sum > 1. ? Math.nextDown(x[largest]) : Math.nextUp(x[largest]);
+        return x;
+    }
+
+    /**
+     * Scales non-negative values to add up to 1, the largest value absorbs rounding errors.
+     *
+     * @return The same array.
+     */
+    static double @NonNull [] normalize(final double @NonNull [] x, final int largest) {
+        val total = Sum.sum(x);
+        for (var i = 0; i < x.length; i++) x[i] /= total;
+        x[largest] = 0.;
+        x[largest] = 1. - Sum.sum(x);
+        double sum;
+        for (var i = 0; i < Long.SIZE && (sum = Sum.sum(x)) != 1.; i++)
+            x[largest] = sum > 1. ? Math.nextDown(x[largest]) : Math.nextUp(x[largest]);
+        return x;
+    }
+}
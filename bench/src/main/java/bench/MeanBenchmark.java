@@ -0,0 +1,64 @@
+package bench;
+
+import jamjam.Mean;
+import jamjam.NanReduction;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview", "-Xms8g", "-Xmx8g"})
+public class MeanBenchmark {
+    @Benchmark
+    public double mean(final Sample sample) {
+        return Mean.mean(sample.x);
+    }
+
+    @Benchmark
+    public double meanFloat(final Sample.Floats floats) {
+        return Mean.mean(floats.x);
+    }
+
+    @Benchmark
+    public double weightedMean(final Sample sample, final Sample.Weights weights) {
+        return Mean.weightedMean(sample.x, weights.weights);
+    }
+
+    @Benchmark
+    public double weightedMeanNoWeights(final Sample sample) {
+        return Mean.weightedMean(sample.x, null);
+    }
+
+    @Benchmark
+    public double weightedMeanInt(final Sample.Counts counts, final Sample.Weights weights) {
+        return Mean.weightedMean(counts.ints, weights.weights);
+    }
+
+    @Benchmark
+    public double weightedMeanLong(final Sample.Counts counts, final Sample.Weights weights) {
+        return Mean.weightedMean(counts.longs, weights.weights);
+    }
+
+    @Benchmark
+    public double meanInt(final Sample.Counts counts) {
+        return Mean.mean(counts.ints);
+    }
+
+    @Benchmark
+    public double meanLong(final Sample.Counts counts) {
+        return Mean.mean(counts.longs);
+    }
+
+    @Benchmark
+    public NanReduction nanMean(final Sample.Missing missing) {
+        return Mean.nanMean(missing.x);
+    }
+
+    @Benchmark
+    public NanReduction nanWeightedMean(final Sample.Missing missing, final Sample.Weights weights) {
+        return Mean.nanWeightedMean(missing.x, weights.weights);
+    }
+}
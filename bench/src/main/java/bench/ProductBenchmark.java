@@ -0,0 +1,55 @@
+package bench;
+
+import jamjam.arrays.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factors are {@link Sample.Weights}, their single precision copy in {@link Sample.Floats} and {@link Sample.Counts},
+ * all of them are at least 1.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview", "-Xms8g", "-Xmx8g"})
+public class ProductBenchmark {
+    @Benchmark
+    public double[] product(final Sample sample, final Sample.Weights weights) {
+        return Product.product(sample.x, weights.weights);
+    }
+
+    @Benchmark
+    public double[] productFloat(final Sample.Floats floats) {
+        return Product.product(floats.x, floats.weights);
+    }
+
+    @Benchmark
+    public double[] productInt(final Sample sample, final Sample.Counts counts) {
+        return Product.product(sample.x, counts.ints);
+    }
+
+    @Benchmark
+    public double[] productLong(final Sample sample, final Sample.Counts counts) {
+        return Product.product(sample.x, counts.longs);
+    }
+
+    @Benchmark
+    public double[] productInPlace(final Sample.Scratch scratch, final Sample.Weights weights) {
+        Product.productInPlace(scratch.x, weights.weights);
+        return scratch.x;
+    }
+
+    @Benchmark
+    public double[] productInPlaceInt(final Sample.Scratch scratch, final Sample.Counts counts) {
+        Product.productInPlace(scratch.x, counts.ints);
+        return scratch.x;
+    }
+
+    @Benchmark
+    public double[] productInPlaceLong(final Sample.Scratch scratch, final Sample.Counts counts) {
+        Product.productInPlace(scratch.x, counts.longs);
+        return scratch.x;
+    }
+}
@@ -0,0 +1,56 @@
+package bench;
+
+import jamjam.arrays.ARange;
+import jamjam.arrays.LinearSpace;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grids of {@code size} points, the overloads with the default number of points make 50 regardless of it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview", "-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class RangeBenchmark {
+    @Param({"10", "1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Benchmark
+    public double[] arange() {
+        return ARange.arange(-1., size - 1., 1.);
+    }
+
+    @Benchmark
+    public double[] arangeFromZero() {
+        return ARange.arange(size, 1.);
+    }
+
+    @Benchmark
+    public double[] generateRange() {
+        return ARange.generateRange(-1., size - 1., 1.);
+    }
+
+    @Benchmark
+    public double[] linspace() {
+        return LinearSpace.linspace(0., 1., size, false);
+    }
+
+    @Benchmark
+    public double[] linspaceNum() {
+        return LinearSpace.linspace(0., 1., size);
+    }
+
+    @Benchmark
+    public double[] linspaceEndpoint() {
+        return LinearSpace.linspace(0., 1., false);
+    }
+
+    @Benchmark
+    public double[] linspaceDefault() {
+        return LinearSpace.linspace(0., 1.);
+    }
+}
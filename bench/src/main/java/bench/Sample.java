@@ -0,0 +1,138 @@
+package bench;
+
+import jdk.incubator.vector.DoubleVector;
+import lombok.val;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static jamjam.Mean.mean;
+import static jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
+
+/**
+ * The data every benchmark works on. It is generated once per trial, so that timings include neither generation nor
+ * garbage collection of inputs. Extra inputs live in their own states and are allocated only by benchmarks that use
+ * them, the largest size needs several gigabytes per array type otherwise.
+ */
+@State(Scope.Benchmark)
+public class Sample {
+    static final long SEED = 42L;
+
+    @Param({"10", "1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param
+    public Distribution distribution;
+
+    public double[] x;
+
+    public double mean;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        x = distribution.sample(size, SEED);
+        mean = mean(x);
+    }
+
+    /**
+     * Weights in {@code [1; 2)} like expansion weights of surveys. Being at least 1, they never push in-place
+     * products into subnormal numbers, which are orders of magnitude slower on most hardware.
+     */
+    @State(Scope.Benchmark)
+    public static class Weights {
+        public double[] weights;
+
+        @Setup(Level.Trial)
+        public void setUp(final Sample sample) {
+            weights = new Random(SEED + 1).doubles(sample.size, 1., 2.).toArray();
+        }
+    }
+
+    /**
+     * Integer data or frequency weights in {@code [1; 100]} and their means.
+     */
+    @State(Scope.Benchmark)
+    public static class Counts {
+        public int[] ints;
+        public long[] longs;
+        public double intMean;
+        public double longMean;
+
+        @Setup(Level.Trial)
+        public void setUp(final Sample sample) {
+            ints = new Random(SEED + 2).ints(sample.size, 1, 101).toArray();
+            longs = new Random(SEED + 3).longs(sample.size, 1, 101).toArray();
+            intMean = mean(ints);
+            longMean = mean(longs);
+        }
+    }
+
+    /**
+     * The sample and {@link Weights} rounded to single precision, the mean is that of the rounded sample.
+     */
+    @State(Scope.Benchmark)
+    public static class Floats {
+        public float[] x;
+        public float[] weights;
+        public double mean;
+
+        @Setup(Level.Trial)
+        public void setUp(final Sample sample) {
+            x = new float[sample.size];
+            for (var i = 0; i < x.length; i++) x[i] = (float) sample.x[i];
+            val generator = new Random(SEED + 1);
+            weights = new float[sample.size];
+            for (var i = 0; i < weights.length; i++) weights[i] = (float) generator.nextDouble(1., 2.);
+            mean = mean(x);
+        }
+    }
+
+    /**
+     * A copy of the sample for in-place methods. It is not restored between invocations, that would distort timings
+     * of small arrays; shifts and products by {@link Weights} make values drift towards infinity, which costs nothing
+     * extra, but never towards subnormal numbers.
+     */
+    @State(Scope.Benchmark)
+    public static class Scratch {
+        public double[] x;
+
+        @Setup(Level.Trial)
+        public void setUp(final Sample sample) {
+            x = sample.x.clone();
+        }
+    }
+
+    /**
+     * The sample packed into vectors, the tail that doesn't fill a whole vector is dropped, short samples are padded
+     * with zeros.
+     */
+    @State(Scope.Benchmark)
+    public static class Vectors {
+        public DoubleVector[] vectors;
+
+        @Setup(Level.Trial)
+        public void setUp(final Sample sample) {
+            val lanes = SPECIES_PREFERRED.length();
+            vectors = new DoubleVector[Math.max(1, sample.size / lanes)];
+            val source = sample.size < lanes ? Arrays.copyOf(sample.x, lanes) : sample.x;
+            for (var i = 0; i < vectors.length; i++)
+                vectors[i] = DoubleVector.fromArray(SPECIES_PREFERRED, source, i * lanes);
+        }
+    }
+
+    /**
+     * A copy of the sample where one value in ten, chosen at random, is missing.
+     */
+    @State(Scope.Benchmark)
+    public static class Missing {
+        public double[] x;
+
+        @Setup(Level.Trial)
+        public void setUp(final Sample sample) {
+            x = sample.x.clone();
+            val generator = new Random(SEED + 4);
+            for (var i = 0; i < x.length; i++) if (generator.nextInt(10) == 0) x[i] = Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package bench;
+
+import jamjam.NanReduction;
+import jamjam.StandardDeviation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview", "-Xms8g", "-Xmx8g"})
+public class StandardDeviationBenchmark {
+    @Benchmark
+    public double uncorrectedSampleSTD(final Sample sample) {
+        return StandardDeviation.uncorrectedSampleSTD(sample.x);
+    }
+
+    @Benchmark
+    public double correctedSampleSTD(final Sample sample) {
+        return StandardDeviation.correctedSampleSTD(sample.x);
+    }
+
+    @Benchmark
+    public NanReduction nanStd(final Sample.Missing missing) {
+        return StandardDeviation.nanStd(missing.x, true);
+    }
+}
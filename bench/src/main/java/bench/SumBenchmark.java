@@ -0,0 +1,96 @@
+package bench;
+
+import jamjam.NanReduction;
+import jamjam.Sum;
+import jamjam.VectorSum;
+import jdk.incubator.vector.DoubleVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview", "-Xms8g", "-Xmx8g"})
+public class SumBenchmark {
+    static final double SHIFT = 0.5;
+
+    @Benchmark
+    public double sum(final Sample sample) {
+        return Sum.sum(sample.x);
+    }
+
+    @Benchmark
+    public double sumFloat(final Sample.Floats floats) {
+        return Sum.sum(floats.x);
+    }
+
+    @Benchmark
+    public double sumRange(final Sample sample) {
+        return Sum.sum(sample.x, sample.size / 4, sample.size - sample.size / 4);
+    }
+
+    @Benchmark
+    public double sumStream(final Sample sample) {
+        return Sum.sum(Arrays.stream(sample.x));
+    }
+
+    @Benchmark
+    public DoubleVector sumVectors(final Sample.Vectors vectors) {
+        return VectorSum.sum(vectors.vectors);
+    }
+
+    @Benchmark
+    public double weightedSum(final Sample sample, final Sample.Weights weights) {
+        return Sum.weightedSum(sample.x, weights.weights);
+    }
+
+    @Benchmark
+    public double[] cumulativeSum(final Sample sample) {
+        return Sum.cumulativeSum(sample.x);
+    }
+
+    @Benchmark
+    public double[] weightedCumulativeSum(final Sample sample, final Sample.Weights weights) {
+        return Sum.weightedCumulativeSum(sample.x, weights.weights);
+    }
+
+    @Benchmark
+    public double[] broadcastAdd(final Sample sample) {
+        return Sum.broadcastAdd(sample.x, SHIFT);
+    }
+
+    @Benchmark
+    public double[] broadcastSub(final Sample sample) {
+        return Sum.broadcastSub(sample.x, SHIFT);
+    }
+
+    @Benchmark
+    public double[] broadcastSubInt(final Sample.Counts counts) {
+        return Sum.broadcastSub(counts.ints, SHIFT);
+    }
+
+    @Benchmark
+    public double[] broadcastSubLong(final Sample.Counts counts) {
+        return Sum.broadcastSub(counts.longs, SHIFT);
+    }
+
+    @Benchmark
+    public double[] broadcastAddInPlace(final Sample.Scratch scratch) {
+        Sum.broadcastAddInPlace(scratch.x, SHIFT);
+        return scratch.x;
+    }
+
+    @Benchmark
+    public double[] broadcastSubInPlace(final Sample.Scratch scratch) {
+        Sum.broadcastSubInPlace(scratch.x, SHIFT);
+        return scratch.x;
+    }
+
+    @Benchmark
+    public NanReduction nanSum(final Sample.Missing missing) {
+        return Sum.nanSum(missing.x);
+    }
+}
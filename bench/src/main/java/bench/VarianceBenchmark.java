@@ -0,0 +1,123 @@
+package bench;
+
+import jamjam.NanReduction;
+import jamjam.Variance;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overloads that take a mean get the precalculated one, {@code *Mean} benchmarks of integer data measure the kernel
+ * that takes deviations from a given double instead of the exact mean.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview", "-Xms8g", "-Xmx8g"})
+public class VarianceBenchmark {
+    @Benchmark
+    public double weightedUnbiasedVarianceInt(final Sample sample, final Sample.Counts counts) {
+        return Variance.weightedUnbiasedVariance(sample.x, counts.ints);
+    }
+
+    @Benchmark
+    public double weightedUnbiasedVarianceLong(final Sample sample, final Sample.Counts counts) {
+        return Variance.weightedUnbiasedVariance(sample.x, counts.longs);
+    }
+
+    @Benchmark
+    public double weightedBiasedVariance(final Sample sample, final Sample.Weights weights) {
+        return Variance.weightedBiasedVariance(sample.x, sample.mean, weights.weights);
+    }
+
+    @Benchmark
+    public double unweightedBiasedVariance(final Sample sample) {
+        return Variance.unweightedBiasedVariance(sample.x);
+    }
+
+    @Benchmark
+    public double unweightedBiasedVarianceMean(final Sample sample) {
+        return Variance.unweightedBiasedVariance(sample.x, sample.mean);
+    }
+
+    @Benchmark
+    public double unweightedBiasedVarianceInt(final Sample.Counts counts) {
+        return Variance.unweightedBiasedVariance(counts.ints);
+    }
+
+    @Benchmark
+    public double unweightedBiasedVarianceIntMean(final Sample.Counts counts) {
+        return Variance.unweightedBiasedVariance(counts.ints, counts.intMean);
+    }
+
+    @Benchmark
+    public double unweightedBiasedVarianceLong(final Sample.Counts counts) {
+        return Variance.unweightedBiasedVariance(counts.longs);
+    }
+
+    @Benchmark
+    public double unweightedBiasedVarianceLongMean(final Sample.Counts counts) {
+        return Variance.unweightedBiasedVariance(counts.longs, counts.longMean);
+    }
+
+    @Benchmark
+    public double unweightedBiasedVarianceFloat(final Sample.Floats floats) {
+        return Variance.unweightedBiasedVariance(floats.x);
+    }
+
+    @Benchmark
+    public double unweightedBiasedVarianceFloatMean(final Sample.Floats floats) {
+        return Variance.unweightedBiasedVariance(floats.x, floats.mean);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVariance(final Sample sample) {
+        return Variance.unweightedUnbiasedVariance(sample.x);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVarianceMean(final Sample sample) {
+        return Variance.unweightedUnbiasedVariance(sample.x, sample.mean);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVarianceInt(final Sample.Counts counts) {
+        return Variance.unweightedUnbiasedVariance(counts.ints);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVarianceIntMean(final Sample.Counts counts) {
+        return Variance.unweightedUnbiasedVariance(counts.ints, counts.intMean);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVarianceLong(final Sample.Counts counts) {
+        return Variance.unweightedUnbiasedVariance(counts.longs);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVarianceLongMean(final Sample.Counts counts) {
+        return Variance.unweightedUnbiasedVariance(counts.longs, counts.longMean);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVarianceFloat(final Sample.Floats floats) {
+        return Variance.unweightedUnbiasedVariance(floats.x);
+    }
+
+    @Benchmark
+    public double unweightedUnbiasedVarianceFloatMean(final Sample.Floats floats) {
+        return Variance.unweightedUnbiasedVariance(floats.x, floats.mean);
+    }
+
+    @Benchmark
+    public NanReduction nanVariance(final Sample.Missing missing) {
+        return Variance.nanVariance(missing.x, true);
+    }
+
+    @Benchmark
+    public NanReduction nanWeightedVariance(final Sample.Missing missing, final Sample.Weights weights) {
+        return Variance.nanWeightedVariance(missing.x, weights.weights);
+    }
+}
@@ -0,0 +1,37 @@
+package bench.accuracy;
+
+import jdk.incubator.vector.DoubleVector;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every {@link Algorithm} on every {@link Dataset}, run it through {@link ParetoTable} to get errors too.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "--enable-preview"})
+@State(Scope.Benchmark)
+public class AccuracyBenchmark {
+    @Param
+    public Dataset dataset;
+
+    @Param
+    public Algorithm algorithm;
+
+    public double[] x;
+    public DoubleVector[] vectors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        x = dataset.load();
+        vectors = Algorithm.pack(x);
+    }
+
+    @Benchmark
+    public double apply() {
+        return algorithm.apply(x, vectors);
+    }
+}
@@ -0,0 +1,180 @@
+package bench.accuracy;
+
+import jamjam.Mean;
+import jamjam.Sum;
+import jamjam.VectorSum;
+import jamjam.Variance;
+import jdk.incubator.vector.DoubleVector;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+
+import static jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
+
+/**
+ * Competing ways to calculate a {@link Statistic}: the library kernels and textbook schemes they are meant to beat.
+ */
+public enum Algorithm {
+    /**
+     * A plain loop.
+     */
+    NAIVE_SUM(Statistic.SUM),
+    /**
+     * Pairwise summation with unrolled leaves as in NumPy, the error grows as {@code O(log n)}.
+     */
+    PAIRWISE_SUM(Statistic.SUM),
+    /**
+     * The original Kahan scheme, it fails when a summand is larger than the running sum.
+     */
+    KAHAN_SUM(Statistic.SUM),
+    /**
+     * {@link java.util.stream.DoubleStream#sum()}, compensated in the JDK.
+     */
+    STREAM_SUM(Statistic.SUM),
+    /**
+     * {@link Sum#sum(double...)}.
+     */
+    SUM(Statistic.SUM),
+    /**
+     * {@link Sum.Accumulator} fed value by value.
+     */
+    ACCUMULATOR_SUM(Statistic.SUM),
+    /**
+     * Lane-wise {@link VectorSum#sum(DoubleVector...)} of pre-packed vectors, lanes are added up by
+     * {@link Sum#sum(double...)}.
+     */
+    VECTOR_SUM(Statistic.SUM),
+    /**
+     * A plain loop divided by the size.
+     */
+    NAIVE_MEAN(Statistic.MEAN),
+    /**
+     * {@link Mean#mean(double[])}.
+     */
+    MEAN(Statistic.MEAN),
+    /**
+     * {@code (sum(x^2) - sum(x)^2 / n) / (n - 1)} in one pass, the textbook example of catastrophic cancellation.
+     */
+    NAIVE_VARIANCE(Statistic.VARIANCE),
+    /**
+     * The two-pass scheme with plain loops.
+     */
+    TWO_PASS_VARIANCE(Statistic.VARIANCE),
+    /**
+     * Welford's one-pass update.
+     */
+    WELFORD_VARIANCE(Statistic.VARIANCE),
+    /**
+     * {@link Variance#unweightedUnbiasedVariance(double[])}.
+     */
+    VARIANCE(Statistic.VARIANCE);
+
+    /**
+     * Leaves of pairwise summation.
+     */
+    static final int PAIRWISE_BLOCK = 128;
+
+    public final Statistic statistic;
+
+    Algorithm(final Statistic statistic) {
+        this.statistic = statistic;
+    }
+
+    /**
+     * @param x       Data.
+     * @param vectors The same data packed by {@link #pack(double[])}.
+     * @return The statistic.
+     */
+    public double apply(final double @NonNull [] x, final DoubleVector @NonNull [] vectors) {
+        return switch (this) {
+            case NAIVE_SUM -> naiveSum(x);
+            case PAIRWISE_SUM -> pairwiseSum(x, 0, x.length);
+            case KAHAN_SUM -> kahanSum(x);
+            case STREAM_SUM -> Arrays.stream(x).sum();
+            case SUM -> Sum.sum(x);
+            case ACCUMULATOR_SUM -> {
+                val accumulator = new Sum.Accumulator();
+                for (val v : x) accumulator.sum(v);
+                yield accumulator.getSum();
+            }
+            case VECTOR_SUM -> Sum.sum(VectorSum.sum(vectors).toArray());
+            case NAIVE_MEAN -> naiveSum(x) / x.length;
+            case MEAN -> Mean.mean(x);
+            case NAIVE_VARIANCE -> {
+                var sum = 0.;
+                var squares = 0.;
+                for (val v : x) {
+                    sum += v;
+                    squares += v * v;
+                }
+                yield (squares - sum * sum / x.length) / (x.length - 1);
+            }
+            case TWO_PASS_VARIANCE -> {
+                val mean = naiveSum(x) / x.length;
+                var squares = 0.;
+                for (val v : x) squares += (v - mean) * (v - mean);
+                yield squares / (x.length - 1);
+            }
+            case WELFORD_VARIANCE -> {
+                var mean = 0.;
+                var squares = 0.;
+                double delta;
+                for (var i = 0; i < x.length; i++) {
+                    delta = x[i] - mean;
+                    mean += delta / (i + 1);
+                    squares += delta * (x[i] - mean);
+                }
+                yield squares / (x.length - 1);
+            }
+            case VARIANCE -> Variance.unweightedUnbiasedVariance(x);
+        };
+    }
+
+    /**
+     * Packs data into vectors, the last one is padded with zeros, which don't change the sum.
+     */
+    public static DoubleVector @NonNull [] pack(final double @NonNull [] x) {
+        val lanes = SPECIES_PREFERRED.length();
+        val padded = Arrays.copyOf(x, (x.length + lanes - 1) / lanes * lanes);
+        val vectors = new DoubleVector[padded.length / lanes];
+        for (var i = 0; i < vectors.length; i++)
+            vectors[i] = DoubleVector.fromArray(SPECIES_PREFERRED, padded, i * lanes);
+        return vectors;
+    }
+
+    private static double naiveSum(final double[] x) {
+        var sum = 0.;
+        for (val v : x) sum += v;
+        return sum;
+    }
+
+    private static double kahanSum(final double[] x) {
+        var sum = 0.;
+        var compensation = 0.;
+        double y, t;
+        for (val v : x) {
+            y = v - compensation;
+            t = sum + y;
+            compensation = (t - sum) - y;
+            sum = t;
+        }
+        return sum;
+    }
+
+    private static double pairwiseSum(final double[] x, final int from, final int to) {
+        if (to - from > PAIRWISE_BLOCK) {
+            val middle = from + (to - from) / 2 / 8 * 8;
+            return pairwiseSum(x, from, middle) + pairwiseSum(x, middle, to);
+        }
+        // Eight interleaved partial sums as in NumPy, they let the loop run without waiting for every addition.
+        val partial = new double[8];
+        var i = from;
+        for (; i + 8 <= to; i += 8)
+            for (var k = 0; k < 8; k++) partial[k] += x[i + k];
+        var sum = ((partial[0] + partial[1]) + (partial[2] + partial[3]))
+            + ((partial[4] + partial[5]) + (partial[6] + partial[7]));
+        for (; i < to; i++) sum += x[i];
+        return sum;
+    }
+}
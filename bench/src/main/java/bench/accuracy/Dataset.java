@@ -0,0 +1,87 @@
+package bench.accuracy;
+
+import jamjam.aux.Utils;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Inputs of the accuracy benchmark: NIST StRD univariate summary statistics datasets and synthetic ones with growing
+ * condition numbers.
+ *
+ * @see <a href="https://www.itl.nist.gov/div898/strd/univ/homepage.html">NIST StRD: Univariate Summary Statistics</a>
+ */
+public enum Dataset {
+    LEW,
+    LOTTERY,
+    MAVRO,
+    MICHELSON,
+    PIDIGITS,
+    ACC1,
+    ACC2,
+    ACC3,
+    ACC4,
+    CONDITIONED_16(16),
+    CONDITIONED_32(32),
+    CONDITIONED_64(64),
+    CONDITIONED_128(128);
+
+    /**
+     * The size of synthetic datasets.
+     */
+    static final int SYNTHETIC_SIZE = 1 << 20;
+
+    /**
+     * NIST files start with the certified mean, standard deviation and autocorrelation coefficient.
+     */
+    static final int NIST_HEADER = 3;
+
+    static final long SEED = 42L;
+
+    /**
+     * Magnitudes of synthetic values go up to {@code 2^exponent}, zero for NIST datasets.
+     */
+    private final int exponent;
+
+    Dataset() {
+        this(0);
+    }
+
+    Dataset(final int exponent) {
+        this.exponent = exponent;
+    }
+
+    /**
+     * @return A new copy of the data.
+     */
+    public double @NonNull [] load() {
+        if (exponent == 0) {
+            val column = Utils.readTestingValues(getClass().getClassLoader()
+                .getResourceAsStream("nist/" + name().toLowerCase(Locale.ROOT) + ".csv"));
+            if (column == null) throw new IllegalStateException("NIST data of " + this + " is not on the classpath.");
+            return Arrays.copyOfRange(column, NIST_HEADER, column.length);
+        }
+        // Opposite values of wildly different magnitudes cancel out up to small perturbations, the order is random.
+        val generator = new Random(SEED + exponent);
+        val x = new double[SYNTHETIC_SIZE];
+        val half = x.length / 2;
+        for (var i = 0; i < half; i++) {
+            x[i] = Math.scalb(generator.nextDouble(-1., 1.), generator.nextInt(exponent));
+            x[i + half] = -x[i] + generator.nextDouble();
+        }
+        Utils.shuffleDoubleArray(x, generator);
+        return x;
+    }
+
+    /**
+     * @return The condition number of the sum {@code sum(|x|) / |sum(x)|}.
+     */
+    static double condition(final double @NonNull [] x) {
+        val magnitude = Statistic.exactSum(Arrays.stream(x).map(Math::abs).toArray());
+        val sum = Statistic.exactSum(x).abs();
+        return sum.signum() == 0 ? Double.POSITIVE_INFINITY : magnitude.divide(sum, Statistic.PRECISION).doubleValue();
+    }
+}
@@ -0,0 +1,118 @@
+package bench.accuracy;
+
+import jamjam.aux.Utils;
+import lombok.NonNull;
+import lombok.val;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Runs {@link AccuracyBenchmark} and writes a CSV table with both the speed and the relative error of every algorithm
+ * on every dataset. Algorithms that are neither slower nor less accurate than any other one calculating the same
+ * statistic on the same dataset form the Pareto front and are flagged.
+ * <p>
+ * Usage: {@code java -Dbench.pareto=pareto.csv -Dbench.tolerance=1e-15 -cp benchmarks.jar bench.accuracy.ParetoTable
+ * [JMH options]}, the status column is that of {@link Utils#returnRelativeAccuracyStatus(double, double, double)} for
+ * the given tolerance.
+ */
+public final class ParetoTable {
+    static final String HEADER = "dataset,size,condition,statistic,algorithm,ns_per_element,ns_per_element_error,"
+        + "relative_error,status,pareto";
+
+    private ParetoTable() {
+    }
+
+    /**
+     * A line of the table.
+     *
+     * @param nsPerElement      The average time per element.
+     * @param nsPerElementError The half-width of its 99.9% confidence interval.
+     */
+    record Row(Dataset dataset, int size, double condition, Algorithm algorithm, double nsPerElement,
+               double nsPerElementError, double relativeError, int status, boolean pareto) {
+        @Override
+        public String toString() {
+            return String.join(",", dataset.name(), Integer.toString(size), Double.toString(condition),
+                algorithm.statistic.name(), algorithm.name(), Double.toString(nsPerElement),
+                Double.toString(nsPerElementError), Double.toString(relativeError), Integer.toString(status),
+                Boolean.toString(pareto));
+        }
+    }
+
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        val options = new OptionsBuilder().parent(new CommandLineOptions(args))
+            .include(AccuracyBenchmark.class.getName()).build();
+        val results = new Runner(options).run();
+        val timings = new EnumMap<Dataset, Map<Algorithm, double[]>>(Dataset.class);
+        for (val result : results)
+            timings.computeIfAbsent(Dataset.valueOf(result.getParams().getParam("dataset")),
+                    d -> new EnumMap<>(Algorithm.class))
+                .put(Algorithm.valueOf(result.getParams().getParam("algorithm")), score(result));
+
+        val tolerance = Double.parseDouble(System.getProperty("bench.tolerance", "1e-15"));
+        val lines = new ArrayList<String>();
+        lines.add(HEADER);
+        for (val row : rows(timings, tolerance)) lines.add(row.toString());
+        Files.write(Path.of(System.getProperty("bench.pareto", "pareto.csv")), lines);
+    }
+
+    private static double[] score(final RunResult result) {
+        val primary = result.getPrimaryResult();
+        return new double[]{primary.getScore(), primary.getScoreError()};
+    }
+
+    /**
+     * Measures errors of timed algorithms and finds the Pareto front.
+     *
+     * @param timings   Average times and their errors in nanoseconds per call.
+     * @param tolerance The relative error tolerated by the status column.
+     * @return Rows ordered by dataset, statistic and speed.
+     */
+    static @NonNull List<Row> rows(final @NonNull Map<Dataset, Map<Algorithm, double[]>> timings,
+                                   final double tolerance) {
+        val rows = new ArrayList<Row>();
+        for (val entry : timings.entrySet()) {
+            val x = entry.getKey().load();
+            val vectors = Algorithm.pack(x);
+            val condition = Dataset.condition(x);
+            val exact = new EnumMap<Statistic, BigDecimal>(Statistic.class);
+            val group = new ArrayList<Row>();
+            for (val timing : entry.getValue().entrySet()) {
+                val algorithm = timing.getKey();
+                val reference = exact.computeIfAbsent(algorithm.statistic, s -> s.exact(x));
+                val result = algorithm.apply(x, vectors);
+                group.add(new Row(entry.getKey(), x.length, condition, algorithm, timing.getValue()[0] / x.length,
+                    timing.getValue()[1] / x.length, Statistic.relativeError(result, reference),
+                    Utils.returnRelativeAccuracyStatus(result, reference.doubleValue(), tolerance), false));
+            }
+            for (val row : group) rows.add(dominated(row, group) ? row : withPareto(row));
+        }
+        rows.sort(Comparator.comparing(Row::dataset).thenComparing(r -> r.algorithm().statistic)
+            .thenComparingDouble(Row::nsPerElement));
+        return rows;
+    }
+
+    private static boolean dominated(final Row row, final List<Row> group) {
+        for (val other : group)
+            if (other.algorithm().statistic == row.algorithm().statistic
+                && other.nsPerElement() <= row.nsPerElement() && other.relativeError() <= row.relativeError()
+                && (other.nsPerElement() < row.nsPerElement() || other.relativeError() < row.relativeError()))
+                return true;
+        return false;
+    }
+
+    private static Row withPareto(final Row row) {
+        return new Row(row.dataset(), row.size(), row.condition(), row.algorithm(), row.nsPerElement(),
+            row.nsPerElementError(), row.relativeError(), row.status(), true);
+    }
+}
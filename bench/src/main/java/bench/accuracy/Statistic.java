@@ -0,0 +1,62 @@
+package bench.accuracy;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * Statistics whose accuracy is measured, with exact references calculated in arbitrary precision over the very same
+ * {@code double} values the algorithms see.
+ */
+public enum Statistic {
+    SUM,
+    MEAN,
+    /**
+     * The sample (unbiased) variance.
+     */
+    VARIANCE;
+
+    /**
+     * Enough digits to make rounding of the reference negligible for any condition number a {@code double} sum can
+     * have.
+     */
+    static final MathContext PRECISION = new MathContext(128);
+
+    /**
+     * @param x Data, at least two values.
+     * @return The reference value, exact for sums and correct to {@link #PRECISION} digits otherwise.
+     */
+    public @NonNull BigDecimal exact(final double @NonNull [] x) {
+        val sum = exactSum(x);
+        return switch (this) {
+            case SUM -> sum;
+            case MEAN -> sum.divide(BigDecimal.valueOf(x.length), PRECISION);
+            case VARIANCE -> {
+                val mean = sum.divide(BigDecimal.valueOf(x.length), PRECISION);
+                var squares = BigDecimal.ZERO;
+                for (val v : x) {
+                    val d = new BigDecimal(v).subtract(mean);
+                    squares = squares.add(d.multiply(d), PRECISION);
+                }
+                yield squares.divide(BigDecimal.valueOf(x.length - 1L), PRECISION);
+            }
+        };
+    }
+
+    static @NonNull BigDecimal exactSum(final double @NonNull [] x) {
+        var sum = BigDecimal.ZERO;
+        for (val v : x) sum = sum.add(new BigDecimal(v));
+        return sum;
+    }
+
+    /**
+     * @return {@code |result - exact| / |exact|}, or the absolute error when the exact value is zero.
+     */
+    static double relativeError(final double result, final @NonNull BigDecimal exact) {
+        if (!Double.isFinite(result)) return Double.POSITIVE_INFINITY;
+        val error = new BigDecimal(result).subtract(exact).abs();
+        return exact.signum() == 0 ? error.doubleValue() : error.divide(exact.abs(), PRECISION).doubleValue();
+    }
+}
@@ -0,0 +1,157 @@
+package bench.regression;
+
+import lombok.NonNull;
+import lombok.val;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Runs a quick subset of the benchmarks and compares average times with a stored baseline, the process exits with
+ * status 1 when any benchmark is slower than the baseline by more than a threshold or has no baseline at all, so that
+ * a missing or stale baseline can't let slowdowns through. No baseline is committed, the gate refuses to run until one
+ * is recorded.
+ * <p>
+ * System properties:
+ * <ul>
+ *     <li>{@code bench.baseline}: the baseline file, {@code baseline.json} by default;</li>
+ *     <li>{@code bench.threshold}: the tolerated relative slowdown, {@code 0.1} by default;</li>
+ *     <li>{@code bench.update}: when {@code true}, the baseline is overwritten with new results instead, this is the
+ *     only way to bootstrap it.</li>
+ * </ul>
+ * Baselines are only comparable on the same hardware and JVM, record them where the gate runs. The file is a flat
+ * JSON object that maps {@code benchmark:param=value,...} keys to average times in nanoseconds.
+ */
+public final class RegressionGate {
+    /**
+     * Benchmarks under guard.
+     */
+    static final String[] INCLUDES = {
+        "^bench\\.SumBenchmark\\.sum$",
+        "^bench\\.MeanBenchmark\\.mean$",
+        "^bench\\.VarianceBenchmark\\.",
+        "^bench\\.ProductBenchmark\\.product(Int|Long)?$"
+    };
+
+    /**
+     * Sizes around the hard-coded thresholds of the library, e.g., the one of {@code Product}, and a large one.
+     */
+    static final String[] SIZES = {"1000", "4000", "6000", "100000", "10000000"};
+
+    private static final Pattern ENTRY = Pattern.compile("\"([^\"]+)\"\\s*:\\s*([-+0-9.eE]+)");
+
+    private RegressionGate() {
+    }
+
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        val baseline = Path.of(System.getProperty("bench.baseline", "baseline.json"));
+        val threshold = Double.parseDouble(System.getProperty("bench.threshold", "0.1"));
+        val update = Boolean.getBoolean("bench.update");
+        if (!update && !Files.exists(baseline)) {
+            System.out.printf("No baseline at %s, record one on the machine that runs the gate with "
+                + "-Dbench.update=true -Dbench.baseline=%<s.%n", baseline);
+            System.exit(1);
+        }
+
+        val options = new OptionsBuilder().parent(new CommandLineOptions(args))
+            .param("size", SIZES)
+            .param("distribution", "UNIFORM")
+            .mode(Mode.AverageTime)
+            .timeUnit(TimeUnit.NANOSECONDS)
+            .forks(1)
+            .warmupIterations(2)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.seconds(1));
+        for (val include : INCLUDES) options.include(include);
+        val results = new Runner(options.build()).run();
+
+        if (update) {
+            val scores = new TreeMap<String, Double>();
+            for (val result : results) scores.put(key(result), result.getPrimaryResult().getScore());
+            Files.writeString(baseline, write(scores));
+            return;
+        }
+        val current = new TreeMap<String, double[]>();
+        for (val result : results) {
+            val primary = result.getPrimaryResult();
+            current.put(key(result), new double[]{primary.getScore(), primary.getScoreError()});
+        }
+        val reference = read(Files.readString(baseline));
+        val failures = compare(reference, current, threshold, System.out);
+        if (failures > 0) {
+            System.out.printf("%d benchmark(s) regressed beyond %.0f%% or have no baseline in %s, record missing "
+                + "ones with -Dbench.update=true on this machine.%n", failures, threshold * 100., baseline);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * @return The name of the benchmark followed by its parameters in alphabetical order.
+     */
+    static @NonNull String key(final @NonNull RunResult result) {
+        val params = result.getParams();
+        return params.getBenchmark() + ":" + params.getParamsKeys().stream().sorted()
+            .map(k -> k + "=" + params.getParam(k)).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Compares new results with the baseline. A benchmark regresses when even the lower bound of the confidence
+     * interval of its time is above the baseline by more than {@code threshold}, so that noise alone doesn't fail the
+     * gate.
+     *
+     * @param baseline  Average times by benchmark keys.
+     * @param current   Average times and half-widths of their confidence intervals by benchmark keys.
+     * @param threshold The tolerated relative slowdown.
+     * @param out       A report with changes of throughput is printed here.
+     * @return The number of regressions plus the number of benchmarks missing from the baseline.
+     */
+    static int compare(final @NonNull Map<String, Double> baseline, final @NonNull Map<String, double[]> current,
+                       final double threshold, final @NonNull PrintStream out) {
+        var regressions = 0;
+        for (val entry : current.entrySet()) {
+            val reference = baseline.get(entry.getKey());
+            val score = entry.getValue()[0];
+            if (reference == null) {
+                regressions++;
+                out.printf("MISSING     %s: %.1f ns, no baseline%n", entry.getKey(), score);
+                continue;
+            }
+            val regressed = score - entry.getValue()[1] > reference * (1. + threshold);
+            if (regressed) regressions++;
+            out.printf("%-11s %s: %.1f ns vs %.1f ns, throughput %+.1f%%%n", regressed ? "REGRESSION" : "OK",
+                entry.getKey(), score, reference, (reference / score - 1.) * 100.);
+        }
+        return regressions;
+    }
+
+    /**
+     * @param json A flat JSON object with numeric values.
+     * @return Its entries.
+     */
+    static @NonNull Map<String, Double> read(final @NonNull String json) {
+        val scores = new TreeMap<String, Double>();
+        val matcher = ENTRY.matcher(json);
+        while (matcher.find()) scores.put(matcher.group(1), Double.parseDouble(matcher.group(2)));
+        return scores;
+    }
+
+    static @NonNull String write(final @NonNull SortedMap<String, Double> scores) {
+        return scores.entrySet().stream().map(e -> "  \"" + e.getKey() + "\": " + e.getValue())
+            .collect(Collectors.joining(",\n", "{\n", "\n}\n"));
+    }
+}
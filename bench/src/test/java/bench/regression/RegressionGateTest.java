@@ -0,0 +1,62 @@
+package bench.regression;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegressionGateTest {
+    private static int compare(final Map<String, Double> baseline, final Map<String, double[]> current,
+                               final StringBuilder report) {
+        val bytes = new ByteArrayOutputStream();
+        val failures = RegressionGate.compare(baseline, current, 0.1, new PrintStream(bytes, true,
+            StandardCharsets.UTF_8));
+        report.append(bytes.toString(StandardCharsets.UTF_8));
+        return failures;
+    }
+
+    @Test
+    @DisplayName("Test parsing of baselines")
+    void read() {
+        assertTrue(RegressionGate.read("{\n}\n").isEmpty(), "An empty baseline has no entries.");
+        val scores = RegressionGate.read("{\"bench.SumBenchmark.sum:distribution=UNIFORM,size=10\": 12.5, "
+            + "\"bench.MeanBenchmark.mean:size=1000\" : 1.5E3, \"x\": -2e-1}");
+        assertEquals(3, scores.size(), "Wrong number of entries.");
+        assertEquals(12.5, (double) scores.get("bench.SumBenchmark.sum:distribution=UNIFORM,size=10"), "Wrong score.");
+        assertEquals(1500., (double) scores.get("bench.MeanBenchmark.mean:size=1000"), "Exponents must be parsed.");
+        assertEquals(-0.2, (double) scores.get("x"), "Signs must be parsed.");
+
+        val written = new TreeMap<String, Double>();
+        written.put("a:size=1", 1.25);
+        written.put("b:size=2", 3e10);
+        assertEquals(written, RegressionGate.read(RegressionGate.write(written)),
+            "Written baselines must be read back.");
+    }
+
+    @Test
+    @DisplayName("Test that slowdowns and missing baselines fail the gate")
+    void compare() {
+        val baseline = Map.of("fast", 100., "slow", 100., "noisy", 100.);
+        val report = new StringBuilder();
+        assertEquals(0, compare(baseline, Map.of("fast", new double[]{90., 1.}), report), "Speedups must pass.");
+        assertEquals(0, compare(baseline, Map.of("fast", new double[]{109., 1.}), report),
+            "Slowdowns within the threshold must pass.");
+        assertEquals(1, compare(baseline, Map.of("slow", new double[]{120., 5.}), report),
+            "Slowdowns beyond the threshold must fail.");
+        assertEquals(0, compare(baseline, Map.of("noisy", new double[]{120., 15.}), report),
+            "Slowdowns within the noise must pass.");
+        assertEquals(1, compare(baseline, Map.of("new", new double[]{1., 0.}), report),
+            "Benchmarks without a baseline must fail.");
+        assertEquals(2, compare(Map.of(), Map.of("a", new double[]{1., 0.}, "b", new double[]{1., 0.}), report),
+            "An empty baseline must fail every benchmark.");
+        assertTrue(report.toString().contains("REGRESSION  slow"), "Regressions must be reported.");
+        assertTrue(report.toString().contains("MISSING     new"), "Missing baselines must be reported.");
+    }
+}
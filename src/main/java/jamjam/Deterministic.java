@@ -0,0 +1,341 @@
+package jamjam;
+
+import jamjam.metrics.CodePath;
+import jamjam.metrics.Instrumentation;
+import jamjam.metrics.SummationEvent;
+import jamjam.metrics.VarianceEvent;
+import jamjam.simd.Simd;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static jamjam.aux.Utils.MomentQualifiers.*;
+import static jamjam.aux.Utils.momentLengthCheck;
+import static java.lang.StrictMath.abs;
+
+/**
+ * Bitwise reproducible versions of {@link Sum}, {@link Mean} and {@link Variance}: the result depends on the input
+ * only, neither on the number of threads nor on the width of vectors, so reruns on other hardware match exactly.
+ * <p>
+ * The input is split into blocks of {@link #BLOCK_SIZE} values, inside a block value {@code i} goes to lane
+ * {@code i % LANES}. Every lane is a compensated sum; lanes, leftovers that don't fill all lanes and lane correctors
+ * are then added up in this order. Partial sums of blocks are combined by a pairwise tree of a fixed shape. Vectors
+ * of any width evaluate exactly the same operations for every lane as the scalar code does, and threads only change
+ * the order in which blocks are processed, not the way they are combined. Single precision values are widened to
+ * double lane by lane and accumulated the same way, so a {@code float[]} gives the same bits as its widened copy.
+ *
+ * @implNote Results are as accurate as those of {@link Sum#sum(double...)}, but not bitwise equal to them, the order
+ * of operations is different. No fused multiply-add is used, thus the scheme is portable across JVMs.
+ */
+public final class Deterministic {
+    /**
+     * The number of partial sums in a block, fixed regardless of the hardware, a multiple of any supported vector
+     * length.
+     */
+    public static final int LANES = 16;
+
+    /**
+     * The number of values in a block, blocks fit into L1 cache and are processed by a single thread.
+     */
+    public static final int BLOCK_SIZE = 4096;
+
+    private Deterministic() {
+    }
+
+    /**
+     * @see #sum(double[], boolean)
+     */
+    public static double sum(final double @NonNull ... x) {
+        return sum(x, false);
+    }
+
+    /**
+     * Calculates a reproducible compensated sum.
+     *
+     * @param x        An array of doubles.
+     * @param parallel When {@code true}, blocks are processed on the common fork/join pool, the result is the same.
+     * @return total sum, -Inf, Inf, or NaN.
+     * @throws NullPointerException When the input is {@code null}.
+     * @implNote Special values are handled as in {@link Sum#sum(double...)}.
+     */
+    public static double sum(final double @NonNull [] x, final boolean parallel) {
+        val probe = Instrumentation.start(new SummationEvent());
+        val result = reduce(x, 0., false, parallel);
+        Instrumentation.record(probe, "Deterministic.sum", path(parallel), x.length, scratchBytes(x.length));
+        return result;
+    }
+
+    /**
+     * @see #mean(double[], boolean)
+     */
+    public static double mean(final double @NonNull ... x) {
+        return mean(x, false);
+    }
+
+    /**
+     * Calculates a reproducible arithmetic average.
+     *
+     * @param x        An array of doubles.
+     * @param parallel When {@code true}, blocks are processed on the common fork/join pool, the result is the same.
+     * @return mean, Inf, -Inf, or NaN.
+     * @throws NullPointerException     When the input is {@code null}.
+     * @throws IllegalArgumentException When the input is empty.
+     */
+    public static double mean(final double @NonNull [] x, final boolean parallel) {
+        momentLengthCheck(x.length, MEAN);
+        return sum(x, parallel) / x.length;
+    }
+
+    /**
+     * @see #unweightedBiasedVariance(double[], boolean)
+     */
+    public static double unweightedBiasedVariance(final double @NonNull ... x) {
+        return unweightedBiasedVariance(x, false);
+    }
+
+    /**
+     * Calculates a reproducible population (biased) variance in two passes, the mean is that of
+     * {@link #mean(double[], boolean)}.
+     *
+     * @param x        An array of doubles.
+     * @param parallel When {@code true}, blocks are processed on the common fork/join pool, the result is the same.
+     * @return The variance.
+     * @throws NullPointerException     When the input is {@code null}.
+     * @throws IllegalArgumentException When the input is empty.
+     */
+    public static double unweightedBiasedVariance(final double @NonNull [] x, final boolean parallel) {
+        momentLengthCheck(x.length, UNWEIGHTED_BIASED_VARIANCE);
+        return variance(x, parallel, x.length, "Deterministic.unweightedBiasedVariance");
+    }
+
+    /**
+     * @see #unweightedUnbiasedVariance(double[], boolean)
+     */
+    public static double unweightedUnbiasedVariance(final double @NonNull ... x) {
+        return unweightedUnbiasedVariance(x, false);
+    }
+
+    /**
+     * Calculates a reproducible sample (unbiased) variance in two passes, the mean is that of
+     * {@link #mean(double[], boolean)}.
+     *
+     * @param x        An array of doubles.
+     * @param parallel When {@code true}, blocks are processed on the common fork/join pool, the result is the same.
+     * @return The variance.
+     * @throws NullPointerException     When the input is {@code null}.
+     * @throws IllegalArgumentException When there are fewer than two values.
+     */
+    public static double unweightedUnbiasedVariance(final double @NonNull [] x, final boolean parallel) {
+        momentLengthCheck(x.length, UNWEIGHTED_UNBIASED_VARIANCE);
+        return variance(x, parallel, x.length - 1, "Deterministic.unweightedUnbiasedVariance");
+    }
+
+    /**
+     * Calculates a reproducible compensated sum of single precision values, they are widened to double lane-wise, no
+     * copy of the input is made.
+     *
+     * @see #sum(double[], boolean)
+     */
+    public static double sum(final float @NonNull [] x, final boolean parallel) {
+        val probe = Instrumentation.start(new SummationEvent());
+        val result = reduce(x, 0., false, parallel);
+        Instrumentation.record(probe, "Deterministic.sum", path(parallel), x.length, scratchBytes(x.length));
+        return result;
+    }
+
+    /**
+     * @see #mean(double[], boolean)
+     */
+    public static double mean(final float @NonNull [] x, final boolean parallel) {
+        momentLengthCheck(x.length, MEAN);
+        return sum(x, parallel) / x.length;
+    }
+
+    /**
+     * @see #unweightedBiasedVariance(double[], boolean)
+     */
+    public static double unweightedBiasedVariance(final float @NonNull [] x, final boolean parallel) {
+        momentLengthCheck(x.length, UNWEIGHTED_BIASED_VARIANCE);
+        return variance(x, parallel, x.length, "Deterministic.unweightedBiasedVariance");
+    }
+
+    /**
+     * @see #unweightedUnbiasedVariance(double[], boolean)
+     */
+    public static double unweightedUnbiasedVariance(final float @NonNull [] x, final boolean parallel) {
+        momentLengthCheck(x.length, UNWEIGHTED_UNBIASED_VARIANCE);
+        return variance(x, parallel, x.length - 1, "Deterministic.unweightedUnbiasedVariance");
+    }
+
+    private static double variance(final double[] x, final boolean parallel, final int denominator,
+                                   final String kernel) {
+        val probe = Instrumentation.start(new VarianceEvent());
+        val mean = reduce(x, 0., false, parallel) / x.length;
+        val variance = reduce(x, mean, true, parallel) / denominator;
+        Instrumentation.record(probe, kernel, path(parallel), x.length, 2 * scratchBytes(x.length));
+        return variance;
+    }
+
+    private static double variance(final float[] x, final boolean parallel, final int denominator,
+                                   final String kernel) {
+        val probe = Instrumentation.start(new VarianceEvent());
+        val mean = reduce(x, 0., false, parallel) / x.length;
+        val variance = reduce(x, mean, true, parallel) / denominator;
+        Instrumentation.record(probe, kernel, path(parallel), x.length, 2 * scratchBytes(x.length));
+        return variance;
+    }
+
+    /**
+     * Sums up either values or squared deviations from {@code shift}.
+     */
+    static double reduce(final double[] x, final double shift, final boolean squares, final boolean parallel) {
+        return reduce(x.length, parallel, (block, partials) -> block(x, block, shift, squares, partials));
+    }
+
+    /**
+     * @see #reduce(double[], double, boolean, boolean)
+     */
+    static double reduce(final float[] x, final double shift, final boolean squares, final boolean parallel) {
+        return reduce(x.length, parallel, (block, partials) -> block(x, block, shift, squares, partials));
+    }
+
+    /**
+     * Reduces a single block into {@code partials}.
+     */
+    @FunctionalInterface
+    private interface Block {
+        void reduce(int block, double[] partials);
+    }
+
+    private static double reduce(final int length, final boolean parallel, final Block block) {
+        if (length == 0) return 0.;
+        val blocks = blocks(length);
+        val partials = new double[2 * blocks];
+        if (parallel && blocks > 1) IntStream.range(0, blocks).parallel().forEach(b -> block.reduce(b, partials));
+        else for (var b = 0; b < blocks; b++) block.reduce(b, partials);
+
+        for (var width = 1; width < blocks; width <<= 1)
+            for (var b = 0; b + width < blocks; b += width << 1) merge(partials, b, b + width);
+        return partials[0] - partials[1];
+    }
+
+    /**
+     * Stores the uncorrected sum and the corrector of a block at {@code 2 * block} and {@code 2 * block + 1}.
+     */
+    private static void block(final double[] x, final int block, final double shift, final boolean squares,
+                              final double[] partials) {
+        val from = block * BLOCK_SIZE;
+        val to = (int) Math.min((long) from + BLOCK_SIZE, x.length);
+        val bound = from + ((to - from) & -LANES);
+        val sums = sums();
+        val correctors = new double[LANES];
+        if (Simd.isVectorized()) VectorDeterministic.lanes(x, from, bound, shift, squares, sums, correctors);
+        else lanes(x, from, bound, shift, squares, sums, correctors);
+
+        val acc = new Sum.Accumulator();
+        for (val s : sums) acc.sum(s);
+        for (var i = bound; i < to; i++) acc.sum(term(x[i], shift, squares));
+        store(acc, correctors, block, partials);
+    }
+
+    /**
+     * @see #block(double[], int, double, boolean, double[])
+     */
+    private static void block(final float[] x, final int block, final double shift, final boolean squares,
+                              final double[] partials) {
+        val from = block * BLOCK_SIZE;
+        val to = (int) Math.min((long) from + BLOCK_SIZE, x.length);
+        val bound = from + ((to - from) & -LANES);
+        val sums = sums();
+        val correctors = new double[LANES];
+        if (Simd.isVectorized()) VectorDeterministic.lanes(x, from, bound, shift, squares, sums, correctors);
+        else lanes(x, from, bound, shift, squares, sums, correctors);
+
+        val acc = new Sum.Accumulator();
+        for (val s : sums) acc.sum(s);
+        for (var i = bound; i < to; i++) acc.sum(term(x[i], shift, squares));
+        store(acc, correctors, block, partials);
+    }
+
+    private static double[] sums() {
+        val sums = new double[LANES];
+        Arrays.fill(sums, -0.d);
+        return sums;
+    }
+
+    private static void store(final Sum.Accumulator acc, final double[] correctors, final int block,
+                              final double[] partials) {
+        for (val c : correctors) acc.sum(-c);
+        partials[2 * block] = acc.getUncorrectedSum();
+        partials[2 * block + 1] = acc.getCorrector();
+    }
+
+    private static double term(final double v, final double shift, final boolean squares) {
+        if (!squares) return v;
+        val d = v - shift;
+        return d * d;
+    }
+
+    /**
+     * The scalar kernel, {@code from} is a multiple of {@link #LANES} and so is {@code to - from}.
+     *
+     * @implSpec {@link VectorDeterministic#lanes} must evaluate exactly the same operations for every lane.
+     */
+    static void lanes(final double[] x, final int from, final int to, final double shift, final boolean squares,
+                      final double[] sums, final double[] correctors) {
+        double v, s, t;
+        int lane;
+        for (var i = from; i < to; i++) {
+            lane = i & (LANES - 1);
+            v = term(x[i], shift, squares);
+            s = sums[lane];
+            t = s + v;
+            correctors[lane] -= abs(s) >= abs(v) ? (s - t) + v : (v - t) + s;
+            sums[lane] = t;
+        }
+    }
+
+    /**
+     * @see #lanes(double[], int, int, double, boolean, double[], double[])
+     */
+    static void lanes(final float[] x, final int from, final int to, final double shift, final boolean squares,
+                      final double[] sums, final double[] correctors) {
+        double v, s, t;
+        int lane;
+        for (var i = from; i < to; i++) {
+            lane = i & (LANES - 1);
+            v = term(x[i], shift, squares);
+            s = sums[lane];
+            t = s + v;
+            correctors[lane] -= abs(s) >= abs(v) ? (s - t) + v : (v - t) + s;
+            sums[lane] = t;
+        }
+    }
+
+    /**
+     * Adds the partial sum of the right block to the one of the left block with compensation.
+     */
+    private static void merge(final double[] partials, final int left, final int right) {
+        val a = partials[2 * left];
+        val b = partials[2 * right];
+        val t = a + b;
+        val error = abs(a) >= abs(b) ? (a - t) + b : (b - t) + a;
+        partials[2 * left] = t;
+        partials[2 * left + 1] = (partials[2 * left + 1] + partials[2 * right + 1]) - error;
+    }
+
+    private static int blocks(final int length) {
+        return (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    }
+
+    static long scratchBytes(final int length) {
+        return length == 0 ? 0L : 16L * blocks(length);
+    }
+
+    private static CodePath path(final boolean parallel) {
+        if (Simd.isVectorized()) return parallel ? CodePath.PARALLEL_VECTOR : CodePath.VECTOR;
+        return parallel ? CodePath.PARALLEL_SCALAR : CodePath.SCALAR;
+    }
+}
@@ -0,0 +1,136 @@
+package jamjam;
+
+import jamjam.simd.Simd;
+import lombok.NonNull;
+import lombok.val;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import static java.lang.Double.isInfinite;
+import static java.lang.Double.isNaN;
+
+/**
+ * Exact first and second raw moments of integer samples. The sum and the sum of squares are accumulated in integer
+ * words wide enough to never overflow for any array length, i.e., 64 bits for sums of ints, 128 bits for sums of
+ * longs and squares of ints, and 192 bits for squares of longs. Means and variances are then evaluated as exact
+ * rationals and converted to double only at the end, no intermediate {@code double[]} is allocated.
+ */
+final class IntegerMoments {
+    /**
+     * Squares of ints are split into their lowest bits and the rest, so that both parts fit into 63 bits when summed up
+     * over {@link Integer#MAX_VALUE} elements.
+     */
+    static final int LOW_BITS = 31;
+
+    static final long LOW_MASK = (1L << LOW_BITS) - 1;
+
+    /**
+     * Enough digits for the quotient not to be affected by the final rounding to double.
+     */
+    private static final MathContext CONTEXT = new MathContext(40, RoundingMode.HALF_EVEN);
+
+    private static final BigInteger WORD = BigInteger.ONE.shiftLeft(Long.SIZE);
+
+    private IntegerMoments() {
+    }
+
+    /**
+     * The sample size, the sum and the sum of squares.
+     */
+    record Moments(long count, @NonNull BigInteger sum, @NonNull BigInteger squares) {
+        /**
+         * @return The arithmetic average rounded to double.
+         */
+        double mean() {
+            if (sum.bitLength() <= 53) return sum.doubleValue() / count;
+            return quotient(new BigDecimal(sum), BigDecimal.valueOf(count));
+        }
+
+        /**
+         * @param expectedMean Precalculated mean, when it's {@code NaN} or {@code +/-Inf} the exact mean of the sample
+         *                     is used.
+         * @param denominator  {@code n} for the biased variance, {@code n - 1} for the unbiased one.
+         * @return The sum of squared deviations from the mean divided by {@code denominator}.
+         * @implSpec Deviations from the exact mean are {@code (n Σx² - (Σx)²) / n}; from any finite double {@code m}
+         * they are {@code Σx² - 2mΣx + nm²}, both are evaluated without rounding.
+         */
+        double variance(final double expectedMean, final long denominator) {
+            if (isNaN(expectedMean) || isInfinite(expectedMean)) {
+                val n = BigInteger.valueOf(count);
+                return quotient(new BigDecimal(n.multiply(squares).subtract(sum.multiply(sum))),
+                    new BigDecimal(n.multiply(BigInteger.valueOf(denominator))));
+            }
+            val mean = new BigDecimal(expectedMean);
+            val deviations = new BigDecimal(squares).subtract(mean.multiply(new BigDecimal(sum.shiftLeft(1))))
+                .add(mean.multiply(mean).multiply(BigDecimal.valueOf(count)));
+            return quotient(deviations, BigDecimal.valueOf(denominator));
+        }
+    }
+
+    /**
+     * @return Exact moments of the sample.
+     * @implNote Vectorized when {@link Simd#isVectorized()} is {@code true}: ints are widened to long lanes.
+     */
+    static @NonNull Moments of(final int @NonNull [] x) {
+        val words = new long[3];
+        if (Simd.isVectorized()) VectorIntegerMoments.moments(x, words);
+        else moments(x, 0, x.length, words);
+        return new Moments(x.length, BigInteger.valueOf(words[0]),
+            BigInteger.valueOf(words[2]).shiftLeft(LOW_BITS).add(BigInteger.valueOf(words[1])));
+    }
+
+    /**
+     * @return Exact moments of the sample.
+     * @implNote Squares of longs take {@link Math#multiplyHigh(long, long)}, which has no vector counterpart, so this
+     * kernel is scalar.
+     */
+    static @NonNull Moments of(final long @NonNull [] x) {
+        long sumLow = 0, sumHigh = 0, low = 0, middle = 0, high = 0, s, carry;
+        for (val v : x) {
+            // The sum is a signed 128-bit integer, v is sign-extended
+            s = sumLow + v;
+            sumHigh += (v >> 63) + (Long.compareUnsigned(s, sumLow) < 0 ? 1 : 0);
+            sumLow = s;
+
+            // The sum of squares is an unsigned 192-bit integer, squares are below 2^126
+            s = low + v * v;
+            carry = Long.compareUnsigned(s, low) < 0 ? 1 : 0;
+            low = s;
+            s = middle + Math.multiplyHigh(v, v) + carry;
+            if (Long.compareUnsigned(s, middle) < 0) high++;
+            middle = s;
+        }
+        return new Moments(x.length, BigInteger.valueOf(sumHigh).shiftLeft(Long.SIZE).add(unsigned(sumLow)),
+            BigInteger.valueOf(high).shiftLeft(Long.SIZE).add(unsigned(middle)).shiftLeft(Long.SIZE)
+                .add(unsigned(low)));
+    }
+
+    /**
+     * Adds the sum, the lowest {@link #LOW_BITS} bits of squares and the rest of squares of {@code x[from:to]} to
+     * {@code words}.
+     */
+    static void moments(final int[] x, final int from, final int to, final long[] words) {
+        long sum = 0, low = 0, high = 0, square;
+        for (var i = from; i < to; i++) {
+            sum += x[i];
+            square = (long) x[i] * x[i];
+            low += square & LOW_MASK;
+            high += square >>> LOW_BITS;
+        }
+        words[0] += sum;
+        words[1] += low;
+        words[2] += high;
+    }
+
+    private static BigInteger unsigned(final long word) {
+        val value = BigInteger.valueOf(word);
+        return word < 0 ? value.add(WORD) : value;
+    }
+
+    private static double quotient(final BigDecimal dividend, final BigDecimal divisor) {
+        return dividend.divide(divisor, CONTEXT).doubleValue();
+    }
+}
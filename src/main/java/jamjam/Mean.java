@@ -5,8 +5,6 @@ import lombok.NonNull;
 import lombok.val;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Arrays;
-
 import static jamjam.Sum.sum;
 import static jamjam.arrays.Product.product;
 import static jamjam.aux.Utils.lengthParity;
@@ -30,19 +28,46 @@ public final class Mean {
     public static double weightedMean(final double @NonNull [] x, final double @Nullable [] weights) {
         momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
         if (weights != null) {
-            lengthParity(x.length, weights.length);
-            val sw = sum(weights);
-            if (sw == 0.) throw new ArithmeticException("Division by zero is encountered.");
-            return sum(product(x, weights)) / sum(weights);
+            val sw = weightSum(x.length, weights);
+            return sum(product(x, weights)) / sw;
         } else return mean(x);
     }
 
+    /**
+     * @implSpec Integers are multiplied by weights as they are, the same way as by
+     * {@link jamjam.arrays.Product#product(double[], int[])}, the only scratch array is that of products.
+     * @see #weightedMean(double[], double[])
+     * @see #mean(int[])
+     */
     public static double weightedMean(final int @NonNull [] x, final double @Nullable [] weights) {
-        return weightedMean(Arrays.stream(x).asDoubleStream().toArray(), weights);
+        if (weights == null) return mean(x);
+        momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
+        val sw = weightSum(x.length, weights);
+        return sum(product(weights, x)) / sw;
     }
 
+    /**
+     * @implSpec Longs are rounded to double when multiplied, see {@link #weightedMean(int[], double[])}.
+     * @see #weightedMean(double[], double[])
+     * @see #mean(long[])
+     */
     public static double weightedMean(final long @NonNull [] x, final double @Nullable [] weights) {
-        return weightedMean(Arrays.stream(x).asDoubleStream().toArray(), weights);
+        if (weights == null) return mean(x);
+        momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
+        val sw = weightSum(x.length, weights);
+        return sum(product(weights, x)) / sw;
+    }
+
+    /**
+     * @return The compensated sum of weights.
+     * @throws IllegalArgumentException When lengths differ.
+     * @throws ArithmeticException      When weights add up to zero.
+     */
+    private static double weightSum(final int length, final double[] weights) {
+        lengthParity(length, weights.length);
+        val sw = sum(weights);
+        if (sw == 0.) throw new ArithmeticException("Division by zero is encountered.");
+        return sw;
     }
 
     /**
@@ -54,9 +79,82 @@ public final class Mean {
      * @implSpec Based on the most accurate numerical scheme for mean, slower than the naive version, but faster than
      * more sophisticated options.
      * @implNote Might result in Inf, -Inf, or NaN if the input is poorly filtered
+     * @see Deterministic#mean(double[], boolean)
      */
     public static double mean(final double @NonNull [] x) {
         momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
         return sum(x) / x.length;
     }
+
+    /**
+     * Calculates arithmetic average of single precision values in double precision.
+     *
+     * @param x An array of floats.
+     * @return mean, Inf, -Inf, or NaN.
+     * @throws NullPointerException When the input is {@code null}.
+     * @see Sum#sum(float[])
+     */
+    public static double mean(final float @NonNull [] x) {
+        momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
+        return sum(x) / x.length;
+    }
+
+    /**
+     * Calculates the exact arithmetic average of ints rounded to double.
+     *
+     * @param x An array of ints.
+     * @return mean.
+     * @throws NullPointerException When the input is {@code null}.
+     * @implSpec The sum is accumulated in long lanes, it can't overflow.
+     */
+    public static double mean(final int @NonNull [] x) {
+        momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
+        return IntegerMoments.of(x).mean();
+    }
+
+    /**
+     * Calculates the exact arithmetic average of longs rounded to double, even when the sum doesn't fit into a long.
+     *
+     * @param x An array of longs.
+     * @return mean.
+     * @throws NullPointerException When the input is {@code null}.
+     * @implSpec The sum is accumulated in 128 bits.
+     */
+    public static double mean(final long @NonNull [] x) {
+        momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
+        return IntegerMoments.of(x).mean();
+    }
+
+    /**
+     * Calculates the arithmetic average of values that are not {@code NaN} in one pass.
+     *
+     * @param x An array of doubles.
+     * @return mean, Inf, -Inf, or NaN when all values are NaN, and the number of values that are not NaN.
+     * @throws NullPointerException     When the input is {@code null}.
+     * @throws IllegalArgumentException When the input is empty.
+     * @see Sum#nanSum(double...)
+     */
+    public static @NonNull NanReduction nanMean(final double @NonNull [] x) {
+        momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
+        val sum = Sum.nanSum(x);
+        return new NanReduction(sum.count() == 0 ? Double.NaN : sum.value() / sum.count(), sum.count());
+    }
+
+    /**
+     * Calculates a weighted arithmetic average in one pass, values are skipped when either they or their weights are
+     * {@code NaN}.
+     *
+     * @param x       Initial double values.
+     * @param weights Corresponding weights.
+     * @return mean, or NaN when no weight is left, and the number of pairs with no NaN.
+     * @throws NullPointerException     When either input is {@code null}.
+     * @throws IllegalArgumentException When the input is empty or the lengths differ.
+     * @implSpec The mean is updated value by value by the scheme of West, vector lanes run it under a mask.
+     */
+    public static @NonNull NanReduction nanWeightedMean(final double @NonNull [] x, final double @NonNull [] weights) {
+        momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
+        lengthParity(x.length, weights.length);
+        val moments = NanMoments.of(x, weights);
+        return new NanReduction(moments.mean(), moments.count);
+    }
 }
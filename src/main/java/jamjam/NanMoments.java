@@ -0,0 +1,136 @@
+package jamjam;
+
+import jamjam.simd.Simd;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * One-pass kernels of NaN-skipping reductions: values that are {@code NaN}, or whose weights are, are left out inside
+ * the loop, so the input is read once and never filtered into a new array.
+ * <p>
+ * An instance holds running weighted moments of the values seen so far, they are updated by the scheme of West and
+ * merged by that of Chan et al.
+ *
+ * @see <a href="https://doi.org/10.1145/359146.359153">Updating mean and variance estimates: an improved method</a>
+ * @see <a href="https://doi.org/10.1080/00031305.1983.10483115">Algorithms for computing the sample variance: analysis
+ * and recommendations</a>
+ */
+final class NanMoments {
+    /**
+     * The number of values that are not {@code NaN}, including those with zero weights.
+     */
+    long count;
+
+    /**
+     * Values are shifted by the first finite one, so that large offsets don't eat up digits.
+     */
+    double shift;
+
+    double weight;
+
+    /**
+     * The mean of shifted values.
+     */
+    double mean;
+
+    /**
+     * The weighted sum of squared deviations from the mean.
+     */
+    double m2;
+
+    /**
+     * Moments of {@code x}.
+     *
+     * @param weights When it's {@code null}, all weights are 1.
+     */
+    static NanMoments of(final double[] x, final double @Nullable [] weights) {
+        val moments = new NanMoments();
+        for (val v : x)
+            if (Double.isFinite(v)) {
+                moments.shift = v;
+                break;
+            }
+        if (Simd.isVectorized()) VectorNanMoments.moments(x, weights, moments);
+        else moments.add(x, weights, 0, x.length);
+        return moments;
+    }
+
+    /**
+     * @return The compensated sum of values that are not {@code NaN} and their number.
+     */
+    static NanReduction sum(final double[] x) {
+        if (Simd.isVectorized()) return VectorNanMoments.sum(x);
+        val acc = new Sum.Accumulator();
+        val count = sum(x, 0, x.length, acc);
+        return new NanReduction(count == 0 ? 0. : acc.getSum(), count);
+    }
+
+    /**
+     * Adds values of {@code x[from:to]} that are not {@code NaN} to {@code acc}.
+     *
+     * @return The number of such values.
+     */
+    static long sum(final double[] x, final int from, final int to, final Sum.Accumulator acc) {
+        var count = 0L;
+        for (var i = from; i < to; i++)
+            if (x[i] == x[i]) {
+                acc.sum(x[i]);
+                count++;
+            }
+        return count;
+    }
+
+    /**
+     * Adds values of {@code x[from:to]} one by one.
+     */
+    void add(final double[] x, final double @Nullable [] weights, final int from, final int to) {
+        double v, w, delta;
+        for (var i = from; i < to; i++) {
+            v = x[i];
+            w = weights == null ? 1. : weights[i];
+            if (v != v || w != w) continue;
+            count++;
+            if (w == 0.) continue;
+            v -= shift;
+            weight += w;
+            delta = v - mean;
+            mean += delta * w / weight;
+            m2 += delta * (v - mean) * w;
+        }
+    }
+
+    /**
+     * Adds moments of another part of the sample.
+     */
+    void merge(final long otherCount, final double otherWeight, final double otherMean, final double otherM2) {
+        count += otherCount;
+        if (otherWeight == 0.) return;
+        if (weight == 0.) {
+            weight = otherWeight;
+            mean = otherMean;
+            m2 = otherM2;
+            return;
+        }
+        val total = weight + otherWeight;
+        val delta = otherMean - mean;
+        mean += delta * otherWeight / total;
+        m2 += otherM2 + delta * delta * weight * otherWeight / total;
+        weight = total;
+    }
+
+    /**
+     * @return {@code NaN} when there are no values with non-zero weights.
+     */
+    double mean() {
+        return weight != 0. ? shift + mean : Double.NaN;
+    }
+
+    /**
+     * @param correction {@code 1} for the unbiased variance, {@code 0} for the biased one.
+     * @return {@code NaN} when there are not enough values.
+     */
+    double variance(final int correction) {
+        val denominator = weight - correction;
+        return denominator > 0. ? m2 / denominator : Double.NaN;
+    }
+}
@@ -0,0 +1,12 @@
+package jamjam;
+
+/**
+ * The result of a reduction that skips {@code NaN} values, e.g., missing ones.
+ *
+ * @param value The statistic of the values that are not {@code NaN}; when there are none, it's {@code 0} for sums and
+ *              {@code NaN} for everything else.
+ * @param count The number of values that took part in the reduction.
+ * @see Sum#nanSum(double...)
+ */
+public record NanReduction(double value, long count) {
+}
@@ -0,0 +1,557 @@
+package jamjam;
+
+import jamjam.aux.Utils;
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+import static jamjam.aux.Utils.lengthParity;
+
+/**
+ * Exact quantiles by selection instead of sorting.
+ * <p>
+ * Quantiles are linearly interpolated between order statistics as the default method of NumPy, i.e., for a sample of
+ * size {@code n} the quantile {@code q} lies between the elements of ranks {@code floor(h)} and {@code floor(h) + 1},
+ * {@code h = (n - 1) * q}.
+ * <p>
+ * Special values are treated the way {@link Utils#returnRelativeAccuracyStatus(double, double, double)} classifies
+ * them: infinities are ordinary values ordered by their sign, whereas {@code NaN} is not comparable to anything, thus
+ * a single {@code NaN} in the input makes every quantile {@code NaN}.
+ */
+public final class Quantile {
+    /**
+     * Arrays shorter than that are handled sequentially in parallel methods.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+    /**
+     * Ranges shorter than that are sorted by insertion.
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    /**
+     * The number of samples used to find pivots that bracket target ranks in the parallel mode.
+     */
+    private static final int SAMPLE_SIZE = 1 << 12;
+
+    private Quantile() {
+    }
+
+    /**
+     * Calculates a quantile, the input is not modified.
+     *
+     * @param x An array of values.
+     * @param q A probability in {@code [0; 1]}.
+     * @return The quantile, {@code NaN} when there are {@code NaN} values.
+     * @throws IllegalArgumentException When the array is empty or {@code q} is out of range.
+     * @implSpec A copy of the input is partially reordered by introselect, O(n) on average and O(n log n) in the
+     * worst case.
+     */
+    public static double quantile(final double @NonNull [] x, final double q) {
+        return quantileInPlace(x.clone(), q);
+    }
+
+    /**
+     * Calculates a quantile with no copies, elements of {@code x} are reordered.
+     *
+     * @see #quantile(double[], double)
+     */
+    public static double quantileInPlace(final double @NonNull [] x, final double q) {
+        return quantilesInPlace(x, q)[0];
+    }
+
+    /**
+     * Calculates several quantiles in one go, the input is not modified.
+     *
+     * @param x An array of values.
+     * @param q Probabilities in {@code [0; 1]}, in any order.
+     * @return Quantiles in the order of {@code q}.
+     * @throws IllegalArgumentException When the array is empty or any {@code q} is out of range.
+     * @implSpec All ranks are selected by a single recursive partitioning that descends only into parts containing
+     * some of them, thus a batch of percentiles costs little more than one.
+     */
+    public static double @NonNull [] quantiles(final double @NonNull [] x, final double @NonNull ... q) {
+        return quantilesInPlace(x.clone(), q);
+    }
+
+    /**
+     * Calculates several quantiles with no copies, elements of {@code x} are reordered.
+     *
+     * @see #quantiles(double[], double...)
+     */
+    public static double @NonNull [] quantilesInPlace(final double @NonNull [] x, final double @NonNull ... q) {
+        val ranks = ranks(x.length, q);
+        if (hasNaN(x)) return nans(q.length);
+        select(x, ranks);
+        return interpolate(q, x.length, k -> x[k]);
+    }
+
+    /**
+     * Calculates the median, the input is not modified.
+     *
+     * @see #quantile(double[], double)
+     */
+    public static double median(final double @NonNull [] x) {
+        return quantile(x, 0.5);
+    }
+
+    /**
+     * Calculates the median with no copies, elements of {@code x} are reordered.
+     *
+     * @see #quantile(double[], double)
+     */
+    public static double medianInPlace(final double @NonNull [] x) {
+        return quantileInPlace(x, 0.5);
+    }
+
+    /**
+     * Rearranges elements so that {@code x[k]} is the {@code k}-th smallest one, all elements to the left of it are
+     * not greater and all elements to the right are not less.
+     *
+     * @param x An array without {@code NaN} values.
+     * @param k The zero-based rank.
+     * @return The {@code k}-th smallest element.
+     * @throws IndexOutOfBoundsException When {@code k} is out of bounds.
+     */
+    public static double select(final double @NonNull [] x, final int k) {
+        Objects.checkIndex(k, x.length);
+        select(x, new int[]{k});
+        return x[k];
+    }
+
+    /**
+     * Calculates several quantiles of a large array in parallel, the input is not modified.
+     *
+     * @param x An array of values.
+     * @param q Probabilities in {@code [0; 1]}, in any order.
+     * @return Quantiles in the order of {@code q}.
+     * @throws IllegalArgumentException When the array is empty or any {@code q} is out of range.
+     * @implSpec Pivots are picked from a regular sample so that they bracket the target ranks with high probability,
+     * then elements are counted and the bracket is filtered out on the common fork/join pool. The bracket is usually
+     * small enough to be finished sequentially, otherwise the step is repeated. The rare case of a missed bracket
+     * falls back to a sequential selection on a copy.
+     */
+    public static double @NonNull [] parallelQuantiles(final double @NonNull [] x, final double @NonNull ... q) {
+        val ranks = ranks(x.length, q);
+        if (x.length < PARALLEL_THRESHOLD) return quantiles(x, q);
+        if (IntStream.range(0, x.length).parallel().anyMatch(i -> Double.isNaN(x[i]))) return nans(q.length);
+
+        val values = new double[ranks.length];
+        for (var r = 0; r < ranks.length; r++) values[r] = parallelSelect(x, ranks[r]);
+        return interpolate(q, x.length, k -> values[Arrays.binarySearch(ranks, k)]);
+    }
+
+    /**
+     * Calculates a weighted quantile, the smallest value whose weighted cumulative distribution function reaches
+     * {@code q}. When the function hits {@code q} exactly, the mean of the value and the next one is returned, thus
+     * the weighted median of unit weights is the usual median. Inputs are not modified.
+     *
+     * @param x       An array of values.
+     * @param weights Corresponding non-negative weights, when {@code null}, {@link #quantile(double[], double)} is
+     *                returned instead.
+     * @param q       A probability in {@code [0; 1]}.
+     * @return The quantile, {@code NaN} when there are {@code NaN} values.
+     * @throws IllegalArgumentException When the array is empty, lengths differ, {@code q} is out of range or any
+     *                                  weight is negative or {@code NaN}.
+     * @throws ArithmeticException      When weights add up to zero.
+     * @implSpec Weighted quickselect on an index array, O(n) on average. Values of zero weight are ignored.
+     * @see Mean#weightedMean(double[], double[])
+     */
+    public static double weightedQuantile(final double @NonNull [] x, final double @Nullable [] weights,
+                                          final double q) {
+        if (weights == null) return quantile(x, q);
+        checkWeights(x, weights);
+        checkProbability(q);
+        val total = Sum.sum(weights);
+        if (total == 0.) throw new ArithmeticException("Division by zero is encountered.");
+        if (hasNaN(x)) return Double.NaN;
+
+        var n = 0;
+        val index = new int[x.length];
+        for (var i = 0; i < x.length; i++) if (weights[i] > 0.) index[n++] = i;
+        return weightedSelect(x, weights, index, n, q * total);
+    }
+
+    /**
+     * Calculates the weighted median.
+     *
+     * @see #weightedQuantile(double[], double[], double)
+     */
+    public static double weightedMedian(final double @NonNull [] x, final double @Nullable [] weights) {
+        return weightedQuantile(x, weights, 0.5);
+    }
+
+    /**
+     * Sorts indices of the array by values, the result can be reused for any number of weight vectors.
+     *
+     * @param x An array without {@code NaN} values.
+     * @return A permutation {@code p} such that {@code x[p[0]] <= x[p[1]] <= ...}.
+     * @see #weightedQuantiles(double[], int[], double[], double...)
+     */
+    public static int @NonNull [] sortPermutation(final double @NonNull [] x) {
+        val index = IntStream.range(0, x.length).toArray();
+        sort(x, index, 0, x.length, 2 * (32 - Integer.numberOfLeadingZeros(x.length)));
+        return index;
+    }
+
+    /**
+     * Calculates weighted quantiles from a precalculated sort permutation, e.g., survey-weighted percentiles of many
+     * variables or many replicate weights of one variable.
+     *
+     * @param x           An array of values.
+     * @param permutation The result of {@link #sortPermutation(double[])} for {@code x}, not validated.
+     * @param weights     Corresponding non-negative weights.
+     * @param q           Probabilities in {@code [0; 1]}, in any order.
+     * @return Quantiles in the order of {@code q}, {@code NaN} when there are {@code NaN} values.
+     * @throws IllegalArgumentException When the array is empty, lengths differ, any {@code q} is out of range or any
+     *                                  weight is negative or {@code NaN}.
+     * @throws ArithmeticException      When weights add up to zero.
+     * @implSpec The weighted CDF is the compensated {@link Sum#cumulativeSum(double...)} of permuted weights, every
+     * quantile is found by binary search, thus the cost is O(n) per weight vector.
+     * @see #weightedQuantile(double[], double[], double)
+     */
+    public static double @NonNull [] weightedQuantiles(final double @NonNull [] x, final int @NonNull [] permutation,
+                                                       final double @NonNull [] weights,
+                                                       final double @NonNull ... q) {
+        lengthParity(x.length, permutation.length);
+        checkWeights(x, weights);
+        for (val p : q) checkProbability(p);
+
+        val permuted = new double[x.length];
+        for (var i = 0; i < x.length; i++) permuted[i] = weights[permutation[i]];
+        val cdf = Sum.cumulativeSum(permuted);
+        val total = cdf[cdf.length - 1];
+        if (total == 0.) throw new ArithmeticException("Division by zero is encountered.");
+        if (hasNaN(x)) return nans(q.length);
+
+        val result = new double[q.length];
+        double target;
+        int k;
+        for (var j = 0; j < q.length; j++) {
+            target = q[j] * total;
+            k = lowerBound(cdf, target);
+            while (permuted[k] == 0.) k++;
+            result[j] = x[permutation[k]];
+            if (cdf[k] == target)
+                for (var next = k + 1; next < x.length; next++)
+                    if (permuted[next] > 0.) {
+                        result[j] = 0.5 * (result[j] + x[permutation[next]]);
+                        break;
+                    }
+        }
+        return result;
+    }
+
+    /**
+     * Validates weights the way {@link Mean#weightedMean(double[], double[])} does, negative weights are rejected in
+     * addition. Callers check that weights don't add up to zero when they sum them up.
+     */
+    private static void checkWeights(final double[] x, final double[] weights) {
+        if (x.length == 0) throw new IllegalArgumentException("The size of the array has to be at least 1.");
+        lengthParity(x.length, weights.length);
+        for (val w : weights) if (!(w >= 0.)) throw new IllegalArgumentException("Weights must be non-negative.");
+    }
+
+    private static void checkProbability(final double q) {
+        if (!(q >= 0. && q <= 1.)) throw new IllegalArgumentException("Probability must be in the range [0; 1].");
+    }
+
+    /**
+     * @return The first index with {@code cdf[k] >= target}, the last one if none.
+     */
+    private static int lowerBound(final double[] cdf, final double target) {
+        var low = 0;
+        var high = cdf.length - 1;
+        int mid;
+        while (low < high) {
+            mid = (low + high) >>> 1;
+            if (cdf[mid] < target) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Finds the smallest value with the cumulative weight of at least {@code target} among {@code x[index[0; n)]}.
+     */
+    private static double weightedSelect(final double[] x, final double[] weights, final int[] index, final int n,
+                                         final double target) {
+        var from = 0;
+        var to = n;
+        var below = new Sum.Accumulator();
+        // The smallest value known to be greater than the current range, NaN when there is none.
+        var nextAbove = Double.NaN;
+        while (true) {
+            if (to - from <= INSERTION_SORT_THRESHOLD) {
+                sort(x, index, from, to, 0);
+                for (var i = from; i < to; i++) {
+                    below.sum(weights[index[i]]);
+                    if (below.getSum() >= target || i == to - 1)
+                        return tie(below.getSum() == target, x[index[i]], i + 1 < to ? x[index[i + 1]] : nextAbove);
+                }
+            }
+            val pivot = medianOfThree(x[index[from]], x[index[(from + to) >>> 1]], x[index[to - 1]]);
+            val bounds = partition(x, index, from, to, pivot);
+            val lt = (int) (bounds >>> 32);
+            val gt = (int) bounds;
+
+            val left = new Sum.Accumulator(below.getUncorrectedSum(), below.getCorrector());
+            for (var i = from; i < lt; i++) left.sum(weights[index[i]]);
+            if (lt > from && left.getSum() >= target) {
+                to = lt;
+                nextAbove = pivot;
+                continue;
+            }
+            for (var i = lt; i < gt; i++) left.sum(weights[index[i]]);
+            if (left.getSum() >= target || gt == to) {
+                var next = nextAbove;
+                if (gt < to) {
+                    next = x[index[gt]];
+                    for (var i = gt + 1; i < to; i++) next = Math.min(next, x[index[i]]);
+                }
+                return tie(left.getSum() == target, pivot, next);
+            }
+            below = left;
+            from = gt;
+        }
+    }
+
+    /**
+     * @return The mean of {@code x} and {@code next} when the target is hit exactly and there is a next value.
+     */
+    private static double tie(final boolean exact, final double x, final double next) {
+        return exact && !Double.isNaN(next) ? 0.5 * (x + next) : x;
+    }
+
+    /**
+     * Three-way partitioning of indices by values: {@code [from; lt) < pivot}, {@code [lt; gt) == pivot},
+     * {@code [gt; to) > pivot}.
+     *
+     * @return {@code lt} and {@code gt} packed into a long.
+     */
+    private static long partition(final double[] x, final int[] index, final int from, final int to,
+                                  final double pivot) {
+        var lt = from;
+        var gt = to;
+        var i = from;
+        int temp;
+        while (i < gt) {
+            if (x[index[i]] < pivot) {
+                temp = index[i];
+                index[i++] = index[lt];
+                index[lt++] = temp;
+            } else if (x[index[i]] > pivot) {
+                temp = index[i];
+                index[i] = index[--gt];
+                index[gt] = temp;
+            } else i++;
+        }
+        return (long) lt << 32 | gt;
+    }
+
+    /**
+     * Introsort of indices by values, falls back to heapsort when the recursion is too deep.
+     */
+    private static void sort(final double[] x, final int[] index, int from, final int to, final int depth) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            int v, j;
+            for (var i = from + 1; i < to; i++) {
+                v = index[i];
+                for (j = i - 1; j >= from && x[index[j]] > x[v]; j--) index[j + 1] = index[j];
+                index[j + 1] = v;
+            }
+            return;
+        }
+        if (depth == 0) {
+            heapSort(x, index, from, to);
+            return;
+        }
+        val pivot = medianOfThree(x[index[from]], x[index[(from + to) >>> 1]], x[index[to - 1]]);
+        val bounds = partition(x, index, from, to, pivot);
+        sort(x, index, from, (int) (bounds >>> 32), depth - 1);
+        sort(x, index, (int) bounds, to, depth - 1);
+    }
+
+    private static void heapSort(final double[] x, final int[] index, final int from, final int to) {
+        val n = to - from;
+        for (var i = n / 2 - 1; i >= 0; i--) siftDown(x, index, from, i, n);
+        int temp;
+        for (var end = n - 1; end > 0; end--) {
+            temp = index[from];
+            index[from] = index[from + end];
+            index[from + end] = temp;
+            siftDown(x, index, from, 0, end);
+        }
+    }
+
+    private static void siftDown(final double[] x, final int[] index, final int offset, int root, final int n) {
+        int child, temp;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && x[index[offset + child + 1]] > x[index[offset + child]]) child++;
+            if (x[index[offset + root]] >= x[index[offset + child]]) return;
+            temp = index[offset + root];
+            index[offset + root] = index[offset + child];
+            index[offset + child] = temp;
+            root = child;
+        }
+    }
+
+    /**
+     * @return Distinct sorted ranks needed to interpolate all quantiles.
+     */
+    private static int[] ranks(final int length, final double[] q) {
+        if (length == 0) throw new IllegalArgumentException("The size of the array has to be at least 1.");
+        val ranks = new int[2 * q.length];
+        for (var i = 0; i < q.length; i++) {
+            checkProbability(q[i]);
+            ranks[2 * i] = lowerRank(length, q[i]);
+            ranks[2 * i + 1] = Math.min(ranks[2 * i] + 1, length - 1);
+        }
+        return Arrays.stream(ranks).sorted().distinct().toArray();
+    }
+
+    private static int lowerRank(final int length, final double q) {
+        return Math.min((int) Math.floor((length - 1) * q), length - 1);
+    }
+
+    @FunctionalInterface
+    private interface OrderStatistic {
+        double get(int rank);
+    }
+
+    private static double[] interpolate(final double[] q, final int length, final OrderStatistic statistic) {
+        val result = new double[q.length];
+        for (var i = 0; i < q.length; i++) {
+            val h = (length - 1) * q[i];
+            val k = lowerRank(length, q[i]);
+            val lower = statistic.get(k);
+            val fraction = h - k;
+            result[i] = fraction == 0. || k == length - 1 ? lower :
+                lower + fraction * (statistic.get(k + 1) - lower);
+        }
+        return result;
+    }
+
+    private static boolean hasNaN(final double[] x) {
+        for (val v : x) if (Double.isNaN(v)) return true;
+        return false;
+    }
+
+    private static double[] nans(final int length) {
+        val result = new double[length];
+        Arrays.fill(result, Double.NaN);
+        return result;
+    }
+
+    /**
+     * Places all elements of the given sorted ranks where they belong in the sorted order.
+     */
+    static void select(final double[] x, final int[] ranks) {
+        select(x, 0, x.length, ranks, 0, ranks.length, 2 * (32 - Integer.numberOfLeadingZeros(x.length)));
+    }
+
+    /**
+     * Introselect over {@code [from; to)} for ranks {@code ranks[rankFrom; rankTo)}, once the recursion is too deep,
+     * the range is sorted, which bounds the worst case.
+     */
+    private static void select(final double[] x, int from, int to, final int[] ranks, int rankFrom, int rankTo,
+                               int depth) {
+        while (rankFrom < rankTo) {
+            if (to - from <= INSERTION_SORT_THRESHOLD) {
+                insertionSort(x, from, to);
+                return;
+            }
+            if (depth-- == 0) {
+                Arrays.sort(x, from, to);
+                return;
+            }
+            val pivot = medianOfThree(x[from], x[(from + to) >>> 1], x[to - 1]);
+
+            // Dutch national flag: [from; lt) < pivot, [lt; gt) == pivot, [gt; to) > pivot
+            var lt = from;
+            var gt = to;
+            var i = from;
+            double temp;
+            while (i < gt) {
+                if (x[i] < pivot) {
+                    temp = x[i];
+                    x[i++] = x[lt];
+                    x[lt++] = temp;
+                } else if (x[i] > pivot) {
+                    temp = x[i];
+                    x[i] = x[--gt];
+                    x[gt] = temp;
+                } else i++;
+            }
+
+            val leftEnd = lowerBound(ranks, rankFrom, rankTo, lt);
+            val rightStart = lowerBound(ranks, leftEnd, rankTo, gt);
+            // Descend into the larger part iteratively to keep the stack shallow.
+            if (leftEnd - rankFrom > rankTo - rightStart) {
+                select(x, gt, to, ranks, rightStart, rankTo, depth);
+                to = lt;
+                rankTo = leftEnd;
+            } else {
+                select(x, from, lt, ranks, rankFrom, leftEnd, depth);
+                from = gt;
+                rankFrom = rightStart;
+            }
+        }
+    }
+
+    /**
+     * @return The first index in {@code [from; to)} whose rank is not less than {@code key}.
+     */
+    private static int lowerBound(final int[] ranks, final int from, final int to, final int key) {
+        val i = Arrays.binarySearch(ranks, from, to, key);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    private static double medianOfThree(final double a, final double b, final double c) {
+        return Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+    }
+
+    private static void insertionSort(final double[] x, final int from, final int to) {
+        double v;
+        int j;
+        for (var i = from + 1; i < to; i++) {
+            v = x[i];
+            for (j = i - 1; j >= from && x[j] > v; j--) x[j + 1] = x[j];
+            x[j + 1] = v;
+        }
+    }
+
+    /**
+     * @return The element of rank {@code k}, the input is not modified.
+     */
+    private static double parallelSelect(final double[] x, final int k) {
+        var candidates = x;
+        var rank = k;
+        while (candidates.length >= PARALLEL_THRESHOLD) {
+            val n = candidates.length;
+            val source = candidates;
+            val sample = new double[SAMPLE_SIZE];
+            for (var i = 0; i < SAMPLE_SIZE; i++) sample[i] = source[(int) ((long) i * n / SAMPLE_SIZE)];
+            Arrays.sort(sample);
+
+            // A margin of a few standard deviations of the sample rank keeps the target inside the bracket.
+            val margin = (int) (4 * Math.sqrt(SAMPLE_SIZE));
+            val position = (int) ((long) rank * SAMPLE_SIZE / n);
+            val low = sample[Math.max(0, position - margin)];
+            val high = sample[Math.min(SAMPLE_SIZE - 1, position + margin)];
+
+            val below = IntStream.range(0, n).parallel().filter(i -> source[i] < low).count();
+            val bracket = IntStream.range(0, n).parallel().mapToDouble(i -> source[i])
+                .filter(v -> v >= low && v <= high).toArray();
+            if (below > rank || below + bracket.length <= rank || bracket.length == n) {
+                val copy = source.clone();
+                return select(copy, rank);
+            }
+            candidates = bracket;
+            rank -= (int) below;
+        }
+        return select(candidates == x ? x.clone() : candidates, rank);
+    }
+}
@@ -0,0 +1,381 @@
+package jamjam;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import static java.lang.StrictMath.PI;
+import static java.lang.StrictMath.asin;
+import static java.lang.StrictMath.sin;
+
+/**
+ * A streaming approximation of the distribution of a sample, answers quantile and CDF queries without sorting and in
+ * bounded memory. The state is mergeable, thus partial sketches can be built in parallel or on different machines.
+ * <p>
+ * The sketch is a merging t-digest: samples are buffered, the buffer is sorted and merged into a short list of
+ * weighted centroids. The size of a centroid is limited by the arcsine scale function, so centroids are small near
+ * the tails, which keeps extreme quantiles like {@code p99} accurate. The number of centroids is about
+ * {@code compression}, the relative rank error is of order {@code 1 / compression}, the exact minimum and maximum are
+ * kept as well.
+ * <p>
+ * Non-finite samples are skipped and counted separately. Instances are not thread-safe.
+ *
+ * @see <a href="https://arxiv.org/abs/1902.04023">Computing Extremely Accurate Quantiles Using t-Digests</a>
+ */
+public final class QuantileSketch {
+    /**
+     * The default compression, about 100 centroids.
+     */
+    public static final double DEFAULT_COMPRESSION = 100.;
+    /**
+     * Arrays shorter than that are ingested sequentially.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+    private double[] scratchMeans;
+    private double[] scratchWeights;
+    private final double[] buffer;
+    private int buffered;
+    private long count;
+    private long skipped;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Creates a sketch with {@link #DEFAULT_COMPRESSION}.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * @param compression A trade-off between accuracy and memory, at least 10.
+     * @throws IllegalArgumentException When the compression is too small.
+     */
+    public QuantileSketch(final double compression) {
+        if (!(compression >= 10.) || Double.isInfinite(compression))
+            throw new IllegalArgumentException("Compression must be finite and at least 10.");
+        this.compression = compression;
+        val capacity = 2 * (int) Math.ceil(compression) + 10;
+        means = new double[capacity];
+        weights = new double[capacity];
+        buffer = new double[5 * capacity];
+        scratchMeans = new double[capacity + buffer.length];
+        scratchWeights = new double[scratchMeans.length];
+    }
+
+    /**
+     * Adds a single sample.
+     *
+     * @return This sketch.
+     */
+    public @NonNull QuantileSketch add(final double x) {
+        if (!Double.isFinite(x)) {
+            skipped++;
+            return this;
+        }
+        if (buffered == buffer.length) flush();
+        buffer[buffered++] = x;
+        if (x < min) min = x;
+        if (x > max) max = x;
+        count++;
+        return this;
+    }
+
+    /**
+     * Adds all samples, large arrays are split into chunks sketched in parallel and merged in order, thus the result
+     * doesn't depend on the number of threads.
+     *
+     * @return This sketch.
+     */
+    public @NonNull QuantileSketch addAll(final double @NonNull ... x) {
+        if (x.length < PARALLEL_THRESHOLD) {
+            for (val v : x) add(v);
+            return this;
+        }
+        val chunks = (x.length + PARALLEL_THRESHOLD - 1) / PARALLEL_THRESHOLD;
+        val partial = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            val sketch = new QuantileSketch(compression);
+            val to = (int) Math.min((long) (chunk + 1) * PARALLEL_THRESHOLD, x.length);
+            for (var i = chunk * PARALLEL_THRESHOLD; i < to; i++) sketch.add(x[i]);
+            return sketch;
+        }).toArray(QuantileSketch[]::new);
+        for (val sketch : partial) merge(sketch);
+        return this;
+    }
+
+    /**
+     * Adds all samples of the stream, parallel streams are sketched into thread-local partial sketches.
+     *
+     * @return This sketch.
+     */
+    public @NonNull QuantileSketch addAll(final @NonNull DoubleStream x) {
+        return merge(x.collect(() -> new QuantileSketch(compression), QuantileSketch::add, QuantileSketch::merge));
+    }
+
+    /**
+     * Adds samples between the position and the limit of the buffer, the position is not changed. Works with direct
+     * and memory-mapped buffers, e.g., columns of {@link jamjam.io.ColumnFile}, with no copies on the heap.
+     *
+     * @return This sketch.
+     */
+    public @NonNull QuantileSketch addAll(final @NonNull DoubleBuffer x) {
+        for (var i = x.position(); i < x.limit(); i++) add(x.get(i));
+        return this;
+    }
+
+    /**
+     * Adds the state of another sketch, which is not modified.
+     *
+     * @return This sketch.
+     */
+    public @NonNull QuantileSketch merge(final @NonNull QuantileSketch other) {
+        if (other == this) throw new IllegalArgumentException("A sketch can't be merged with itself.");
+        flush();
+        other.flush();
+        if (other.count == 0) {
+            skipped += other.skipped;
+            return this;
+        }
+        compress(other.means, other.weights, other.centroids);
+        count += other.count;
+        skipped += other.skipped;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Merges buffered samples into centroids.
+     */
+    private void flush() {
+        if (buffered == 0) return;
+        Arrays.sort(buffer, 0, buffered);
+        compress(buffer, null, buffered);
+        buffered = 0;
+    }
+
+    /**
+     * Merges sorted items into centroids, the total weight of centroids is {@code count} plus the weight of the
+     * items. Centroids grow while their k-size, i.e., the increment of the scale function, stays below 1.
+     *
+     * @param itemWeights Weights of items, {@code null} for unit weights.
+     */
+    private void compress(final double[] itemMeans, final double[] itemWeights, final int items) {
+        var itemsTotal = 0.;
+        if (itemWeights == null) itemsTotal = items;
+        else for (var j = 0; j < items; j++) itemsTotal += itemWeights[j];
+        val total = centroidsTotal() + itemsTotal;
+
+        if (scratchMeans.length < centroids + items) {
+            scratchMeans = new double[centroids + items];
+            scratchWeights = new double[scratchMeans.length];
+        }
+        val newMeans = scratchMeans;
+        val newWeights = scratchWeights;
+        var n = 0;
+        var i = 0;
+        var j = 0;
+        var weightSoFar = 0.;
+        var limit = total * quantileLimit(0.);
+        double m, w;
+        while (i < centroids || j < items) {
+            if (j == items || (i < centroids && means[i] <= itemMeans[j])) {
+                m = means[i];
+                w = weights[i++];
+            } else {
+                m = itemMeans[j];
+                w = itemWeights == null ? 1. : itemWeights[j];
+                j++;
+            }
+            if (n > 0 && weightSoFar + newWeights[n - 1] + w <= limit) {
+                newWeights[n - 1] += w;
+                newMeans[n - 1] += (m - newMeans[n - 1]) * w / newWeights[n - 1];
+            } else {
+                if (n > 0) {
+                    weightSoFar += newWeights[n - 1];
+                    limit = total * quantileLimit(weightSoFar / total);
+                }
+                newMeans[n] = m;
+                newWeights[n++] = w;
+            }
+        }
+        if (n > means.length) {
+            means = new double[n];
+            weights = new double[n];
+        }
+        System.arraycopy(newMeans, 0, means, 0, n);
+        System.arraycopy(newWeights, 0, weights, 0, n);
+        centroids = n;
+    }
+
+    /**
+     * @return The largest quantile a centroid starting at {@code q} may reach, the k-size of it is 1.
+     */
+    private double quantileLimit(final double q) {
+        val k = compression * (asin(2. * q - 1.) + PI / 2.) / PI + 1.;
+        return k >= compression ? 1. : (sin(k * PI / compression - PI / 2.) + 1.) / 2.;
+    }
+
+    private double centroidsTotal() {
+        var total = 0.;
+        for (var i = 0; i < centroids; i++) total += weights[i];
+        return total;
+    }
+
+    /**
+     * Estimates a quantile by interpolation between centroids, centroids of unit weight are exact samples.
+     *
+     * @param q A probability in {@code [0; 1]}.
+     * @return The estimate, {@code NaN} for an empty sketch.
+     * @throws IllegalArgumentException When {@code q} is out of range.
+     */
+    public double quantile(final double q) {
+        if (!(q >= 0. && q <= 1.)) throw new IllegalArgumentException("Probability must be in the range [0; 1].");
+        flush();
+        if (count == 0) return Double.NaN;
+        val n = centroids;
+        val total = (double) count;
+        val index = q * total;
+        if (index < 1.) return min;
+        if (index > total - 1.) return max;
+        if (weights[0] > 1. && index < weights[0] / 2.)
+            return min + (index - 1.) / (weights[0] / 2. - 1.) * (means[0] - min);
+        if (weights[n - 1] > 1. && total - index <= weights[n - 1] / 2.)
+            return max - (total - index - 1.) / (weights[n - 1] / 2. - 1.) * (max - means[n - 1]);
+
+        var weightSoFar = weights[0] / 2.;
+        double dw, leftExcluded, rightExcluded, z1, z2;
+        for (var i = 0; i < n - 1; i++) {
+            dw = (weights[i] + weights[i + 1]) / 2.;
+            if (weightSoFar + dw > index) {
+                leftExcluded = 0.;
+                if (weights[i] == 1.) {
+                    if (index - weightSoFar < 0.5) return means[i];
+                    leftExcluded = 0.5;
+                }
+                rightExcluded = 0.;
+                if (weights[i + 1] == 1.) {
+                    if (weightSoFar + dw - index <= 0.5) return means[i + 1];
+                    rightExcluded = 0.5;
+                }
+                z1 = index - weightSoFar - leftExcluded;
+                z2 = weightSoFar + dw - index - rightExcluded;
+                return clamp((means[i] * z2 + means[i + 1] * z1) / (z1 + z2));
+            }
+            weightSoFar += dw;
+        }
+        z1 = index - (total - weights[n - 1] / 2.);
+        z2 = weights[n - 1] / 2. - z1;
+        return clamp((means[n - 1] * z2 + max * z1) / (z1 + z2));
+    }
+
+    /**
+     * Estimates several quantiles at once.
+     *
+     * @param q Probabilities in {@code [0; 1]}.
+     * @return Estimates in the order of {@code q}.
+     * @see #quantile(double)
+     */
+    public double @NonNull [] quantiles(final double @NonNull ... q) {
+        val result = new double[q.length];
+        for (var i = 0; i < q.length; i++) result[i] = quantile(q[i]);
+        return result;
+    }
+
+    /**
+     * @return The estimate of the median.
+     * @see #quantile(double)
+     */
+    public double median() {
+        return quantile(0.5);
+    }
+
+    /**
+     * Estimates the fraction of samples that don't exceed {@code x}.
+     *
+     * @param x A value.
+     * @return The estimate in {@code [0; 1]}, {@code NaN} for an empty sketch or {@code NaN} argument.
+     */
+    public double cdf(final double x) {
+        flush();
+        if (count == 0 || Double.isNaN(x)) return Double.NaN;
+        if (x < min) return 0.;
+        if (x >= max) return 1.;
+        val n = centroids;
+        val total = (double) count;
+        if (x < means[0])
+            return (1. + (x - min) / (means[0] - min) * (weights[0] / 2. - 1.)) / total;
+        if (x >= means[n - 1])
+            return 1. - (1. + (max - x) / (max - means[n - 1]) * (weights[n - 1] / 2. - 1.)) / total;
+
+        var weightSoFar = weights[0] / 2.;
+        double dw, leftExcluded, rightExcluded;
+        for (var i = 0; i < n - 1; i++) {
+            dw = (weights[i] + weights[i + 1]) / 2.;
+            if (x < means[i + 1]) {
+                leftExcluded = weights[i] == 1. ? 0.5 : 0.;
+                rightExcluded = weights[i + 1] == 1. ? 0.5 : 0.;
+                return (weightSoFar + leftExcluded + (dw - leftExcluded - rightExcluded) * (x - means[i]) /
+                    (means[i + 1] - means[i])) / total;
+            }
+            weightSoFar += dw;
+        }
+        return 1.;
+    }
+
+    private double clamp(final double x) {
+        return Math.max(min, Math.min(max, x));
+    }
+
+    /**
+     * @return The number of finite samples.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return The number of skipped non-finite samples.
+     */
+    public long skippedCount() {
+        return skipped;
+    }
+
+    /**
+     * @return The exact minimum, {@code NaN} for an empty sketch.
+     */
+    public double min() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /**
+     * @return The exact maximum, {@code NaN} for an empty sketch.
+     */
+    public double max() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /**
+     * @return The compression parameter.
+     */
+    public double compression() {
+        return compression;
+    }
+
+    /**
+     * @return The number of centroids after merging buffered samples.
+     */
+    public int centroidCount() {
+        flush();
+        return centroids;
+    }
+}
@@ -1,6 +1,7 @@
 package jamjam;
 
 import lombok.NonNull;
+import lombok.val;
 
 import static jamjam.Variance.unweightedBiasedVariance;
 import static jamjam.Variance.unweightedUnbiasedVariance;
@@ -35,4 +36,17 @@ public class StandardDeviation {
         momentLengthCheck(x.length, UNCORRECTED_STD);
         return sqrt(unweightedUnbiasedVariance(x, NaN));
     }
+
+    /**
+     * Calculates STD of values that are not {@code NaN} in one pass.
+     *
+     * @param x         A sample.
+     * @param corrected When {@code true}, employs {@code 1 / (N - 1)} factor, else {@code 1 / N}.
+     * @return STD and the number of values that are not NaN.
+     * @see Variance#nanVariance(double[], boolean)
+     */
+    public static @NonNull NanReduction nanStd(final double @NonNull [] x, final boolean corrected) {
+        val variance = Variance.nanVariance(x, corrected);
+        return new NanReduction(sqrt(variance.value()), variance.count());
+    }
 }
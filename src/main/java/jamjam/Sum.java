@@ -1,21 +1,21 @@
 package jamjam;
 
-import jdk.incubator.vector.DoubleVector;
-import jdk.incubator.vector.VectorMask;
+import jamjam.metrics.CodePath;
+import jamjam.metrics.Instrumentation;
+import jamjam.metrics.SummationEvent;
+import jamjam.simd.Simd;
 import lombok.NonNull;
 import lombok.val;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 
 import static jamjam.arrays.Product.product;
 import static jamjam.aux.Utils.lengthParity;
 import static java.lang.StrictMath.abs;
-import static jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
-import static jdk.incubator.vector.DoubleVector.broadcast;
-import static jdk.incubator.vector.VectorOperators.GE;
 
 @SuppressWarnings("unused")
 public class Sum {
@@ -32,18 +32,80 @@ public class Sum {
      * @implNote Returns Inf or -Inf in the case of overflow, NaN if the original data contains one, NaN if there is an
      * undefined operation such as Infinity - Infinity as per Java specification.
      * @see <a href="https://doi.org/10.1007/s00607-005-0139-x">A Generalized Kahan-Babuška-Summation-Algorithm</a>
+     * @see Deterministic#sum(double[], boolean)
      */
     public static double sum(final double @NonNull ... x) {
-        switch (x.length) {
+        return sum(x, 0, x.length);
+    }
+
+    /**
+     * Sums up a range of values without copying it.
+     *
+     * @param x         An array of doubles.
+     * @param fromIndex The first element of the range, inclusive.
+     * @param toIndex   The last element of the range, exclusive.
+     * @return total sum, -Inf, Inf, or NaN.
+     * @throws NullPointerException      When the input is {@code null}.
+     * @throws IndexOutOfBoundsException When the range is out of the array bounds.
+     * @see #sum(double...)
+     */
+    public static double sum(final double @NonNull [] x, final int fromIndex, final int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, x.length);
+        val probe = Instrumentation.start(new SummationEvent());
+        val result = compensatedSum(x, fromIndex, toIndex);
+        Instrumentation.record(probe, "Sum.sum", CodePath.SCALAR, toIndex - fromIndex, 0);
+        return result;
+    }
+
+    /**
+     * Sums up single precision values in double precision without copying them.
+     *
+     * @param x An array of floats.
+     * @return total sum, -Inf, Inf, or NaN.
+     * @throws NullPointerException When the input is {@code null}.
+     * @implSpec Values are widened lane-wise and reduced by the scheme of {@link Deterministic}, which is vectorized
+     * and compensated, so the result is also reproducible.
+     */
+    public static double sum(final float @NonNull [] x) {
+        val probe = Instrumentation.start(new SummationEvent());
+        val result = Deterministic.reduce(x, 0., false, false);
+        Instrumentation.record(probe, "Sum.sum", Simd.isVectorized() ? CodePath.VECTOR : CodePath.SCALAR, x.length,
+            Deterministic.scratchBytes(x.length));
+        return result;
+    }
+
+    /**
+     * Sums up values that are not {@code NaN}, e.g., a sample with missing values, in one pass without filtering them
+     * into a new array.
+     *
+     * @param x An array of doubles.
+     * @return total sum, -Inf, Inf, or NaN, and the number of values that are not NaN.
+     * @throws NullPointerException When the input is {@code null}.
+     * @implSpec Compensated like {@link #sum(double...)}, vector lanes skip NaNs under a mask when
+     * {@link Simd#isVectorized()} is {@code true}.
+     * @implNote Infinities are handled as in {@link #sum(double...)}, i.e., NaN may still be returned.
+     */
+    public static @NonNull NanReduction nanSum(final double @NonNull ... x) {
+        val probe = Instrumentation.start(new SummationEvent());
+        val result = NanMoments.sum(x);
+        Instrumentation.record(probe, "Sum.nanSum", Simd.isVectorized() ? CodePath.VECTOR : CodePath.SCALAR, x.length,
+            0);
+        return result;
+    }
+
+    private static double compensatedSum(final double[] x, final int fromIndex, final int toIndex) {
+        switch (toIndex - fromIndex) {
             case 0:
                 return 0;
             case 1:
-                return x[0];
+                return x[fromIndex];
             default:
                 var uncorrectedSum = -0.d;
                 var corrector = 0.d;
                 double temp;
-                for (double v : x) {
+                double v;
+                for (var i = fromIndex; i < toIndex; i++) {
+                    v = x[i];
                     temp = uncorrectedSum + v;
                     corrector -= abs(uncorrectedSum) >= abs(v) ?
                         ((uncorrectedSum - temp) + v) : ((v - temp) + uncorrectedSum);
@@ -59,33 +121,18 @@ public class Sum {
      */
     public static double sum(final @NonNull DoubleStream x) {
         val acc = new Accumulator();
-        x.forEach(acc::sum);
-        return acc.getSum();
-    }
-
-
-    /**
-     * A vectorized compensated sum.
-     *
-     * @param values A conventional array of {@link DoubleVector}.
-     * @return a {@link DoubleVector} of the same size with all the sums.
-     * @throws NullPointerException When the input is {@code null}.
-     * @implSpec All summation is done line-wise.
-     */
-    public static @NonNull DoubleVector sum(final DoubleVector @NonNull ... values) {
-        if (values.length == 0) return broadcast(SPECIES_PREFERRED, 0.d);
-        var uncorrectedSum = broadcast(SPECIES_PREFERRED, -0.d);
-        var corrector = broadcast(SPECIES_PREFERRED, 0.d);
-        var temp = broadcast(SPECIES_PREFERRED, 0.d);
-        VectorMask<Double> mask;
-
-        for (var v : values) {
-            temp = uncorrectedSum.add(v);
-            mask = uncorrectedSum.abs().compare(GE, v.abs());
-            corrector = corrector.sub(v.blend(uncorrectedSum, mask).sub(temp).add(v.blend(uncorrectedSum, mask.not())));
-            uncorrectedSum = temp;
+        val probe = Instrumentation.start(new SummationEvent());
+        if (probe == null) x.forEach(acc::sum);
+        else {
+            // Counting costs a bit, so the stream is counted only when someone is listening.
+            val count = new long[1];
+            x.forEach(v -> {
+                acc.sum(v);
+                count[0]++;
+            });
+            Instrumentation.record(probe, "Sum.sum", CodePath.SCALAR, count[0], 0);
         }
-        return uncorrectedSum.sub(corrector);
+        return acc.getSum();
     }
 
     /**
@@ -124,12 +171,14 @@ public class Sum {
             case 1:
                 return x.clone();
             default:
+                val probe = Instrumentation.start(new SummationEvent());
                 val cumulativeSum = new double[x.length];
                 val acc = new Accumulator();
                 for (var i = 0; i < x.length; i++) {
                     acc.sum(x[i]);
                     cumulativeSum[i] = acc.getSum();
                 }
+                Instrumentation.record(probe, "Sum.cumulativeSum", CodePath.SCALAR, x.length, 8L * x.length);
                 return cumulativeSum;
         }
     }
@@ -159,8 +208,10 @@ public class Sum {
      * @return A copy of {@code x} with shifted values.
      */
     public static double @NonNull [] broadcastAdd(final double @NonNull [] x, final double shiftValue) {
+        val probe = Instrumentation.start(new SummationEvent());
         val scratch = Arrays.copyOf(x, x.length);
         IntStream.range(0, x.length).forEach(i -> scratch[i] += shiftValue);
+        Instrumentation.record(probe, "Sum.broadcastAdd", CodePath.SCALAR, x.length, 8L * x.length);
         return scratch;
     }
 
@@ -172,20 +223,26 @@ public class Sum {
      * @return A copy of {@code x} with shifted values.
      */
     public static double @NonNull [] broadcastSub(final double @NonNull [] x, final double shiftValue) {
+        val probe = Instrumentation.start(new SummationEvent());
         val scratch = Arrays.copyOf(x, x.length);
         IntStream.range(0, x.length).forEach(i -> scratch[i] -= shiftValue);
+        Instrumentation.record(probe, "Sum.broadcastSub", CodePath.SCALAR, x.length, 8L * x.length);
         return scratch;
     }
 
     public static double @NonNull [] broadcastSub(final int @NonNull [] x, final double shiftValue) {
+        val probe = Instrumentation.start(new SummationEvent());
         val scratch = new double[x.length];
         IntStream.range(0, x.length).forEach(i -> scratch[i] = x[i] - shiftValue);
+        Instrumentation.record(probe, "Sum.broadcastSub", CodePath.SCALAR, x.length, 8L * x.length);
         return scratch;
     }
 
     public static double @NonNull [] broadcastSub(final long @NonNull [] x, final double shiftValue) {
+        val probe = Instrumentation.start(new SummationEvent());
         val scratch = new double[x.length];
         IntStream.range(0, x.length).forEach(i -> scratch[i] = x[i] - shiftValue);
+        Instrumentation.record(probe, "Sum.broadcastSub", CodePath.SCALAR, x.length, 8L * x.length);
         return scratch;
     }
 
@@ -195,7 +252,9 @@ public class Sum {
      * @see #broadcastAdd(double[], double)
      */
     public static void broadcastAddInPlace(final double @NonNull [] x, final double shiftValue) {
+        val probe = Instrumentation.start(new SummationEvent());
         IntStream.range(0, x.length).forEach(i -> x[i] += shiftValue);
+        Instrumentation.record(probe, "Sum.broadcastAddInPlace", CodePath.SCALAR, x.length, 0);
     }
 
     /**
@@ -204,7 +263,9 @@ public class Sum {
      * @see #broadcastAdd(double[], double)
      */
     public static void broadcastSubInPlace(final double @NonNull [] x, final double shiftValue) {
+        val probe = Instrumentation.start(new SummationEvent());
         IntStream.range(0, x.length).forEach(i -> x[i] -= shiftValue);
+        Instrumentation.record(probe, "Sum.broadcastSubInPlace", CodePath.SCALAR, x.length, 0);
     }
 
     /**
@@ -228,6 +289,19 @@ public class Sum {
             corrector = 0;
         }
 
+        /**
+         * Restores the state saved elsewhere, e.g., in a file.
+         *
+         * @param uncorrectedSum The conventional sum.
+         * @param corrector      The first order error corrector.
+         * @see #getUncorrectedSum()
+         * @see #getCorrector()
+         */
+        public Accumulator(final double uncorrectedSum, final double corrector) {
+            this.uncorrectedSum = uncorrectedSum;
+            this.corrector = corrector;
+        }
+
         /**
          * Calculates both the conventional sum and the corrector.
          *
@@ -265,6 +339,20 @@ public class Sum {
             return uncorrectedSum - corrector;
         }
 
+        /**
+         * @return the conventional sum with no corrections.
+         */
+        public double getUncorrectedSum() {
+            return uncorrectedSum;
+        }
+
+        /**
+         * @return the accumulated first order error corrector.
+         */
+        public double getCorrector() {
+            return corrector;
+        }
+
         /**
          * Flushes the class state, sets {@code corrector} & {@code uncorrectedSum} both to 0.
          */
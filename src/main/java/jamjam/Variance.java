@@ -1,5 +1,9 @@
 package jamjam;
 
+import jamjam.metrics.CodePath;
+import jamjam.metrics.Instrumentation;
+import jamjam.metrics.VarianceEvent;
+import jamjam.simd.Simd;
 import lombok.NonNull;
 import lombok.val;
 import org.jetbrains.annotations.Nullable;
@@ -45,6 +49,7 @@ public class Variance {
      */
     public static double weightedUnbiasedVariance(final double @NonNull [] x, final int @NonNull [] weights) { // fixme add custom / precalculated mean?
         momentLengthCheck(x.length, WEIGHTED_UNBIASED_VARIANCE);
+        val probe = Instrumentation.start(new VarianceEvent());
         lengthParity(x.length, weights.length);
 
         val weightSum = Arrays.stream(weights).asLongStream().sum();
@@ -54,7 +59,8 @@ public class Variance {
         val scratch = broadcastSub(x, actualMean);
         productInPlace(scratch, scratch);
         productInPlace(scratch, weights);
-        return sum(scratch) / (weightSum - 1);
+        return recorded(probe, "Variance.weightedUnbiasedVariance", x.length, 16L * x.length,
+            sum(scratch) / (weightSum - 1));
     }
 
     /**
@@ -70,6 +76,7 @@ public class Variance {
      */
     public static double weightedUnbiasedVariance(final double @NonNull [] x, final long @NonNull [] weights) { // fixme add mean?
         momentLengthCheck(x.length, WEIGHTED_UNBIASED_VARIANCE);
+        val probe = Instrumentation.start(new VarianceEvent());
         lengthParity(x.length, weights.length);
 
         val weightSum = Arrays.stream(weights).sum();
@@ -79,7 +86,8 @@ public class Variance {
         val scratch = broadcastSub(x, actualMean);
         productInPlace(scratch, scratch);
         productInPlace(scratch, weights);
-        return sum(scratch) / (weightSum - 1);
+        return recorded(probe, "Variance.weightedUnbiasedVariance", x.length, 16L * x.length,
+            sum(scratch) / (weightSum - 1));
     }
 
     /**
@@ -97,6 +105,7 @@ public class Variance {
     public static double weightedBiasedVariance(final double @NonNull [] x, final double expectedMean,
                                                 final double @NonNull [] weights) {
         momentLengthCheck(x.length, WEIGHTED_BIASED_VARIANCE);
+        val probe = Instrumentation.start(new VarianceEvent());
         val meanValue = meanValueValidator(expectedMean, x, weights);
 
         lengthParity(x.length, weights.length);
@@ -111,7 +120,8 @@ public class Variance {
         sumWeights *= sumWeights;
         val ss = sum(scratch);
         if (sumWeights == ss) throw new ArithmeticException(DIVISION_ZERO);
-        return variance / (sumWeights - ss);
+        return recorded(probe, "Variance.weightedBiasedVariance", x.length,
+            8L * x.length + fallbackBytes(expectedMean, x.length), variance / (sumWeights - ss));
     }
 
     /**
@@ -126,26 +136,69 @@ public class Variance {
 
     public static double unweightedBiasedVariance(final double @NonNull [] x, final double expectedMean) {
         momentLengthCheck(x.length, UNWEIGHTED_BIASED_VARIANCE);
+        val probe = Instrumentation.start(new VarianceEvent());
         val actualMean = meanValueValidator(expectedMean, x, null);
         val scratch = broadcastSub(x, actualMean);
         productInPlace(scratch, scratch);
-        return sum(scratch) / x.length;
+        return recorded(probe, "Variance.unweightedBiasedVariance", x.length, 8L * x.length, sum(scratch) / x.length);
     }
 
+    /**
+     * Calculates the biased variance of ints exactly and rounds it to double.
+     *
+     * @param x The sample.
+     * @return The variance.
+     * @see #unweightedBiasedVariance(int[], double)
+     */
+    public static double unweightedBiasedVariance(final int @NonNull [] x) {
+        return unweightedBiasedVariance(x, NaN);
+    }
+
+    /**
+     * Calculates the biased variance of ints exactly and rounds it to double.
+     *
+     * @param x            The sample.
+     * @param expectedMean Precalculated mean, when it's {@code NaN} or {@code +/-Inf} the exact mean of the sample is
+     *                     used.
+     * @return The variance.
+     * @implSpec {@code Σx} and {@code Σx²} are accumulated in integer lanes that never overflow, no copy of the sample
+     * is made.
+     */
     public static double unweightedBiasedVariance(final int @NonNull [] x, final double expectedMean) {
         momentLengthCheck(x.length, UNWEIGHTED_BIASED_VARIANCE);
-        val actualMean = meanValueValidator(expectedMean, x, null);
-        val scratch = broadcastSub(x, actualMean);
-        productInPlace(scratch, scratch);
-        return sum(scratch) / x.length;
+        val probe = Instrumentation.start(new VarianceEvent());
+        val variance = IntegerMoments.of(x).variance(expectedMean, x.length);
+        Instrumentation.record(probe, "Variance.unweightedBiasedVariance",
+            Simd.isVectorized() ? CodePath.VECTOR : CodePath.SCALAR, x.length, 0L);
+        return variance;
+    }
+
+    /**
+     * Calculates the biased variance of longs exactly and rounds it to double.
+     *
+     * @param x The sample.
+     * @return The variance.
+     * @see #unweightedBiasedVariance(long[], double)
+     */
+    public static double unweightedBiasedVariance(final long @NonNull [] x) {
+        return unweightedBiasedVariance(x, NaN);
     }
 
+    /**
+     * Calculates the biased variance of longs exactly and rounds it to double.
+     *
+     * @param x            The sample.
+     * @param expectedMean Precalculated mean, when it's {@code NaN} or {@code +/-Inf} the exact mean of the sample is
+     *                     used.
+     * @return The variance.
+     * @implSpec {@code Σx} is accumulated in 128 bits, {@code Σx²} in 192 bits via {@link Math#multiplyHigh}, no copy
+     * of the sample is made.
+     */
     public static double unweightedBiasedVariance(final long @NonNull [] x, final double expectedMean) {
         momentLengthCheck(x.length, UNWEIGHTED_BIASED_VARIANCE);
-        val actualMean = meanValueValidator(expectedMean, x, null);
-        val scratch = broadcastSub(x, actualMean);
-        productInPlace(scratch, scratch);
-        return sum(scratch) / x.length;
+        val probe = Instrumentation.start(new VarianceEvent());
+        val variance = IntegerMoments.of(x).variance(expectedMean, x.length);
+        return recorded(probe, "Variance.unweightedBiasedVariance", x.length, 0L, variance);
     }
 
     /**
@@ -159,10 +212,12 @@ public class Variance {
      **/
     public static double unweightedUnbiasedVariance(final double @NonNull [] x, final double expectedMean) {
         momentLengthCheck(x.length, UNWEIGHTED_UNBIASED_VARIANCE);
+        val probe = Instrumentation.start(new VarianceEvent());
         val actualMean = meanValueValidator(expectedMean, x, null);
         val scratch = broadcastSub(x, actualMean);
         productInPlace(scratch, scratch);
-        return sum(scratch) / (scratch.length - 1);
+        return recorded(probe, "Variance.unweightedUnbiasedVariance", x.length, 8L * x.length,
+            sum(scratch) / (scratch.length - 1));
     }
 
     /**
@@ -175,6 +230,178 @@ public class Variance {
         return unweightedUnbiasedVariance(x, NaN);
     }
 
+    /**
+     * Calculates the sample (unbiased) variance of ints exactly and rounds it to double.
+     *
+     * @param x The sample.
+     * @return The variance.
+     * @see #unweightedUnbiasedVariance(int[], double)
+     */
+    public static double unweightedUnbiasedVariance(final int @NonNull [] x) {
+        return unweightedUnbiasedVariance(x, NaN);
+    }
+
+    /**
+     * Calculates the sample (unbiased) variance of ints exactly and rounds it to double.
+     *
+     * @param x            The sample.
+     * @param expectedMean Precalculated mean, when it's {@code NaN} or {@code +/-Inf} the exact mean of the sample is
+     *                     used.
+     * @return The variance.
+     * @see #unweightedBiasedVariance(int[], double)
+     */
+    public static double unweightedUnbiasedVariance(final int @NonNull [] x, final double expectedMean) {
+        momentLengthCheck(x.length, UNWEIGHTED_UNBIASED_VARIANCE);
+        val probe = Instrumentation.start(new VarianceEvent());
+        val variance = IntegerMoments.of(x).variance(expectedMean, x.length - 1);
+        Instrumentation.record(probe, "Variance.unweightedUnbiasedVariance",
+            Simd.isVectorized() ? CodePath.VECTOR : CodePath.SCALAR, x.length, 0L);
+        return variance;
+    }
+
+    /**
+     * Calculates the sample (unbiased) variance of longs exactly and rounds it to double.
+     *
+     * @param x The sample.
+     * @return The variance.
+     * @see #unweightedUnbiasedVariance(long[], double)
+     */
+    public static double unweightedUnbiasedVariance(final long @NonNull [] x) {
+        return unweightedUnbiasedVariance(x, NaN);
+    }
+
+    /**
+     * Calculates the sample (unbiased) variance of longs exactly and rounds it to double.
+     *
+     * @param x            The sample.
+     * @param expectedMean Precalculated mean, when it's {@code NaN} or {@code +/-Inf} the exact mean of the sample is
+     *                     used.
+     * @return The variance.
+     * @see #unweightedBiasedVariance(long[], double)
+     */
+    public static double unweightedUnbiasedVariance(final long @NonNull [] x, final double expectedMean) {
+        momentLengthCheck(x.length, UNWEIGHTED_UNBIASED_VARIANCE);
+        val probe = Instrumentation.start(new VarianceEvent());
+        val variance = IntegerMoments.of(x).variance(expectedMean, x.length - 1);
+        return recorded(probe, "Variance.unweightedUnbiasedVariance", x.length, 0L, variance);
+    }
+
+    /**
+     * Calculates the biased variance of single precision values in double precision.
+     *
+     * @param x The sample.
+     * @return The variance.
+     * @see #unweightedBiasedVariance(float[], double)
+     */
+    public static double unweightedBiasedVariance(final float @NonNull [] x) {
+        return unweightedBiasedVariance(x, NaN);
+    }
+
+    /**
+     * Calculates the biased variance of single precision values in double precision without copying them.
+     *
+     * @param x            The sample.
+     * @param expectedMean Precalculated mean, when it's {@code NaN} or {@code +/-Inf} the mean of the sample is used.
+     * @return The variance.
+     * @implSpec Squared deviations are summed up by the scheme of {@link Deterministic} with values widened
+     * lane-wise.
+     */
+    public static double unweightedBiasedVariance(final float @NonNull [] x, final double expectedMean) {
+        momentLengthCheck(x.length, UNWEIGHTED_BIASED_VARIANCE);
+        return widened(x, expectedMean, x.length, "Variance.unweightedBiasedVariance");
+    }
+
+    /**
+     * Calculates the sample (unbiased) variance of single precision values in double precision.
+     *
+     * @param x The sample.
+     * @return The variance.
+     * @see #unweightedUnbiasedVariance(float[], double)
+     */
+    public static double unweightedUnbiasedVariance(final float @NonNull [] x) {
+        return unweightedUnbiasedVariance(x, NaN);
+    }
+
+    /**
+     * Calculates the sample (unbiased) variance of single precision values in double precision without copying them.
+     *
+     * @param x            The sample.
+     * @param expectedMean Precalculated mean, when it's {@code NaN} or {@code +/-Inf} the mean of the sample is used.
+     * @return The variance.
+     * @implSpec Squared deviations are summed up by the scheme of {@link Deterministic} with values widened
+     * lane-wise.
+     */
+    public static double unweightedUnbiasedVariance(final float @NonNull [] x, final double expectedMean) {
+        momentLengthCheck(x.length, UNWEIGHTED_UNBIASED_VARIANCE);
+        return widened(x, expectedMean, x.length - 1, "Variance.unweightedUnbiasedVariance");
+    }
+
+    /**
+     * Calculates the variance of values that are not {@code NaN} in one pass.
+     *
+     * @param x        An array of doubles.
+     * @param unbiased When {@code true}, the sample variance, else the population one.
+     * @return The variance, NaN when fewer than one or two values are left, and the number of values that are not NaN.
+     * @throws NullPointerException     When the input is {@code null}.
+     * @throws IllegalArgumentException When the array is too short for the requested variance.
+     * @implSpec Lanes are updated by the scheme of Welford under a mask of values that are not NaN, then merged.
+     */
+    public static @NonNull NanReduction nanVariance(final double @NonNull [] x, final boolean unbiased) {
+        momentLengthCheck(x.length, unbiased ? UNWEIGHTED_UNBIASED_VARIANCE : UNWEIGHTED_BIASED_VARIANCE);
+        val probe = Instrumentation.start(new VarianceEvent());
+        val moments = NanMoments.of(x, null);
+        Instrumentation.record(probe, "Variance.nanVariance", Simd.isVectorized() ? CodePath.VECTOR : CodePath.SCALAR,
+            x.length, 0L);
+        return new NanReduction(moments.variance(unbiased ? 1 : 0), moments.count);
+    }
+
+    /**
+     * Calculates the population variance of weighted values in one pass, values are skipped when either they or their
+     * weights are {@code NaN}.
+     *
+     * @param x       An array of doubles.
+     * @param weights Corresponding weights.
+     * @return {@code Σw(x - mean)² / Σw}, NaN when no weight is left, and the number of pairs with no NaN.
+     * @throws NullPointerException     When either input is {@code null}.
+     * @throws IllegalArgumentException When the input is empty or the lengths differ.
+     * @implSpec Lanes are updated by the scheme of West under a mask of pairs with no NaN, then merged.
+     */
+    public static @NonNull NanReduction nanWeightedVariance(final double @NonNull [] x,
+                                                            final double @NonNull [] weights) {
+        momentLengthCheck(x.length, WEIGHTED_BIASED_VARIANCE);
+        lengthParity(x.length, weights.length);
+        val probe = Instrumentation.start(new VarianceEvent());
+        val moments = NanMoments.of(x, weights);
+        Instrumentation.record(probe, "Variance.nanWeightedVariance",
+            Simd.isVectorized() ? CodePath.VECTOR : CodePath.SCALAR, x.length, 0L);
+        return new NanReduction(moments.variance(0), moments.count);
+    }
+
+    private static double widened(final float[] x, final double expectedMean, final int denominator,
+                                  final String kernel) {
+        val probe = Instrumentation.start(new VarianceEvent());
+        val fallback = isNaN(expectedMean) || isInfinite(expectedMean);
+        val actualMean = fallback ? Deterministic.reduce(x, 0., false, false) / x.length : expectedMean;
+        val variance = Deterministic.reduce(x, actualMean, true, false) / denominator;
+        Instrumentation.record(probe, kernel, Simd.isVectorized() ? CodePath.VECTOR : CodePath.SCALAR, x.length,
+            Deterministic.scratchBytes(x.length) * (fallback ? 2 : 1));
+        return variance;
+    }
+
+    private static double recorded(final @Nullable VarianceEvent probe, final String kernel, final int elements,
+                                   final long allocated, final double variance) {
+        Instrumentation.record(probe, kernel, CodePath.SCALAR, elements, allocated);
+        return variance;
+    }
+
+    /**
+     * @return The number of bytes allocated by {@link #meanValueValidator} when the mean is calculated from ints or
+     * longs or with weights.
+     */
+    private static long fallbackBytes(final double expectedMean, final int length) {
+        return isNaN(expectedMean) || isInfinite(expectedMean) ? 8L * length : 0L;
+    }
+
     /**
      * Checks the actual mean value for NaN/Infinity, if true, calculates the actual using the provided sample.
      *
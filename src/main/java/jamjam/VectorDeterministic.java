@@ -0,0 +1,137 @@
+package jamjam;
+
+import jamjam.simd.Simd;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import lombok.val;
+
+import static jamjam.Deterministic.LANES;
+import static jdk.incubator.vector.VectorOperators.GE;
+
+/**
+ * Vectorized lanes of {@link Deterministic}, must be touched only when {@link Simd#isVectorized()} is {@code true}.
+ */
+final class VectorDeterministic {
+    /**
+     * At most 512 bits, so that every pass covers two vectors of lanes.
+     */
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED
+        .withShape(VectorShape.forBitSize(Math.min(Simd.vectorBitSize(), LANES * Double.SIZE / 2)));
+
+    /**
+     * Floats with as many lanes as {@link #SPECIES} has.
+     */
+    static final VectorSpecies<Float> FLOATS = floats(SPECIES);
+
+    private VectorDeterministic() {
+    }
+
+    static void lanes(final double[] x, final int from, final int to, final double shift, final boolean squares,
+                      final double[] sums, final double[] correctors) {
+        lanes(SPECIES, x, from, to, shift, squares, sums, correctors);
+    }
+
+    /**
+     * The same as {@link Deterministic#lanes}, every vector holds a run of adjacent lanes. Each pass over the block
+     * updates two such runs to keep two independent dependency chains in flight.
+     *
+     * @param species Any species of {@link Deterministic#LANES}{@code / 2} lanes at most.
+     */
+    static void lanes(final VectorSpecies<Double> species, final double[] x, final int from, final int to,
+                      final double shift, final boolean squares, final double[] sums, final double[] correctors) {
+        val length = species.length();
+        DoubleVector s1, c1, s2, c2, v, t;
+        VectorMask<Double> mask;
+        for (var lane = 0; lane < LANES; lane += 2 * length) {
+            s1 = DoubleVector.fromArray(species, sums, lane);
+            c1 = DoubleVector.fromArray(species, correctors, lane);
+            s2 = DoubleVector.fromArray(species, sums, lane + length);
+            c2 = DoubleVector.fromArray(species, correctors, lane + length);
+            for (var i = from + lane; i < to; i += LANES) {
+                v = DoubleVector.fromArray(species, x, i);
+                if (squares) {
+                    v = v.sub(shift);
+                    v = v.mul(v);
+                }
+                t = s1.add(v);
+                mask = s1.abs().compare(GE, v.abs());
+                c1 = c1.sub(s1.blend(v, mask.not()).sub(t).add(v.blend(s1, mask.not())));
+                s1 = t;
+
+                v = DoubleVector.fromArray(species, x, i + length);
+                if (squares) {
+                    v = v.sub(shift);
+                    v = v.mul(v);
+                }
+                t = s2.add(v);
+                mask = s2.abs().compare(GE, v.abs());
+                c2 = c2.sub(s2.blend(v, mask.not()).sub(t).add(v.blend(s2, mask.not())));
+                s2 = t;
+            }
+            s1.intoArray(sums, lane);
+            c1.intoArray(correctors, lane);
+            s2.intoArray(sums, lane + length);
+            c2.intoArray(correctors, lane + length);
+        }
+    }
+
+    static void lanes(final float[] x, final int from, final int to, final double shift, final boolean squares,
+                      final double[] sums, final double[] correctors) {
+        lanes(SPECIES, FLOATS, x, from, to, shift, squares, sums, correctors);
+    }
+
+    /**
+     * The same as {@link #lanes(VectorSpecies, double[], int, int, double, boolean, double[], double[])}, floats are
+     * widened lane-wise right after loading.
+     *
+     * @param floats The species of {@link #floats(VectorSpecies)}.
+     */
+    static void lanes(final VectorSpecies<Double> species, final VectorSpecies<Float> floats, final float[] x,
+                      final int from, final int to, final double shift, final boolean squares,
+                      final double[] sums, final double[] correctors) {
+        val length = species.length();
+        DoubleVector s1, c1, s2, c2, v, t;
+        VectorMask<Double> mask;
+        for (var lane = 0; lane < LANES; lane += 2 * length) {
+            s1 = DoubleVector.fromArray(species, sums, lane);
+            c1 = DoubleVector.fromArray(species, correctors, lane);
+            s2 = DoubleVector.fromArray(species, sums, lane + length);
+            c2 = DoubleVector.fromArray(species, correctors, lane + length);
+            for (var i = from + lane; i < to; i += LANES) {
+                v = (DoubleVector) FloatVector.fromArray(floats, x, i).castShape(species, 0);
+                if (squares) {
+                    v = v.sub(shift);
+                    v = v.mul(v);
+                }
+                t = s1.add(v);
+                mask = s1.abs().compare(GE, v.abs());
+                c1 = c1.sub(s1.blend(v, mask.not()).sub(t).add(v.blend(s1, mask.not())));
+                s1 = t;
+
+                v = (DoubleVector) FloatVector.fromArray(floats, x, i + length).castShape(species, 0);
+                if (squares) {
+                    v = v.sub(shift);
+                    v = v.mul(v);
+                }
+                t = s2.add(v);
+                mask = s2.abs().compare(GE, v.abs());
+                c2 = c2.sub(s2.blend(v, mask.not()).sub(t).add(v.blend(s2, mask.not())));
+                s2 = t;
+            }
+            s1.intoArray(sums, lane);
+            c1.intoArray(correctors, lane);
+            s2.intoArray(sums, lane + length);
+            c2.intoArray(correctors, lane + length);
+        }
+    }
+
+    /**
+     * @return The species of floats with as many lanes as {@code species} has.
+     */
+    static VectorSpecies<Float> floats(final VectorSpecies<Double> species) {
+        return VectorSpecies.of(float.class, VectorShape.forBitSize(species.vectorBitSize() / 2));
+    }
+}
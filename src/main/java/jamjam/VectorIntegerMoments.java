@@ -0,0 +1,68 @@
+package jamjam;
+
+import jamjam.simd.Simd;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import lombok.val;
+
+import static jamjam.IntegerMoments.LOW_BITS;
+import static jamjam.IntegerMoments.LOW_MASK;
+import static jdk.incubator.vector.VectorOperators.ADD;
+import static jdk.incubator.vector.VectorOperators.I2L;
+import static jdk.incubator.vector.VectorOperators.LSHR;
+
+/**
+ * Vectorized kernels of {@link IntegerMoments}, must be touched only when {@link Simd#isVectorized()} is {@code true}.
+ */
+final class VectorIntegerMoments {
+    static final VectorSpecies<Long> SPECIES =
+        LongVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(Simd.vectorBitSize()));
+
+    /**
+     * Ints with as many lanes as {@link #SPECIES} has.
+     */
+    static final VectorSpecies<Integer> INTS = ints(SPECIES);
+
+    private VectorIntegerMoments() {
+    }
+
+    static void moments(final int[] x, final long[] words) {
+        moments(SPECIES, INTS, x, words);
+    }
+
+    /**
+     * The same as {@link IntegerMoments#moments(int[], int, int, long[])}, ints are widened to long lanes that hold
+     * partial sums of every kind.
+     *
+     * @param ints A species of ints with as many lanes as {@code species} has.
+     */
+    static void moments(final VectorSpecies<Long> species, final VectorSpecies<Integer> ints, final int[] x,
+                        final long[] words) {
+        val upperBound = ints.loopBound(x.length);
+        var sum = LongVector.zero(species);
+        var low = LongVector.zero(species);
+        var high = LongVector.zero(species);
+        LongVector v, square;
+        var i = 0;
+        for (; i < upperBound; i += ints.length()) {
+            v = (LongVector) IntVector.fromArray(ints, x, i).convertShape(I2L, species, 0);
+            sum = sum.add(v);
+            square = v.mul(v);
+            low = low.add(square.and(LOW_MASK));
+            high = high.add(square.lanewise(LSHR, LOW_BITS));
+        }
+        words[0] += sum.reduceLanes(ADD);
+        words[1] += low.reduceLanes(ADD);
+        words[2] += high.reduceLanes(ADD);
+        IntegerMoments.moments(x, i, x.length, words);
+    }
+
+    /**
+     * @return A species of ints of half the bit size, i.e., with the same number of lanes.
+     */
+    static VectorSpecies<Integer> ints(final VectorSpecies<Long> species) {
+        return VectorSpecies.of(int.class, VectorShape.forBitSize(species.vectorBitSize() / 2));
+    }
+}
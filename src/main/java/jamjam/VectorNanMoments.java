@@ -0,0 +1,103 @@
+package jamjam;
+
+import jamjam.simd.Simd;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import static jdk.incubator.vector.VectorOperators.ADD;
+import static jdk.incubator.vector.VectorOperators.GE;
+import static jdk.incubator.vector.VectorOperators.IS_NAN;
+import static jdk.incubator.vector.VectorOperators.NE;
+
+/**
+ * Masked kernels of {@link NanMoments}, must be touched only when {@link Simd#isVectorized()} is {@code true}.
+ */
+final class VectorNanMoments {
+    static final VectorSpecies<Double> SPECIES =
+        DoubleVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(Simd.vectorBitSize()));
+
+    private VectorNanMoments() {
+    }
+
+    static NanReduction sum(final double[] x) {
+        return sum(SPECIES, x);
+    }
+
+    /**
+     * Every lane is a compensated sum, {@code NaN}s are replaced by {@code -0.} that leaves sums as they are. Lanes and
+     * their correctors are then added up in order, followed by the tail.
+     */
+    static NanReduction sum(final VectorSpecies<Double> species, final double[] x) {
+        val upperBound = species.loopBound(x.length);
+        var s = DoubleVector.broadcast(species, -0.d);
+        var c = DoubleVector.zero(species);
+        var count = DoubleVector.zero(species);
+        DoubleVector v, t;
+        VectorMask<Double> missing, mask;
+        var i = 0;
+        for (; i < upperBound; i += species.length()) {
+            v = DoubleVector.fromArray(species, x, i);
+            missing = v.test(IS_NAN);
+            v = v.blend(-0.d, missing);
+            count = count.add(1., missing.not());
+            t = s.add(v);
+            mask = s.abs().compare(GE, v.abs());
+            c = c.sub(s.blend(v, mask.not()).sub(t).add(v.blend(s, mask.not())));
+            s = t;
+        }
+
+        val acc = new Sum.Accumulator();
+        val sums = s.toArray();
+        val correctors = c.toArray();
+        for (val sum : sums) acc.sum(sum);
+        for (val corrector : correctors) acc.sum(-corrector);
+        val valid = (long) count.reduceLanes(ADD) + NanMoments.sum(x, i, x.length, acc);
+        return new NanReduction(valid == 0 ? 0. : acc.getSum(), valid);
+    }
+
+    static void moments(final double[] x, final double @Nullable [] weights, final NanMoments moments) {
+        moments(SPECIES, x, weights, moments);
+    }
+
+    /**
+     * Every lane runs the update of {@link NanMoments#add} under a mask of values that are not {@code NaN} before the
+     * shift. Lanes are then merged in order, followed by the tail.
+     */
+    static void moments(final VectorSpecies<Double> species, final double[] x, final double @Nullable [] weights,
+                        final NanMoments moments) {
+        val upperBound = species.loopBound(x.length);
+        val ones = DoubleVector.broadcast(species, 1.);
+        val shift = DoubleVector.broadcast(species, moments.shift);
+        var count = DoubleVector.zero(species);
+        var weight = DoubleVector.zero(species);
+        var mean = DoubleVector.zero(species);
+        var m2 = DoubleVector.zero(species);
+        DoubleVector v, w, delta;
+        VectorMask<Double> valid;
+        var i = 0;
+        for (; i < upperBound; i += species.length()) {
+            v = DoubleVector.fromArray(species, x, i);
+            w = weights == null ? ones : DoubleVector.fromArray(species, weights, i);
+            valid = v.test(IS_NAN).or(w.test(IS_NAN)).not();
+            v = v.sub(shift);
+            count = count.add(1., valid);
+            valid = valid.and(w.compare(NE, 0.));
+            weight = weight.add(w, valid);
+            delta = v.sub(mean);
+            mean = mean.add(delta.mul(w).div(weight), valid);
+            m2 = m2.add(delta.mul(v.sub(mean)).mul(w), valid);
+        }
+
+        val counts = count.toArray();
+        val weightSums = weight.toArray();
+        val means = mean.toArray();
+        val m2s = m2.toArray();
+        for (var lane = 0; lane < counts.length; lane++)
+            moments.merge((long) counts[lane], weightSums[lane], means[lane], m2s[lane]);
+        moments.add(x, weights, i, x.length);
+    }
+}
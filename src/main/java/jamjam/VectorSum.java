@@ -0,0 +1,51 @@
+package jamjam;
+
+import jamjam.metrics.CodePath;
+import jamjam.metrics.Instrumentation;
+import jamjam.metrics.SummationEvent;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import lombok.NonNull;
+import lombok.val;
+
+import static jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
+import static jdk.incubator.vector.DoubleVector.broadcast;
+import static jdk.incubator.vector.VectorOperators.GE;
+
+/**
+ * Sums of {@link DoubleVector}s. They live apart from {@link Sum}, so that callers of {@link Sum} neither compile nor
+ * run against the Vector API; this class needs {@code --add-modules=jdk.incubator.vector} at both stages.
+ */
+public final class VectorSum {
+    private VectorSum() {
+    }
+
+    /**
+     * A vectorized compensated sum.
+     *
+     * @param values A conventional array of {@link DoubleVector}.
+     * @return a {@link DoubleVector} of the same size with all the sums.
+     * @throws NullPointerException When the input is {@code null}.
+     * @implSpec All summation is done line-wise, vectors may have any species as long as it is the same for all of
+     * them.
+     * @see Sum#sum(double...)
+     */
+    public static @NonNull DoubleVector sum(final DoubleVector @NonNull ... values) {
+        if (values.length == 0) return broadcast(SPECIES_PREFERRED, 0.d);
+        val probe = Instrumentation.start(new SummationEvent());
+        val species = values[0].species();
+        var uncorrectedSum = broadcast(species, -0.d);
+        var corrector = broadcast(species, 0.d);
+        var temp = broadcast(species, 0.d);
+        VectorMask<Double> mask;
+
+        for (var v : values) {
+            temp = uncorrectedSum.add(v);
+            mask = uncorrectedSum.abs().compare(GE, v.abs());
+            corrector = corrector.sub(v.blend(uncorrectedSum, mask).sub(temp).add(v.blend(uncorrectedSum, mask.not())));
+            uncorrectedSum = temp;
+        }
+        Instrumentation.record(probe, "VectorSum.sum", CodePath.VECTOR, (long) values.length * species.length(), 0);
+        return uncorrectedSum.sub(corrector);
+    }
+}
@@ -1,5 +1,8 @@
 package jamjam.arrays;
 
+import jamjam.metrics.CodePath;
+import jamjam.metrics.GridEvent;
+import jamjam.metrics.Instrumentation;
 import lombok.NonNull;
 import lombok.val;
 
@@ -59,7 +62,10 @@ public class ARange {
             throw new IndexOutOfBoundsException("The step size is too small, arrays can't store that many.");
         else {
             val arraySize = (int) totalIntervals;
-            return IntStream.range(0, arraySize).mapToDouble(i -> fma(i, step, start)).toArray();
+            val probe = Instrumentation.start(new GridEvent());
+            val range = IntStream.range(0, arraySize).mapToDouble(i -> fma(i, step, start)).toArray();
+            Instrumentation.record(probe, "ARange.generateRange", CodePath.SCALAR, arraySize, 8L * arraySize);
+            return range;
         }
     }
 
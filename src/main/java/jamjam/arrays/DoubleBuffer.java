@@ -0,0 +1,301 @@
+package jamjam.arrays;
+
+import jamjam.Sum;
+import lombok.NonNull;
+import lombok.val;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import static jamjam.aux.Utils.MomentQualifiers.MEAN;
+import static jamjam.aux.Utils.MomentQualifiers.UNWEIGHTED_BIASED_VARIANCE;
+import static jamjam.aux.Utils.MomentQualifiers.UNWEIGHTED_UNBIASED_VARIANCE;
+import static jamjam.aux.Utils.momentLengthCheck;
+
+/**
+ * A growable column of primitive doubles, an alternative to {@code ArrayList<Double>} that involves no boxing. Values
+ * are kept either in a heap array or in a direct (off-heap) buffer.
+ *
+ * @implNote Not thread-safe.
+ */
+public final class DoubleBuffer {
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * Some VMs reserve header words in arrays, mirrors the limit used by the JDK collections.
+     */
+    private static final int MAX_HEAP_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final int MAX_OFF_HEAP_CAPACITY = Integer.MAX_VALUE / Double.BYTES;
+
+    private double[] heap;
+    private java.nio.DoubleBuffer offHeap;
+    private int size;
+
+    /**
+     * Creates an empty heap buffer with the default capacity.
+     */
+    public DoubleBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty heap buffer.
+     *
+     * @param initialCapacity The number of values the buffer can hold before growing.
+     * @throws IllegalArgumentException When the capacity is negative.
+     */
+    public DoubleBuffer(final int initialCapacity) {
+        if (initialCapacity < 0) throw new IllegalArgumentException("Capacity can't be negative.");
+        heap = new double[initialCapacity];
+    }
+
+    private DoubleBuffer(final java.nio.DoubleBuffer offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Creates an empty buffer backed by native memory, it doesn't add to the GC pressure but is limited to
+     * {@code Integer.MAX_VALUE / 8} values.
+     *
+     * @param initialCapacity The number of values the buffer can hold before growing.
+     * @return An off-heap buffer.
+     * @throws IllegalArgumentException When the capacity is negative or too large.
+     */
+    public static @NonNull DoubleBuffer offHeap(final int initialCapacity) {
+        if (initialCapacity < 0 || initialCapacity > MAX_OFF_HEAP_CAPACITY)
+            throw new IllegalArgumentException("Capacity must be in the range [0; Integer.MAX_VALUE / 8].");
+        return new DoubleBuffer(allocateDirect(initialCapacity));
+    }
+
+    /**
+     * Wraps an existing array, no copy is made.
+     *
+     * @param x An array of doubles.
+     * @return A heap buffer that contains all the values of {@code x}.
+     */
+    public static @NonNull DoubleBuffer wrap(final double @NonNull [] x) {
+        val buffer = new DoubleBuffer(0);
+        buffer.heap = x;
+        buffer.size = x.length;
+        return buffer;
+    }
+
+    /**
+     * @return The number of stored values.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of values the buffer can hold before growing.
+     */
+    public int capacity() {
+        return offHeap == null ? heap.length : offHeap.capacity();
+    }
+
+    public boolean isOffHeap() {
+        return offHeap != null;
+    }
+
+    /**
+     * Appends a single value, the storage grows by 50% when full.
+     *
+     * @param x A double value.
+     */
+    public void append(final double x) {
+        ensureCapacity(size + 1);
+        if (offHeap == null) heap[size++] = x;
+        else offHeap.put(size++, x);
+    }
+
+    /**
+     * Appends all values at once.
+     *
+     * @param x An array of doubles.
+     * @throws NullPointerException When the input is {@code null}.
+     */
+    public void append(final double @NonNull ... x) {
+        append(x, 0, x.length);
+    }
+
+    /**
+     * Appends a range of values at once.
+     *
+     * @param x         An array of doubles.
+     * @param fromIndex The first element of the range, inclusive.
+     * @param toIndex   The last element of the range, exclusive.
+     * @throws NullPointerException      When the input is {@code null}.
+     * @throws IndexOutOfBoundsException When the range is out of the array bounds.
+     */
+    public void append(final double @NonNull [] x, final int fromIndex, final int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, x.length);
+        val length = toIndex - fromIndex;
+        ensureCapacity(size + length);
+        if (offHeap == null) System.arraycopy(x, fromIndex, heap, size, length);
+        else offHeap.put(size, x, fromIndex, length);
+        size += length;
+    }
+
+    /**
+     * @param x A stream of doubles.
+     * @see #append(double...)
+     */
+    public void append(final @NonNull DoubleStream x) {
+        x.sequential().forEachOrdered(this::append);
+    }
+
+    /**
+     * @param index The position of the value.
+     * @return The stored value.
+     * @throws IndexOutOfBoundsException When {@code index} is out of {@code [0, size)}.
+     */
+    public double get(final int index) {
+        Objects.checkIndex(index, size);
+        return offHeap == null ? heap[index] : offHeap.get(index);
+    }
+
+    /**
+     * @param index The position of the value.
+     * @param x     The new value.
+     * @throws IndexOutOfBoundsException When {@code index} is out of {@code [0, size)}.
+     */
+    public void set(final int index, final double x) {
+        Objects.checkIndex(index, size);
+        if (offHeap == null) heap[index] = x;
+        else offHeap.put(index, x);
+    }
+
+    /**
+     * Drops all values, the storage is kept for reuse.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Shrinks the storage to the actual number of values.
+     */
+    public void trimToSize() {
+        if (size == capacity()) return;
+        if (offHeap == null) heap = Arrays.copyOf(heap, size);
+        else offHeap = copyDirect(offHeap, size, size);
+    }
+
+    /**
+     * Gives access to the storage of a heap buffer, only the first {@link #size()} values are meaningful. Any
+     * subsequent append might replace the storage.
+     *
+     * @return The backing array.
+     * @throws UnsupportedOperationException When the buffer is off-heap.
+     */
+    public double @NonNull [] array() {
+        if (offHeap != null) throw new UnsupportedOperationException("Off-heap buffers have no backing array.");
+        return heap;
+    }
+
+    /**
+     * @return A copy of all values.
+     */
+    public double @NonNull [] toArray() {
+        if (offHeap == null) return Arrays.copyOf(heap, size);
+        val result = new double[size];
+        offHeap.get(0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * @return A sequential stream of all values.
+     */
+    public @NonNull DoubleStream stream() {
+        if (offHeap == null) return Arrays.stream(heap, 0, size);
+        val view = offHeap.duplicate();
+        return IntStream.range(0, size).mapToDouble(view::get);
+    }
+
+    /**
+     * @return the compensated sum of all values.
+     * @see Sum#sum(double[], int, int)
+     */
+    public double sum() {
+        if (offHeap == null) return Sum.sum(heap, 0, size);
+        val acc = new Sum.Accumulator();
+        for (var i = 0; i < size; i++) acc.sum(offHeap.get(i));
+        return acc.getSum();
+    }
+
+    /**
+     * @return arithmetic average of all values.
+     * @throws IllegalArgumentException When the buffer is empty.
+     * @see jamjam.Mean#mean(double[])
+     */
+    public double mean() {
+        momentLengthCheck(size, MEAN);
+        return sum() / size;
+    }
+
+    /**
+     * @return The population (biased) variance of all values.
+     * @throws IllegalArgumentException When the buffer is empty.
+     * @see jamjam.Variance#unweightedBiasedVariance(double[])
+     */
+    public double biasedVariance() {
+        momentLengthCheck(size, UNWEIGHTED_BIASED_VARIANCE);
+        return squaredDeviations() / size;
+    }
+
+    /**
+     * @return The sample (unbiased) variance of all values.
+     * @throws IllegalArgumentException When the buffer has fewer than two values.
+     * @see jamjam.Variance#unweightedUnbiasedVariance(double[])
+     */
+    public double unbiasedVariance() {
+        momentLengthCheck(size, UNWEIGHTED_UNBIASED_VARIANCE);
+        return squaredDeviations() / (size - 1);
+    }
+
+    /**
+     * Accumulates squared deviations from the mean without any scratch arrays.
+     */
+    private double squaredDeviations() {
+        val mean = mean();
+        val acc = new Sum.Accumulator();
+        double deviation;
+        for (var i = 0; i < size; i++) {
+            deviation = (offHeap == null ? heap[i] : offHeap.get(i)) - mean;
+            acc.sum(deviation * deviation);
+        }
+        return acc.getSum();
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity < 0) throw new OutOfMemoryError("Required buffer capacity is too large.");
+        val capacity = capacity();
+        if (minCapacity <= capacity) return;
+
+        val limit = offHeap == null ? MAX_HEAP_CAPACITY : MAX_OFF_HEAP_CAPACITY;
+        if (minCapacity > limit) throw new OutOfMemoryError("Required buffer capacity is too large.");
+        val grown = (int) Math.min(limit, Math.max((long) minCapacity, capacity + (capacity >> 1) + 1L));
+
+        if (offHeap == null) heap = Arrays.copyOf(heap, grown);
+        else offHeap = copyDirect(offHeap, size, grown);
+    }
+
+    private static java.nio.DoubleBuffer allocateDirect(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+    }
+
+    private static java.nio.DoubleBuffer copyDirect(final java.nio.DoubleBuffer source, final int length,
+                                                    final int capacity) {
+        val target = allocateDirect(capacity);
+        target.put(0, source, 0, length);
+        return target;
+    }
+}
@@ -1,5 +1,8 @@
 package jamjam.arrays;
 
+import jamjam.metrics.CodePath;
+import jamjam.metrics.GridEvent;
+import jamjam.metrics.Instrumentation;
 import lombok.val;
 import org.jetbrains.annotations.Nullable;
 
@@ -45,7 +48,10 @@ public class LinearSpace {
         if (abs(stepSize) < Double.MIN_NORMAL)
             throw new IllegalArgumentException("Underflow, step size is too small, possible loss of precision.");
 
-        return IntStream.range(0, totalNumber).mapToDouble(i -> fma(i, stepSize, start)).toArray();
+        val probe = Instrumentation.start(new GridEvent());
+        val space = IntStream.range(0, totalNumber).mapToDouble(i -> fma(i, stepSize, start)).toArray();
+        Instrumentation.record(probe, "LinearSpace.linspace", CodePath.SCALAR, totalNumber, 8L * totalNumber);
+        return space;
     }
 
     /**
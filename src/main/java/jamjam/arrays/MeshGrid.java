@@ -0,0 +1,231 @@
+package jamjam.arrays;
+
+import jamjam.metrics.CodePath;
+import jamjam.metrics.GridEvent;
+import jamjam.metrics.Instrumentation;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.lang.Math.multiplyExact;
+
+public class MeshGrid {
+    private MeshGrid() {
+    }
+
+    /**
+     * Generates an N-dimensional grid out of N one-dimensional axes, e.g., produced by
+     * {@link LinearSpace#linspace(double, double, int, boolean)} or {@link ARange#arange(double, double, double)}.
+     *
+     * @param axes Coordinates along every dimension.
+     * @return A struct-of-arrays buffer, {@code result[d][i]} is the coordinate of the point {@code i} along the axis
+     * {@code d}.
+     * @throws NullPointerException      When the input or any of the axes is {@code null}.
+     * @throws IllegalArgumentException  When no axes are provided.
+     * @throws IndexOutOfBoundsException When the total number of points exceeds {@code Integer.MAX_VALUE}.
+     * @implSpec Uses the matrix ({@code ij}) indexing, the last axis varies the fastest.
+     */
+    public static double @NonNull [] @NonNull [] meshgrid(final double @NonNull [] @NonNull ... axes) {
+        return grid(axes).materialize();
+    }
+
+    /**
+     * Creates a lazy grid that enumerates all points of the Cartesian product of {@code axes} without storing them.
+     *
+     * @param axes Coordinates along every dimension, copied defensively.
+     * @return A {@link Grid} instance.
+     * @throws NullPointerException     When the input or any of the axes is {@code null}.
+     * @throws IllegalArgumentException When no axes are provided.
+     * @throws ArithmeticException      When the total number of points exceeds {@code Long.MAX_VALUE}.
+     * @see #meshgrid(double[][])
+     */
+    public static @NonNull Grid grid(final double @NonNull [] @NonNull ... axes) {
+        return new Grid(axes);
+    }
+
+    /**
+     * A Cartesian product of several axes that is never materialized unless explicitly requested. Points are
+     * enumerated by their flat (row-major) index, thus any subrange of {@code [0, size)} can be processed
+     * independently, e.g., by a fork/join worker.
+     */
+    public static final class Grid {
+        private final double[][] axes;
+        /**
+         * Number of points covered by a unit step along every axis.
+         */
+        private final long[] strides;
+        private final long size;
+
+        private Grid(final double @NonNull [] @NonNull [] axes) {
+            if (axes.length == 0) throw new IllegalArgumentException("At least one axis is required.");
+            this.axes = new double[axes.length][];
+            strides = new long[axes.length];
+
+            var total = 1L;
+            for (var d = axes.length - 1; d >= 0; d--) {
+                this.axes[d] = axes[d].clone();
+                strides[d] = total;
+                total = multiplyExact(total, axes[d].length);
+            }
+            size = total;
+        }
+
+        /**
+         * @return The total number of points in the grid.
+         */
+        public long size() {
+            return size;
+        }
+
+        /**
+         * @return The number of axes.
+         */
+        public int dimensions() {
+            return axes.length;
+        }
+
+        /**
+         * Decodes a flat index into a set of axis indices.
+         *
+         * @param index The flat index of a point.
+         * @param out   A buffer of length {@link #dimensions()} to store the result in.
+         * @throws IndexOutOfBoundsException When {@code index} is out of {@code [0, size)}.
+         * @throws IllegalArgumentException  When the buffer length doesn't match the number of dimensions.
+         */
+        public void indices(final long index, final int @NonNull [] out) {
+            checkPoint(index, out.length);
+            var remainder = index;
+            for (var d = 0; d < axes.length; d++) {
+                out[d] = (int) (remainder / strides[d]);
+                remainder -= out[d] * strides[d];
+            }
+        }
+
+        /**
+         * Decodes a flat index into point coordinates.
+         *
+         * @param index The flat index of a point.
+         * @param out   A buffer of length {@link #dimensions()} to store the result in.
+         * @throws IndexOutOfBoundsException When {@code index} is out of {@code [0, size)}.
+         * @throws IllegalArgumentException  When the buffer length doesn't match the number of dimensions.
+         */
+        public void coordinates(final long index, final double @NonNull [] out) {
+            checkPoint(index, out.length);
+            var remainder = index;
+            int position;
+            for (var d = 0; d < axes.length; d++) {
+                position = (int) (remainder / strides[d]);
+                remainder -= position * strides[d];
+                out[d] = axes[d][position];
+            }
+        }
+
+        /**
+         * @return A sequential stream of all flat indices, can be turned into a parallel one.
+         */
+        public @NonNull LongStream indices() {
+            return LongStream.range(0, size);
+        }
+
+        /**
+         * @return A stream of points, each one is a freshly allocated array of coordinates.
+         * @implSpec Consecutive points are produced by an odometer-like increment, no division is involved except for
+         * the first point of every split.
+         */
+        public @NonNull Stream<double @NonNull []> points() {
+            return StreamSupport.stream(new PointSpliterator(0, size), false);
+        }
+
+        /**
+         * Creates all points at once.
+         *
+         * @return A struct-of-arrays buffer.
+         * @throws IndexOutOfBoundsException When the total number of points exceeds {@code Integer.MAX_VALUE}.
+         * @see MeshGrid#meshgrid(double[][])
+         */
+        public double @NonNull [] @NonNull [] materialize() {
+            if (size > Integer.MAX_VALUE)
+                throw new IndexOutOfBoundsException("The grid is too large, arrays can't store that many.");
+
+            val probe = Instrumentation.start(new GridEvent());
+            val result = new double[axes.length][(int) size];
+            for (var d = 0; d < axes.length; d++) {
+                val stride = (int) strides[d];
+                val axis = axes[d];
+                val column = result[d];
+                val period = stride * axis.length;
+                for (var offset = 0; offset < column.length; offset += period)
+                    for (var j = 0; j < axis.length; j++)
+                        Arrays.fill(column, offset + j * stride, offset + (j + 1) * stride, axis[j]);
+            }
+            Instrumentation.record(probe, "MeshGrid.materialize", CodePath.SCALAR, size, 8L * axes.length * size);
+            return result;
+        }
+
+        private void checkPoint(final long index, final int bufferLength) {
+            if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index is out of the grid range.");
+            if (bufferLength != axes.length)
+                throw new IllegalArgumentException("Buffer length must match the number of dimensions.");
+        }
+
+        /**
+         * Iterates over a range of flat indices.
+         */
+        private final class PointSpliterator implements Spliterator<double[]> {
+            private long origin;
+            private final long fence;
+
+            private PointSpliterator(final long origin, final long fence) {
+                this.origin = origin;
+                this.fence = fence;
+            }
+
+            @Override
+            public boolean tryAdvance(final @NonNull Consumer<? super double[]> action) {
+                if (origin >= fence) return false;
+                val point = new double[axes.length];
+                coordinates(origin++, point);
+                action.accept(point);
+                return true;
+            }
+
+            @Override
+            public void forEachRemaining(final @NonNull Consumer<? super double[]> action) {
+                if (origin >= fence) return;
+                val position = new int[axes.length];
+                indices(origin, position);
+                for (; origin < fence; origin++) {
+                    val point = new double[axes.length];
+                    for (var d = 0; d < axes.length; d++) point[d] = axes[d][position[d]];
+                    action.accept(point);
+                    for (var d = axes.length - 1; d >= 0 && ++position[d] == axes[d].length; d--) position[d] = 0;
+                }
+            }
+
+            @Override
+            public Spliterator<double[]> trySplit() {
+                val middle = (origin + fence) >>> 1;
+                if (middle <= origin) return null;
+                val prefix = new PointSpliterator(origin, middle);
+                origin = middle;
+                return prefix;
+            }
+
+            @Override
+            public long estimateSize() {
+                return fence - origin;
+            }
+
+            @Override
+            public int characteristics() {
+                return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+            }
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package jamjam.arrays;
 
-import jdk.incubator.vector.DoubleVector;
+import jamjam.metrics.CodePath;
+import jamjam.metrics.Instrumentation;
+import jamjam.metrics.ProductEvent;
+import jamjam.simd.Simd;
 import lombok.NonNull;
 import lombok.val;
 
@@ -8,7 +11,6 @@ import java.util.Arrays;
 
 import static jamjam.aux.Utils.lengthParity;
 import static java.util.stream.IntStream.range;
-import static jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
 
 public class Product {
     private Product() {
@@ -20,39 +22,61 @@ public class Product {
      * @param x2 Another vector.
      * @return The resulting product,
      * @implSpec Early benchmarks reveal that employing {@link jdk.incubator.vector} becomes beneficial for vector
-     * elementwise multiplications when the size of arrays reaches {@code ~5000}
+     * elementwise multiplications when the size of arrays reaches {@code ~5000}, the vector width is that of
+     * {@link Simd#level()}, smaller arrays and JVMs without the Vector API take the scalar path.
      */
     public static double @NonNull [] product(final double @NonNull [] x1, final double @NonNull [] x2) {
         lengthParity(x1.length, x2.length);
-        if (x1.length >= 5000) {
-            int i = 0;
-
-            val upperBound = SPECIES_PREFERRED.loopBound(x1.length);
-            val r = new double[x1.length];
-            DoubleVector vx, vw, vr;
-            for (; i < upperBound; i += SPECIES_PREFERRED.length()) {
-                vx = DoubleVector.fromArray(SPECIES_PREFERRED, x1, i);
-                vw = DoubleVector.fromArray(SPECIES_PREFERRED, x2, i);
-                vr = vx.mul(vw);
-                vr.intoArray(r, i);
-            }
+        val probe = Instrumentation.start(new ProductEvent());
+        if (x1.length >= 5000 && Simd.isVectorized()) {
+            val r = VectorProduct.product(x1, x2);
+            Instrumentation.record(probe, "Product.product", CodePath.VECTOR, x1.length, 8L * x1.length);
+            return r;
+        }
+        val r = range(0, x1.length).mapToDouble(i -> x1[i] * x2[i]).toArray();
+        Instrumentation.record(probe, "Product.product", CodePath.SCALAR, x1.length, 8L * x1.length);
+        return r;
+    }
 
-            for (; i < x1.length; i++) r[i] = x1[i] * x2[i];
+    /**
+     * Calculates the product of two vectors of single precision values in double precision, products of floats are
+     * exact in double.
+     *
+     * @param x1 A vector of values.
+     * @param x2 Another vector.
+     * @return The resulting product.
+     * @implSpec Floats are widened lane-wise, there are no intermediate copies.
+     * @see #product(double[], double[])
+     */
+    public static double @NonNull [] product(final float @NonNull [] x1, final float @NonNull [] x2) {
+        lengthParity(x1.length, x2.length);
+        val probe = Instrumentation.start(new ProductEvent());
+        if (x1.length >= 5000 && Simd.isVectorized()) {
+            val r = VectorProduct.product(x1, x2);
+            Instrumentation.record(probe, "Product.product", CodePath.VECTOR, x1.length, 8L * x1.length);
             return r;
-        } else return range(0, x1.length).mapToDouble(i -> x1[i] * x2[i]).toArray();
+        }
+        val r = new double[x1.length];
+        for (var i = 0; i < r.length; i++) r[i] = (double) x1[i] * x2[i];
+        Instrumentation.record(probe, "Product.product", CodePath.SCALAR, x1.length, 8L * x1.length);
+        return r;
     }
 
     public static double @NonNull [] product(final double @NonNull [] x1, final int @NonNull [] x2) {
         lengthParity(x1.length, x2.length);
+        val probe = Instrumentation.start(new ProductEvent());
         val scratch = Arrays.copyOf(x1, x1.length);
         range(0, scratch.length).forEach(i -> scratch[i] *= x2[i]);
+        Instrumentation.record(probe, "Product.product", CodePath.SCALAR, x1.length, 8L * x1.length);
         return scratch;
     }
 
     public static double @NonNull [] product(final double @NonNull [] x1, final long @NonNull [] x2) {
         lengthParity(x1.length, x2.length);
+        val probe = Instrumentation.start(new ProductEvent());
         val scratch = Arrays.copyOf(x1, x1.length);
         range(0, scratch.length).forEach(i -> scratch[i] *= x2[i]);
+        Instrumentation.record(probe, "Product.product", CodePath.SCALAR, x1.length, 8L * x1.length);
         return scratch;
     }
 
@@ -63,17 +87,23 @@ public class Product {
      */
     public static void productInPlace(final double @NonNull [] x1, final double @NonNull [] x2) {
         lengthParity(x1.length, x2.length);
+        val probe = Instrumentation.start(new ProductEvent());
         range(0, x1.length).forEach(i -> x1[i] *= x2[i]);
+        Instrumentation.record(probe, "Product.productInPlace", CodePath.SCALAR, x1.length, 0);
     }
 
     public static void productInPlace(final double @NonNull [] x1, final int @NonNull [] x2) {
         lengthParity(x1.length, x2.length);
+        val probe = Instrumentation.start(new ProductEvent());
         range(0, x1.length).forEach(i -> x1[i] *= x2[i]);
+        Instrumentation.record(probe, "Product.productInPlace", CodePath.SCALAR, x1.length, 0);
     }
 
     public static void productInPlace(final double @NonNull [] x1, final long @NonNull [] x2) {
         lengthParity(x1.length, x2.length);
+        val probe = Instrumentation.start(new ProductEvent());
         range(0, x1.length).forEach(i -> x1[i] *= x2[i]);
+        Instrumentation.record(probe, "Product.productInPlace", CodePath.SCALAR, x1.length, 0);
     }
 }
 // todo create a version of the product that supports more arguments, replace where needed
@@ -0,0 +1,57 @@
+package jamjam.arrays;
+
+import jamjam.simd.Simd;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import lombok.val;
+
+/**
+ * Vectorized kernels of {@link Product}, the class links against the Vector API and must be touched only when
+ * {@link Simd#isVectorized()} is {@code true}.
+ */
+final class VectorProduct {
+    private static final VectorSpecies<Double> SPECIES =
+        DoubleVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(Simd.vectorBitSize()));
+
+    /**
+     * Floats with as many lanes as {@link #SPECIES} has.
+     */
+    private static final VectorSpecies<Float> FLOATS =
+        VectorSpecies.of(float.class, VectorShape.forBitSize(Simd.vectorBitSize() / 2));
+
+    private VectorProduct() {
+    }
+
+    static double[] product(final double[] x1, final double[] x2) {
+        var i = 0;
+        val upperBound = SPECIES.loopBound(x1.length);
+        val r = new double[x1.length];
+        DoubleVector vx, vw, vr;
+        for (; i < upperBound; i += SPECIES.length()) {
+            vx = DoubleVector.fromArray(SPECIES, x1, i);
+            vw = DoubleVector.fromArray(SPECIES, x2, i);
+            vr = vx.mul(vw);
+            vr.intoArray(r, i);
+        }
+
+        for (; i < x1.length; i++) r[i] = x1[i] * x2[i];
+        return r;
+    }
+
+    static double[] product(final float[] x1, final float[] x2) {
+        var i = 0;
+        val upperBound = SPECIES.loopBound(x1.length);
+        val r = new double[x1.length];
+        DoubleVector vx, vw;
+        for (; i < upperBound; i += SPECIES.length()) {
+            vx = (DoubleVector) FloatVector.fromArray(FLOATS, x1, i).castShape(SPECIES, 0);
+            vw = (DoubleVector) FloatVector.fromArray(FLOATS, x2, i).castShape(SPECIES, 0);
+            vx.mul(vw).intoArray(r, i);
+        }
+
+        for (; i < x1.length; i++) r[i] = (double) x1[i] * x2[i];
+        return r;
+    }
+}
@@ -0,0 +1,136 @@
+package jamjam.aux;
+
+import lombok.val;
+
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator.SplittableGenerator;
+
+/**
+ * A parallel in-place shuffle: halves are shuffled independently, then merged by coin flips. The recursion tree
+ * depends only on the array length, and every subtask receives its own generator split off in a fixed order, thus the
+ * result is reproducible from a seed regardless of the number of threads.
+ *
+ * @see <a href="https://arxiv.org/abs/1508.03167">MergeShuffle: A Very Fast, Parallel Random Permutation
+ * Algorithm</a>
+ */
+abstract class MergeShuffle extends RecursiveAction {
+    /**
+     * Ranges shorter than that are shuffled sequentially with Fisher–Yates.
+     */
+    static final int LEAF_SIZE = 1 << 16;
+
+    final int from;
+    final int to;
+    final SplittableGenerator generator;
+
+    MergeShuffle(final int from, final int to, final SplittableGenerator generator) {
+        this.from = from;
+        this.to = to;
+        this.generator = generator;
+    }
+
+    abstract void swap(int i, int j);
+
+    abstract MergeShuffle subtask(int from, int to, SplittableGenerator generator);
+
+    @Override
+    protected void compute() {
+        if (to - from <= LEAF_SIZE) {
+            for (var i = to - 1; i > from; i--) swap(from + generator.nextInt(i - from + 1), i);
+            return;
+        }
+        val mid = (from + to) >>> 1;
+        val left = subtask(from, mid, generator.split());
+        val right = subtask(mid, to, generator.split());
+        invokeAll(left, right);
+        merge(mid);
+    }
+
+    /**
+     * Interleaves two shuffled halves at random, the leftovers are placed by Fisher–Yates insertions.
+     */
+    private void merge(final int mid) {
+        var u = from;
+        var v = mid;
+        var bits = 0L;
+        var available = 0;
+        while (true) {
+            if (available == 0) {
+                bits = generator.nextLong();
+                available = Long.SIZE;
+            }
+            val flip = (bits & 1L) != 0;
+            bits >>>= 1;
+            available--;
+            if (flip) {
+                if (v == to) break;
+                swap(u, v++);
+            } else if (u == v) break;
+            u++;
+        }
+        for (; u < to; u++) swap(from + generator.nextInt(u - from + 1), u);
+    }
+
+    static final class OfDouble extends MergeShuffle {
+        private final double[] x;
+
+        OfDouble(final double[] x, final int from, final int to, final SplittableGenerator generator) {
+            super(from, to, generator);
+            this.x = x;
+        }
+
+        @Override
+        void swap(final int i, final int j) {
+            val temp = x[i];
+            x[i] = x[j];
+            x[j] = temp;
+        }
+
+        @Override
+        MergeShuffle subtask(final int from, final int to, final SplittableGenerator generator) {
+            return new OfDouble(x, from, to, generator);
+        }
+    }
+
+    static final class OfInt extends MergeShuffle {
+        private final int[] x;
+
+        OfInt(final int[] x, final int from, final int to, final SplittableGenerator generator) {
+            super(from, to, generator);
+            this.x = x;
+        }
+
+        @Override
+        void swap(final int i, final int j) {
+            val temp = x[i];
+            x[i] = x[j];
+            x[j] = temp;
+        }
+
+        @Override
+        MergeShuffle subtask(final int from, final int to, final SplittableGenerator generator) {
+            return new OfInt(x, from, to, generator);
+        }
+    }
+
+    static final class OfLong extends MergeShuffle {
+        private final long[] x;
+
+        OfLong(final long[] x, final int from, final int to, final SplittableGenerator generator) {
+            super(from, to, generator);
+            this.x = x;
+        }
+
+        @Override
+        void swap(final int i, final int j) {
+            val temp = x[i];
+            x[i] = x[j];
+            x[j] = temp;
+        }
+
+        @Override
+        MergeShuffle subtask(final int from, final int to, final SplittableGenerator generator) {
+            return new OfLong(x, from, to, generator);
+        }
+    }
+}
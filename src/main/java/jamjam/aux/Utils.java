@@ -1,31 +1,44 @@
 package jamjam.aux;
 
-import com.github.skjolber.stcsv.sa.StringArrayCsvReader;
+import jamjam.io.MalformedValueException;
+import jamjam.io.NumericCsvReader;
 import lombok.NonNull;
 import lombok.val;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.Random;
-import java.util.stream.IntStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.random.RandomGeneratorFactory;
 
 import static java.lang.Math.abs;
 import static java.lang.Math.signum;
 import static java.lang.StrictMath.max;
 
 public class Utils {
+    /**
+     * Arrays shorter than that are shuffled sequentially by the parallel methods.
+     */
+    public static final int PARALLEL_SHUFFLE_THRESHOLD = 10_000_000;
+    /**
+     * The algorithm used when a parallel shuffle is seeded explicitly.
+     */
+    private static final String SPLITTABLE_ALGORITHM = "L64X128MixRandom";
+
     /**
      * This function loops over all values in the input array and permutes them randomly inplace.
      *
      * @param x         An input array of doubles.
-     * @param generator A random generator object.
+     * @param generator A random generator object, e.g., {@link Random} or any of {@code java.util.random}.
      * @implSpec Based on the modified Fisher–Yates shuffle.
      * @implNote No XOR is used to keep the code readable.
      */
-    public static void shuffleDoubleArray(final double @NonNull [] x, final @NonNull Random generator) {
+    public static void shuffleDoubleArray(final double @NonNull [] x, final @NonNull RandomGenerator generator) {
         int index;
         double temp;
         if (!((x.length == 0) || (x.length == 1))) {
@@ -39,12 +52,142 @@ public class Utils {
     }
 
     /**
-     * Shuffles the elements of an array using a newly constructed RNG.
+     * Shuffles the elements of an array using the thread-local RNG, no generator is created per call.
      *
-     * @see #shuffleDoubleArray(double[], Random)
+     * @see #shuffleDoubleArray(double[], RandomGenerator)
      */
     public static void shuffleDoubleArray(final double @NonNull [] x) {
-        shuffleDoubleArray(x, new Random());
+        shuffleDoubleArray(x, ThreadLocalRandom.current());
+    }
+
+    /**
+     * @see #shuffleDoubleArray(double[], RandomGenerator)
+     */
+    public static void shuffleIntArray(final int @NonNull [] x, final @NonNull RandomGenerator generator) {
+        int index;
+        int temp;
+        for (var i = x.length - 1; i > 0; i--) {
+            index = generator.nextInt(i + 1);
+            temp = x[index];
+            x[index] = x[i];
+            x[i] = temp;
+        }
+    }
+
+    /**
+     * @see #shuffleDoubleArray(double[])
+     */
+    public static void shuffleIntArray(final int @NonNull [] x) {
+        shuffleIntArray(x, ThreadLocalRandom.current());
+    }
+
+    /**
+     * @see #shuffleDoubleArray(double[], RandomGenerator)
+     */
+    public static void shuffleLongArray(final long @NonNull [] x, final @NonNull RandomGenerator generator) {
+        int index;
+        long temp;
+        for (var i = x.length - 1; i > 0; i--) {
+            index = generator.nextInt(i + 1);
+            temp = x[index];
+            x[index] = x[i];
+            x[i] = temp;
+        }
+    }
+
+    /**
+     * @see #shuffleDoubleArray(double[])
+     */
+    public static void shuffleLongArray(final long @NonNull [] x) {
+        shuffleLongArray(x, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Generates a random permutation of indices, handy to shuffle several arrays the same way.
+     *
+     * @param length    The number of indices.
+     * @param generator A random generator object.
+     * @return A shuffled array of {@code 0, 1, ..., length - 1}.
+     * @throws IllegalArgumentException When {@code length} is negative.
+     * @implSpec Uses the "inside-out" version of Fisher–Yates, the array is filled and shuffled in a single pass.
+     */
+    public static int @NonNull [] permutation(final int length, final @NonNull RandomGenerator generator) {
+        if (length < 0) throw new IllegalArgumentException("The length of a permutation can't be negative.");
+        val result = new int[length];
+        int index;
+        for (var i = 0; i < length; i++) {
+            index = generator.nextInt(i + 1);
+            result[i] = result[index];
+            result[index] = i;
+        }
+        return result;
+    }
+
+    /**
+     * Shuffles large arrays on the common fork/join pool.
+     *
+     * @param x         An input array of doubles.
+     * @param generator A splittable generator, every subtask gets its own generator split off this one.
+     * @implSpec Arrays shorter than {@link #PARALLEL_SHUFFLE_THRESHOLD} are shuffled sequentially with
+     * {@code generator}, longer ones are shuffled with MergeShuffle. Both paths are reproducible: the same generator
+     * state results in the same permutation on any number of threads.
+     * @see <a href="https://arxiv.org/abs/1508.03167">MergeShuffle: A Very Fast, Parallel Random Permutation
+     * Algorithm</a>
+     */
+    public static void parallelShuffleDoubleArray(final double @NonNull [] x,
+                                                  final @NonNull SplittableGenerator generator) {
+        if (x.length < PARALLEL_SHUFFLE_THRESHOLD) shuffleDoubleArray(x, generator);
+        else new MergeShuffle.OfDouble(x, 0, x.length, generator).invoke();
+    }
+
+    /**
+     * Seeds a {@code L64X128MixRandom} generator and shuffles the array in parallel.
+     *
+     * @see #parallelShuffleDoubleArray(double[], SplittableGenerator)
+     */
+    public static void parallelShuffleDoubleArray(final double @NonNull [] x, final long seed) {
+        parallelShuffleDoubleArray(x, splittableGenerator(seed));
+    }
+
+    /**
+     * @see #parallelShuffleDoubleArray(double[], SplittableGenerator)
+     */
+    public static void parallelShuffleIntArray(final int @NonNull [] x, final @NonNull SplittableGenerator generator) {
+        if (x.length < PARALLEL_SHUFFLE_THRESHOLD) shuffleIntArray(x, generator);
+        else new MergeShuffle.OfInt(x, 0, x.length, generator).invoke();
+    }
+
+    /**
+     * @see #parallelShuffleDoubleArray(double[], long)
+     */
+    public static void parallelShuffleIntArray(final int @NonNull [] x, final long seed) {
+        parallelShuffleIntArray(x, splittableGenerator(seed));
+    }
+
+    /**
+     * @see #parallelShuffleDoubleArray(double[], SplittableGenerator)
+     */
+    public static void parallelShuffleLongArray(final long @NonNull [] x,
+                                                final @NonNull SplittableGenerator generator) {
+        if (x.length < PARALLEL_SHUFFLE_THRESHOLD) shuffleLongArray(x, generator);
+        else new MergeShuffle.OfLong(x, 0, x.length, generator).invoke();
+    }
+
+    /**
+     * @see #parallelShuffleDoubleArray(double[], long)
+     */
+    public static void parallelShuffleLongArray(final long @NonNull [] x, final long seed) {
+        parallelShuffleLongArray(x, splittableGenerator(seed));
+    }
+
+    /**
+     * Creates a seeded generator that can be split for parallel tasks.
+     *
+     * @param seed The seed.
+     * @return A {@code L64X128MixRandom} instance.
+     */
+    public static @NonNull SplittableGenerator splittableGenerator(final long seed) {
+        return RandomGeneratorFactory.<SplittableGenerator>of(SPLITTABLE_ALGORITHM).create(seed);
     }
 
     /**
@@ -83,24 +226,19 @@ public class Utils {
      *
      * @param is An {@code InputStream} object, nullable.
      * @return values read from file or null.
-     * @throws RuntimeException When dealing with badly formatted data.
-     * @implSpec Deals only numerical values.
+     * @throws MalformedValueException When dealing with badly formatted data.
+     * @throws UncheckedIOException    When the stream can't be read.
+     * @implSpec Deals only numerical values, only the first column is returned.
      */
     public static double @Nullable [] readTestingValues(final @Nullable InputStream is) {
         if (is != null) {
-
-            try (val in = new BufferedReader(new InputStreamReader(is))) {
-                val reader = StringArrayCsvReader.builder().build(in);
-                val rawVal = new ArrayList<String>(10000);
-
-                String[] next;
-                while ((next = reader.next()) != null) rawVal.add(next[0]);
-
-                val v = new double[rawVal.size()];
-                IntStream.range(0, rawVal.size()).forEach(i -> v[i] = Double.parseDouble(rawVal.get(i)));
-                return v;
-            } catch (Exception e) {
-                throw new RuntimeException();
+            try (is) {
+                val columns = NumericCsvReader.read(ByteBuffer.wrap(is.readAllBytes()), ',', 0);
+                if (columns.length == 0) return new double[]{};
+                columns[0].trimToSize();
+                return columns[0].array();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
         return null;
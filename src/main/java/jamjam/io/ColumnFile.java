@@ -0,0 +1,361 @@
+package jamjam.io;
+
+import jamjam.Sum;
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A minimal binary format to cache a single numeric column. Every file consists of a 64-byte header followed by raw
+ * values, all multibyte fields are stored in the byte order given by the header.
+ * <pre>
+ * offset  size  field
+ *      0     6  magic "JAMCOL"
+ *      6     1  format version, currently 1
+ *      7     1  byte order, 0 for big-endian, 1 for little-endian
+ *      8     1  data type, see {@link DataType}
+ *      9     1  flags, bit 0 is set when the summary is present
+ *     10     6  reserved, zeros
+ *     16     8  number of values
+ *     24     8  summary: number of summed values
+ *     32     8  summary: uncorrected compensated sum
+ *     40     8  summary: compensated sum corrector
+ *     48    16  reserved, zeros
+ *     64     -  values
+ * </pre>
+ * The summary holds the state of {@link Sum.Accumulator}, thus the sum and the mean of a stored column are available
+ * without reading the values.
+ */
+public class ColumnFile {
+    private static final byte[] MAGIC = {'J', 'A', 'M', 'C', 'O', 'L'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final byte SUMMARY_FLAG = 1;
+    /**
+     * The largest mapped region, a multiple of every value size.
+     */
+    private static final int REGION_SIZE = 1 << 30;
+
+    private ColumnFile() {
+    }
+
+    /**
+     * Supported value types and their on-disk codes.
+     */
+    public enum DataType {
+        DOUBLE(1, Double.BYTES),
+        INT(2, Integer.BYTES),
+        LONG(3, Long.BYTES);
+
+        private final byte code;
+        private final int size;
+
+        DataType(final int code, final int size) {
+            this.code = (byte) code;
+            this.size = size;
+        }
+
+        private static DataType of(final byte code) {
+            for (val type : values()) if (type.code == code) return type;
+            throw new IllegalArgumentException("Unknown data type " + code + ".");
+        }
+    }
+
+    /**
+     * Precomputed statistics of a column.
+     *
+     * @param count          The number of values.
+     * @param uncorrectedSum The conventional sum.
+     * @param corrector      The compensated sum corrector.
+     */
+    public record Summary(long count, double uncorrectedSum, double corrector) {
+        /**
+         * @return the compensated sum, 0 for an empty column just like {@link Sum#sum(double...)}.
+         */
+        public double sum() {
+            return count == 0 ? 0. : uncorrectedSum - corrector;
+        }
+
+        /**
+         * @return arithmetic average.
+         * @throws IllegalArgumentException When the column is empty.
+         */
+        public double mean() {
+            if (count == 0) throw new IllegalArgumentException("The size of the array has to be at least 1.");
+            return sum() / count;
+        }
+
+        /**
+         * @return An accumulator that continues the summation where it stopped.
+         */
+        public Sum.@NonNull Accumulator accumulator() {
+            return new Sum.Accumulator(uncorrectedSum, corrector);
+        }
+
+        private static Summary of(final long count, final Sum.Accumulator acc) {
+            return new Summary(count, acc.getUncorrectedSum(), acc.getCorrector());
+        }
+    }
+
+    /**
+     * A loaded column, exactly one of the arrays is not {@code null}.
+     */
+    public static final class Column {
+        private final DataType type;
+        private final double[] doubles;
+        private final int[] ints;
+        private final long[] longs;
+        private final Summary summary;
+
+        private Column(final DataType type, final double[] doubles, final int[] ints, final long[] longs,
+                       final Summary summary) {
+            this.type = type;
+            this.doubles = doubles;
+            this.ints = ints;
+            this.longs = longs;
+            this.summary = summary;
+        }
+
+        public @NonNull DataType type() {
+            return type;
+        }
+
+        public int length() {
+            return switch (type) {
+                case DOUBLE -> doubles.length;
+                case INT -> ints.length;
+                case LONG -> longs.length;
+            };
+        }
+
+        /**
+         * @return The stored summary, {@code null} when it was not saved.
+         */
+        public @Nullable Summary summary() {
+            return summary;
+        }
+
+        /**
+         * @throws IllegalStateException When the column holds values of another type.
+         */
+        public double @NonNull [] doubles() {
+            if (doubles == null) throw new IllegalStateException("The column type is " + type + ".");
+            return doubles;
+        }
+
+        /**
+         * @throws IllegalStateException When the column holds values of another type.
+         */
+        public int @NonNull [] ints() {
+            if (ints == null) throw new IllegalStateException("The column type is " + type + ".");
+            return ints;
+        }
+
+        /**
+         * @throws IllegalStateException When the column holds values of another type.
+         */
+        public long @NonNull [] longs() {
+            if (longs == null) throw new IllegalStateException("The column type is " + type + ".");
+            return longs;
+        }
+
+        /**
+         * @return The compensated sum, taken from the summary when available.
+         */
+        public double sum() {
+            return (summary != null ? summary : summarize()).sum();
+        }
+
+        /**
+         * @return The arithmetic average, taken from the summary when available.
+         * @throws IllegalArgumentException When the column is empty.
+         */
+        public double mean() {
+            return (summary != null ? summary : summarize()).mean();
+        }
+
+        private Summary summarize() {
+            return switch (type) {
+                case DOUBLE -> ColumnFile.summarize(doubles);
+                case INT -> ColumnFile.summarize(ints);
+                case LONG -> ColumnFile.summarize(longs);
+            };
+        }
+    }
+
+    /**
+     * Saves a column in the native byte order.
+     *
+     * @param file        A path to the file, overwritten when exists.
+     * @param x           Values to store.
+     * @param withSummary A flag to precompute and store the summary.
+     * @throws IOException When the file can't be written.
+     */
+    public static void save(final @NonNull Path file, final double @NonNull [] x, final boolean withSummary)
+        throws IOException {
+        write(file, DataType.DOUBLE, x.length, withSummary ? summarize(x) : null, (buffer, from, length) ->
+            buffer.asDoubleBuffer().put(x, from, length));
+    }
+
+    /**
+     * @see #save(Path, double[], boolean)
+     */
+    public static void save(final @NonNull Path file, final int @NonNull [] x, final boolean withSummary)
+        throws IOException {
+        write(file, DataType.INT, x.length, withSummary ? summarize(x) : null, (buffer, from, length) ->
+            buffer.asIntBuffer().put(x, from, length));
+    }
+
+    /**
+     * @see #save(Path, double[], boolean)
+     */
+    public static void save(final @NonNull Path file, final long @NonNull [] x, final boolean withSummary)
+        throws IOException {
+        write(file, DataType.LONG, x.length, withSummary ? summarize(x) : null, (buffer, from, length) ->
+            buffer.asLongBuffer().put(x, from, length));
+    }
+
+    /**
+     * Reads the header only.
+     *
+     * @param file A path to the file.
+     * @return The stored summary, {@code null} when it was not saved.
+     * @throws IOException              When the file can't be read.
+     * @throws IllegalArgumentException When the file is not a valid column file.
+     */
+    public static @Nullable Summary summary(final @NonNull Path file) throws IOException {
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readHeader(channel).summary;
+        }
+    }
+
+    /**
+     * Loads a column, the values are copied from the memory-mapped file in bulk.
+     *
+     * @param file A path to the file.
+     * @return The column.
+     * @throws IOException              When the file can't be read.
+     * @throws IllegalArgumentException When the file is not a valid column file or is truncated.
+     */
+    public static @NonNull Column load(final @NonNull Path file) throws IOException {
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val header = readHeader(channel);
+            if (channel.size() < HEADER_SIZE + header.length * header.type.size)
+                throw new IllegalArgumentException("The file is truncated.");
+
+            val length = (int) header.length;
+            return switch (header.type) {
+                case DOUBLE -> {
+                    val x = new double[length];
+                    readValues(channel, header, (buffer, from, count) -> buffer.asDoubleBuffer().get(x, from, count));
+                    yield new Column(header.type, x, null, null, header.summary);
+                }
+                case INT -> {
+                    val x = new int[length];
+                    readValues(channel, header, (buffer, from, count) -> buffer.asIntBuffer().get(x, from, count));
+                    yield new Column(header.type, null, x, null, header.summary);
+                }
+                case LONG -> {
+                    val x = new long[length];
+                    readValues(channel, header, (buffer, from, count) -> buffer.asLongBuffer().get(x, from, count));
+                    yield new Column(header.type, null, null, x, header.summary);
+                }
+            };
+        }
+    }
+
+    /**
+     * Moves a range of values between an array and a mapped region.
+     */
+    @FunctionalInterface
+    private interface Transfer {
+        void apply(ByteBuffer region, int from, int length);
+    }
+
+    private record Header(DataType type, ByteOrder order, long length, Summary summary) {
+    }
+
+    private static void write(final Path file, final DataType type, final int length, final Summary summary,
+                              final Transfer transfer) throws IOException {
+        val order = ByteOrder.nativeOrder();
+        val header = ByteBuffer.allocate(HEADER_SIZE).order(order);
+        header.put(MAGIC).put(VERSION).put((byte) (order == ByteOrder.LITTLE_ENDIAN ? 1 : 0)).put(type.code)
+            .put(summary != null ? SUMMARY_FLAG : 0).position(16);
+        header.putLong(length);
+        if (summary != null)
+            header.putLong(summary.count).putDouble(summary.uncorrectedSum).putDouble(summary.corrector);
+        header.clear();
+
+        try (val channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) channel.write(header);
+            forEachRegion(channel, FileChannel.MapMode.READ_WRITE, type, length, order, transfer);
+        }
+    }
+
+    private static void readValues(final FileChannel channel, final Header header, final Transfer transfer)
+        throws IOException {
+        forEachRegion(channel, FileChannel.MapMode.READ_ONLY, header.type, (int) header.length, header.order,
+            transfer);
+    }
+
+    /**
+     * Maps the payload region by region, each mapping is at most 1 GiB.
+     */
+    private static void forEachRegion(final FileChannel channel, final FileChannel.MapMode mode, final DataType type,
+                                      final int length, final ByteOrder order, final Transfer transfer)
+        throws IOException {
+        val perRegion = REGION_SIZE / type.size;
+        for (var from = 0; from < length; from += perRegion) {
+            val count = Math.min(perRegion, length - from);
+            val region = channel.map(mode, HEADER_SIZE + (long) from * type.size, (long) count * type.size);
+            transfer.apply(region.order(order), from, count);
+        }
+    }
+
+    private static Header readHeader(final FileChannel channel) throws IOException {
+        val header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) if (channel.read(header, header.position()) < 0) break;
+        if (header.hasRemaining()) throw new IllegalArgumentException("The file is too short to be a column file.");
+
+        for (var i = 0; i < MAGIC.length; i++)
+            if (header.get(i) != MAGIC[i]) throw new IllegalArgumentException("Not a column file.");
+        if (header.get(6) != VERSION)
+            throw new IllegalArgumentException("Unsupported format version " + header.get(6) + ".");
+
+        header.order(header.get(7) == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        val type = DataType.of(header.get(8));
+        val length = header.getLong(16);
+        if (length < 0 || length > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The column is too long to fit into an array.");
+
+        val summary = (header.get(9) & SUMMARY_FLAG) != 0 ?
+            new Summary(header.getLong(24), header.getDouble(32), header.getDouble(40)) : null;
+        return new Header(type, header.order(), length, summary);
+    }
+
+    private static Summary summarize(final double[] x) {
+        val acc = new Sum.Accumulator();
+        for (val v : x) acc.sum(v);
+        return Summary.of(x.length, acc);
+    }
+
+    private static Summary summarize(final int[] x) {
+        val acc = new Sum.Accumulator();
+        for (val v : x) acc.sum(v);
+        return Summary.of(x.length, acc);
+    }
+
+    private static Summary summarize(final long[] x) {
+        val acc = new Sum.Accumulator();
+        for (val v : x) acc.sum(v);
+        return Summary.of(x.length, acc);
+    }
+}
@@ -0,0 +1,48 @@
+package jamjam.io;
+
+import lombok.NonNull;
+
+/**
+ * Signals that a text field can't be interpreted as a number.
+ */
+public class MalformedValueException extends IllegalArgumentException {
+    private final String reason;
+    private final long row;
+    private final int column;
+
+    /**
+     * @param reason What is wrong with the value.
+     * @param row    The line number, starting with 1.
+     * @param column The field number within the line, starting with 1.
+     */
+    public MalformedValueException(final @NonNull String reason, final long row, final int column) {
+        super(reason + " (row " + row + ", column " + column + ")");
+        this.reason = reason;
+        this.row = row;
+        this.column = column;
+    }
+
+    /**
+     * @return The line number, starting with 1.
+     */
+    public long getRow() {
+        return row;
+    }
+
+    /**
+     * @return The field number within the line, starting with 1.
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Moves the reported position down, used when a chunk is parsed without knowing how many lines precede it.
+     *
+     * @param lines The number of lines before the chunk.
+     * @return A new exception with the adjusted row number.
+     */
+    @NonNull MalformedValueException shift(final long lines) {
+        return new MalformedValueException(reason, row + lines, column);
+    }
+}
@@ -0,0 +1,325 @@
+package jamjam.io;
+
+import jamjam.arrays.DoubleBuffer;
+import lombok.NonNull;
+import lombok.val;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Reads delimited text files that contain numbers only, every column ends up in its own {@link DoubleBuffer}. Values
+ * are parsed straight from bytes, no intermediate {@code String} objects are created except for rare corner cases.
+ * Blank lines are ignored, spaces, tabs, and {@code \r} around values are allowed.
+ */
+public class NumericCsvReader {
+    /**
+     * Inputs smaller than that are never split.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    /**
+     * The size of a memory-mapped file region, mapping is limited to {@code Integer.MAX_VALUE} bytes at once.
+     */
+    private static final int REGION_SIZE = 1 << 30;
+    /**
+     * The largest integer that is exactly representable in double.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /**
+     * Powers of ten that are exactly representable in double.
+     */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+        1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private NumericCsvReader() {
+    }
+
+    /**
+     * Parses all bytes between the position and the limit of a buffer, the buffer state is not modified.
+     *
+     * @param data      A buffer with text.
+     * @param delimiter An ASCII field separator.
+     * @param skipRows  The number of leading lines to ignore, e.g., headers.
+     * @return An array of columns, an empty array when there are no data lines.
+     * @throws MalformedValueException  When a value is not a number, or the number of values differs from line to line.
+     * @throws IllegalArgumentException When the delimiter is not ASCII or {@code skipRows} is negative.
+     * @implSpec Inputs larger than 1 MiB are split into chunks at line boundaries, chunks are parsed in the common
+     * fork/join pool.
+     */
+    public static DoubleBuffer @NonNull [] read(final @NonNull ByteBuffer data, final char delimiter,
+                                                final int skipRows) {
+        val d = checkDelimiter(delimiter, skipRows);
+        var from = data.position();
+        val to = data.limit();
+        var skipped = 0;
+        for (; skipped < skipRows && from < to; skipped++) from = nextLine(data, from, to);
+
+        val columns = countColumns(data, from, to, d);
+        if (columns == 0) return new DoubleBuffer[0];
+        return parseRegion(data, from, to, d, columns, skipped);
+    }
+
+    /**
+     * Parses a file employing memory mapping, files larger than 2 GiB are processed region by region.
+     *
+     * @param file      A path to the file.
+     * @param delimiter An ASCII field separator.
+     * @param skipRows  The number of leading lines to ignore, e.g., headers.
+     * @return An array of columns, an empty array when there are no data lines.
+     * @throws IOException              When the file can't be read.
+     * @throws MalformedValueException  When a value is not a number, or the number of values differs from line to line.
+     * @throws IllegalArgumentException When the delimiter is not ASCII, {@code skipRows} is negative, or a single line
+     *                                  is longer than 1 GiB.
+     * @see #read(ByteBuffer, char, int)
+     */
+    public static DoubleBuffer @NonNull [] read(final @NonNull Path file, final char delimiter, final int skipRows)
+        throws IOException {
+        val d = checkDelimiter(delimiter, skipRows);
+        try (val channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            val size = channel.size();
+            var position = 0L;
+            var lines = 0L;
+            var skipped = 0;
+            DoubleBuffer[] result = null;
+
+            while (position < size) {
+                val length = (int) Math.min(REGION_SIZE, size - position);
+                val region = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                var end = length;
+                if (position + length < size) {
+                    end = lastLineEnd(region, length);
+                    if (end == 0) throw new IllegalArgumentException("Lines longer than 1 GiB are not supported.");
+                }
+
+                var from = 0;
+                for (; skipped < skipRows && from < end; skipped++, lines++) from = nextLine(region, from, end);
+
+                if (result == null) {
+                    val columns = countColumns(region, from, end, d);
+                    if (columns != 0) result = parseRegion(region, from, end, d, columns, lines);
+                } else {
+                    val chunk = parseRegion(region, from, end, d, result.length, lines);
+                    for (var c = 0; c < result.length; c++)
+                        result[c].append(chunk[c].array(), 0, chunk[c].size());
+                }
+                // Regions of blank lines count too, otherwise rows of later errors are off
+                lines += countLines(region, from, end);
+                position += end;
+            }
+            return result == null ? new DoubleBuffer[0] : result;
+        }
+    }
+
+    /**
+     * Splits a region into chunks and parses them in parallel.
+     *
+     * @param linesBefore The number of lines that precede {@code from} in the input.
+     */
+    private static DoubleBuffer[] parseRegion(final ByteBuffer data, final int from, final int to, final byte delimiter,
+                                              final int columns, final long linesBefore) {
+        val pieces = (int) Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(),
+            (long) (to - from) / MIN_CHUNK_SIZE));
+        if (pieces == 1) return parseChunk(data, from, to, delimiter, columns, linesBefore);
+
+        val bounds = new int[pieces + 1];
+        bounds[0] = from;
+        bounds[pieces] = to;
+        for (var i = 1; i < pieces; i++)
+            bounds[i] = Math.max(bounds[i - 1], nextLine(data, from + (int) ((long) (to - from) * i / pieces), to));
+
+        val chunks = IntStream.range(0, pieces).parallel()
+            .mapToObj(i -> {
+                try {
+                    return parseChunk(data, bounds[i], bounds[i + 1], delimiter, columns, 0);
+                } catch (MalformedValueException e) {
+                    throw e.shift(linesBefore + countLines(data, from, bounds[i]));
+                }
+            }).toArray(DoubleBuffer[][]::new);
+
+        val result = new DoubleBuffer[columns];
+        for (var c = 0; c < columns; c++) {
+            var total = 0;
+            for (val chunk : chunks) total += chunk[c].size();
+            result[c] = new DoubleBuffer(total);
+            for (val chunk : chunks) result[c].append(chunk[c].array(), 0, chunk[c].size());
+        }
+        return result;
+    }
+
+    /**
+     * Parses all lines of a chunk sequentially.
+     *
+     * @throws MalformedValueException When a value is malformed, its row is shifted by {@code linesBefore}.
+     */
+    private static DoubleBuffer[] parseChunk(final ByteBuffer data, final int from, final int to, final byte delimiter,
+                                             final int columns, final long linesBefore) {
+        val result = new DoubleBuffer[columns];
+        val capacity = Math.max(16, (to - from) / (8 * columns));
+        for (var c = 0; c < columns; c++) result[c] = new DoubleBuffer(capacity);
+
+        var line = linesBefore;
+        var position = from;
+        while (position < to) {
+            line++;
+            var column = 0;
+            var fieldStart = position;
+            var blank = true;
+            byte b;
+            for (; ; position++) {
+                b = position < to ? data.get(position) : (byte) '\n';
+                if (b == delimiter || b == '\n') {
+                    if (blank && b == '\n' && column == 0) break;
+                    if (column == columns)
+                        throw new MalformedValueException("Expected " + columns + " values", line, column + 1);
+                    result[column].append(parseDouble(data, fieldStart, position, line, column + 1));
+                    column++;
+                    fieldStart = position + 1;
+                    if (b == '\n') break;
+                } else if (blank && !isSpace(b)) blank = false;
+            }
+            if (column != 0 && column != columns)
+                throw new MalformedValueException("Expected " + columns + " values", line, column);
+            position++;
+        }
+        return result;
+    }
+
+    /**
+     * Parses a decimal number from a range of bytes.
+     *
+     * @implSpec Numbers whose significand fits into 53 bits and whose exponent is small are converted exactly with a
+     * single multiplication or division (Clinger's fast path), the rest are handed over to
+     * {@link Double#parseDouble(String)}.
+     * @see <a href="https://doi.org/10.1145/93548.93557">How to read floating point numbers accurately</a>
+     */
+    static double parseDouble(final ByteBuffer data, final int from, final int to, final long row, final int column) {
+        var start = from;
+        var end = to;
+        while (start < end && isSpace(data.get(start))) start++;
+        while (end > start && isSpace(data.get(end - 1))) end--;
+        if (start == end) throw new MalformedValueException("Empty value", row, column);
+
+        var i = start;
+        val negative = data.get(i) == '-';
+        if (negative || data.get(i) == '+') i++;
+
+        var mantissa = 0L;
+        var exponent = 0;
+        var exact = true;
+        var seenDigit = false;
+        var seenPoint = false;
+        byte b;
+        for (; i < end; i++) {
+            b = data.get(i);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenPoint) exponent--;
+                } else {
+                    if (b != '0') exact = false;
+                    if (!seenPoint) exponent++;
+                }
+            } else if (b == '.' && !seenPoint) seenPoint = true;
+            else break;
+        }
+
+        if (seenDigit && i < end && (data.get(i) == 'e' || data.get(i) == 'E')) {
+            i++;
+            val negativeExponent = i < end && data.get(i) == '-';
+            if (i < end && (negativeExponent || data.get(i) == '+')) i++;
+            var explicit = 0;
+            val exponentStart = i;
+            for (; i < end && (b = data.get(i)) >= '0' && b <= '9'; i++)
+                if (explicit < 10_000) explicit = explicit * 10 + (b - '0');
+            if (exponentStart == i) seenDigit = false;
+            exponent += negativeExponent ? -explicit : explicit;
+        }
+
+        if (seenDigit && i == end && exact) {
+            double value;
+            if (mantissa == 0) value = 0.;
+            else if (exponent >= 0 && exponent <= 22) value = mantissa * POWERS_OF_TEN[exponent];
+            else if (exponent < 0 && exponent >= -22) value = mantissa / POWERS_OF_TEN[-exponent];
+            else return fallback(data, start, end, row, column);
+            return negative ? -value : value;
+        }
+        return fallback(data, start, end, row, column);
+    }
+
+    private static double fallback(final ByteBuffer data, final int from, final int to, final long row,
+                                   final int column) {
+        val bytes = new byte[to - from];
+        data.get(from, bytes);
+        val text = new String(bytes, StandardCharsets.ISO_8859_1);
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new MalformedValueException("Not a number: '" + text + "'", row, column);
+        }
+    }
+
+    /**
+     * Counts values in the first non-blank line.
+     */
+    private static int countColumns(final ByteBuffer data, final int from, final int to, final byte delimiter) {
+        var position = from;
+        while (position < to) {
+            val end = nextLine(data, position, to);
+            var blank = true;
+            var columns = 1;
+            byte b;
+            for (var i = position; i < end; i++) {
+                b = data.get(i);
+                if (b == delimiter) columns++;
+                else if (!isSpace(b) && b != '\n') blank = false;
+            }
+            if (!blank || columns > 1) return columns;
+            position = end;
+        }
+        return 0;
+    }
+
+    /**
+     * @return The position right after the next {@code \n}, or {@code to}.
+     */
+    private static int nextLine(final ByteBuffer data, final int from, final int to) {
+        for (var i = from; i < to; i++) if (data.get(i) == '\n') return i + 1;
+        return to;
+    }
+
+    /**
+     * @return The position right after the last {@code \n} in the buffer, or 0.
+     */
+    private static int lastLineEnd(final ByteBuffer data, final int length) {
+        for (var i = length - 1; i >= 0; i--) if (data.get(i) == '\n') return i + 1;
+        return 0;
+    }
+
+    /**
+     * @return The number of lines started within the range, only used to report errors and track regions.
+     */
+    private static long countLines(final ByteBuffer data, final int from, final int to) {
+        var lines = 0L;
+        for (var i = from; i < to; i++) if (data.get(i) == '\n') lines++;
+        return (to > from && data.get(to - 1) != '\n') ? lines + 1 : lines;
+    }
+
+    private static boolean isSpace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static byte checkDelimiter(final char delimiter, final int skipRows) {
+        if (delimiter > 127 || delimiter == '\n' || isSpace((byte) delimiter) || delimiter == '.' || delimiter == '-')
+            throw new IllegalArgumentException("The delimiter must be an ASCII character other than whitespace, '.', "
+                + "or '-'.");
+        if (skipRows < 0) throw new IllegalArgumentException("The number of rows to skip can't be negative.");
+        return (byte) delimiter;
+    }
+}
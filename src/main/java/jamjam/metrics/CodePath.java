@@ -0,0 +1,45 @@
+package jamjam.metrics;
+
+/**
+ * The way a kernel has processed its input.
+ */
+public enum CodePath {
+    /**
+     * A plain loop in the calling thread.
+     */
+    SCALAR(false, false),
+    /**
+     * {@link jdk.incubator.vector.DoubleVector} lanes in the calling thread.
+     */
+    VECTOR(true, false),
+    /**
+     * Plain loops over chunks on the common fork/join pool.
+     */
+    PARALLEL_SCALAR(false, true),
+    /**
+     * {@link jdk.incubator.vector.DoubleVector} lanes over chunks on the common fork/join pool.
+     */
+    PARALLEL_VECTOR(true, true);
+
+    private final boolean vector;
+    private final boolean parallel;
+
+    CodePath(final boolean vector, final boolean parallel) {
+        this.vector = vector;
+        this.parallel = parallel;
+    }
+
+    /**
+     * @return {@code true} when the Vector API is used.
+     */
+    public boolean isVector() {
+        return vector;
+    }
+
+    /**
+     * @return {@code true} when the work is split between threads.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+}
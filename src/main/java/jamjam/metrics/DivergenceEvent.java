@@ -0,0 +1,14 @@
+package jamjam.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A call of {@code StatisticalDistance}, the kernel is named after the metric.
+ */
+@Name("jamjam.Divergence")
+@Label("Divergence")
+@Description("A call of a statistical distance or divergence kernel")
+public final class DivergenceEvent extends OperationEvent {
+}
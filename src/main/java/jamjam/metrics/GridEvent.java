@@ -0,0 +1,14 @@
+package jamjam.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A generation of a range, a linear space or a materialized mesh grid.
+ */
+@Name("jamjam.Grid")
+@Label("Grid Generation")
+@Description("A generation of a grid of values")
+public final class GridEvent extends OperationEvent {
+}
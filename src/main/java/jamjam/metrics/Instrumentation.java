@@ -0,0 +1,102 @@
+package jamjam.metrics;
+
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ServiceLoader;
+
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Holds the installed {@link KernelMetrics} and drives {@link OperationEvent flight recorder events}. Kernels call
+ * {@link #start(OperationEvent)} on entry and {@link #record(OperationEvent, String, CodePath, long, long)} on exit;
+ * while neither metrics nor events are enabled it boils down to a field read and a check of the event type per call,
+ * no clock is read and the event doesn't escape and can be scalar replaced.
+ * <p>
+ * At start-up metrics are taken from the {@code jamjam.metrics} system property, the class name of a provider
+ * registered for {@link ServiceLoader}. Flight recorder events don't need it, they follow recording settings.
+ */
+public final class Instrumentation {
+    /**
+     * The system property that selects metrics at start-up.
+     */
+    public static final String PROPERTY = "jamjam.metrics";
+
+    private static volatile KernelMetrics metrics = load(System.getProperty(PROPERTY));
+
+    private Instrumentation() {
+    }
+
+    static @NonNull KernelMetrics load(final @Nullable String name) {
+        if (name == null || name.isBlank()) return KernelMetrics.NOOP;
+        for (val provider : ServiceLoader.load(KernelMetrics.class))
+            if (provider.getClass().getName().equals(name)) return provider;
+        System.getLogger(Instrumentation.class.getName())
+            .log(WARNING, "Kernel metrics {0} are not found, instrumentation is disabled.", name);
+        return KernelMetrics.NOOP;
+    }
+
+    /**
+     * Replaces the installed metrics.
+     *
+     * @param newMetrics New metrics, {@code null} disables instrumentation.
+     */
+    public static void install(final @Nullable KernelMetrics newMetrics) {
+        metrics = newMetrics == null ? KernelMetrics.NOOP : newMetrics;
+    }
+
+    /**
+     * @return The installed metrics, {@link KernelMetrics#NOOP} when disabled.
+     */
+    public static @NonNull KernelMetrics current() {
+        return metrics;
+    }
+
+    /**
+     * @return {@code true} when metrics are installed.
+     */
+    public static boolean isEnabled() {
+        return metrics != KernelMetrics.NOOP;
+    }
+
+    /**
+     * Marks the beginning of a kernel call.
+     *
+     * @param event A new event of the kernel.
+     * @return The started event, or {@code null} when neither metrics nor the event are enabled.
+     */
+    public static <E extends OperationEvent> @Nullable E start(final @NonNull E event) {
+        val enabled = metrics != KernelMetrics.NOOP;
+        if (!enabled && !event.isEnabled()) return null;
+        if (enabled) event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Reports a finished kernel call to the installed metrics and commits its event.
+     *
+     * @param event     The value returned by {@link #start(OperationEvent)}, nothing is reported when it is
+     *                  {@code null}.
+     * @param kernel    The name of the method.
+     * @param path      The code path taken.
+     * @param elements  The number of processed elements.
+     * @param allocated The number of bytes allocated for scratch buffers and results, including nested calls.
+     */
+    public static void record(final @Nullable OperationEvent event, final @NonNull String kernel,
+                              final @NonNull CodePath path, final long elements, final long allocated) {
+        if (event == null) return;
+        val current = metrics;
+        if (current != KernelMetrics.NOOP && event.startNanos != 0L)
+            current.record(kernel, path, elements, System.nanoTime() - event.startNanos);
+        event.end();
+        if (event.shouldCommit()) {
+            event.kernel = kernel;
+            event.path = path.name();
+            event.length = elements;
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package jamjam.metrics;
+
+import lombok.NonNull;
+
+/**
+ * A service provider interface for instrumentation of numerical kernels. Every instrumented call of {@code Sum},
+ * {@code Product}, {@code Variance}, {@code StatisticalDistance} and grid generators is reported once it returns,
+ * nested calls are reported separately, e.g., a variance is followed by the sums and products it is made of. Failed
+ * calls are not reported.
+ * <p>
+ * Implementations are installed with {@link Instrumentation#install(KernelMetrics)} or the {@code jamjam.metrics}
+ * system property, they are called from any thread and must be thread-safe and cheap.
+ *
+ * @see OperationEvent
+ */
+@FunctionalInterface
+public interface KernelMetrics {
+    /**
+     * Does nothing, the default.
+     */
+    KernelMetrics NOOP = (kernel, path, elements, nanos) -> {
+    };
+
+    /**
+     * Records a single call.
+     *
+     * @param kernel   The name of the method, e.g., {@code Sum.sum}.
+     * @param path     The code path taken.
+     * @param elements The number of processed elements, e.g., the length of the input array.
+     * @param nanos    Wall time of the call in nanoseconds.
+     */
+    void record(@NonNull String kernel, @NonNull CodePath path, long elements, long nanos);
+}
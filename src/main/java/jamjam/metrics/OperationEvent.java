@@ -0,0 +1,40 @@
+package jamjam.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * A flight recorder event of a single call of a numerical kernel. Events are regular JFR events, they are recorded
+ * by any running recording and are controlled by standard settings, e.g.,
+ * {@code jamjam.Variance#enabled=false} or {@code jamjam.Summation#threshold=1 ms}.
+ * <p>
+ * Kernels create events through {@link Instrumentation#start(OperationEvent)}, fields are filled in when the call
+ * returns.
+ */
+@Category("jamjam")
+@StackTrace(false)
+public abstract class OperationEvent extends Event {
+    @Label("Kernel")
+    @Description("The name of the method, e.g., Sum.sum")
+    String kernel;
+
+    @Label("Code Path")
+    @Description("SCALAR, VECTOR, PARALLEL_SCALAR or PARALLEL_VECTOR")
+    String path;
+
+    @Label("Array Length")
+    @Description("The number of processed elements")
+    long length;
+
+    @Label("Scratch Allocated")
+    @Description("Bytes allocated for scratch buffers and results, including nested calls")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+
+    /**
+     * The value of {@link System#nanoTime()} at the beginning of the call, for {@link KernelMetrics}.
+     */
+    transient long startNanos;
+
+    OperationEvent() {
+    }
+}
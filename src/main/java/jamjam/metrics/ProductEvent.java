@@ -0,0 +1,14 @@
+package jamjam.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A call of {@code Product}.
+ */
+@Name("jamjam.Product")
+@Label("Product")
+@Description("A call of an element-wise product kernel")
+public final class ProductEvent extends OperationEvent {
+}
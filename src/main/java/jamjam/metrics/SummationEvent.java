@@ -0,0 +1,14 @@
+package jamjam.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A call of {@code Sum}: sums, cumulative sums and broadcast additions.
+ */
+@Name("jamjam.Summation")
+@Label("Summation")
+@Description("A call of a summation kernel")
+public final class SummationEvent extends OperationEvent {
+}
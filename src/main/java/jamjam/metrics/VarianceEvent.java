@@ -0,0 +1,14 @@
+package jamjam.metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A call of {@code Variance}.
+ */
+@Name("jamjam.Variance")
+@Label("Variance")
+@Description("A call of a variance kernel")
+public final class VarianceEvent extends OperationEvent {
+}
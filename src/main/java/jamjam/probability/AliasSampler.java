@@ -0,0 +1,163 @@
+package jamjam.probability;
+
+import jamjam.aux.Utils;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Draws outcomes {@code 0, 1, ..., n - 1} of a discrete probability distribution in O(1) per draw after O(n) setup:
+ * every draw picks a column of the alias table uniformly and then either the column itself or its alias with a
+ * biased coin.
+ * <p>
+ * Instances are immutable and can be shared between threads, each thread needs its own generator though.
+ *
+ * @see <a href="https://www.keithschwarz.com/darts-dice-coins/">Darts, Dice, and Coins: Sampling from a Discrete
+ * Distribution</a>
+ */
+public final class AliasSampler {
+    /**
+     * The number of draws made with one generator in parallel sampling.
+     */
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * Builds alias tables of a validated distribution.
+     *
+     * @param distribution Probabilities of outcomes.
+     * @throws IllegalArgumentException When the distribution is not valid.
+     * @see #AliasSampler(double[], boolean)
+     */
+    public AliasSampler(final double @NonNull [] distribution) {
+        this(distribution, false);
+    }
+
+    /**
+     * Builds alias tables with Vose's algorithm.
+     *
+     * @param distribution Probabilities of outcomes.
+     * @param trustedInput When {@code true}, the distribution is not validated, however, probabilities still have to be
+     *                     non-negative and add up to 1 approximately.
+     * @throws IllegalArgumentException When there are fewer than two outcomes or, unless the input is trusted, the
+     *                                  distribution is not valid.
+     * @implSpec The setup is O(n) and the input is not modified.
+     */
+    public AliasSampler(final double @NonNull [] distribution, final boolean trustedInput) {
+        if (distribution.length <= 1)
+            throw new IllegalArgumentException("Probability distribution must have at least two outcomes.");
+        if (!trustedInput) DivergenceKernel.validate(distribution);
+
+        val n = distribution.length;
+        probability = new double[n];
+        alias = new int[n];
+        val scaled = new double[n];
+        // Both work lists share one array: small ones grow from the left, large ones from the right.
+        val work = new int[n];
+        var small = 0;
+        var large = n;
+        for (var i = 0; i < n; i++) {
+            scaled[i] = distribution[i] * n;
+            if (scaled[i] < 1.) work[small++] = i;
+            else work[--large] = i;
+        }
+
+        int s, l;
+        while (small > 0 && large < n) {
+            s = work[--small];
+            l = work[large++];
+            probability[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.;
+            if (scaled[l] < 1.) work[small++] = l;
+            else work[--large] = l;
+        }
+        // Leftovers are due to rounding, they are exactly 1 in exact arithmetic.
+        while (large < n) fill(work[large++]);
+        while (small > 0) fill(work[--small]);
+    }
+
+    private void fill(final int i) {
+        probability[i] = 1.;
+        alias[i] = i;
+    }
+
+    /**
+     * @return The number of outcomes.
+     */
+    public int size() {
+        return probability.length;
+    }
+
+    /**
+     * Draws one outcome.
+     *
+     * @param generator A random generator.
+     * @return An outcome index.
+     */
+    public int sample(final @NonNull RandomGenerator generator) {
+        val i = generator.nextInt(probability.length);
+        return generator.nextDouble() < probability[i] ? i : alias[i];
+    }
+
+    /**
+     * Fills the array with independent draws.
+     *
+     * @param out       An array to be filled with outcome indices.
+     * @param generator A random generator.
+     */
+    public void sample(final int @NonNull [] out, final @NonNull RandomGenerator generator) {
+        sample(out, 0, out.length, generator);
+    }
+
+    /**
+     * Fills the array with independent draws using {@link ThreadLocalRandom}.
+     *
+     * @see #sample(int[], RandomGenerator)
+     */
+    public void sample(final int @NonNull [] out) {
+        sample(out, ThreadLocalRandom.current());
+    }
+
+    private void sample(final int[] out, final int from, final int to, final RandomGenerator generator) {
+        val n = probability.length;
+        int i;
+        for (var k = from; k < to; k++) {
+            i = generator.nextInt(n);
+            out[k] = generator.nextDouble() < probability[i] ? i : alias[i];
+        }
+    }
+
+    /**
+     * Fills the array with independent draws in parallel.
+     *
+     * @param out       An array to be filled with outcome indices.
+     * @param generator The root generator, every chunk of {@link #CHUNK_SIZE} draws gets its own generator split off
+     *                  in a fixed order.
+     * @implSpec The output depends only on the state of {@code generator} and the length of {@code out}, not on the
+     * number of threads, though it differs from the sequential {@link #sample(int[], RandomGenerator)}.
+     */
+    public void parallelSample(final int @NonNull [] out, final @NonNull SplittableGenerator generator) {
+        val chunks = (out.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        val generators = new SplittableGenerator[chunks];
+        for (var c = 0; c < chunks; c++) generators[c] = generator.split();
+        IntStream.range(0, chunks).parallel().forEach(c ->
+            sample(out, c * CHUNK_SIZE, (int) Math.min((long) (c + 1) * CHUNK_SIZE, out.length), generators[c]));
+    }
+
+    /**
+     * Seeds a {@code L64X128MixRandom} generator and fills the array in parallel.
+     *
+     * @see #parallelSample(int[], SplittableGenerator)
+     * @see Utils#splittableGenerator(long)
+     */
+    public void parallelSample(final int @NonNull [] out, final long seed) {
+        parallelSample(out, Utils.splittableGenerator(seed));
+    }
+}
@@ -0,0 +1,200 @@
+package jamjam.probability;
+
+import jamjam.simd.Simd;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+import static jamjam.aux.Utils.lengthParity;
+
+/**
+ * Divergences of many distributions at once: one reference against many candidates, or all pairs of a set. Every
+ * distribution is validated and preprocessed (e.g., its logarithms are calculated) exactly once, candidates are
+ * scored in parallel on the common fork/join pool.
+ */
+public class BatchDistance {
+    private BatchDistance() {
+    }
+
+    /**
+     * Calculates relative entropy of the reference and every candidate.
+     *
+     * @param reference    The distribution to be compared to.
+     * @param candidates   Actual distributions, all of the same shape as {@code reference}.
+     * @param trustedInput When {@code true}, distributions are not validated.
+     * @return An array of divergences, one per candidate.
+     * @see StatisticalDistance#KullbackLeiblerDivergence(double[], double[], boolean)
+     */
+    public static double @NonNull [] KullbackLeiblerDivergence(final double @NonNull [] reference,
+                                                               final double @NonNull [] @NonNull [] candidates,
+                                                               final boolean trustedInput) {
+        val result = new double[candidates.length];
+        KullbackLeiblerDivergence(reference, candidates, result, trustedInput);
+        return result;
+    }
+
+    /**
+     * An allocation-free version that writes the results into {@code out}.
+     *
+     * @param out An array of the same length as {@code candidates}.
+     * @throws IllegalArgumentException When shapes differ or, unless the input is trusted, any distribution is not
+     *                                  valid.
+     * @implSpec Logarithms of the reference are calculated once for vectorized kernels, thus every candidate costs one
+     * logarithm per outcome. Candidates are validated within the fused pass as for other metrics.
+     * @see #KullbackLeiblerDivergence(double[], double[][], boolean)
+     */
+    public static void KullbackLeiblerDivergence(final double @NonNull [] reference,
+                                                 final double @NonNull [] @NonNull [] candidates,
+                                                 final double @NonNull [] out, final boolean trustedInput) {
+        prepare(reference, candidates, out, trustedInput);
+        val referenceLogs = Simd.isVectorized() ? DivergenceKernel.KullbackLeibler.logs(reference) : null;
+        oneToMany(candidates.length, j -> {
+            val kernel = new DivergenceKernel.KullbackLeibler(false, !trustedInput, referenceLogs, null);
+            kernel.update(reference, candidates[j], 0, reference.length);
+            return kernel.result();
+        }, out);
+    }
+
+    /**
+     * Calculates relative entropy of every ordered pair of distributions.
+     *
+     * @param distributions Distributions of the same shape.
+     * @param trustedInput  When {@code true}, distributions are not validated.
+     * @return A square matrix, {@code result[i][j]} is the divergence of {@code distributions[j]} from the reference
+     * {@code distributions[i]}, the diagonal is {@code Double.MIN_NORMAL} due to trimming.
+     * @implSpec Logarithms of all distributions are precalculated for vectorized kernels, thus the pairwise stage
+     * involves no transcendental functions at the cost of one extra copy of the input.
+     * @see StatisticalDistance#KullbackLeiblerDivergence(double[], double[], boolean)
+     */
+    public static double @NonNull [] @NonNull [] KullbackLeiblerDivergenceMatrix(
+        final double @NonNull [] @NonNull [] distributions, final boolean trustedInput) {
+        prepare(distributions, trustedInput);
+        val logs = Simd.isVectorized() ? IntStream.range(0, distributions.length).parallel()
+            .mapToObj(i -> DivergenceKernel.KullbackLeibler.logs(distributions[i])).toArray(double[][]::new)
+            : new double[distributions.length][];
+        return matrix(distributions.length, (i, j) -> {
+            val kernel = new DivergenceKernel.KullbackLeibler(false, false, logs[i], logs[j]);
+            kernel.update(distributions[i], distributions[j], 0, distributions[i].length);
+            return kernel.result();
+        }, false);
+    }
+
+    /**
+     * Calculates the metric of the reference and every candidate.
+     *
+     * @param metric       The metric.
+     * @param reference    The distribution to be compared to.
+     * @param candidates   Actual distributions, all of the same shape as {@code reference}.
+     * @param trustedInput When {@code true}, distributions are not validated.
+     * @return An array of metric values, one per candidate.
+     * @see StatisticalDistance#distance(Metric, double[], double[], boolean)
+     */
+    public static double @NonNull [] distance(final @NonNull Metric metric, final double @NonNull [] reference,
+                                              final double @NonNull [] @NonNull [] candidates,
+                                              final boolean trustedInput) {
+        val result = new double[candidates.length];
+        distance(metric, reference, candidates, result, trustedInput);
+        return result;
+    }
+
+    /**
+     * An allocation-free version that writes the results into {@code out}.
+     *
+     * @param out An array of the same length as {@code candidates}.
+     * @throws IllegalArgumentException When shapes differ or, unless the input is trusted, any distribution is not
+     *                                  valid.
+     * @implSpec The reference is validated once, candidates are validated within the fused pass of their own
+     * metric.
+     * @see #distance(Metric, double[], double[][], boolean)
+     */
+    public static void distance(final @NonNull Metric metric, final double @NonNull [] reference,
+                                final double @NonNull [] @NonNull [] candidates, final double @NonNull [] out,
+                                final boolean trustedInput) {
+        if (metric == Metric.KULLBACK_LEIBLER) {
+            KullbackLeiblerDivergence(reference, candidates, out, trustedInput);
+            return;
+        }
+        prepare(reference, candidates, out, trustedInput);
+        oneToMany(candidates.length, j -> {
+            val kernel = metric.kernel(false, !trustedInput);
+            kernel.update(reference, candidates[j], 0, reference.length);
+            return kernel.result();
+        }, out);
+    }
+
+    /**
+     * Calculates the metric of every ordered pair of distributions.
+     *
+     * @param metric        The metric.
+     * @param distributions Distributions of the same shape.
+     * @param trustedInput  When {@code true}, distributions are not validated.
+     * @return A square matrix, {@code result[i][j]} is the metric of {@code distributions[j]} with the reference
+     * {@code distributions[i]}.
+     * @implSpec Only the upper triangle is calculated for symmetric metrics.
+     * @see Metric#isSymmetric()
+     */
+    public static double @NonNull [] @NonNull [] distanceMatrix(final @NonNull Metric metric,
+                                                                final double @NonNull [] @NonNull [] distributions,
+                                                                final boolean trustedInput) {
+        if (metric == Metric.KULLBACK_LEIBLER) return KullbackLeiblerDivergenceMatrix(distributions, trustedInput);
+        prepare(distributions, trustedInput);
+        return matrix(distributions.length, (i, j) -> {
+            val kernel = metric.kernel(false, false);
+            kernel.update(distributions[i], distributions[j], 0, distributions[i].length);
+            return kernel.result();
+        }, metric.isSymmetric());
+    }
+
+    /**
+     * A score of the pair {@code (i, j)}.
+     */
+    @FunctionalInterface
+    interface PairFunction {
+        double apply(int i, int j);
+    }
+
+    /**
+     * Fills {@code out} in parallel.
+     */
+    static void oneToMany(final int count, final IntToDoubleFunction score, final double @NonNull [] out) {
+        IntStream.range(0, count).parallel().forEach(j -> out[j] = score.applyAsDouble(j));
+    }
+
+    /**
+     * Fills a square matrix in parallel, rows are split across fork/join tasks.
+     *
+     * @param symmetric When {@code true}, only the upper triangle is calculated and mirrored, the diagonal is
+     *                  calculated as well since some metrics are trimmed.
+     */
+    static double @NonNull [] @NonNull [] matrix(final int count, final PairFunction score, final boolean symmetric) {
+        val result = new double[count][count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            for (var j = symmetric ? i : 0; j < count; j++) result[i][j] = score.apply(i, j);
+        });
+        if (symmetric)
+            for (var i = 0; i < count; i++)
+                for (var j = i + 1; j < count; j++) result[j][i] = result[i][j];
+        return result;
+    }
+
+    /**
+     * Checks shapes and, optionally, validates the reference.
+     */
+    static void prepare(final double @NonNull [] reference, final double @NonNull [] @NonNull [] candidates,
+                        final double @NonNull [] out, final boolean trustedInput) {
+        lengthParity(candidates.length, out.length);
+        for (val candidate : candidates) StatisticalDistance.checkShape(reference, candidate);
+        if (!trustedInput) DivergenceKernel.validate(reference);
+    }
+
+    /**
+     * Checks shapes and, optionally, validates every distribution.
+     */
+    static void prepare(final double @NonNull [] @NonNull [] distributions, final boolean trustedInput) {
+        for (val distribution : distributions) StatisticalDistance.checkShape(distributions[0], distribution);
+        if (!trustedInput) IntStream.range(0, distributions.length).parallel()
+            .forEach(i -> DivergenceKernel.validate(distributions[i]));
+    }
+}
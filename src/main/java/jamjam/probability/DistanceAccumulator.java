@@ -0,0 +1,65 @@
+package jamjam.probability;
+
+import lombok.NonNull;
+
+import java.util.Objects;
+
+import static jamjam.aux.Utils.lengthParity;
+
+/**
+ * A streaming version of {@link StatisticalDistance}: both distributions arrive in chunks of outcomes, e.g., read
+ * from a file or produced by a simulation, and are never held in memory as a whole. Chunks must come in the order of
+ * outcomes, which matters for {@link Metric#WASSERSTEIN} only.
+ * <p>
+ * The result equals the one of {@link StatisticalDistance#distance(Metric, double[], double[], boolean)} applied to
+ * concatenated chunks up to rounding, since chunk boundaries change the order of summation. Not thread-safe.
+ */
+public final class DistanceAccumulator {
+    private final DivergenceKernel kernel;
+
+    /**
+     * @param metric       The metric.
+     * @param trustedInput When {@code true}, distributions are not validated.
+     */
+    public DistanceAccumulator(final @NonNull Metric metric, final boolean trustedInput) {
+        kernel = metric.kernel(!trustedInput, !trustedInput);
+    }
+
+    /**
+     * Adds the next chunk of outcomes.
+     *
+     * @param reference Probabilities of the reference distribution.
+     * @param actual    Probabilities of the actual distribution, of the same length.
+     * @return This accumulator.
+     */
+    public DistanceAccumulator update(final double @NonNull [] reference, final double @NonNull [] actual) {
+        return update(reference, actual, 0, reference.length);
+    }
+
+    /**
+     * Adds the next chunk of outcomes from the given range of both arrays.
+     *
+     * @param reference Probabilities of the reference distribution.
+     * @param actual    Probabilities of the actual distribution, of the same length.
+     * @param fromIndex The first index, inclusive.
+     * @param toIndex   The last index, exclusive.
+     * @return This accumulator.
+     * @throws IndexOutOfBoundsException When the range is out of bounds.
+     */
+    public DistanceAccumulator update(final double @NonNull [] reference, final double @NonNull [] actual,
+                                      final int fromIndex, final int toIndex) {
+        lengthParity(reference.length, actual.length);
+        Objects.checkFromToIndex(fromIndex, toIndex, reference.length);
+        kernel.update(reference, actual, fromIndex, toIndex);
+        return this;
+    }
+
+    /**
+     * @return The metric value of all chunks seen so far.
+     * @throws IllegalArgumentException When there are fewer than two outcomes or, unless the input is trusted,
+     *                                  distributions are not valid.
+     */
+    public double getDistance() {
+        return kernel.result();
+    }
+}
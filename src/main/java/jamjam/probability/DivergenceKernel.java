@@ -0,0 +1,447 @@
+package jamjam.probability;
+
+import jamjam.Sum;
+import jamjam.simd.Simd;
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import static jamjam.aux.Utils.trim;
+import static java.lang.StrictMath.abs;
+import static java.lang.StrictMath.log;
+import static java.lang.StrictMath.log10;
+import static java.lang.StrictMath.max;
+import static java.lang.StrictMath.sqrt;
+
+/**
+ * The reduction engine shared by all distances: the input is processed in blocks that fit into L1 cache, every block
+ * is validated (when required) and then reduced by a metric-specific vectorized loop, thus the data is read from
+ * memory only once. Terms are accumulated with lane-wise compensated summation, partial sums are kept between calls,
+ * so a kernel can consume distributions chunk by chunk.
+ * <p>
+ * Vectorized loops live in {@link VectorDivergence} and are linked only when {@link Simd#isVectorized()} is
+ * {@code true}, otherwise every outcome goes through the scalar {@link #term}, so distances work without the
+ * {@code jdk.incubator.vector} module.
+ *
+ * @implNote Every metric owns its inner loop on purpose, sharing a single loop parameterized by a lambda makes the
+ * call site megamorphic and prevents the vector API intrinsics from kicking in.
+ */
+abstract class DivergenceKernel {
+    /**
+     * The number of outcomes processed at once, a multiple of any vector length.
+     */
+    static final int BLOCK_SIZE = 1024;
+
+    /**
+     * Lane-wise compensated sum of the terms, only vectorized loops update these; {@code null} for scalar kernels.
+     */
+    final double[] sum;
+    final double[] corrector;
+
+    private final Sum.Accumulator tail = new Sum.Accumulator();
+    private final Sum.Accumulator referenceTotal = new Sum.Accumulator();
+    private final Sum.Accumulator actualTotal = new Sum.Accumulator();
+    private final boolean validateReference;
+    private final boolean validateActual;
+    private boolean outOfRange;
+    private long outcomes;
+    /**
+     * Distributions of floats need to add up to 1 in single precision only.
+     */
+    private boolean singlePrecision;
+
+    DivergenceKernel(final boolean validateReference, final boolean validateActual) {
+        this.validateReference = validateReference;
+        this.validateActual = validateActual;
+        val lanes = Simd.vectorBitSize() / Double.SIZE;
+        sum = lanes == 0 ? null : new double[lanes];
+        corrector = lanes == 0 ? null : new double[lanes];
+    }
+
+    /**
+     * Accumulates terms of a block with {@link VectorDivergence}, {@code to - from} is a multiple of the vector
+     * length. Called only when {@link Simd#isVectorized()} is {@code true}.
+     */
+    abstract void accumulate(double[] reference, double[] actual, int from, int to);
+
+    /**
+     * @return A single term of the sum, used for the leftovers that don't fill a vector.
+     */
+    abstract double term(double reference, double actual);
+
+    /**
+     * Converts the sum of all terms into the final value.
+     */
+    abstract double finish(double total);
+
+    /**
+     * Processes the next chunk of both distributions.
+     */
+    final void update(final double @NonNull [] reference, final double @NonNull [] actual, final int from,
+                      final int to) {
+        val upperBound = Simd.isVectorized() ? from + VectorDivergence.SPECIES.loopBound(to - from) : from;
+        int end;
+        for (var start = from; start < upperBound; start = end) {
+            end = Math.min(start + BLOCK_SIZE, upperBound);
+            if (validateReference) outOfRange |= VectorDivergence.sumBlock(reference, start, end, referenceTotal);
+            if (validateActual) outOfRange |= VectorDivergence.sumBlock(actual, start, end, actualTotal);
+            accumulate(reference, actual, start, end);
+        }
+        for (var i = upperBound; i < to; i++) {
+            if (validateReference) outOfRange |= sumOne(reference[i], referenceTotal);
+            if (validateActual) outOfRange |= sumOne(actual[i], actualTotal);
+            tail.sum(term(reference[i], actual[i]));
+        }
+        outcomes += to - from;
+    }
+
+    /**
+     * Processes distributions of floats, every block is widened into buffers that stay in cache and then processed
+     * as usual.
+     */
+    final void update(final float @NonNull [] reference, final float @NonNull [] actual) {
+        singlePrecision = true;
+        val referenceBlock = new double[Math.min(reference.length, BLOCK_SIZE)];
+        val actualBlock = new double[referenceBlock.length];
+        int to;
+        for (var from = 0; from < reference.length; from = to) {
+            to = (int) Math.min((long) from + BLOCK_SIZE, reference.length);
+            widen(reference, from, to, referenceBlock);
+            widen(actual, from, to, actualBlock);
+            update(referenceBlock, actualBlock, 0, to - from);
+        }
+    }
+
+    private static void widen(final float[] x, final int from, final int to, final double[] block) {
+        var i = Simd.isVectorized() ? VectorDivergence.widen(x, from, to, block) : from;
+        for (; i < to; i++) block[i - from] = x[i];
+    }
+
+    /**
+     * Processes sparse distributions by a merge join of stored outcomes.
+     *
+     * @implSpec Outcomes that are stored in neither distribution have zero probabilities in both, every metric term
+     * is exactly zero there (the trimmed logarithms are multiplied by zero), so these outcomes are skipped without
+     * any work except for {@link #skip(int)}. Outcomes stored in only one distribution go through {@link #term} as
+     * usual, thus trimming is applied the same way as for dense arrays.
+     */
+    final void merge(final @NonNull SparseDistribution reference, final @NonNull SparseDistribution actual) {
+        val referenceCount = reference.indices.length;
+        val actualCount = actual.indices.length;
+        var i = 0;
+        var j = 0;
+        var previous = -1;
+        int outcome;
+        double r, a;
+        while (i < referenceCount || j < actualCount) {
+            outcome = Math.min(i < referenceCount ? reference.indices[i] : Integer.MAX_VALUE,
+                j < actualCount ? actual.indices[j] : Integer.MAX_VALUE);
+            skip(outcome - previous - 1);
+            r = i < referenceCount && reference.indices[i] == outcome ? reference.values[i++] : 0.;
+            a = j < actualCount && actual.indices[j] == outcome ? actual.values[j++] : 0.;
+            if (validateReference) outOfRange |= sumOne(r, referenceTotal);
+            if (validateActual) outOfRange |= sumOne(a, actualTotal);
+            tail.sum(term(r, a));
+            previous = outcome;
+        }
+        skip(reference.size - previous - 1);
+        outcomes += reference.size;
+    }
+
+    /**
+     * Accounts for a run of outcomes that are impossible in both distributions, does nothing by default.
+     */
+    void skip(final int count) {
+    }
+
+    /**
+     * @return The distance between all the data seen so far.
+     * @throws IllegalArgumentException When there are fewer than two outcomes or the validation fails.
+     */
+    final double result() {
+        check(outcomes, outOfRange, (!validateReference || isUnit(referenceTotal.getSum()))
+            && (!validateActual || isUnit(actualTotal.getSum())));
+
+        val total = new Sum.Accumulator();
+        if (sum != null)
+            for (var lane = 0; lane < sum.length; lane++) {
+                total.sum(sum[lane]);
+                total.sum(-corrector[lane]);
+            }
+        total.sum(tail.getUncorrectedSum());
+        total.sum(-tail.getCorrector());
+        return finish(total.getSum());
+    }
+
+    private boolean isUnit(final double total) {
+        return singlePrecision ? (float) total == 1f : total == 1.;
+    }
+
+    /**
+     * Checks a single distribution with the same loops that validate blocks of the fused pass.
+     *
+     * @param distribution Probabilities of outcomes.
+     * @throws IllegalArgumentException When there are fewer than two outcomes, any probability is out of
+     *                                  {@code [0; 1]}, or they don't add up to 1.
+     */
+    static void validate(final double @NonNull [] distribution) {
+        val upperBound = Simd.isVectorized() ? VectorDivergence.SPECIES.loopBound(distribution.length) : 0;
+        val total = new Sum.Accumulator();
+        var invalid = Simd.isVectorized() && VectorDivergence.sumBlock(distribution, 0, upperBound, total);
+        for (var i = upperBound; i < distribution.length; i++) invalid |= sumOne(distribution[i], total);
+        check(distribution.length, invalid, total.getSum() == 1.);
+    }
+
+    private static void check(final long outcomes, final boolean outOfRange, final boolean unit) {
+        if (outcomes <= 1)
+            throw new IllegalArgumentException("Probability distribution must have at least two outcomes.");
+        if (outOfRange) throw new IllegalArgumentException("Probability must be in the range [0; 1].");
+        if (!unit) throw new IllegalArgumentException("Probability distribution must add up to 1.");
+    }
+
+    /**
+     * Adds a scalar term, for metrics that can't be vectorized.
+     */
+    final void add(final double term) {
+        tail.sum(term);
+    }
+
+    /**
+     * The scalar counterpart of {@link VectorDivergence#sumBlock}.
+     *
+     * @return {@code true} if {@code p} is out of {@code [0; 1]}.
+     */
+    private static boolean sumOne(final double p, final Sum.Accumulator total) {
+        total.sum(p);
+        return p < 0. || p > 1.;
+    }
+
+    /**
+     * Logarithms of either distribution may be calculated once and reused by many kernels, e.g., in
+     * {@link BatchDistance}. They are indexed the same way as the distributions, so such kernels accept whole arrays
+     * of doubles only. Scalar kernels don't need them, every {@link #term} takes its own logarithms.
+     */
+    static final class KullbackLeibler extends DivergenceKernel {
+        private final double[] referenceLogs;
+        private final double[] actualLogs;
+
+        KullbackLeibler(final boolean validateReference, final boolean validateActual) {
+            this(validateReference, validateActual, null, null);
+        }
+
+        /**
+         * @param referenceLogs {@link #logs(double[])} of the reference distribution or {@code null}.
+         * @param actualLogs    {@link #logs(double[])} of the actual distribution or {@code null}, used only along with
+         *                      {@code referenceLogs}.
+         */
+        KullbackLeibler(final boolean validateReference, final boolean validateActual,
+                        final double @Nullable [] referenceLogs, final double @Nullable [] actualLogs) {
+            super(validateReference, validateActual);
+            this.referenceLogs = referenceLogs;
+            this.actualLogs = actualLogs;
+        }
+
+        /**
+         * @param distribution Probabilities of outcomes.
+         * @return {@code log10(trim(p))} for every outcome, lanes and the tail are calculated the same way as in
+         * {@link #accumulate} and {@link #term} respectively.
+         */
+        static double @NonNull [] logs(final double @NonNull [] distribution) {
+            val result = new double[distribution.length];
+            var i = Simd.isVectorized() ? VectorDivergence.logs(distribution, result) : 0;
+            for (; i < distribution.length; i++) result[i] = log10(trim(distribution[i]));
+            return result;
+        }
+
+        @Override
+        void accumulate(final double[] reference, final double[] actual, final int from, final int to) {
+            if (referenceLogs == null) VectorDivergence.kullbackLeibler(reference, actual, from, to, sum, corrector);
+            else VectorDivergence.kullbackLeibler(reference, referenceLogs, actual, actualLogs, from, to, sum,
+                corrector);
+        }
+
+        @Override
+        double term(final double reference, final double actual) {
+            return reference * log10(trim(reference) / trim(actual));
+        }
+
+        @Override
+        double finish(final double total) {
+            return trim(total);
+        }
+    }
+
+    static final class JensenShannon extends DivergenceKernel {
+        JensenShannon(final boolean validateReference, final boolean validateActual) {
+            super(validateReference, validateActual);
+        }
+
+        @Override
+        void accumulate(final double[] reference, final double[] actual, final int from, final int to) {
+            VectorDivergence.jensenShannon(reference, actual, from, to, sum, corrector);
+        }
+
+        @Override
+        double term(final double reference, final double actual) {
+            val m = trim(0.5 * (reference + actual));
+            return 0.5 * (reference * log10(trim(reference) / m) + actual * log10(trim(actual) / m));
+        }
+
+        @Override
+        double finish(final double total) {
+            return trim(total);
+        }
+    }
+
+    static final class Hellinger extends DivergenceKernel {
+        Hellinger(final boolean validateReference, final boolean validateActual) {
+            super(validateReference, validateActual);
+        }
+
+        @Override
+        void accumulate(final double[] reference, final double[] actual, final int from, final int to) {
+            VectorDivergence.hellinger(reference, actual, from, to, sum, corrector);
+        }
+
+        @Override
+        double term(final double reference, final double actual) {
+            val d = sqrt(reference) - sqrt(actual);
+            return d * d;
+        }
+
+        @Override
+        double finish(final double total) {
+            return sqrt(0.5 * total);
+        }
+    }
+
+    static final class Bhattacharyya extends DivergenceKernel {
+        Bhattacharyya(final boolean validateReference, final boolean validateActual) {
+            super(validateReference, validateActual);
+        }
+
+        @Override
+        void accumulate(final double[] reference, final double[] actual, final int from, final int to) {
+            VectorDivergence.bhattacharyya(reference, actual, from, to, sum, corrector);
+        }
+
+        @Override
+        double term(final double reference, final double actual) {
+            return sqrt(reference * actual);
+        }
+
+        @Override
+        double finish(final double total) {
+            return max(0., -log(total));
+        }
+    }
+
+    static final class TotalVariation extends DivergenceKernel {
+        TotalVariation(final boolean validateReference, final boolean validateActual) {
+            super(validateReference, validateActual);
+        }
+
+        @Override
+        void accumulate(final double[] reference, final double[] actual, final int from, final int to) {
+            VectorDivergence.totalVariation(reference, actual, from, to, sum, corrector);
+        }
+
+        @Override
+        double term(final double reference, final double actual) {
+            return abs(reference - actual);
+        }
+
+        @Override
+        double finish(final double total) {
+            return 0.5 * total;
+        }
+    }
+
+    /**
+     * Infinite terms are tracked separately, otherwise they turn compensated sums into {@code NaN}.
+     */
+    static final class ChiSquared extends DivergenceKernel {
+        private boolean infinite;
+
+        ChiSquared(final boolean validateReference, final boolean validateActual) {
+            super(validateReference, validateActual);
+        }
+
+        @Override
+        void accumulate(final double[] reference, final double[] actual, final int from, final int to) {
+            infinite |= VectorDivergence.chiSquared(reference, actual, from, to, sum, corrector);
+        }
+
+        @Override
+        double term(final double reference, final double actual) {
+            val d = actual - reference;
+            if (reference == 0.) {
+                infinite |= d != 0.;
+                return 0.;
+            }
+            return d * d / reference;
+        }
+
+        @Override
+        double finish(final double total) {
+            return infinite ? Double.POSITIVE_INFINITY : total;
+        }
+    }
+
+    /**
+     * The first Wasserstein distance between distributions on a line, {@code sum(|F(x_i) - G(x_i)| * dx_i)}.
+     * Cumulative distribution functions are built on the fly with {@link Sum.Accumulator}, exactly as
+     * {@link Sum#cumulativeSum(double...)} does, and the scheme is inherently sequential.
+     */
+    static final class Wasserstein extends DivergenceKernel {
+        private final Sum.Accumulator referenceCdf = new Sum.Accumulator();
+        private final Sum.Accumulator actualCdf = new Sum.Accumulator();
+        /**
+         * Positions of outcomes, {@code null} for unit spacing.
+         */
+        private final double[] support;
+        private int position;
+
+        Wasserstein(final boolean validateReference, final boolean validateActual, final double[] support) {
+            super(validateReference, validateActual);
+            this.support = support;
+        }
+
+        @Override
+        void accumulate(final double[] reference, final double[] actual, final int from, final int to) {
+            for (var i = from; i < to; i++) add(term(reference[i], actual[i]));
+        }
+
+        @Override
+        double term(final double reference, final double actual) {
+            referenceCdf.sum(reference);
+            actualCdf.sum(actual);
+            position++;
+            return abs(referenceCdf.getSum() - actualCdf.getSum()) * spacing(position - 1, position);
+        }
+
+        /**
+         * Cumulative distribution functions stay constant, the difference is carried over the whole run.
+         */
+        @Override
+        void skip(final int count) {
+            if (count <= 0) return;
+            add(abs(referenceCdf.getSum() - actualCdf.getSum()) * spacing(position, position + count));
+            position += count;
+        }
+
+        /**
+         * @return The distance between outcomes {@code from} and {@code to}, the last outcome is not followed by any.
+         */
+        private double spacing(final int from, final int to) {
+            if (support == null) return to - from;
+            val last = support.length - 1;
+            return support[Math.min(to, last)] - support[Math.min(from, last)];
+        }
+
+        @Override
+        double finish(final double total) {
+            return total;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package jamjam.probability;
+
+import jamjam.Sum;
+import jamjam.arrays.ARange;
+import jamjam.arrays.LinearSpace;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import static java.lang.StrictMath.fma;
+
+/**
+ * A histogram builder that turns samples into discrete probability distributions ready for
+ * {@link StatisticalDistance}. Bins are half-open intervals {@code [e_k; e_{k + 1})} between consecutive edges, the
+ * last one is closed as in NumPy. Samples out of the edges and {@code NaN} are counted separately and don't contribute
+ * to distributions.
+ * <p>
+ * Uniform bins, see {@link #linspace(double, double, int)} and {@link #arange(double, double, double)}, are found in
+ * O(1) per sample, arbitrary and adaptive ones by binary search.
+ * <p>
+ * Instances are not thread-safe. Concurrent producers should fill their own partial histograms, e.g., made by
+ * {@link #emptyCopy()}, and {@link #merge(Histogram)} them; bulk methods do exactly that with thread-local counters
+ * on the common fork/join pool, so the result doesn't depend on the number of threads.
+ */
+public final class Histogram {
+    /**
+     * Arrays shorter than that are binned sequentially.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 20;
+
+    private final double[] edges;
+    private final boolean uniform;
+    private final double scale;
+    /**
+     * In-range counts are followed by underflow, overflow and {@code NaN} counts.
+     */
+    private final long[] counts;
+
+    /**
+     * @param edges Strictly increasing finite bin edges, at least two.
+     * @throws IllegalArgumentException When edges are not valid.
+     */
+    public Histogram(final double @NonNull [] edges) {
+        this(edges.clone(), false, 0.);
+    }
+
+    /**
+     * @param uniform When {@code true}, the bin of a sample is estimated as {@code (x - edges[0]) * scale}.
+     */
+    private Histogram(final double[] edges, final boolean uniform, final double scale) {
+        if (edges.length < 2) throw new IllegalArgumentException("At least two edges are required.");
+        for (var k = 0; k < edges.length; k++)
+            if (!Double.isFinite(edges[k]) || (k > 0 && edges[k] <= edges[k - 1]))
+                throw new IllegalArgumentException("Edges must be finite and strictly increasing.");
+        this.edges = edges;
+        this.uniform = uniform;
+        this.scale = scale;
+        counts = new long[edges.length + 2];
+    }
+
+    /**
+     * Creates {@code bins} bins of the same width.
+     *
+     * @param start The left edge of the first bin.
+     * @param stop  The right edge of the last bin.
+     * @param bins  The number of bins.
+     * @return An empty histogram.
+     * @throws IllegalArgumentException When there are no bins or the range is not valid.
+     * @see LinearSpace#linspace(double, double, int, boolean)
+     */
+    public static @NonNull Histogram linspace(final double start, final double stop, final int bins) {
+        if (bins < 1) throw new IllegalArgumentException("At least one bin is required.");
+        val edges = LinearSpace.linspace(start, stop, bins + 1, true);
+        assert edges != null;
+        edges[bins] = stop;
+        return new Histogram(edges, true, bins / (stop - start));
+    }
+
+    /**
+     * Creates bins of width {@code step} starting at {@code start}, the last bin ends at {@code stop} and may be
+     * narrower than others.
+     *
+     * @param start The left edge of the first bin.
+     * @param stop  The right edge of the last bin.
+     * @param step  Bin width, must be positive.
+     * @return An empty histogram.
+     * @throws IllegalArgumentException When the range is empty or not valid.
+     * @see ARange#arange(double, double, double)
+     */
+    public static @NonNull Histogram arange(final double start, final double stop, final double step) {
+        if (!(step > 0.)) throw new IllegalArgumentException("Step must be positive.");
+        val points = ARange.arange(start, stop, step);
+        if (points.length == 0) throw new IllegalArgumentException("The range is empty.");
+        val next = fma(points.length, step, start);
+        val edges = Arrays.copyOf(points, points.length + (next < stop ? 2 : 1));
+        if (next < stop) edges[points.length] = next;
+        edges[edges.length - 1] = stop;
+        return new Histogram(edges, true, 1. / step);
+    }
+
+    /**
+     * Creates bins that hold roughly the same number of samples of {@code sample}, handy when the data is heavily
+     * skewed. Tied quantiles are collapsed, thus there can be fewer bins than requested.
+     *
+     * @param sample A representative sample, not modified.
+     * @param bins   The desired number of bins.
+     * @return An empty histogram.
+     * @throws IllegalArgumentException When there are no bins or the sample has fewer than two distinct finite
+     *                                  values.
+     */
+    public static @NonNull Histogram adaptive(final double @NonNull [] sample, final int bins) {
+        if (bins < 1) throw new IllegalArgumentException("At least one bin is required.");
+        val sorted = Arrays.stream(sample).filter(Double::isFinite).sorted().toArray();
+        if (sorted.length < 2) throw new IllegalArgumentException("Not enough finite values.");
+        val edges = new double[bins + 1];
+        var count = 0;
+        double edge;
+        for (var k = 0; k <= bins; k++) {
+            edge = sorted[(int) ((long) k * (sorted.length - 1) / bins)];
+            if (count == 0 || edge > edges[count - 1]) edges[count++] = edge;
+        }
+        return new Histogram(Arrays.copyOf(edges, count), false, 0.);
+    }
+
+    /**
+     * @return A histogram with the same bins and no samples.
+     */
+    public @NonNull Histogram emptyCopy() {
+        return new Histogram(edges, uniform, scale);
+    }
+
+    /**
+     * @param x A sample.
+     * @return The bin index, {@code -1} when the sample is out of edges or {@code NaN}.
+     */
+    public int binIndex(final double x) {
+        val index = slot(x);
+        return index < bins() ? index : -1;
+    }
+
+    /**
+     * @return The bin index, or the index of the underflow, overflow or {@code NaN} counter.
+     */
+    private int slot(final double x) {
+        val bins = edges.length - 1;
+        if (Double.isNaN(x)) return bins + 2;
+        if (x < edges[0]) return bins;
+        if (x > edges[bins]) return bins + 1;
+        if (!uniform) {
+            val k = Arrays.binarySearch(edges, x);
+            return Math.min(k >= 0 ? k : -k - 2, bins - 1);
+        }
+        var k = Math.min((int) ((x - edges[0]) * scale), bins - 1);
+        if (x < edges[k]) k--;
+        else if (k < bins - 1 && x >= edges[k + 1]) k++;
+        return k;
+    }
+
+    /**
+     * Adds a single sample.
+     *
+     * @return This histogram.
+     */
+    public @NonNull Histogram add(final double x) {
+        counts[slot(x)]++;
+        return this;
+    }
+
+    /**
+     * Adds all samples, large arrays are binned in parallel.
+     *
+     * @return This histogram.
+     */
+    public @NonNull Histogram addAll(final double @NonNull ... x) {
+        if (x.length < PARALLEL_THRESHOLD) {
+            for (val v : x) counts[slot(v)]++;
+            return this;
+        }
+        val chunks = (x.length + PARALLEL_THRESHOLD - 1) / PARALLEL_THRESHOLD;
+        val partial = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            val local = new long[counts.length];
+            val to = (int) Math.min((long) (chunk + 1) * PARALLEL_THRESHOLD, x.length);
+            for (var i = chunk * PARALLEL_THRESHOLD; i < to; i++) local[slot(x[i])]++;
+            return local;
+        }).reduce(Histogram::sumCounts).orElseThrow();
+        sumCounts(counts, partial);
+        return this;
+    }
+
+    /**
+     * Adds all samples of the stream, parallel streams are binned into thread-local counters.
+     *
+     * @return This histogram.
+     */
+    public @NonNull Histogram addAll(final @NonNull DoubleStream x) {
+        sumCounts(counts, x.collect(() -> new long[counts.length], (local, v) -> local[slot(v)]++,
+            Histogram::sumCounts));
+        return this;
+    }
+
+    /**
+     * Adds counts of another histogram with the same edges.
+     *
+     * @return This histogram.
+     * @throws IllegalArgumentException When edges differ.
+     */
+    public @NonNull Histogram merge(final @NonNull Histogram other) {
+        if (!Arrays.equals(edges, other.edges)) throw new IllegalArgumentException("Edges must be the same.");
+        sumCounts(counts, other.counts);
+        return this;
+    }
+
+    private static long[] sumCounts(final long[] x, final long[] y) {
+        for (var i = 0; i < x.length; i++) x[i] += y[i];
+        return x;
+    }
+
+    /**
+     * @return The number of bins.
+     */
+    public int bins() {
+        return edges.length - 1;
+    }
+
+    /**
+     * @return A copy of bin edges.
+     */
+    public double @NonNull [] edges() {
+        return edges.clone();
+    }
+
+    /**
+     * @return The number of samples in the bin.
+     */
+    public long count(final int bin) {
+        return counts[Objects.checkIndex(bin, bins())];
+    }
+
+    /**
+     * @return A copy of bin counts.
+     */
+    public long @NonNull [] counts() {
+        return Arrays.copyOf(counts, bins());
+    }
+
+    /**
+     * @return The number of samples within edges.
+     */
+    public long total() {
+        var total = 0L;
+        for (var k = 0; k < bins(); k++) total += counts[k];
+        return total;
+    }
+
+    /**
+     * @return The number of samples to the left of the first edge.
+     */
+    public long underflow() {
+        return counts[bins()];
+    }
+
+    /**
+     * @return The number of samples to the right of the last edge.
+     */
+    public long overflow() {
+        return counts[bins() + 1];
+    }
+
+    /**
+     * @return The number of {@code NaN} samples.
+     */
+    public long nanCount() {
+        return counts[bins() + 2];
+    }
+
+    /**
+     * Converts counts into probabilities of bins.
+     *
+     * @return A distribution that passes the validation of {@link StatisticalDistance}.
+     * @see #toDistribution(double)
+     */
+    public double @NonNull [] toDistribution() {
+        return toDistribution(0.);
+    }
+
+    /**
+     * Converts counts into probabilities of bins with additive smoothing, every bin gets {@code pseudoCount} extra
+     * samples. Smoothing keeps relative entropy finite when a bin of the actual distribution is empty.
+     *
+     * @param pseudoCount A non-negative number of extra samples per bin.
+     * @return A distribution that passes the validation of {@link StatisticalDistance}.
+     * @throws IllegalArgumentException When the histogram is empty or {@code pseudoCount} is negative.
+     * @implSpec Probabilities are rounded independently, the rounding error is absorbed by the largest one so that
+     * the compensated sum is exactly 1, a few ulp adjustments may follow.
+     */
+    public double @NonNull [] toDistribution(final double pseudoCount) {
+        if (!(pseudoCount >= 0.)) throw new IllegalArgumentException("Pseudo count must be non-negative.");
+        val total = total() + pseudoCount * bins();
+        if (!(total > 0.)) throw new IllegalArgumentException("The histogram is empty.");
+        val result = new double[bins()];
+        var largest = 0;
+        for (var k = 0; k < result.length; k++) {
+            result[k] = (counts[k] + pseudoCount) / total;
+            if (result[k] > result[largest]) largest = k;
+        }
+        result[largest] = 0.;
+        result[largest] = 1. - Sum.sum(result);
+        double sum;
+        for (var i = 0; i < Long.SIZE && (sum = Sum.sum(result)) != 1.; i++)
+            result[largest] = sum > 1. ? Math.nextDown(result[largest]) : Math.nextUp(result[largest]);
+        return result;
+    }
+
+    /**
+     * @return A sparse distribution of bins, empty bins are not stored.
+     * @see #toDistribution()
+     */
+    public @NonNull SparseDistribution toSparseDistribution() {
+        return SparseDistribution.of(toDistribution());
+    }
+}
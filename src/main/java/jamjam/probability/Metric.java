@@ -0,0 +1,73 @@
+package jamjam.probability;
+
+/**
+ * Distances and divergences between discrete probability distributions, used to switch metrics in batch and
+ * streaming calculations.
+ *
+ * @see StatisticalDistance
+ * @see BatchDistance
+ * @see DistanceAccumulator
+ */
+public enum Metric {
+    /**
+     * @see StatisticalDistance#KullbackLeiblerDivergence(double[], double[], boolean)
+     */
+    KULLBACK_LEIBLER(false),
+    /**
+     * @see StatisticalDistance#JensenShannonDivergence(double[], double[], boolean)
+     */
+    JENSEN_SHANNON(true),
+    /**
+     * @see StatisticalDistance#HellingerDistance(double[], double[], boolean)
+     */
+    HELLINGER(true),
+    /**
+     * @see StatisticalDistance#BhattacharyyaDistance(double[], double[], boolean)
+     */
+    BHATTACHARYYA(true),
+    /**
+     * @see StatisticalDistance#TotalVariationDistance(double[], double[], boolean)
+     */
+    TOTAL_VARIATION(true),
+    /**
+     * @see StatisticalDistance#ChiSquaredDivergence(double[], double[], boolean)
+     */
+    CHI_SQUARED(false),
+    /**
+     * @see StatisticalDistance#WassersteinDistance(double[], double[], boolean)
+     */
+    WASSERSTEIN(true);
+
+    private final boolean symmetric;
+    /**
+     * The name reported to {@link jamjam.metrics.KernelMetrics}.
+     */
+    final String kernelName;
+
+    Metric(final boolean symmetric) {
+        this.symmetric = symmetric;
+        kernelName = "StatisticalDistance." + name();
+    }
+
+    /**
+     * @return {@code true} if the value doesn't depend on the order of arguments.
+     */
+    public boolean isSymmetric() {
+        return symmetric;
+    }
+
+    /**
+     * @return A fresh kernel with unit spacing of outcomes.
+     */
+    DivergenceKernel kernel(final boolean validateReference, final boolean validateActual) {
+        return switch (this) {
+            case KULLBACK_LEIBLER -> new DivergenceKernel.KullbackLeibler(validateReference, validateActual);
+            case JENSEN_SHANNON -> new DivergenceKernel.JensenShannon(validateReference, validateActual);
+            case HELLINGER -> new DivergenceKernel.Hellinger(validateReference, validateActual);
+            case BHATTACHARYYA -> new DivergenceKernel.Bhattacharyya(validateReference, validateActual);
+            case TOTAL_VARIATION -> new DivergenceKernel.TotalVariation(validateReference, validateActual);
+            case CHI_SQUARED -> new DivergenceKernel.ChiSquared(validateReference, validateActual);
+            case WASSERSTEIN -> new DivergenceKernel.Wasserstein(validateReference, validateActual, null);
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package jamjam.probability;
+
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+
+import static jamjam.aux.Utils.lengthParity;
+
+/**
+ * A discrete probability distribution over outcomes {@code 0, 1, ..., size - 1} that stores only outcomes with
+ * non-zero probabilities as sorted {@code (index, value)} pairs. Memory and the cost of distances are proportional to
+ * the number of stored outcomes, not to the size.
+ * <p>
+ * Instances are immutable, input arrays are copied.
+ *
+ * @see StatisticalDistance#distance(Metric, SparseDistribution, SparseDistribution, boolean)
+ */
+public final class SparseDistribution {
+    final int size;
+    final int[] indices;
+    final double[] values;
+
+    /**
+     * @param size    The number of outcomes, including impossible ones.
+     * @param indices Strictly increasing indices of stored outcomes in {@code [0; size)}.
+     * @param values  Probabilities of stored outcomes.
+     * @throws IllegalArgumentException When arrays have different lengths, the size is negative, or indices are not
+     *                                  strictly increasing or out of range.
+     */
+    public SparseDistribution(final int size, final int @NonNull [] indices, final double @NonNull [] values) {
+        lengthParity(indices.length, values.length);
+        if (size < 0) throw new IllegalArgumentException("Size must be non-negative.");
+        for (var k = 0; k < indices.length; k++)
+            if (indices[k] < 0 || indices[k] >= size || (k > 0 && indices[k] <= indices[k - 1]))
+                throw new IllegalArgumentException("Indices must be strictly increasing and within [0; size).");
+        this.size = size;
+        this.indices = indices.clone();
+        this.values = values.clone();
+    }
+
+    /**
+     * Converts a dense distribution, zero probabilities are dropped.
+     *
+     * @param distribution Probabilities of all outcomes.
+     * @return A sparse copy.
+     */
+    public static @NonNull SparseDistribution of(final double @NonNull ... distribution) {
+        var count = 0;
+        for (val p : distribution) if (p != 0.) count++;
+        val indices = new int[count];
+        val values = new double[count];
+        count = 0;
+        for (var i = 0; i < distribution.length; i++)
+            if (distribution[i] != 0.) {
+                indices[count] = i;
+                values[count++] = distribution[i];
+            }
+        return new SparseDistribution(distribution.length, indices, values);
+    }
+
+    /**
+     * @return The number of outcomes, including impossible ones.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of stored outcomes.
+     */
+    public int storedCount() {
+        return indices.length;
+    }
+
+    /**
+     * @param k The position among stored outcomes.
+     * @return The outcome index.
+     */
+    public int index(final int k) {
+        return indices[k];
+    }
+
+    /**
+     * @param k The position among stored outcomes.
+     * @return The probability of the outcome.
+     */
+    public double value(final int k) {
+        return values[k];
+    }
+
+    /**
+     * @param outcome The outcome index.
+     * @return The probability of the outcome, found by binary search.
+     * @throws IndexOutOfBoundsException When the outcome is out of {@code [0; size)}.
+     */
+    public double get(final int outcome) {
+        if (outcome < 0 || outcome >= size) throw new IndexOutOfBoundsException(outcome);
+        val k = Arrays.binarySearch(indices, outcome);
+        return k >= 0 ? values[k] : 0.;
+    }
+
+    /**
+     * @return Probabilities of all outcomes.
+     */
+    public double @NonNull [] toDense() {
+        val result = new double[size];
+        for (var k = 0; k < indices.length; k++) result[indices[k]] = values[k];
+        return result;
+    }
+}
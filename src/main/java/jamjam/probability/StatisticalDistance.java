@@ -1,13 +1,14 @@
 package jamjam.probability;
 
+import jamjam.Sum;
 import jamjam.aux.Utils;
+import jamjam.metrics.CodePath;
+import jamjam.metrics.DivergenceEvent;
+import jamjam.metrics.Instrumentation;
+import jamjam.simd.Simd;
 import lombok.NonNull;
 import lombok.val;
 
-import static jamjam.Sum.sum;
-import static jamjam.aux.Utils.trim;
-import static java.lang.StrictMath.log10;
-
 public class StatisticalDistance {
     private StatisticalDistance() {
     }
@@ -23,29 +24,276 @@ public class StatisticalDistance {
      * more trim is applied at the end to keep the actual value non-negative as it has to be by definition.
      * That makes the returned value biased, but this bias is consistent and should not significantly affect
      * the outcome.
+     * @see #KullbackLeiblerDivergence(double[], double[], boolean)
      */
     public static double KullbackLeiblerDivergence(final double @NonNull [] referenceDistribution,
                                                    final double @NonNull [] actualDistribution) {
+        return KullbackLeiblerDivergence(referenceDistribution, actualDistribution, false);
+    }
 
-        if (referenceDistribution.length != actualDistribution.length)
-            throw new IllegalArgumentException("Distributions must have the same shape.");
+    /**
+     * Calculates relative entropy of two discrete probability distributions in a single pass over the data.
+     *
+     * @param referenceDistribution The distribution to be compared to.
+     * @param actualDistribution    The actual discrete probability distribution.
+     * @param trustedInput          When {@code true}, distributions are assumed to be valid, i.e., probabilities are
+     *                              in {@code [0; 1]} and add up to 1, and the checks are skipped.
+     * @return Entropy value.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     * @implSpec Validation, compensated summation of both distributions and of the divergence terms, and the
+     * logarithms are fused into one vectorized pass with no scratch arrays. Lane-wise partial sums are combined with
+     * {@link Sum.Accumulator} at the end.
+     * @implNote The vectorized {@code log10} is not guaranteed to be correctly rounded, the result may differ from
+     * the {@link StrictMath} based one in the last digits.
+     */
+    public static double KullbackLeiblerDivergence(final double @NonNull [] referenceDistribution,
+                                                   final double @NonNull [] actualDistribution,
+                                                   final boolean trustedInput) {
+        return distance(Metric.KULLBACK_LEIBLER, referenceDistribution, actualDistribution, trustedInput);
+    }
 
-        if (referenceDistribution.length <= 1)
-            throw new IllegalArgumentException("Probability distribution must have at least two outcomes.");
+    /**
+     * Calculates the Jensen–Shannon divergence, i.e., the mean relative entropy of both distributions from their
+     * mixture {@code m = (p + q) / 2}. The logarithm base is 10 as in
+     * {@link #KullbackLeiblerDivergence(double[], double[], boolean)}, thus the value is in {@code [0; log10(2)]}.
+     *
+     * @param referenceDistribution The first distribution.
+     * @param actualDistribution    The second distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Divergence value, trimmed the same way as the relative entropy.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     */
+    public static double JensenShannonDivergence(final double @NonNull [] referenceDistribution,
+                                                 final double @NonNull [] actualDistribution,
+                                                 final boolean trustedInput) {
+        return distance(Metric.JENSEN_SHANNON, referenceDistribution, actualDistribution, trustedInput);
+    }
+
+    /**
+     * Calculates the Hellinger distance {@code sqrt(sum((sqrt(p) - sqrt(q))^2) / 2)}.
+     *
+     * @param referenceDistribution The first distribution.
+     * @param actualDistribution    The second distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Distance value in {@code [0; 1]}.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     * @implNote The squared differences are summed instead of {@code 1 - sum(sqrt(p * q))}, the latter loses all
+     * significant digits for close distributions.
+     */
+    public static double HellingerDistance(final double @NonNull [] referenceDistribution,
+                                           final double @NonNull [] actualDistribution,
+                                           final boolean trustedInput) {
+        return distance(Metric.HELLINGER, referenceDistribution, actualDistribution, trustedInput);
+    }
 
-        if (sum(referenceDistribution) != 1. || sum(actualDistribution) != 1.)
-            throw new IllegalArgumentException("Probability distribution must add up to 1.");
+    /**
+     * Calculates the Bhattacharyya distance {@code -ln(sum(sqrt(p * q)))}.
+     *
+     * @param referenceDistribution The first distribution.
+     * @param actualDistribution    The second distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Distance value, infinite for distributions with disjoint supports.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     * @implSpec The result is clamped to 0 from below since the coefficient may exceed 1 by rounding.
+     */
+    public static double BhattacharyyaDistance(final double @NonNull [] referenceDistribution,
+                                               final double @NonNull [] actualDistribution,
+                                               final boolean trustedInput) {
+        return distance(Metric.BHATTACHARYYA, referenceDistribution, actualDistribution, trustedInput);
+    }
 
-        for (int i = 0; i < referenceDistribution.length; i++)
-            if (referenceDistribution[i] < 0. || referenceDistribution[i] > 1. ||
-                actualDistribution[i] < 0. || actualDistribution[i] > 1.)
-                throw new IllegalArgumentException("Probability must be in the range [0; 1].");
+    /**
+     * Calculates the total variation distance {@code sum(|p - q|) / 2}.
+     *
+     * @param referenceDistribution The first distribution.
+     * @param actualDistribution    The second distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Distance value in {@code [0; 1]}.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     */
+    public static double TotalVariationDistance(final double @NonNull [] referenceDistribution,
+                                                final double @NonNull [] actualDistribution,
+                                                final boolean trustedInput) {
+        return distance(Metric.TOTAL_VARIATION, referenceDistribution, actualDistribution, trustedInput);
+    }
 
-        val temp = new double[actualDistribution.length];
+    /**
+     * Calculates the Pearson chi-squared divergence {@code sum((q - p)^2 / p)} with {@code p} being the expected
+     * distribution.
+     *
+     * @param referenceDistribution The expected distribution.
+     * @param actualDistribution    The observed distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Divergence value, infinite when the observed distribution has an outcome the reference one doesn't.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     * @implSpec Outcomes with equal probabilities contribute nothing, including impossible ones.
+     */
+    public static double ChiSquaredDivergence(final double @NonNull [] referenceDistribution,
+                                              final double @NonNull [] actualDistribution,
+                                              final boolean trustedInput) {
+        return distance(Metric.CHI_SQUARED, referenceDistribution, actualDistribution, trustedInput);
+    }
 
-        for (int outcomeId = 0; outcomeId < actualDistribution.length; outcomeId++)
-            temp[outcomeId] = referenceDistribution[outcomeId] *
-                log10(trim(referenceDistribution[outcomeId]) / trim(actualDistribution[outcomeId]));
-        return trim(sum(temp));
+    /**
+     * Calculates the first Wasserstein (earth mover's) distance between distributions over outcomes {@code 0, 1, ...,
+     * n - 1}.
+     *
+     * @param referenceDistribution The first distribution.
+     * @param actualDistribution    The second distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Distance value.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     * @see #WassersteinDistance(double[], double[], double[], boolean)
+     */
+    public static double WassersteinDistance(final double @NonNull [] referenceDistribution,
+                                             final double @NonNull [] actualDistribution,
+                                             final boolean trustedInput) {
+        return distance(Metric.WASSERSTEIN, referenceDistribution, actualDistribution, trustedInput);
+    }
+
+    /**
+     * Calculates the first Wasserstein distance between distributions over arbitrary points on a line,
+     * {@code sum(|F(x_i) - G(x_i)| * (x_{i + 1} - x_i))}.
+     *
+     * @param referenceDistribution The first distribution.
+     * @param actualDistribution    The second distribution.
+     * @param support               Sorted positions of outcomes, e.g., bin centres.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Distance value.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid or the support is not sorted.
+     * @implSpec Cumulative distribution functions are the compensated ones of {@link Sum#cumulativeSum(double...)},
+     * they are accumulated on the fly with no scratch arrays.
+     */
+    public static double WassersteinDistance(final double @NonNull [] referenceDistribution,
+                                             final double @NonNull [] actualDistribution,
+                                             final double @NonNull [] support, final boolean trustedInput) {
+        checkShape(referenceDistribution, actualDistribution);
+        checkShape(referenceDistribution, support);
+        if (!trustedInput)
+            for (var i = 1; i < support.length; i++)
+                if (!(support[i - 1] <= support[i])) throw new IllegalArgumentException("Support must be sorted.");
+        val probe = Instrumentation.start(new DivergenceEvent());
+        val kernel = new DivergenceKernel.Wasserstein(!trustedInput, !trustedInput, support);
+        kernel.update(referenceDistribution, actualDistribution, 0, referenceDistribution.length);
+        val result = kernel.result();
+        Instrumentation.record(probe, Metric.WASSERSTEIN.kernelName, path(Metric.WASSERSTEIN), support.length, 0);
+        return result;
+    }
+
+    /**
+     * Calculates any of the supported metrics.
+     *
+     * @param metric                The metric.
+     * @param referenceDistribution The distribution to be compared to.
+     * @param actualDistribution    The actual distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Metric value.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     */
+    public static double distance(final @NonNull Metric metric, final double @NonNull [] referenceDistribution,
+                                  final double @NonNull [] actualDistribution, final boolean trustedInput) {
+        checkShape(referenceDistribution, actualDistribution);
+        val probe = Instrumentation.start(new DivergenceEvent());
+        val kernel = metric.kernel(!trustedInput, !trustedInput);
+        kernel.update(referenceDistribution, actualDistribution, 0, referenceDistribution.length);
+        val result = kernel.result();
+        Instrumentation.record(probe, metric.kernelName, path(metric), referenceDistribution.length, 0);
+        return result;
+    }
+
+    /**
+     * Calculates any of the supported metrics of two distributions stored in single precision, the computation is
+     * done in double precision.
+     *
+     * @param metric                The metric.
+     * @param referenceDistribution The distribution to be compared to.
+     * @param actualDistribution    The actual distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Metric value.
+     * @throws IllegalArgumentException When shapes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid; they must add up to 1 in single precision.
+     * @implSpec Blocks of floats are widened lane-wise into small buffers that stay in cache, the input is never
+     * copied as a whole.
+     * @see #distance(Metric, double[], double[], boolean)
+     */
+    public static double distance(final @NonNull Metric metric, final float @NonNull [] referenceDistribution,
+                                  final float @NonNull [] actualDistribution, final boolean trustedInput) {
+        checkShape(referenceDistribution.length, actualDistribution.length);
+        val probe = Instrumentation.start(new DivergenceEvent());
+        val kernel = metric.kernel(!trustedInput, !trustedInput);
+        kernel.update(referenceDistribution, actualDistribution);
+        val result = kernel.result();
+        Instrumentation.record(probe, metric.kernelName, path(metric), referenceDistribution.length,
+            16L * Math.min(referenceDistribution.length, DivergenceKernel.BLOCK_SIZE));
+        return result;
+    }
+
+    /**
+     * Calculates relative entropy of two sparse distributions.
+     *
+     * @see #KullbackLeiblerDivergence(double[], double[], boolean)
+     * @see #distance(Metric, SparseDistribution, SparseDistribution, boolean)
+     */
+    public static double KullbackLeiblerDivergence(final @NonNull SparseDistribution referenceDistribution,
+                                                   final @NonNull SparseDistribution actualDistribution,
+                                                   final boolean trustedInput) {
+        return distance(Metric.KULLBACK_LEIBLER, referenceDistribution, actualDistribution, trustedInput);
+    }
+
+    /**
+     * Calculates any of the supported metrics of two sparse distributions, the result is the same as for their dense
+     * counterparts.
+     *
+     * @param metric                The metric.
+     * @param referenceDistribution The distribution to be compared to.
+     * @param actualDistribution    The actual distribution.
+     * @param trustedInput          When {@code true}, distributions are not validated.
+     * @return Metric value.
+     * @throws IllegalArgumentException When sizes differ, there are fewer than two outcomes, or, unless the input is
+     *                                  trusted, distributions are not valid.
+     * @implSpec Stored outcomes are merge joined, the cost is linear in the number of stored outcomes of both
+     * distributions and doesn't depend on their size.
+     */
+    public static double distance(final @NonNull Metric metric,
+                                  final @NonNull SparseDistribution referenceDistribution,
+                                  final @NonNull SparseDistribution actualDistribution, final boolean trustedInput) {
+        if (referenceDistribution.size != actualDistribution.size)
+            throw new IllegalArgumentException("Distributions must have the same shape.");
+        val probe = Instrumentation.start(new DivergenceEvent());
+        val kernel = metric.kernel(!trustedInput, !trustedInput);
+        kernel.merge(referenceDistribution, actualDistribution);
+        val result = kernel.result();
+        Instrumentation.record(probe, metric.kernelName, CodePath.SCALAR,
+            referenceDistribution.storedCount() + actualDistribution.storedCount(), 0);
+        return result;
+    }
+
+    /**
+     * @return The path dense distributions take, the Wasserstein distance is inherently sequential.
+     */
+    private static CodePath path(final Metric metric) {
+        return Simd.isVectorized() && metric != Metric.WASSERSTEIN ? CodePath.VECTOR : CodePath.SCALAR;
+    }
+
+    static void checkShape(final double @NonNull [] referenceDistribution,
+                           final double @NonNull [] actualDistribution) {
+        checkShape(referenceDistribution.length, actualDistribution.length);
+    }
+
+    static void checkShape(final int referenceLength, final int actualLength) {
+        if (referenceLength != actualLength)
+            throw new IllegalArgumentException("Distributions must have the same shape.");
+
+        if (referenceLength <= 1)
+            throw new IllegalArgumentException("Probability distribution must have at least two outcomes.");
     }
 }
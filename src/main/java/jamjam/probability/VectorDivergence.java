@@ -0,0 +1,231 @@
+package jamjam.probability;
+
+import jamjam.Sum;
+import jamjam.simd.Simd;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import static jdk.incubator.vector.VectorOperators.EQ;
+import static jdk.incubator.vector.VectorOperators.GE;
+import static jdk.incubator.vector.VectorOperators.GT;
+import static jdk.incubator.vector.VectorOperators.LOG10;
+import static jdk.incubator.vector.VectorOperators.LT;
+
+/**
+ * Vectorized loops of {@link DivergenceKernel}, the class links against the Vector API and must be touched only when
+ * {@link Simd#isVectorized()} is {@code true}.
+ * <p>
+ * Loops of metrics take lane-wise compensated sums of their terms in {@code sum} and {@code corrector}, arrays of
+ * {@link #SPECIES} length owned by the kernel, so that partial sums survive between blocks and calls.
+ */
+final class VectorDivergence {
+    static final VectorSpecies<Double> SPECIES =
+        DoubleVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(Simd.vectorBitSize()));
+
+    /**
+     * Floats with as many lanes as {@link #SPECIES} has.
+     */
+    private static final VectorSpecies<Float> FLOATS =
+        VectorSpecies.of(float.class, VectorShape.forBitSize(Simd.vectorBitSize() / 2));
+
+    private VectorDivergence() {
+    }
+
+    /**
+     * Sums up a block with lane-wise compensation, then moves the partial sums to {@code total}.
+     *
+     * @return {@code true} if any value is out of {@code [0; 1]}.
+     */
+    static boolean sumBlock(final double[] x, final int from, final int to, final Sum.Accumulator total) {
+        var s = DoubleVector.zero(SPECIES);
+        var c = DoubleVector.zero(SPECIES);
+        var invalid = SPECIES.maskAll(false);
+        DoubleVector v, temp;
+        for (var i = from; i < to; i += SPECIES.length()) {
+            v = DoubleVector.fromArray(SPECIES, x, i);
+            invalid = invalid.or(v.compare(LT, 0.).or(v.compare(GT, 1.)));
+            temp = s.add(v);
+            c = c.sub(error(s, v, temp));
+            s = temp;
+        }
+        for (var lane = 0; lane < s.length(); lane++) {
+            total.sum(s.lane(lane));
+            total.sum(-c.lane(lane));
+        }
+        return invalid.anyTrue();
+    }
+
+    /**
+     * Widens whole vectors of {@code x[from:to]} into {@code block}.
+     *
+     * @return The index of the first float left for the scalar tail.
+     */
+    static int widen(final float[] x, final int from, final int to, final double[] block) {
+        val upperBound = from + SPECIES.loopBound(to - from);
+        var i = from;
+        for (; i < upperBound; i += SPECIES.length())
+            ((DoubleVector) FloatVector.fromArray(FLOATS, x, i).castShape(SPECIES, 0)).intoArray(block, i - from);
+        return i;
+    }
+
+    /**
+     * Stores {@code log10(trim(p))} of whole vectors into {@code result}.
+     *
+     * @return The index of the first outcome left for the scalar tail.
+     */
+    static int logs(final double[] distribution, final double[] result) {
+        val upperBound = SPECIES.loopBound(distribution.length);
+        var i = 0;
+        for (; i < upperBound; i += SPECIES.length())
+            DoubleVector.fromArray(SPECIES, distribution, i).max(Double.MIN_NORMAL).lanewise(LOG10)
+                .intoArray(result, i);
+        return i;
+    }
+
+    static void kullbackLeibler(final double[] reference, final double[] actual, final int from, final int to,
+                                final double[] sum, final double[] corrector) {
+        var s = DoubleVector.fromArray(SPECIES, sum, 0);
+        var c = DoubleVector.fromArray(SPECIES, corrector, 0);
+        DoubleVector r, t, temp;
+        for (var i = from; i < to; i += SPECIES.length()) {
+            r = DoubleVector.fromArray(SPECIES, reference, i);
+            t = r.mul(r.max(Double.MIN_NORMAL).div(
+                DoubleVector.fromArray(SPECIES, actual, i).max(Double.MIN_NORMAL)).lanewise(LOG10));
+            temp = s.add(t);
+            c = c.sub(error(s, t, temp));
+            s = temp;
+        }
+        s.intoArray(sum, 0);
+        c.intoArray(corrector, 0);
+    }
+
+    /**
+     * Terms are {@code p * (log10(p) - log10(q))}, at most one logarithm per outcome is left to calculate.
+     *
+     * @param actualLogs Logarithms of the actual distribution or {@code null}.
+     */
+    static void kullbackLeibler(final double[] reference, final double[] referenceLogs, final double[] actual,
+                                final double @Nullable [] actualLogs, final int from, final int to,
+                                final double[] sum, final double[] corrector) {
+        var s = DoubleVector.fromArray(SPECIES, sum, 0);
+        var c = DoubleVector.fromArray(SPECIES, corrector, 0);
+        DoubleVector a, t, temp;
+        for (var i = from; i < to; i += SPECIES.length()) {
+            a = actualLogs != null ? DoubleVector.fromArray(SPECIES, actualLogs, i)
+                : DoubleVector.fromArray(SPECIES, actual, i).max(Double.MIN_NORMAL).lanewise(LOG10);
+            t = DoubleVector.fromArray(SPECIES, reference, i)
+                .mul(DoubleVector.fromArray(SPECIES, referenceLogs, i).sub(a));
+            temp = s.add(t);
+            c = c.sub(error(s, t, temp));
+            s = temp;
+        }
+        s.intoArray(sum, 0);
+        c.intoArray(corrector, 0);
+    }
+
+    static void jensenShannon(final double[] reference, final double[] actual, final int from, final int to,
+                              final double[] sum, final double[] corrector) {
+        var s = DoubleVector.fromArray(SPECIES, sum, 0);
+        var c = DoubleVector.fromArray(SPECIES, corrector, 0);
+        DoubleVector r, a, m, t, temp;
+        for (var i = from; i < to; i += SPECIES.length()) {
+            r = DoubleVector.fromArray(SPECIES, reference, i);
+            a = DoubleVector.fromArray(SPECIES, actual, i);
+            m = r.add(a).mul(0.5).max(Double.MIN_NORMAL);
+            t = r.mul(r.max(Double.MIN_NORMAL).div(m).lanewise(LOG10))
+                .add(a.mul(a.max(Double.MIN_NORMAL).div(m).lanewise(LOG10))).mul(0.5);
+            temp = s.add(t);
+            c = c.sub(error(s, t, temp));
+            s = temp;
+        }
+        s.intoArray(sum, 0);
+        c.intoArray(corrector, 0);
+    }
+
+    static void hellinger(final double[] reference, final double[] actual, final int from, final int to,
+                          final double[] sum, final double[] corrector) {
+        var s = DoubleVector.fromArray(SPECIES, sum, 0);
+        var c = DoubleVector.fromArray(SPECIES, corrector, 0);
+        DoubleVector d, t, temp;
+        for (var i = from; i < to; i += SPECIES.length()) {
+            d = DoubleVector.fromArray(SPECIES, reference, i).sqrt()
+                .sub(DoubleVector.fromArray(SPECIES, actual, i).sqrt());
+            t = d.mul(d);
+            temp = s.add(t);
+            c = c.sub(error(s, t, temp));
+            s = temp;
+        }
+        s.intoArray(sum, 0);
+        c.intoArray(corrector, 0);
+    }
+
+    static void bhattacharyya(final double[] reference, final double[] actual, final int from, final int to,
+                              final double[] sum, final double[] corrector) {
+        var s = DoubleVector.fromArray(SPECIES, sum, 0);
+        var c = DoubleVector.fromArray(SPECIES, corrector, 0);
+        DoubleVector t, temp;
+        for (var i = from; i < to; i += SPECIES.length()) {
+            t = DoubleVector.fromArray(SPECIES, reference, i).mul(DoubleVector.fromArray(SPECIES, actual, i)).sqrt();
+            temp = s.add(t);
+            c = c.sub(error(s, t, temp));
+            s = temp;
+        }
+        s.intoArray(sum, 0);
+        c.intoArray(corrector, 0);
+    }
+
+    static void totalVariation(final double[] reference, final double[] actual, final int from, final int to,
+                               final double[] sum, final double[] corrector) {
+        var s = DoubleVector.fromArray(SPECIES, sum, 0);
+        var c = DoubleVector.fromArray(SPECIES, corrector, 0);
+        DoubleVector t, temp;
+        for (var i = from; i < to; i += SPECIES.length()) {
+            t = DoubleVector.fromArray(SPECIES, reference, i).sub(DoubleVector.fromArray(SPECIES, actual, i)).abs();
+            temp = s.add(t);
+            c = c.sub(error(s, t, temp));
+            s = temp;
+        }
+        s.intoArray(sum, 0);
+        c.intoArray(corrector, 0);
+    }
+
+    /**
+     * @return {@code true} if the actual distribution has an outcome that is impossible in the reference one.
+     */
+    static boolean chiSquared(final double[] reference, final double[] actual, final int from, final int to,
+                              final double[] sum, final double[] corrector) {
+        var s = DoubleVector.fromArray(SPECIES, sum, 0);
+        var c = DoubleVector.fromArray(SPECIES, corrector, 0);
+        var impossible = SPECIES.maskAll(false);
+        DoubleVector r, d, t, temp;
+        VectorMask<Double> zero;
+        for (var i = from; i < to; i += SPECIES.length()) {
+            r = DoubleVector.fromArray(SPECIES, reference, i);
+            d = DoubleVector.fromArray(SPECIES, actual, i).sub(r);
+            zero = r.compare(EQ, 0.);
+            impossible = impossible.or(zero.andNot(d.compare(EQ, 0.)));
+            t = d.mul(d).div(r).blend(0., zero);
+            temp = s.add(t);
+            c = c.sub(error(s, t, temp));
+            s = temp;
+        }
+        s.intoArray(sum, 0);
+        c.intoArray(corrector, 0);
+        return impossible.anyTrue();
+    }
+
+    /**
+     * The lane-wise rounding error of {@code sum + x = temp} as in the scalar Kahan-Babushka-Neumaier scheme.
+     *
+     * @see jamjam.VectorSum#sum(DoubleVector...)
+     */
+    private static DoubleVector error(final DoubleVector sum, final DoubleVector x, final DoubleVector temp) {
+        val mask = sum.abs().compare(GE, x.abs());
+        return x.blend(sum, mask).sub(temp).add(x.blend(sum, mask.not()));
+    }
+}
@@ -0,0 +1,172 @@
+package jamjam.resample;
+
+import jamjam.Quantile;
+import jamjam.StandardDeviation;
+import jamjam.Sum;
+import jamjam.Variance;
+import jamjam.aux.Utils;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.IntStream;
+
+import static jamjam.aux.Utils.momentLengthCheck;
+
+/**
+ * Nonparametric bootstrap. A resample of size {@code n} drawn with replacement is represented by the number of times
+ * every element is drawn, thus the data is never copied, and statistics are calculated over these counts as over
+ * "repeat"-type weights.
+ * <p>
+ * Replicates are calculated in blocks on the common fork/join pool, every block reuses one count buffer and owns a
+ * generator split off the root one in a fixed order, thus results are reproducible on any number of threads.
+ */
+public final class Bootstrap {
+    /**
+     * The number of replicates calculated by a single task.
+     */
+    static final int BLOCK_SIZE = 32;
+
+    /**
+     * A statistic of a resample.
+     */
+    @FunctionalInterface
+    public interface Statistic {
+        /**
+         * @param x      The original sample, must not be modified.
+         * @param counts The number of copies of every element in the resample, they add up to {@code x.length}.
+         * @return The value of the statistic.
+         */
+        double apply(double @NonNull [] x, int @NonNull [] counts);
+    }
+
+    /**
+     * The arithmetic mean, same as {@link jamjam.Mean#weightedMean(double[], double[])} with counts as weights.
+     */
+    public static final Statistic MEAN = Bootstrap::mean;
+    /**
+     * The unbiased variance, same as {@link Variance#weightedUnbiasedVariance(double[], int[])}.
+     */
+    public static final Statistic VARIANCE = Bootstrap::unbiasedVariance;
+    /**
+     * The corrected standard deviation, same as {@link StandardDeviation#correctedSampleSTD(double[])} of the
+     * resample.
+     */
+    public static final Statistic STANDARD_DEVIATION = (x, counts) -> Math.sqrt(unbiasedVariance(x, counts));
+
+    private Bootstrap() {
+    }
+
+    /**
+     * Calculates the statistic for {@code count} resamples.
+     *
+     * @param x         The original sample.
+     * @param statistic The statistic.
+     * @param count     The number of replicates.
+     * @param generator The root generator.
+     * @return Replicates of the statistic.
+     * @throws IllegalArgumentException When the sample or the number of replicates is empty.
+     */
+    public static double @NonNull [] replicates(final double @NonNull [] x, final @NonNull Statistic statistic,
+                                                final int count, final @NonNull SplittableGenerator generator) {
+        momentLengthCheck(x.length, Utils.MomentQualifiers.MEAN);
+        if (count < 1) throw new IllegalArgumentException("At least one replicate is required.");
+
+        val blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        val generators = new SplittableGenerator[blocks];
+        for (var b = 0; b < blocks; b++) generators[b] = generator.split();
+
+        val result = new double[count];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            val counts = new int[x.length];
+            val to = Math.min((b + 1) * BLOCK_SIZE, count);
+            for (var r = b * BLOCK_SIZE; r < to; r++) {
+                resample(counts, generators[b]);
+                result[r] = statistic.apply(x, counts);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Seeds a {@code L64X128MixRandom} generator and calculates replicates.
+     *
+     * @see #replicates(double[], Statistic, int, SplittableGenerator)
+     */
+    public static double @NonNull [] replicates(final double @NonNull [] x, final @NonNull Statistic statistic,
+                                                final int count, final long seed) {
+        return replicates(x, statistic, count, Utils.splittableGenerator(seed));
+    }
+
+    /**
+     * Calculates the percentile confidence interval.
+     *
+     * @param x          The original sample.
+     * @param statistic  The statistic.
+     * @param count      The number of replicates.
+     * @param confidence The confidence level in {@code (0; 1)}, e.g., {@code 0.95}.
+     * @param generator  The root generator.
+     * @return Quantiles {@code (1 - confidence) / 2} and {@code (1 + confidence) / 2} of replicates around the
+     * statistic of the original sample.
+     * @throws IllegalArgumentException When the confidence level is out of range.
+     * @see Quantile#quantiles(double[], double...)
+     */
+    public static @NonNull Interval percentileInterval(final double @NonNull [] x, final @NonNull Statistic statistic,
+                                                       final int count, final double confidence,
+                                                       final @NonNull SplittableGenerator generator) {
+        if (!(confidence > 0. && confidence < 1.))
+            throw new IllegalArgumentException("Confidence level must be in the range (0; 1).");
+        val bounds = Quantile.quantilesInPlace(replicates(x, statistic, count, generator), (1. - confidence) / 2.,
+            (1. + confidence) / 2.);
+        val ones = new int[x.length];
+        Arrays.fill(ones, 1);
+        return new Interval(bounds[0], statistic.apply(x, ones), bounds[1]);
+    }
+
+    /**
+     * Estimates the standard error of the statistic as the corrected standard deviation of replicates.
+     *
+     * @see #replicates(double[], Statistic, int, SplittableGenerator)
+     */
+    public static double standardError(final double @NonNull [] x, final @NonNull Statistic statistic,
+                                       final int count, final @NonNull SplittableGenerator generator) {
+        return StandardDeviation.correctedSampleSTD(replicates(x, statistic, count, generator));
+    }
+
+    /**
+     * Draws {@code counts.length} elements with replacement into the reused buffer.
+     */
+    static void resample(final int @NonNull [] counts, final @NonNull RandomGenerator generator) {
+        Arrays.fill(counts, 0);
+        val n = counts.length;
+        for (var k = 0; k < n; k++) counts[generator.nextInt(n)]++;
+    }
+
+    private static double mean(final double[] x, final int[] counts) {
+        val acc = new Sum.Accumulator();
+        var total = 0L;
+        for (var i = 0; i < x.length; i++)
+            if (counts[i] != 0) {
+                acc.sum(counts[i] * x[i]);
+                total += counts[i];
+            }
+        return acc.getSum() / total;
+    }
+
+    private static double unbiasedVariance(final double[] x, final int[] counts) {
+        val mean = mean(x, counts);
+        val acc = new Sum.Accumulator();
+        var total = 0L;
+        double d;
+        for (var i = 0; i < x.length; i++)
+            if (counts[i] != 0) {
+                d = x[i] - mean;
+                acc.sum(counts[i] * d * d);
+                total += counts[i];
+            }
+        if (total == 1) throw new ArithmeticException("Division by zero is imminent");
+        return acc.getSum() / (total - 1);
+    }
+}
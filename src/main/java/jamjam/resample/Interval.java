@@ -0,0 +1,11 @@
+package jamjam.resample;
+
+/**
+ * A confidence interval around a point estimate.
+ *
+ * @param lower    The lower bound.
+ * @param estimate The statistic of the original sample.
+ * @param upper    The upper bound.
+ */
+public record Interval(double lower, double estimate, double upper) {
+}
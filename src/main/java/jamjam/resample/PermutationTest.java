@@ -0,0 +1,140 @@
+package jamjam.resample;
+
+import jamjam.Sum;
+import jamjam.aux.Utils;
+import lombok.NonNull;
+import lombok.val;
+
+import java.util.random.RandomGenerator.SplittableGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Two-sample permutation tests. Both samples are pooled once, a permutation is an index buffer whose first
+ * {@code first.length} entries form the first group, the buffer is reused and only the first group is reshuffled, so
+ * a permutation costs O(first.length) random draws and no copies of the data.
+ * <p>
+ * Permutations are processed in blocks on the common fork/join pool with generators split off the root one in a fixed
+ * order, thus p-values are reproducible on any number of threads.
+ */
+public final class PermutationTest {
+    /**
+     * The number of permutations processed by a single task.
+     */
+    static final int BLOCK_SIZE = 64;
+
+    /**
+     * The alternative hypothesis.
+     */
+    public enum Alternative {
+        /**
+         * The statistic differs from zero.
+         */
+        TWO_SIDED,
+        /**
+         * The statistic is positive.
+         */
+        GREATER,
+        /**
+         * The statistic is negative.
+         */
+        LESS
+    }
+
+    /**
+     * A statistic of two groups.
+     */
+    @FunctionalInterface
+    public interface Statistic {
+        /**
+         * @param pooled    Both samples, must not be modified.
+         * @param index     A permutation of indices of {@code pooled}.
+         * @param firstSize The size of the first group, its elements are {@code pooled[index[0; firstSize)]}.
+         * @return The value of the statistic.
+         */
+        double apply(double @NonNull [] pooled, int @NonNull [] index, int firstSize);
+    }
+
+    /**
+     * The difference of means, the first group minus the second one.
+     */
+    public static final Statistic MEAN_DIFFERENCE = PermutationTest::meanDifference;
+
+    private PermutationTest() {
+    }
+
+    /**
+     * Estimates the p-value of the test.
+     *
+     * @param first        The first sample.
+     * @param second       The second sample.
+     * @param statistic    The statistic, {@code 0} under the null hypothesis.
+     * @param alternative  The alternative hypothesis.
+     * @param permutations The number of random permutations.
+     * @param generator    The root generator.
+     * @return {@code (1 + b) / (1 + permutations)} where {@code b} is the number of permutations with a statistic at
+     * least as extreme as the observed one, the estimate is never zero.
+     * @throws IllegalArgumentException When any sample is empty or there are no permutations.
+     */
+    public static double pValue(final double @NonNull [] first, final double @NonNull [] second,
+                                final @NonNull Statistic statistic, final @NonNull Alternative alternative,
+                                final int permutations, final @NonNull SplittableGenerator generator) {
+        if (first.length == 0 || second.length == 0)
+            throw new IllegalArgumentException("The size of the array has to be at least 1.");
+        if (permutations < 1) throw new IllegalArgumentException("At least one permutation is required.");
+
+        val pooled = new double[first.length + second.length];
+        System.arraycopy(first, 0, pooled, 0, first.length);
+        System.arraycopy(second, 0, pooled, first.length, second.length);
+        val observed = statistic.apply(pooled, IntStream.range(0, pooled.length).toArray(), first.length);
+
+        val blocks = (permutations + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        val generators = new SplittableGenerator[blocks];
+        for (var b = 0; b < blocks; b++) generators[b] = generator.split();
+
+        val extreme = IntStream.range(0, blocks).parallel().mapToLong(b -> {
+            val index = IntStream.range(0, pooled.length).toArray();
+            val random = generators[b];
+            var count = 0L;
+            int j, temp;
+            for (var p = b * BLOCK_SIZE; p < Math.min((b + 1) * BLOCK_SIZE, permutations); p++) {
+                // A partial Fisher–Yates shuffle draws a uniform random first group.
+                for (var i = 0; i < first.length; i++) {
+                    j = i + random.nextInt(pooled.length - i);
+                    temp = index[i];
+                    index[i] = index[j];
+                    index[j] = temp;
+                }
+                if (isExtreme(statistic.apply(pooled, index, first.length), observed, alternative)) count++;
+            }
+            return count;
+        }).sum();
+        return (1. + extreme) / (1. + permutations);
+    }
+
+    /**
+     * Seeds a {@code L64X128MixRandom} generator and estimates the p-value.
+     *
+     * @see #pValue(double[], double[], Statistic, Alternative, int, SplittableGenerator)
+     */
+    public static double pValue(final double @NonNull [] first, final double @NonNull [] second,
+                                final @NonNull Statistic statistic, final @NonNull Alternative alternative,
+                                final int permutations, final long seed) {
+        return pValue(first, second, statistic, alternative, permutations, Utils.splittableGenerator(seed));
+    }
+
+    private static boolean isExtreme(final double value, final double observed, final Alternative alternative) {
+        return switch (alternative) {
+            case TWO_SIDED -> Math.abs(value) >= Math.abs(observed);
+            case GREATER -> value >= observed;
+            case LESS -> value <= observed;
+        };
+    }
+
+    private static double meanDifference(final double[] pooled, final int[] index, final int firstSize) {
+        val firstSum = new Sum.Accumulator();
+        val secondSum = new Sum.Accumulator();
+        for (var i = 0; i < firstSize; i++) firstSum.sum(pooled[index[i]]);
+        for (var i = firstSize; i < index.length; i++) secondSum.sum(pooled[index[i]]);
+        return firstSum.getSum() / firstSize - secondSum.getSum() / (index.length - firstSize);
+    }
+}
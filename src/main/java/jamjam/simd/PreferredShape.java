@@ -0,0 +1,15 @@
+package jamjam.simd;
+
+import jdk.incubator.vector.DoubleVector;
+
+/**
+ * The only place where detection touches the Vector API, the class is loaded only when the module is present.
+ */
+final class PreferredShape {
+    private PreferredShape() {
+    }
+
+    static int bitSize() {
+        return DoubleVector.SPECIES_PREFERRED.vectorBitSize();
+    }
+}
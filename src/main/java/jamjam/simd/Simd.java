@@ -0,0 +1,99 @@
+package jamjam.simd;
+
+import lombok.NonNull;
+import lombok.val;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+import static java.lang.System.Logger.Level.WARNING;
+
+/**
+ * Picks the vector width used by kernels of {@code Sum}, {@code Product} and {@code StatisticalDistance} once, when
+ * the class is initialized. Vectorized kernels are linked only when the {@code jdk.incubator.vector} module is
+ * resolved, e.g., with {@code --add-modules=jdk.incubator.vector}; otherwise scalar kernels are used, so that these
+ * classes as well as {@code Mean}, {@code Variance} and the rest of {@code jamjam.probability} built on top of them
+ * work on any JVM.
+ * <p>
+ * The {@code jamjam.simd} system property caps the level, e.g., {@code -Djamjam.simd=VECTOR_256} keeps AVX-512
+ * hardware on 256-bit vectors and {@code -Djamjam.simd=SCALAR} turns vectorization off. The level is never raised
+ * above the one of the hardware.
+ */
+public final class Simd {
+    /**
+     * The system property that caps the level.
+     */
+    public static final String PROPERTY = "jamjam.simd";
+
+    /**
+     * The name of the Vector API module.
+     */
+    static final String MODULE = "jdk.incubator.vector";
+
+    private static final SimdLevel HARDWARE = hardware();
+    private static final SimdLevel LEVEL = detect(HARDWARE, System.getProperty(PROPERTY));
+
+    private Simd() {
+    }
+
+    /**
+     * @return The level of the hardware, {@link SimdLevel#SCALAR} when the Vector API is not available.
+     */
+    static @NonNull SimdLevel hardware() {
+        return ModuleLayer.boot().findModule(MODULE).isPresent() ? SimdLevel.of(PreferredShape.bitSize())
+            : SimdLevel.SCALAR;
+    }
+
+    /**
+     * @param hardware The level of the hardware.
+     * @param cap      The value of the {@code jamjam.simd} property, a name of {@link SimdLevel}.
+     * @return The narrowest of the two, unknown caps are ignored.
+     */
+    static @NonNull SimdLevel detect(final @NonNull SimdLevel hardware, final @Nullable String cap) {
+        if (cap == null || cap.isBlank()) return hardware;
+        final SimdLevel limit;
+        try {
+            limit = SimdLevel.valueOf(cap.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.getLogger(Simd.class.getName()).log(WARNING, "Unknown SIMD level {0} is ignored.", cap);
+            return hardware;
+        }
+        return limit.compareTo(hardware) < 0 ? limit : hardware;
+    }
+
+    /**
+     * @return The level chosen at start-up.
+     */
+    public static @NonNull SimdLevel level() {
+        return LEVEL;
+    }
+
+    /**
+     * @return {@code true} when vectorized kernels are used.
+     */
+    public static boolean isVectorized() {
+        return LEVEL != SimdLevel.SCALAR;
+    }
+
+    /**
+     * @return The number of bits in a vector, {@code 0} when kernels are scalar.
+     */
+    public static int vectorBitSize() {
+        return LEVEL.bitSize();
+    }
+
+    /**
+     * @return A human-readable summary for diagnostics, e.g., {@code VECTOR_512 (8 doubles per vector, amd64)}.
+     */
+    public static @NonNull String describe() {
+        return describe(LEVEL, HARDWARE, System.getProperty("os.arch"));
+    }
+
+    static @NonNull String describe(final @NonNull SimdLevel level, final @NonNull SimdLevel hardware,
+                                    final @Nullable String arch) {
+        if (hardware == SimdLevel.SCALAR)
+            return "SCALAR (" + MODULE + " is not resolved or has no vectors of doubles, " + arch + ")";
+        val width = level == SimdLevel.SCALAR ? "scalar kernels" : level.lanes() + " doubles per vector";
+        return level + " (" + width + ", " + arch + (level == hardware ? "" : ", capped from " + hardware) + ")";
+    }
+}
@@ -0,0 +1,55 @@
+package jamjam.simd;
+
+/**
+ * The width of vectors used by kernels, ordered from the narrowest to the widest.
+ */
+public enum SimdLevel {
+    /**
+     * Plain loops: the {@code jdk.incubator.vector} module is absent, vectorization is turned off, or the hardware
+     * has no vectors that hold more than one {@code double}.
+     */
+    SCALAR(0),
+    /**
+     * 128-bit vectors, e.g., SSE on x86 or NEON on ARM.
+     */
+    VECTOR_128(128),
+    /**
+     * 256-bit vectors, e.g., AVX2 on x86.
+     */
+    VECTOR_256(256),
+    /**
+     * 512-bit vectors, e.g., AVX-512 on x86.
+     */
+    VECTOR_512(512);
+
+    private final int bitSize;
+
+    SimdLevel(final int bitSize) {
+        this.bitSize = bitSize;
+    }
+
+    /**
+     * @return The number of bits in a vector, {@code 0} for {@link #SCALAR}.
+     */
+    public int bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * @return The number of {@code double} values processed at once, {@code 1} for {@link #SCALAR}.
+     */
+    public int lanes() {
+        return this == SCALAR ? 1 : bitSize / Double.SIZE;
+    }
+
+    /**
+     * @param bitSize The size of the preferred vector shape reported by the Vector API.
+     * @return The widest level that fits into {@code bitSize} bits.
+     */
+    static SimdLevel of(final int bitSize) {
+        if (bitSize >= 512) return VECTOR_512;
+        if (bitSize >= 256) return VECTOR_256;
+        if (bitSize >= 128) return VECTOR_128;
+        return SCALAR;
+    }
+}
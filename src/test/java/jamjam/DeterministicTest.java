@@ -0,0 +1,123 @@
+package jamjam;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static jamjam.Deterministic.BLOCK_SIZE;
+import static jamjam.Deterministic.LANES;
+import static jdk.incubator.vector.DoubleVector.SPECIES_128;
+import static jdk.incubator.vector.DoubleVector.SPECIES_256;
+import static jdk.incubator.vector.DoubleVector.SPECIES_512;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeterministicTest {
+    /**
+     * Values of wildly different magnitudes, so that any change of the order of operations changes the result.
+     */
+    static double[] illConditioned(final int size, final long seed) {
+        val generator = new Random(seed);
+        val x = new double[size];
+        for (var i = 0; i < size; i++) x[i] = Math.scalb(generator.nextGaussian(), generator.nextInt(-20, 40));
+        return x;
+    }
+
+    @Test
+    @DisplayName("Test that parallel results are bitwise equal to sequential ones")
+    void parallel() {
+        for (val size : new int[]{1, 15, 16, 17, BLOCK_SIZE - 1, BLOCK_SIZE + 1, 37 * BLOCK_SIZE + 5, 1_000_003}) {
+            val x = illConditioned(size, size);
+            assertEquals(Deterministic.sum(x), Deterministic.sum(x, true), "Parallel sums differ, size " + size);
+            assertEquals(Deterministic.mean(x), Deterministic.mean(x, true), "Parallel means differ, size " + size);
+            assertEquals(Deterministic.unweightedBiasedVariance(x), Deterministic.unweightedBiasedVariance(x, true),
+                "Parallel variances differ, size " + size);
+            for (var run = 0; run < 3; run++)
+                assertEquals(Deterministic.sum(x), Deterministic.sum(x.clone(), true), "Reruns must match.");
+        }
+    }
+
+    @Test
+    @DisplayName("Test that vectors of any width produce the same bits as scalar code")
+    void species() {
+        val x = illConditioned(BLOCK_SIZE, 42L);
+        for (val squares : new boolean[]{false, true}) {
+            val sums = new double[LANES];
+            Arrays.fill(sums, -0.d);
+            val correctors = new double[LANES];
+            Deterministic.lanes(x, 0, x.length, 0.5, squares, sums, correctors);
+            for (val species : Arrays.asList(SPECIES_128, SPECIES_256, SPECIES_512)) {
+                val vectorSums = new double[LANES];
+                Arrays.fill(vectorSums, -0.d);
+                val vectorCorrectors = new double[LANES];
+                VectorDeterministic.lanes(species, x, 0, x.length, 0.5, squares, vectorSums, vectorCorrectors);
+                assertArrayEquals(sums, vectorSums, "Lane sums differ for " + species);
+                assertArrayEquals(correctors, vectorCorrectors, "Lane correctors differ for " + species);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test accuracy and special values")
+    void accuracy() {
+        assertEquals(0., Deterministic.sum(), "The empty sum must be zero.");
+        assertEquals(2., Deterministic.sum(1., 1e100, 1., -1e100), "Incorrect rounding-off.");
+        assertEquals(-0., Deterministic.sum(-0., -0.), "The sign of zero is lost.");
+        assertTrue(Double.isNaN(Deterministic.sum(1., Double.NaN, 2.)), "NaN must propagate.");
+
+        val x = illConditioned(100_000, 7L);
+        assertEquals(Sum.sum(x), Deterministic.sum(x), Math.ulp(Sum.sum(x)) * 4, "Sums disagree.");
+        assertEquals(Mean.mean(x), Deterministic.mean(x), Math.ulp(Mean.mean(x)) * 4, "Means disagree.");
+        val variance = Variance.unweightedUnbiasedVariance(x);
+        assertEquals(variance, Deterministic.unweightedUnbiasedVariance(x), variance * 1e-14,
+            "Unbiased variances disagree.");
+        assertEquals(Variance.unweightedBiasedVariance(x), Deterministic.unweightedBiasedVariance(x, true),
+            variance * 1e-14, "Biased variances disagree.");
+        assertEquals(2.5, Deterministic.unweightedUnbiasedVariance(1., 2., 3., 4., 5.), "Wrong variance.");
+    }
+
+    @Test
+    @DisplayName("Test input validation")
+    void validation() {
+        assertThrows(NullPointerException.class, () -> Deterministic.sum((double[]) null), "Null must be rejected.");
+        assertThrows(IllegalArgumentException.class, () -> Deterministic.mean(new double[0]),
+            "The mean of nothing is undefined.");
+        assertThrows(IllegalArgumentException.class, () -> Deterministic.unweightedUnbiasedVariance(1.),
+            "A single value has no sample variance.");
+        assertEquals(0., Deterministic.unweightedBiasedVariance(3.), "A single value doesn't vary.");
+    }
+
+    @Test
+    @DisplayName("Test that floats give the bits of their widened copies on any vector width")
+    void floats() {
+        val generator = new Random(11);
+        val x = new float[3 * BLOCK_SIZE + 21];
+        for (var i = 0; i < x.length; i++) x[i] = (float) Math.scalb(generator.nextGaussian(), generator.nextInt(30));
+        val widened = new double[x.length];
+        for (var i = 0; i < x.length; i++) widened[i] = x[i];
+        assertEquals(Deterministic.sum(widened), Deterministic.sum(x, true), "Sums of floats differ.");
+        assertEquals(Deterministic.mean(widened, false), Deterministic.mean(x, false), "Means of floats differ.");
+        assertEquals(Deterministic.unweightedUnbiasedVariance(widened, false),
+            Deterministic.unweightedUnbiasedVariance(x, true), "Variances of floats differ.");
+        assertEquals(Deterministic.unweightedBiasedVariance(widened, true),
+            Deterministic.unweightedBiasedVariance(x, false), "Variances of floats differ.");
+
+        for (val squares : new boolean[]{false, true}) {
+            val sums = new double[LANES];
+            Arrays.fill(sums, -0.d);
+            val correctors = new double[LANES];
+            Deterministic.lanes(x, 0, BLOCK_SIZE, 0.5, squares, sums, correctors);
+            for (val species : Arrays.asList(SPECIES_128, SPECIES_256, SPECIES_512)) {
+                val vectorSums = new double[LANES];
+                Arrays.fill(vectorSums, -0.d);
+                val vectorCorrectors = new double[LANES];
+                VectorDeterministic.lanes(species, VectorDeterministic.floats(species), x, 0, BLOCK_SIZE, 0.5, squares,
+                    vectorSums, vectorCorrectors);
+                assertArrayEquals(sums, vectorSums, "Lane sums of floats differ for " + species);
+                assertArrayEquals(correctors, vectorCorrectors, "Lane correctors of floats differ for " + species);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package jamjam;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Random;
+
+import static jdk.incubator.vector.LongVector.SPECIES_128;
+import static jdk.incubator.vector.LongVector.SPECIES_256;
+import static jdk.incubator.vector.LongVector.SPECIES_512;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntegerMomentsTest {
+    private static BigInteger sum(final long[] x, final boolean squares) {
+        var sum = BigInteger.ZERO;
+        for (val v : x) sum = sum.add(squares ? BigInteger.valueOf(v).pow(2) : BigInteger.valueOf(v));
+        return sum;
+    }
+
+    @Test
+    @DisplayName("Test that sums of longs and of their squares don't overflow")
+    void longs() {
+        val generator = new Random(17);
+        val x = new long[10_001];
+        for (var i = 0; i < x.length; i++)
+            x[i] = switch (i % 4) {
+                case 0 -> Long.MAX_VALUE;
+                case 1 -> Long.MIN_VALUE;
+                case 2 -> Long.MAX_VALUE - generator.nextInt(1000);
+                default -> generator.nextLong();
+            };
+        val moments = IntegerMoments.of(x);
+        assertEquals(x.length, moments.count(), "Wrong count.");
+        assertEquals(sum(x, false), moments.sum(), "The sum of longs is not exact.");
+        assertEquals(sum(x, true), moments.squares(), "The sum of squares of longs is not exact.");
+        assertEquals(new BigDecimal(sum(x, false)).divide(BigDecimal.valueOf(x.length), MathContext.DECIMAL128)
+            .doubleValue(), moments.mean(), "The mean of longs is not rounded correctly.");
+    }
+
+    @Test
+    @DisplayName("Test that vectorized sums of ints match scalar ones on any vector width")
+    void ints() {
+        val generator = new Random(19);
+        for (val size : new int[]{0, 1, 7, 8, 9, 1001}) {
+            val x = new int[size];
+            for (var i = 0; i < size; i++)
+                x[i] = i % 3 == 0 ? Integer.MIN_VALUE : i % 3 == 1 ? Integer.MAX_VALUE : generator.nextInt();
+            val widened = new long[size];
+            for (var i = 0; i < size; i++) widened[i] = x[i];
+
+            val words = new long[3];
+            IntegerMoments.moments(x, 0, size, words);
+            for (val species : Arrays.asList(SPECIES_128, SPECIES_256, SPECIES_512)) {
+                val vectorWords = new long[3];
+                VectorIntegerMoments.moments(species, VectorIntegerMoments.ints(species), x, vectorWords);
+                assertArrayEquals(words, vectorWords, "Vectorized sums differ for " + species + ", size " + size);
+            }
+
+            val moments = IntegerMoments.of(x);
+            assertEquals(sum(widened, false), moments.sum(), "The sum of ints is not exact, size " + size);
+            assertEquals(sum(widened, true), moments.squares(),
+                "The sum of squares of ints is not exact, size " + size);
+        }
+    }
+
+    @Test
+    @DisplayName("Test variances of integers far from zero")
+    void variance() {
+        // Large offsets cancel out catastrophically in double precision
+        val x = new long[]{Long.MAX_VALUE - 3, Long.MAX_VALUE - 2, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+        val moments = IntegerMoments.of(x);
+        assertEquals(1.25, moments.variance(Double.NaN, x.length), "Wrong biased variance.");
+        assertEquals(5. / 3., moments.variance(Double.POSITIVE_INFINITY, x.length - 1), "Wrong unbiased variance.");
+
+        val ints = IntegerMoments.of(new int[]{1_000_000_001, 1_000_000_002, 1_000_000_003});
+        assertEquals(2. / 3., ints.variance(Double.NaN, 3), "Wrong variance of ints.");
+        assertEquals(14. / 3., ints.variance(1e9, 3), "Given means must be used as they are.");
+        assertEquals(1., IntegerMoments.of(new int[]{-1, 1}).variance(0., 2), "Wrong variance around a given mean.");
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import java.util.HashMap;
 import java.util.Random;
 
+import static java.lang.Double.NaN;
 import static org.junit.jupiter.api.Assertions.*;
 
 class MeanTest extends Utils {
@@ -64,7 +65,7 @@ class MeanTest extends Utils {
     @Test
     @DisplayName("Test null input")
     void input() {
-        assertThrows(NullPointerException.class, () -> Mean.mean(null), "Null input test fails.");
+        assertThrows(NullPointerException.class, () -> Mean.mean((double[]) null), "Null input test fails.");
     }
 
     @Disabled("Current implementation can't handle this corner-case well.")
@@ -92,4 +93,45 @@ class MeanTest extends Utils {
     void testMean() {
         assertEquals(2., Mean.weightedMean(new double[]{2., 2.}, null), "Can't pass null weights check.");
     }
+
+    @Test
+    @DisplayName("Test means of floats")
+    void meanFloat() {
+        assertThrows(NullPointerException.class, () -> Mean.mean((float[]) null), "Null input test fails.");
+        assertThrows(IllegalArgumentException.class, () -> Mean.mean(new float[0]), "Empty input must be rejected.");
+        assertEquals(0.1, Mean.mean(new float[]{0.1f, 0.1f}), 1e-8, "The mean of floats is wrong.");
+        assertEquals((double) 0.1f, Mean.mean(new float[]{0.1f, 0.1f, 0.1f}), "Floats must be widened exactly.");
+    }
+
+    @Test
+    @DisplayName("Test exact means of integers")
+    void meanInteger() {
+        assertThrows(NullPointerException.class, () -> Mean.mean((int[]) null), "Null input test fails.");
+        assertThrows(IllegalArgumentException.class, () -> Mean.mean(new long[0]), "Empty input must be rejected.");
+        assertEquals(Integer.MAX_VALUE, Mean.mean(new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE}), "Ints overflow.");
+        assertEquals(Long.MAX_VALUE, Mean.mean(new long[]{Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE}),
+            "Longs overflow.");
+        assertEquals(-0.5, Mean.mean(new long[]{Long.MIN_VALUE, Long.MAX_VALUE}), "Longs must cancel out exactly.");
+        assertEquals(2.5, Mean.weightedMean(new int[]{1, 2, 3, 4}, null), "Wrong mean of ints.");
+        assertEquals(3., Mean.weightedMean(new long[]{1, 5}, new double[]{1, 1}), "Weights must be applied.");
+        assertEquals(Mean.weightedMean(new double[]{-7, 3, 11}, new double[]{0.5, 2, 0.25}),
+            Mean.weightedMean(new int[]{-7, 3, 11}, new double[]{0.5, 2, 0.25}), "Ints must be weighted as doubles.");
+        assertThrows(IllegalArgumentException.class, () -> Mean.weightedMean(new int[]{1, 2}, new double[3]));
+        assertThrows(ArithmeticException.class, () -> Mean.weightedMean(new long[]{1, 2}, new double[2]));
+    }
+
+    @Test
+    @DisplayName("Test means that skip NaNs")
+    void nanMean() {
+        assertThrows(IllegalArgumentException.class, () -> Mean.nanMean(new double[0]), "Empty input must be rejected.");
+        assertEquals(new NanReduction(2., 2), Mean.nanMean(new double[]{1., NaN, 3.}), "NaNs must be skipped.");
+        assertTrue(Double.isNaN(Mean.nanMean(new double[]{NaN}).value()), "Only NaNs must give NaN.");
+        assertEquals(0, Mean.nanMean(new double[]{NaN}).count(), "Only NaNs must give no values.");
+
+        assertThrows(IllegalArgumentException.class, () -> Mean.nanWeightedMean(new double[2], new double[3]),
+            "Uneven shapes must be rejected.");
+        val result = Mean.nanWeightedMean(new double[]{1., NaN, 3., 5., 7.}, new double[]{1., 1., 3., NaN, 0.});
+        assertEquals(2.5, result.value(), "Pairs with NaN must be skipped.");
+        assertEquals(3, result.count(), "Zero weights must be counted.");
+    }
 }
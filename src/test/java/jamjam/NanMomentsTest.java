@@ -0,0 +1,124 @@
+package jamjam;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static jdk.incubator.vector.DoubleVector.SPECIES_128;
+import static jdk.incubator.vector.DoubleVector.SPECIES_256;
+import static jdk.incubator.vector.DoubleVector.SPECIES_512;
+import static java.lang.Double.NaN;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NanMomentsTest {
+    /**
+     * Normal values with a mean far from zero, every third one is missing.
+     */
+    static double[] sparse(final int size, final long seed) {
+        val generator = new Random(seed);
+        val x = new double[size];
+        for (var i = 0; i < size; i++) x[i] = i % 3 == 1 ? Double.NaN : 1e6 + generator.nextGaussian();
+        return x;
+    }
+
+    @Test
+    @DisplayName("Test that masked lanes skip NaNs on any vector width")
+    void lanes() {
+        for (val size : new int[]{0, 1, 7, 8, 9, 10_007}) {
+            val x = sparse(size, size);
+            val filtered = Arrays.stream(x).filter(v -> !Double.isNaN(v)).toArray();
+            val weights = new double[size];
+            for (var i = 0; i < size; i++) weights[i] = i % 5 == 0 ? Double.NaN : i % 7 == 0 ? 0. : 1. + i % 4;
+
+            val scalar = new NanMoments();
+            scalar.shift = 1e6;
+            scalar.add(x, weights, 0, size);
+            for (val species : Arrays.asList(SPECIES_128, SPECIES_256, SPECIES_512)) {
+                val sum = VectorNanMoments.sum(species, x);
+                assertEquals(filtered.length, sum.count(), "Wrong count for " + species + ", size " + size);
+                assertEquals(Sum.sum(filtered), sum.value(), Math.ulp(1e6) * size, "Wrong sum for " + species);
+
+                val unweighted = new NanMoments();
+                unweighted.shift = 1e6;
+                VectorNanMoments.moments(species, x, null, unweighted);
+                assertEquals(filtered.length, unweighted.count, "Wrong count for " + species + ", size " + size);
+                if (filtered.length > 1)
+                    assertEquals(Variance.unweightedUnbiasedVariance(filtered), unweighted.variance(1), 1e-9,
+                        "Wrong variance for " + species + ", size " + size);
+
+                val weighted = new NanMoments();
+                weighted.shift = 1e6;
+                VectorNanMoments.moments(species, x, weights, weighted);
+                assertEquals(scalar.count, weighted.count, "Wrong count of pairs for " + species);
+                assertEquals(scalar.weight, weighted.weight, "Wrong weight for " + species);
+                assertEquals(scalar.mean(), weighted.mean(), 1e-8, "Wrong weighted mean for " + species);
+                assertEquals(scalar.m2, weighted.m2, 1e-9 * Math.max(1., scalar.m2), "Wrong m2 for " + species);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Test merging of partial moments")
+    void merge() {
+        val x = sparse(1001, 3);
+        val whole = new NanMoments();
+        whole.add(x, null, 0, x.length);
+        val left = new NanMoments();
+        left.add(x, null, 0, 400);
+        val right = new NanMoments();
+        right.add(x, null, 400, x.length);
+        left.merge(right.count, right.weight, right.mean, right.m2);
+        assertEquals(whole.count, left.count, "Counts must add up.");
+        assertEquals(whole.mean, left.mean, 1e-9, "Merged means differ.");
+        assertEquals(whole.m2, left.m2, 1e-9 * whole.m2, "Merged squared deviations differ.");
+
+        val empty = new NanMoments();
+        empty.merge(left.count, left.weight, left.mean, left.m2);
+        assertEquals(left.mean, empty.mean, "Merging into nothing must copy.");
+        assertTrue(Double.isNaN(new NanMoments().mean()), "No values give no mean.");
+    }
+
+    @Test
+    @DisplayName("Test that masked lanes count infinities")
+    void infinities() {
+        val inf = Double.POSITIVE_INFINITY;
+        val x = new double[]{inf, NaN, 1., 2., 3., inf, 4., 5., 6., 7., 8., NaN, -inf, 9., 10., 11., 12.};
+        val weights = new double[x.length];
+        Arrays.fill(weights, 1.);
+        val expected = 15;
+
+        val scalar = new NanMoments();
+        scalar.shift = 1.;
+        scalar.add(x, weights, 0, x.length);
+        assertEquals(expected, scalar.count, "Scalar updates drop infinities.");
+        for (val species : Arrays.asList(SPECIES_128, SPECIES_256, SPECIES_512)) {
+            assertEquals(expected, VectorNanMoments.sum(species, x).count(), "Masked sums drop infinities.");
+            val moments = new NanMoments();
+            moments.shift = 1.;
+            VectorNanMoments.moments(species, x, weights, moments);
+            assertEquals(expected, moments.count, "Masked updates drop infinities for " + species);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that counts of every reduction agree")
+    void counts() {
+        val inf = Double.POSITIVE_INFINITY;
+        val x = new double[]{inf, NaN, 1., 2., 3., inf, 4., 5., 6., 7., 8., NaN, -inf, 9., 10., 11., 12.};
+        val weights = new double[x.length];
+        Arrays.fill(weights, 1.);
+        val expected = 15;
+
+        assertEquals(1., NanMoments.of(x, null).shift, "The shift must be finite.");
+        assertEquals(0., NanMoments.of(new double[]{inf, NaN, -inf}, null).shift, "The shift must be finite.");
+        assertEquals(expected, Sum.nanSum(x).count(), "Wrong count of nanSum.");
+        assertEquals(expected, Mean.nanMean(x).count(), "Wrong count of nanMean.");
+        assertEquals(expected, Mean.nanWeightedMean(x, weights).count(), "Wrong count of nanWeightedMean.");
+        assertEquals(expected, Variance.nanVariance(x, true).count(), "Wrong count of nanVariance.");
+        assertEquals(expected, Variance.nanWeightedVariance(x, weights).count(), "Wrong count of nanWeightedVariance.");
+        assertEquals(expected, StandardDeviation.nanStd(x, false).count(), "Wrong count of nanStd.");
+    }
+}
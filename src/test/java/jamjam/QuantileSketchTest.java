@@ -0,0 +1,90 @@
+package jamjam;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    /**
+     * @return The empirical CDF of a sorted sample at {@code x}.
+     */
+    static double ecdf(final double[] sorted, final double x) {
+        var k = Arrays.binarySearch(sorted, x);
+        if (k < 0) return (-k - 1) / (double) sorted.length;
+        while (k + 1 < sorted.length && sorted[k + 1] == x) k++;
+        return (k + 1) / (double) sorted.length;
+    }
+
+    @Test
+    @DisplayName("Test rank accuracy on skewed data")
+    void accuracy() {
+        val generator = new Random(0);
+        val x = new double[1_000_000];
+        for (var i = 0; i < x.length; i++) x[i] = Math.exp(3. * generator.nextGaussian());
+        val sketch = new QuantileSketch().addAll(x);
+        val sorted = x.clone();
+        Arrays.sort(sorted);
+
+        for (val q : new double[]{0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999}) {
+            val rank = ecdf(sorted, sketch.quantile(q));
+            assertEquals(q, rank, Math.max(0.005, 0.02 * Math.min(q, 1. - q) + 1e-4), "Rank error is too big at " + q);
+            assertEquals(q, sketch.cdf(sorted[(int) (q * sorted.length)]), 0.005, "CDF error is too big at " + q);
+        }
+        assertEquals(sorted[0], sketch.quantile(0.), "The minimum must be exact.");
+        assertEquals(sorted[sorted.length - 1], sketch.quantile(1.), "The maximum must be exact.");
+        assertEquals(x.length, sketch.count());
+        assertTrue(sketch.centroidCount() <= 2 * sketch.compression(), "Memory must be bounded.");
+        assertEquals(0., sketch.cdf(sorted[0] - 1.));
+        assertEquals(1., sketch.cdf(sorted[sorted.length - 1]));
+    }
+
+    @Test
+    @DisplayName("Test that small samples are exact")
+    void small() {
+        val sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.median()), "Empty sketch has no quantiles.");
+        assertTrue(Double.isNaN(sketch.min()));
+        sketch.addAll(5., 1., Double.NaN, 3., 2., 4., Double.POSITIVE_INFINITY);
+        assertEquals(3., sketch.median(), 1e-15);
+        assertEquals(1., sketch.min());
+        assertEquals(5., sketch.max());
+        assertEquals(5, sketch.count());
+        assertEquals(2, sketch.skippedCount(), "Non-finite values must be skipped.");
+        assertArrayEquals(new double[]{1., 5.}, sketch.quantiles(0., 1.));
+        assertEquals(0.6, sketch.cdf(3.), 1e-15);
+
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(1.));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(sketch));
+    }
+
+    @Test
+    @DisplayName("Test merging and bulk ingestion")
+    void merge() {
+        val x = new Random(1).doubles(QuantileSketch.PARALLEL_THRESHOLD * 2 + 5).toArray();
+        val parallel = new QuantileSketch().addAll(x);
+        val stream = new QuantileSketch().addAll(Arrays.stream(x).parallel());
+        val bytes = ByteBuffer.allocateDirect(x.length * Double.BYTES).asDoubleBuffer().put(x).flip();
+        val offHeap = new QuantileSketch().addAll(bytes);
+        assertEquals(0, bytes.position(), "Buffer position must not change.");
+
+        val left = new QuantileSketch().addAll(Arrays.copyOfRange(x, 0, 1000));
+        val right = new QuantileSketch().addAll(Arrays.copyOfRange(x, 1000, x.length));
+        val merged = left.merge(right);
+
+        for (val sketch : new QuantileSketch[]{parallel, stream, offHeap, merged}) {
+            assertEquals(x.length, sketch.count());
+            for (val q : new double[]{0.01, 0.5, 0.99}) assertEquals(q, sketch.quantile(q), 0.005, "Uniform quantile.");
+        }
+        assertEquals(Arrays.stream(x).min().orElseThrow(), merged.min());
+        assertArrayEquals(parallel.quantiles(0.1, 0.5, 0.9), new QuantileSketch().addAll(x).quantiles(0.1, 0.5, 0.9),
+            "Parallel ingestion must be reproducible.");
+    }
+}
@@ -0,0 +1,173 @@
+package jamjam;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileTest {
+
+    /**
+     * The reference implementation: sorting and linear interpolation.
+     */
+    static double sorted(final double[] x, final double q) {
+        val sorted = x.clone();
+        Arrays.sort(sorted);
+        val h = (sorted.length - 1) * q;
+        val k = (int) Math.floor(h);
+        return k == sorted.length - 1 ? sorted[k] : sorted[k] + (h - k) * (sorted[k + 1] - sorted[k]);
+    }
+
+    @Test
+    @DisplayName("Test quantiles against sorting")
+    void quantile() {
+        val generator = new Random(0);
+        val q = new double[]{0., 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 1.};
+        for (var trial = 0; trial < 200; trial++) {
+            val length = 1 + generator.nextInt(2000);
+            val x = new double[length];
+            val distinct = 1 + generator.nextInt(length);
+            for (var i = 0; i < length; i++)
+                x[i] = trial % 3 == 0 ? generator.nextInt(distinct) : generator.nextGaussian();
+            if (trial % 5 == 0) Arrays.sort(x);
+            val copy = x.clone();
+
+            val result = Quantile.quantiles(x, q);
+            assertArrayEquals(copy, x, "The copy-based method must not modify the input.");
+            for (var i = 0; i < q.length; i++) {
+                assertEquals(sorted(x, q[i]), result[i], 1e-15, "Quantile differs from the sorted one.");
+                assertEquals(result[i], Quantile.quantile(x, q[i]), "Single and multiple selections differ.");
+            }
+
+            val k = generator.nextInt(length);
+            val selected = Quantile.select(copy, k);
+            for (var i = 0; i < length; i++)
+                assertTrue(i <= k ? copy[i] <= selected : copy[i] >= selected, "Partitioning is broken.");
+        }
+    }
+
+    @Test
+    @DisplayName("Test special values and edge cases")
+    void specialValues() {
+        assertEquals(3., Quantile.median(new double[]{5., 1., 3.}));
+        assertEquals(2.5, Quantile.median(new double[]{4., 1., 3., 2.}));
+        assertEquals(7., Quantile.quantile(new double[]{7.}, 0.3));
+        assertTrue(Double.isNaN(Quantile.median(new double[]{1., Double.NaN, 2.})), "NaN must propagate.");
+        assertArrayEquals(new double[]{Double.NaN, Double.NaN}, Quantile.quantiles(new double[]{Double.NaN, 1.},
+            0., 1.));
+        assertEquals(Double.NEGATIVE_INFINITY,
+            Quantile.quantile(new double[]{Double.POSITIVE_INFINITY, 0., Double.NEGATIVE_INFINITY}, 0.));
+        assertEquals(Double.POSITIVE_INFINITY, Quantile.quantile(new double[]{1., Double.POSITIVE_INFINITY}, 0.5),
+            "Infinities are ordinary values.");
+
+        val x = new double[]{3., 1., 2.};
+        assertEquals(2., Quantile.medianInPlace(x));
+        assertEquals(2., x[1], "In-place selection must reorder the input.");
+
+        assertThrows(IllegalArgumentException.class, () -> Quantile.median(new double[]{}));
+        assertThrows(IllegalArgumentException.class, () -> Quantile.quantile(new double[]{1.}, -0.1));
+        assertThrows(IndexOutOfBoundsException.class, () -> Quantile.select(new double[]{1.}, 1));
+    }
+
+    @Test
+    @DisplayName("Test adversarial input for the pivot rule")
+    void adversarial() {
+        val x = new double[100_000];
+        for (var i = 0; i < x.length; i++) x[i] = i % 2 == 0 ? i : x.length - i;
+        assertEquals(sorted(x, 0.37), Quantile.quantile(x, 0.37), 1e-10);
+        Arrays.fill(x, 1.);
+        assertEquals(1., Quantile.median(x), "Duplicates must be handled in linear time.");
+    }
+
+    @Test
+    @DisplayName("Test parallel selection")
+    void parallelQuantiles() {
+        val generator = new Random(1);
+        val x = generator.doubles(Quantile.PARALLEL_THRESHOLD * 3 + 7).map(v -> Math.exp(5. * v)).toArray();
+        val q = new double[]{0.5, 0.001, 0.999, 0.25};
+        assertArrayEquals(Quantile.quantiles(x, q), Quantile.parallelQuantiles(x, q), "Parallel result differs.");
+
+        val ties = new double[Quantile.PARALLEL_THRESHOLD * 2];
+        for (var i = 0; i < ties.length; i++) ties[i] = generator.nextInt(3);
+        assertArrayEquals(Quantile.quantiles(ties, q), Quantile.parallelQuantiles(ties, q), "Ties are not handled.");
+
+        x[12345] = Double.NaN;
+        assertTrue(Double.isNaN(Quantile.parallelQuantiles(x, 0.5)[0]), "NaN must propagate.");
+    }
+
+    /**
+     * The reference implementation of the weighted quantile: a full sort and a linear scan.
+     */
+    static double weightedSorted(final double[] x, final double[] weights, final double q) {
+        val order = IntStream.range(0, x.length).boxed()
+            .sorted(Comparator.comparingDouble(i -> x[i])).mapToInt(i -> i).toArray();
+        val permuted = new double[x.length];
+        for (var i = 0; i < x.length; i++) permuted[i] = weights[order[i]];
+        val cdf = Sum.cumulativeSum(permuted);
+        val target = q * cdf[cdf.length - 1];
+        for (var k = 0; k < x.length; k++) {
+            if (permuted[k] == 0. || cdf[k] < target) continue;
+            if (cdf[k] == target)
+                for (var next = k + 1; next < x.length; next++)
+                    if (permuted[next] > 0.) return 0.5 * (x[order[k]] + x[order[next]]);
+            return x[order[k]];
+        }
+        throw new AssertionError();
+    }
+
+    @Test
+    @DisplayName("Test weighted quantiles against sorting")
+    void weightedQuantile() {
+        val generator = new Random(2);
+        val q = new double[]{0., 0.05, 0.25, 0.5, 0.75, 0.95, 1.};
+        for (var trial = 0; trial < 200; trial++) {
+            val length = 1 + generator.nextInt(500);
+            val x = new double[length];
+            val weights = new double[length];
+            for (var i = 0; i < length; i++) {
+                x[i] = trial % 2 == 0 ? generator.nextInt(1 + length / 4) : generator.nextGaussian();
+                weights[i] = trial % 3 == 0 ? generator.nextInt(4) : generator.nextDouble();
+            }
+            weights[generator.nextInt(length)] = 1.;
+            val copy = x.clone();
+
+            val permutation = Quantile.sortPermutation(x);
+            for (var i = 1; i < length; i++)
+                assertTrue(x[permutation[i - 1]] <= x[permutation[i]], "Permutation doesn't sort.");
+            val reused = Quantile.weightedQuantiles(x, permutation, weights, q);
+            for (var j = 0; j < q.length; j++) {
+                val expected = weightedSorted(x, weights, q[j]);
+                assertEquals(expected, Quantile.weightedQuantile(x, weights, q[j]), "Weighted selection is wrong.");
+                assertEquals(expected, reused[j], "Weighted quantile from the permutation is wrong.");
+            }
+            assertArrayEquals(copy, x, "The input must not be modified.");
+        }
+
+        val x = new double[]{4., 1., 3., 2.};
+        assertEquals(Quantile.median(x), Quantile.weightedMedian(x, new double[]{1., 1., 1., 1.}),
+            "Unit weights must give the usual median.");
+        assertEquals(Quantile.median(x), Quantile.weightedMedian(x, null), "Null weights mean no weights.");
+        assertEquals(4., Quantile.weightedMedian(x, new double[]{10., 1., 1., 1.}));
+        assertEquals(1., Quantile.weightedQuantile(x, new double[]{0., 1., 0., 0.}, 0.9), "Zero weights are ignored.");
+        assertTrue(Double.isNaN(Quantile.weightedMedian(new double[]{1., Double.NaN}, new double[]{1., 1.})));
+
+        assertThrows(ArithmeticException.class, () -> Quantile.weightedMedian(x, new double[4]));
+        assertThrows(IllegalArgumentException.class, () -> Quantile.weightedMedian(x, new double[]{1., -1., 1., 1.}));
+        assertThrows(IllegalArgumentException.class, () -> Quantile.weightedMedian(x, new double[3]));
+
+        val permutation = Quantile.sortPermutation(x);
+        val unit = new double[]{1., 1., 1., 1.};
+        assertEquals(0, Quantile.weightedQuantiles(x, permutation, unit).length, "No probabilities, no quantiles.");
+        assertThrows(IllegalArgumentException.class, () -> Quantile.weightedQuantiles(x, permutation, unit, 0.5, 1.5),
+            "Every probability must be checked.");
+        assertThrows(ArithmeticException.class, () -> Quantile.weightedQuantiles(x, permutation, new double[4]));
+        assertThrows(IllegalArgumentException.class,
+            () -> Quantile.weightedQuantiles(x, permutation, new double[]{1., -1., 1., 1.}));
+    }
+}
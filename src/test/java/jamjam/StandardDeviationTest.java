@@ -63,4 +63,11 @@ class StandardDeviationTest {
         }
         assertEquals(map.keySet().size(), testCounter, "Failed to run through all datasets");
     }
+
+    @Test
+    void nanStd() {
+        val result = StandardDeviation.nanStd(new double[]{104, Double.NaN, 105, 104, 105}, false);
+        assertEquals(0.5, result.value(), "NaNs must be skipped.");
+        assertEquals(4, result.count(), "Wrong number of values.");
+    }
 }
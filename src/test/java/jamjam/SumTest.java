@@ -1,7 +1,6 @@
 package jamjam;
 
 import jamjam.aux.Utils;
-import jdk.incubator.vector.DoubleVector;
 import lombok.val;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
@@ -11,11 +10,10 @@ import java.util.Random;
 import java.util.stream.DoubleStream;
 import java.util.stream.IntStream;
 
+import static java.lang.Double.NaN;
 import static jamjam.Sum.*;
 import static java.lang.StrictMath.pow;
 import static java.lang.StrictMath.sin;
-import static jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
-import static jdk.incubator.vector.DoubleVector.broadcast;
 import static org.junit.jupiter.api.Assertions.*;
 
 class SumTest extends Utils {
@@ -187,48 +185,6 @@ class SumTest extends Utils {
         assertEquals(-0., scratch.getSum());
     }
 
-    @Test
-    void testVectorSum() {
-        val testArray = new DoubleVector[]{broadcast(SPECIES_PREFERRED, 1), broadcast(SPECIES_PREFERRED, 1e100),
-            broadcast(SPECIES_PREFERRED, 1), broadcast(SPECIES_PREFERRED, -1e100)};
-        var expected = broadcast(SPECIES_PREFERRED, 2);
-
-        assertEquals(expected, Sum.sum(testArray));
-
-        expected = broadcast(SPECIES_PREFERRED, 55);
-        assertEquals(expected, Sum.sum(broadcast(SPECIES_PREFERRED, 1), broadcast(SPECIES_PREFERRED, 2),
-            broadcast(SPECIES_PREFERRED, 3), broadcast(SPECIES_PREFERRED, 4), broadcast(SPECIES_PREFERRED, 5),
-            broadcast(SPECIES_PREFERRED, 6), broadcast(SPECIES_PREFERRED, 7), broadcast(SPECIES_PREFERRED, 8),
-            broadcast(SPECIES_PREFERRED, 9), broadcast(SPECIES_PREFERRED, 10)));
-
-        assertEquals(Sum.sum(broadcast(SPECIES_PREFERRED, 7), broadcast(SPECIES_PREFERRED, 8),
-            broadcast(SPECIES_PREFERRED, 9)), Sum.sum(broadcast(SPECIES_PREFERRED, 8),
-            broadcast(SPECIES_PREFERRED, 9), broadcast(SPECIES_PREFERRED, 7)));
-
-
-        assertEquals(Sum.sum(broadcast(SPECIES_PREFERRED, 11), broadcast(SPECIES_PREFERRED, 10),
-                broadcast(SPECIES_PREFERRED, 9), broadcast(SPECIES_PREFERRED, 8), broadcast(SPECIES_PREFERRED, 7),
-                broadcast(SPECIES_PREFERRED, 6), broadcast(SPECIES_PREFERRED, 5), broadcast(SPECIES_PREFERRED, 4),
-                broadcast(SPECIES_PREFERRED, 3), broadcast(SPECIES_PREFERRED, 2), broadcast(SPECIES_PREFERRED, 1)),
-            Sum.sum(broadcast(SPECIES_PREFERRED, 1), broadcast(SPECIES_PREFERRED, 2),
-                broadcast(SPECIES_PREFERRED, 3), broadcast(SPECIES_PREFERRED, 4), broadcast(SPECIES_PREFERRED, 5),
-                broadcast(SPECIES_PREFERRED, 6), broadcast(SPECIES_PREFERRED, 7), broadcast(SPECIES_PREFERRED, 8),
-                broadcast(SPECIES_PREFERRED, 9), broadcast(SPECIES_PREFERRED, 10), broadcast(SPECIES_PREFERRED, 11)));
-
-
-        assertEquals(broadcast(SPECIES_PREFERRED, -0.d),
-            Sum.sum(broadcast(SPECIES_PREFERRED, -0.d), broadcast(SPECIES_PREFERRED, -0.d)));
-
-        assertEquals(broadcast(SPECIES_PREFERRED, 0.d), Sum.sum(broadcast(SPECIES_PREFERRED, 0.d)));
-        assertEquals(broadcast(SPECIES_PREFERRED, -0.d), Sum.sum(broadcast(SPECIES_PREFERRED, -0.d)));
-        assertEquals(broadcast(SPECIES_PREFERRED, Math.PI), Sum.sum(broadcast(SPECIES_PREFERRED, Math.PI)));
-
-        assertEquals(broadcast(SPECIES_PREFERRED, 0), Sum.sum(new DoubleVector[]{}));
-        assertEquals(broadcast(SPECIES_PREFERRED, 0), Sum.sum(new DoubleVector[]{}));
-
-        assertThrows(NullPointerException.class, () -> Sum.sum((DoubleVector[]) null));
-    }
-
     @Test
     void testStreamSum() {
         DoubleStream x = DoubleStream.of(1, 2, 4);
@@ -236,6 +192,15 @@ class SumTest extends Utils {
         assertThrows(NullPointerException.class, () -> Sum.sum((DoubleStream) null));
     }
 
+    @Test
+    void testRangeSum() {
+        val x = new double[]{5, 1, 1e100, 1, -1e100, 5};
+        assertEquals(2., Sum.sum(x, 1, 5), "Range summation fails.");
+        assertEquals(1., Sum.sum(x, 1, 2), "A single element range returns its only value.");
+        assertEquals(0., Sum.sum(x, 3, 3), "Empty range returns zero.");
+        assertThrows(IndexOutOfBoundsException.class, () -> Sum.sum(x, 4, 7));
+    }
+
     @Test
     void testBroadcastAdd() {
         val x = new double[]{1, 2, 3};
@@ -357,4 +322,37 @@ class SumTest extends Utils {
 
         assertArrayEquals(y, clone);
     }
+
+    @Test
+    @DisplayName("Test sums of floats")
+    void testSumFloat() {
+        assertThrows(NullPointerException.class, () -> Sum.sum((float[]) null), "Null input test fails.");
+        assertEquals(0., Sum.sum(new float[0]), "The empty sum must be zero.");
+
+        val generator = new Random(3);
+        val x = new float[10_007];
+        for (var i = 0; i < x.length; i++) x[i] = (float) Math.scalb(generator.nextGaussian(), generator.nextInt(30));
+        val widened = new double[x.length];
+        for (var i = 0; i < x.length; i++) widened[i] = x[i];
+        assertEquals(Deterministic.sum(widened), Sum.sum(x), "Floats must give the bits of their widened copy.");
+        assertEquals(Sum.sum(widened), Sum.sum(x), Math.ulp(Sum.sum(widened)) * 4, "The sum is not accurate.");
+    }
+
+    @Test
+    @DisplayName("Test sums that skip NaNs")
+    void testNanSum() {
+        assertThrows(NullPointerException.class, () -> Sum.nanSum((double[]) null), "Null input test fails.");
+        assertEquals(new NanReduction(0., 0), Sum.nanSum(), "The empty sum must be zero.");
+        assertEquals(new NanReduction(0., 0), Sum.nanSum(NaN, NaN), "Only NaNs must give zero.");
+        assertEquals(new NanReduction(3., 2), Sum.nanSum(1., NaN, 2.), "NaNs must be skipped.");
+
+        val pattern = new double[]{1e100, 1., NaN, -1e100};
+        val x = new double[1000];
+        for (var i = 0; i < x.length; i++) x[i] = pattern[i % pattern.length];
+        val result = Sum.nanSum(x);
+        assertEquals(750, result.count(), "Wrong number of values.");
+        assertEquals(250., result.value(), "The sum must stay compensated.");
+        assertEquals(Sum.sum(1., Double.POSITIVE_INFINITY), Sum.nanSum(1., Double.POSITIVE_INFINITY, NaN).value(),
+            "Infinities must be handled as in the conventional sum.");
+    }
 }
@@ -1,5 +1,7 @@
 package jamjam;
 
+import org.junit.jupiter.api.DisplayName;
+import java.util.Random;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 
@@ -9,6 +11,7 @@ import static jamjam.Variance.weightedUnbiasedVariance;
 import static java.lang.Double.NaN;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class VarianceTest {
 
@@ -36,7 +39,7 @@ class VarianceTest {
 
     @Test
     void testBiasedVariance2() {
-        assertThrows(NullPointerException.class, () -> Variance.unweightedBiasedVariance(null));
+        assertThrows(NullPointerException.class, () -> Variance.unweightedBiasedVariance((double[]) null));
     }
 
     @Test
@@ -67,12 +70,12 @@ class VarianceTest {
 
     @Test
     void testUnbiasedVariance2() {
-        assertThrows(NullPointerException.class, () -> Variance.unweightedUnbiasedVariance(null));
+        assertThrows(NullPointerException.class, () -> Variance.unweightedUnbiasedVariance((double[]) null));
     }
 
     @Test
     void testUnbiasedVariance3() {
-        assertThrows(NullPointerException.class, () -> Variance.unweightedUnbiasedVariance(null, 10.0d));
+        assertThrows(NullPointerException.class, () -> Variance.unweightedUnbiasedVariance((double[]) null, 10.0d));
     }
 
     @Test
@@ -164,5 +167,63 @@ class VarianceTest {
 
         assertEquals(0, weightedUnbiasedVariance(new double[]{1, 1}, new long[]{1, 1}));
     }
-}
 
+    @Test
+    @DisplayName("Test variances of floats")
+    void testVarianceFloat() {
+        assertThrows(NullPointerException.class, () -> Variance.unweightedBiasedVariance((float[]) null));
+        assertThrows(IllegalArgumentException.class, () -> Variance.unweightedUnbiasedVariance(new float[]{1f}));
+
+        val generator = new Random(5);
+        val x = new float[20_011];
+        for (var i = 0; i < x.length; i++) x[i] = (float) (1e3 + generator.nextGaussian());
+        val widened = new double[x.length];
+        for (var i = 0; i < x.length; i++) widened[i] = x[i];
+        val unbiased = Variance.unweightedUnbiasedVariance(widened);
+        assertEquals(unbiased, Variance.unweightedUnbiasedVariance(x), unbiased * 1e-12, "Unbiased variances differ.");
+        assertEquals(Variance.unweightedBiasedVariance(widened), Variance.unweightedBiasedVariance(x), unbiased * 1e-12,
+            "Biased variances differ.");
+        assertEquals(Variance.unweightedBiasedVariance(x), Variance.unweightedBiasedVariance(x, Mean.mean(x)),
+            "The mean must be calculated when it's not given.");
+        assertEquals(2.5, Variance.unweightedUnbiasedVariance(new float[]{1f, 2f, 3f, 4f, 5f}), "Wrong variance.");
+    }
+
+    @Test
+    @DisplayName("Test exact variances of integers")
+    void testVarianceInteger() {
+        assertThrows(NullPointerException.class, () -> Variance.unweightedBiasedVariance((int[]) null));
+        assertThrows(IllegalArgumentException.class, () -> Variance.unweightedUnbiasedVariance(new long[]{1}));
+
+        val x = new long[]{Long.MAX_VALUE - 4, Long.MAX_VALUE - 2, Long.MAX_VALUE};
+        assertEquals(8. / 3., Variance.unweightedBiasedVariance(x), "Large longs must not lose their digits.");
+        assertEquals(4., Variance.unweightedUnbiasedVariance(x), "Large longs must not lose their digits.");
+
+        val ints = new int[]{1_000_000_001, 1_000_000_002, 1_000_000_003, 1_000_000_004};
+        assertEquals(1.25, Variance.unweightedBiasedVariance(ints), "Wrong biased variance of ints.");
+        assertEquals(5. / 3., Variance.unweightedUnbiasedVariance(ints), "Wrong unbiased variance of ints.");
+        assertEquals(7.5, Variance.unweightedBiasedVariance(ints, 1e9), "The given mean is ignored.");
+        assertEquals(10., Variance.unweightedUnbiasedVariance(ints, 1e9), "The given mean is ignored.");
+        assertEquals(1.25, Variance.unweightedBiasedVariance(ints, NaN), "NaN must fall back to the actual mean.");
+    }
+
+    @Test
+    @DisplayName("Test variances that skip NaNs")
+    void testNanVariance() {
+        assertThrows(IllegalArgumentException.class, () -> Variance.nanVariance(new double[1], true));
+        val x = new double[]{NaN, 1., 2., NaN, 3., 4., 5., NaN, NaN};
+        assertEquals(new NanReduction(2., 5), Variance.nanVariance(x, false), "Wrong biased variance.");
+        assertEquals(new NanReduction(2.5, 5), Variance.nanVariance(x, true), "Wrong unbiased variance.");
+        assertTrue(Double.isNaN(Variance.nanVariance(new double[]{NaN, 1.}, true).value()),
+            "One value has no unbiased variance.");
+
+        val large = new double[10_000];
+        for (var i = 0; i < large.length; i++) large[i] = i % 4 == 0 ? NaN : 1e9 + i % 3;
+        val filtered = Arrays.stream(large).filter(v -> !Double.isNaN(v)).toArray();
+        val result = Variance.nanVariance(large, true);
+        assertEquals(filtered.length, result.count(), "Wrong number of values.");
+        assertEquals(Variance.unweightedUnbiasedVariance(filtered), result.value(), 1e-12, "Large offsets must cancel out.");
+
+        val weighted = Variance.nanWeightedVariance(new double[]{1., 3., NaN, 100.}, new double[]{1., 1., 1., NaN});
+        assertEquals(new NanReduction(1., 2), weighted, "Wrong weighted variance.");
+    }
+}
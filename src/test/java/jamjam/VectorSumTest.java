@@ -0,0 +1,54 @@
+package jamjam;
+
+import jdk.incubator.vector.DoubleVector;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import static jdk.incubator.vector.DoubleVector.SPECIES_PREFERRED;
+import static jdk.incubator.vector.DoubleVector.broadcast;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VectorSumTest {
+    @Test
+    void testSum() {
+        val testArray = new DoubleVector[]{broadcast(SPECIES_PREFERRED, 1), broadcast(SPECIES_PREFERRED, 1e100),
+            broadcast(SPECIES_PREFERRED, 1), broadcast(SPECIES_PREFERRED, -1e100)};
+        var expected = broadcast(SPECIES_PREFERRED, 2);
+
+        assertEquals(expected, VectorSum.sum(testArray));
+
+        expected = broadcast(SPECIES_PREFERRED, 55);
+        assertEquals(expected, VectorSum.sum(broadcast(SPECIES_PREFERRED, 1), broadcast(SPECIES_PREFERRED, 2),
+            broadcast(SPECIES_PREFERRED, 3), broadcast(SPECIES_PREFERRED, 4), broadcast(SPECIES_PREFERRED, 5),
+            broadcast(SPECIES_PREFERRED, 6), broadcast(SPECIES_PREFERRED, 7), broadcast(SPECIES_PREFERRED, 8),
+            broadcast(SPECIES_PREFERRED, 9), broadcast(SPECIES_PREFERRED, 10)));
+
+        assertEquals(VectorSum.sum(broadcast(SPECIES_PREFERRED, 7), broadcast(SPECIES_PREFERRED, 8),
+            broadcast(SPECIES_PREFERRED, 9)), VectorSum.sum(broadcast(SPECIES_PREFERRED, 8),
+            broadcast(SPECIES_PREFERRED, 9), broadcast(SPECIES_PREFERRED, 7)));
+
+
+        assertEquals(VectorSum.sum(broadcast(SPECIES_PREFERRED, 11), broadcast(SPECIES_PREFERRED, 10),
+                broadcast(SPECIES_PREFERRED, 9), broadcast(SPECIES_PREFERRED, 8), broadcast(SPECIES_PREFERRED, 7),
+                broadcast(SPECIES_PREFERRED, 6), broadcast(SPECIES_PREFERRED, 5), broadcast(SPECIES_PREFERRED, 4),
+                broadcast(SPECIES_PREFERRED, 3), broadcast(SPECIES_PREFERRED, 2), broadcast(SPECIES_PREFERRED, 1)),
+            VectorSum.sum(broadcast(SPECIES_PREFERRED, 1), broadcast(SPECIES_PREFERRED, 2),
+                broadcast(SPECIES_PREFERRED, 3), broadcast(SPECIES_PREFERRED, 4), broadcast(SPECIES_PREFERRED, 5),
+                broadcast(SPECIES_PREFERRED, 6), broadcast(SPECIES_PREFERRED, 7), broadcast(SPECIES_PREFERRED, 8),
+                broadcast(SPECIES_PREFERRED, 9), broadcast(SPECIES_PREFERRED, 10), broadcast(SPECIES_PREFERRED, 11)));
+
+
+        assertEquals(broadcast(SPECIES_PREFERRED, -0.d),
+            VectorSum.sum(broadcast(SPECIES_PREFERRED, -0.d), broadcast(SPECIES_PREFERRED, -0.d)));
+
+        assertEquals(broadcast(SPECIES_PREFERRED, 0.d), VectorSum.sum(broadcast(SPECIES_PREFERRED, 0.d)));
+        assertEquals(broadcast(SPECIES_PREFERRED, -0.d), VectorSum.sum(broadcast(SPECIES_PREFERRED, -0.d)));
+        assertEquals(broadcast(SPECIES_PREFERRED, Math.PI), VectorSum.sum(broadcast(SPECIES_PREFERRED, Math.PI)));
+
+        assertEquals(broadcast(SPECIES_PREFERRED, 0), VectorSum.sum(new DoubleVector[]{}));
+        assertEquals(broadcast(SPECIES_PREFERRED, 0), VectorSum.sum(new DoubleVector[]{}));
+
+        assertThrows(NullPointerException.class, () -> VectorSum.sum((DoubleVector[]) null));
+    }
+}
@@ -0,0 +1,77 @@
+package jamjam.arrays;
+
+import jamjam.Mean;
+import jamjam.Sum;
+import jamjam.Variance;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.DoubleStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleBufferTest {
+
+    @Test
+    @DisplayName("Appending values")
+    void append() {
+        for (val buffer : new DoubleBuffer[]{new DoubleBuffer(0), DoubleBuffer.offHeap(0)}) {
+            buffer.append(1.);
+            buffer.append(2., 3.);
+            buffer.append(new double[]{0., 4., 5., 0.}, 1, 3);
+            buffer.append(DoubleStream.of(6., 7.));
+            assertEquals(7, buffer.size(), "Wrong number of values.");
+            assertArrayEquals(new double[]{1., 2., 3., 4., 5., 6., 7.}, buffer.toArray(), "Values are corrupted.");
+            assertArrayEquals(buffer.toArray(), buffer.stream().toArray(), "Streaming fails.");
+
+            buffer.set(0, -1.);
+            assertEquals(-1., buffer.get(0), "Update fails.");
+            assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(7));
+
+            buffer.trimToSize();
+            assertEquals(7, buffer.capacity(), "Trimming fails.");
+
+            buffer.clear();
+            assertTrue(buffer.isEmpty(), "Clearing fails.");
+        }
+        assertThrows(IllegalArgumentException.class, () -> new DoubleBuffer(-1));
+        assertThrows(UnsupportedOperationException.class, () -> DoubleBuffer.offHeap(1).array());
+    }
+
+    @Test
+    @DisplayName("Growing beyond the initial capacity")
+    void grow() {
+        val buffer = new DoubleBuffer(1);
+        for (var i = 0; i < 100_000; i++) buffer.append(i);
+        assertEquals(100_000, buffer.size());
+        assertEquals(99_999., buffer.get(99_999));
+        assertTrue(buffer.capacity() >= buffer.size());
+    }
+
+    @Test
+    @DisplayName("Statistics without copying")
+    void statistics() {
+        val x = new Random(0).doubles(1001).toArray();
+        val heap = DoubleBuffer.wrap(x);
+        assertSame(x, heap.array(), "Wrapping must not copy.");
+
+        val offHeap = DoubleBuffer.offHeap(10);
+        offHeap.append(x);
+
+        for (val buffer : new DoubleBuffer[]{heap, offHeap}) {
+            assertEquals(Sum.sum(x), buffer.sum(), "Sum mismatch.");
+            assertEquals(Mean.mean(x), buffer.mean(), "Mean mismatch.");
+            assertEquals(Variance.unweightedBiasedVariance(x), buffer.biasedVariance(), 1e-16,
+                "Biased variance mismatch.");
+            assertEquals(Variance.unweightedUnbiasedVariance(x), buffer.unbiasedVariance(), 1e-16,
+                "Unbiased variance mismatch.");
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new DoubleBuffer().mean());
+        val single = new DoubleBuffer();
+        single.append(1.);
+        assertThrows(IllegalArgumentException.class, single::unbiasedVariance);
+    }
+}
@@ -0,0 +1,73 @@
+package jamjam.arrays;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MeshGridTest {
+
+    @Test
+    @DisplayName("Materialized grid")
+    void meshgrid() {
+        val grid = MeshGrid.meshgrid(new double[]{1., 2.}, new double[]{10., 20., 30.});
+        assertArrayEquals(new double[]{1., 1., 1., 2., 2., 2.}, grid[0], "The first axis must vary the slowest.");
+        assertArrayEquals(new double[]{10., 20., 30., 10., 20., 30.}, grid[1], "The last axis must vary the fastest.");
+
+        val empty = MeshGrid.meshgrid(new double[]{1., 2.}, new double[]{});
+        assertEquals(0, empty[0].length, "An empty axis must result in an empty grid.");
+
+        assertThrows(IllegalArgumentException.class, MeshGrid::meshgrid, "Grids with no axes are not filtered out.");
+    }
+
+    @Test
+    @DisplayName("Lazy grid")
+    void grid() {
+        val x = LinearSpace.linspace(0., 1., 5);
+        val y = ARange.arange(0., 3., 1.);
+        val z = new double[]{-1., 1.};
+        assert x != null;
+
+        val grid = MeshGrid.grid(x, y, z);
+        assertEquals(30, grid.size(), "Wrong number of points.");
+        assertEquals(3, grid.dimensions(), "Wrong number of dimensions.");
+
+        val materialized = grid.materialize();
+        val point = new double[3];
+        val position = new int[3];
+        for (var i = 0; i < grid.size(); i++) {
+            grid.coordinates(i, point);
+            for (var d = 0; d < 3; d++) assertEquals(materialized[d][i], point[d], "Decoding fails.");
+        }
+
+        grid.indices(29, position);
+        assertArrayEquals(new int[]{4, 2, 1}, position, "Index decoding fails.");
+
+        val points = grid.points().toList();
+        assertEquals(30, points.size(), "Stream length mismatch.");
+        for (var i = 0; i < points.size(); i++)
+            for (var d = 0; d < 3; d++) assertEquals(materialized[d][i], points.get(i)[d], "Streaming fails.");
+
+        assertEquals(grid.points().mapToDouble(p -> p[0] + p[1] + p[2]).sum(),
+            grid.points().parallel().mapToDouble(p -> p[0] + p[1] + p[2]).sum(), 1e-12,
+            "Parallel traversal must visit the same points.");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.coordinates(30, point));
+        assertThrows(IllegalArgumentException.class, () -> grid.coordinates(0, new double[2]));
+    }
+
+    @Test
+    @DisplayName("Huge lazy grid")
+    void hugeGrid() {
+        val axis = new double[100];
+        val grid = MeshGrid.grid(axis, axis, axis, axis, axis, axis);
+        assertEquals(1_000_000_000_000L, grid.size(), "Huge grids must be supported lazily.");
+        assertThrows(IndexOutOfBoundsException.class, grid::materialize, "Materialization must fail.");
+        assertEquals(100, grid.points().limit(100).count(), "Streaming the head fails.");
+
+        val position = new int[6];
+        grid.indices(grid.size() - 1, position);
+        assertArrayEquals(new int[]{99, 99, 99, 99, 99, 99}, position, "Decoding of the last point fails.");
+    }
+}
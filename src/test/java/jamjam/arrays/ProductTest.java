@@ -120,4 +120,21 @@ class ProductTest {
         assertThrows(NullPointerException.class, () -> productInPlace(base, (double[]) null));
         assertThrows(NullPointerException.class, () -> productInPlace(null, (double[]) null));
     }
+
+    @Test
+    void productFloat() {
+        assertThrows(NullPointerException.class, () -> Product.product(null, new float[]{0f}));
+        assertThrows(IllegalArgumentException.class, () -> Product.product(new float[1], new float[2]));
+        for (var size : new int[]{7, 10_007}) {
+            var x = new float[size];
+            var y = new float[size];
+            var expected = new double[size];
+            for (int i = 0; i < size; i++) {
+                x[i] = 1.1f + i;
+                y[i] = 0.3f - i;
+                expected[i] = (double) x[i] * (double) y[i];
+            }
+            assertArrayEquals(expected, Product.product(x, y), "Products of floats must be exact, size " + size);
+        }
+    }
 }
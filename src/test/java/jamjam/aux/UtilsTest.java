@@ -8,6 +8,9 @@ import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static jamjam.aux.Utils.MomentQualifiers.CORRECTED_STD;
 import static jamjam.aux.Utils.MomentQualifiers.UNWEIGHTED_UNBIASED_VARIANCE;
@@ -43,6 +46,70 @@ class UtilsTest {
         assertThrows(NullPointerException.class, () -> Utils.shuffleDoubleArray(null, rng));
     }
 
+    @Test
+    @DisplayName("Shuffling of integer arrays and index permutations")
+    void shuffleIntegers() {
+        val ints = new int[1000];
+        val longs = new long[1000];
+        Arrays.setAll(ints, i -> i);
+        Arrays.setAll(longs, i -> i);
+
+        Utils.shuffleIntArray(ints, Utils.splittableGenerator(0));
+        Utils.shuffleLongArray(longs, Utils.splittableGenerator(0));
+        assertArrayEquals(Arrays.stream(ints).asLongStream().toArray(), longs,
+            "The same seed must give the same order.");
+
+        val permutation = Utils.permutation(1000, Utils.splittableGenerator(1));
+        assertArrayEquals(IntStream.range(0, 1000).toArray(), Arrays.stream(permutation).sorted().toArray(),
+            "Not a permutation.");
+        assertFalse(Arrays.equals(IntStream.range(0, 1000).toArray(), permutation), "Indices are not shuffled.");
+        assertEquals(0, Utils.permutation(0, new Random()).length);
+        assertThrows(IllegalArgumentException.class, () -> Utils.permutation(-1, new Random()));
+    }
+
+    @Test
+    @DisplayName("Parallel shuffling is reproducible on any number of threads")
+    void mergeShuffle() {
+        val length = MergeShuffle.LEAF_SIZE * 5 + 7;
+        val x = new double[length];
+        Arrays.setAll(x, i -> i);
+        val y = x.clone();
+
+        new ForkJoinPool(1).invoke(new MergeShuffle.OfDouble(x, 0, length, Utils.splittableGenerator(42)));
+        new ForkJoinPool(4).invoke(new MergeShuffle.OfDouble(y, 0, length, Utils.splittableGenerator(42)));
+        assertArrayEquals(x, y, "Results depend on the number of threads.");
+
+        val sorted = x.clone();
+        Arrays.sort(sorted);
+        assertArrayEquals(IntStream.range(0, length).asDoubleStream().toArray(), sorted, "Not a permutation.");
+
+        var fixedPoints = 0;
+        for (var i = 0; i < length; i++) if (x[i] == i) fixedPoints++;
+        assertTrue(fixedPoints < 20, "Too many elements stay in place: " + fixedPoints);
+
+        // Public entry points switch to MergeShuffle at the threshold
+        val ints = IntStream.range(0, Utils.PARALLEL_SHUFFLE_THRESHOLD).toArray();
+        val sameInts = ints.clone();
+        Utils.parallelShuffleIntArray(ints, 7);
+        Utils.parallelShuffleIntArray(sameInts, 7);
+        assertArrayEquals(ints, sameInts, "The same seed must give the same order.");
+        val seen = new boolean[ints.length];
+        for (val v : ints) {
+            assertFalse(seen[v], "Not a permutation, " + v + " is repeated.");
+            seen[v] = true;
+        }
+        fixedPoints = 0;
+        for (var i = 0; i < ints.length; i++) if (ints[i] == i) fixedPoints++;
+        assertTrue(fixedPoints < 20, "Too many ints stay in place: " + fixedPoints);
+
+        val longs = LongStream.range(0, ints.length).toArray();
+        Utils.parallelShuffleLongArray(longs, 7);
+        for (var i = 0; i < ints.length; i++) assertEquals(ints[i], longs[i], "Longs are shuffled unlike ints.");
+        val doubles = IntStream.range(0, ints.length).asDoubleStream().toArray();
+        Utils.parallelShuffleDoubleArray(doubles, 7);
+        for (var i = 0; i < ints.length; i++) assertEquals(ints[i], doubles[i], "Doubles are shuffled unlike ints.");
+    }
+
     @Test
     @DisplayName("Test relative accuracy status")
     void returnRelativeAccuracyStatus() {
@@ -0,0 +1,70 @@
+package jamjam.io;
+
+import jamjam.Mean;
+import jamjam.Sum;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnFileTest {
+
+    @Test
+    @DisplayName("Round trip of all data types")
+    void saveLoad() throws IOException {
+        val generator = new Random(0);
+        val doubles = generator.doubles(10_001).toArray();
+        val ints = generator.ints(1_001).toArray();
+        val longs = generator.longs(101).toArray();
+
+        val file = Files.createTempFile("jamjam", ".col");
+        try {
+            ColumnFile.save(file, doubles, true);
+            var column = ColumnFile.load(file);
+            assertEquals(ColumnFile.DataType.DOUBLE, column.type());
+            assertArrayEquals(doubles, column.doubles(), "Doubles are corrupted.");
+            assertNotNull(column.summary(), "The summary is lost.");
+            assertEquals(Sum.sum(doubles), column.sum(), "The stored sum differs.");
+            assertEquals(Mean.mean(doubles), column.mean(), "The stored mean differs.");
+            assertEquals(Sum.sum(doubles), ColumnFile.summary(file).sum(), "Header-only read fails.");
+            assertThrows(IllegalStateException.class, column::ints);
+
+            ColumnFile.save(file, ints, false);
+            column = ColumnFile.load(file);
+            assertArrayEquals(ints, column.ints(), "Ints are corrupted.");
+            assertNull(column.summary(), "The summary must be absent.");
+            assertEquals(Sum.sum(Arrays.stream(ints).asDoubleStream()), column.sum(), "Sum of ints differs.");
+
+            ColumnFile.save(file, longs, true);
+            column = ColumnFile.load(file);
+            assertArrayEquals(longs, column.longs(), "Longs are corrupted.");
+            assertEquals(101, column.summary().count());
+
+            ColumnFile.save(file, new double[]{}, true);
+            column = ColumnFile.load(file);
+            assertEquals(0, column.length());
+            assertEquals(0., column.sum());
+            assertThrows(IllegalArgumentException.class, column::mean);
+
+            Files.writeString(file, "not a column file, definitely not a column file, not at all, nope, no");
+            assertThrows(IllegalArgumentException.class, () -> ColumnFile.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Accumulation continues from the stored summary")
+    void accumulator() {
+        val summary = new ColumnFile.Summary(2, 1e100, 0.);
+        val acc = summary.accumulator();
+        acc.sum(1., -1e100);
+        assertEquals(1., acc.getSum(), "The restored state is broken.");
+    }
+}
@@ -0,0 +1,102 @@
+package jamjam.io;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericCsvReaderTest {
+
+    private static ByteBuffer bytes(final String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    @DisplayName("Parsing of individual values")
+    void parseDouble() {
+        val values = new String[]{"0", "-0", "+1", "1.5", "-177.435000000000", " 277.332168044316", "1e10", "1E-5",
+            "-0.307304800605679", "10000000.2", ".5", "5.", "123456789012345678901234567890", "4.9e-324",
+            "1.7976931348623157e308", "0.1", "9007199254740993", "NaN", "-Infinity", "2.2250738585072014E-308"};
+        for (val v : values) {
+            val buffer = bytes(v);
+            assertEquals(Double.parseDouble(v), NumericCsvReader.parseDouble(buffer, 0, buffer.limit(), 1, 1),
+                "Parsing of " + v + " fails.");
+        }
+
+        val generator = new Random(0);
+        for (var i = 0; i < 10_000; i++) {
+            val v = Double.toString(generator.nextGaussian() * Math.pow(10, generator.nextInt(40) - 20));
+            val buffer = bytes(v);
+            assertEquals(Double.parseDouble(v), NumericCsvReader.parseDouble(buffer, 0, buffer.limit(), 1, 1),
+                "Parsing of " + v + " fails.");
+        }
+    }
+
+    @Test
+    @DisplayName("Reading multiple columns")
+    void read() {
+        val columns = NumericCsvReader.read(bytes("x;y\n1;2\r\n\n 3 ; 4\n"), ';', 1);
+        assertEquals(2, columns.length, "Wrong number of columns.");
+        assertArrayEquals(new double[]{1., 3.}, columns[0].toArray());
+        assertArrayEquals(new double[]{2., 4.}, columns[1].toArray());
+
+        assertEquals(0, NumericCsvReader.read(bytes(""), ',', 0).length, "Empty input must have no columns.");
+        assertEquals(0, NumericCsvReader.read(bytes("a,b\n"), ',', 1).length, "Header only input has no columns.");
+
+        assertThrows(IllegalArgumentException.class, () -> NumericCsvReader.read(bytes("1"), '.', 0));
+        assertThrows(IllegalArgumentException.class, () -> NumericCsvReader.read(bytes("1"), ',', -1));
+    }
+
+    @Test
+    @DisplayName("Malformed values are located")
+    void malformed() {
+        var e = assertThrows(MalformedValueException.class,
+            () -> NumericCsvReader.read(bytes("h\n1,2\n3,x\n"), ',', 1));
+        assertEquals(3, e.getRow(), "Wrong row.");
+        assertEquals(2, e.getColumn(), "Wrong column.");
+
+        e = assertThrows(MalformedValueException.class, () -> NumericCsvReader.read(bytes("1,2\n3\n"), ',', 0));
+        assertEquals(2, e.getRow(), "Wrong row.");
+
+        e = assertThrows(MalformedValueException.class, () -> NumericCsvReader.read(bytes("1,2\n3,4,5\n"), ',', 0));
+        assertEquals(3, e.getColumn(), "Wrong column.");
+
+        assertThrows(MalformedValueException.class, () -> NumericCsvReader.read(bytes("1,,2\n"), ',', 0));
+    }
+
+    @Test
+    @DisplayName("Large inputs are parsed in chunks")
+    void chunks() throws IOException {
+        val generator = new Random(0);
+        val rows = 300_000;
+        val expected = new double[rows];
+        val text = new StringBuilder();
+        for (var i = 0; i < rows; i++) {
+            expected[i] = generator.nextDouble();
+            text.append(i).append(',').append(expected[i]).append('\n');
+        }
+
+        val columns = NumericCsvReader.read(bytes(text.toString()), ',', 0);
+        assertArrayEquals(expected, columns[1].toArray(), "Chunked parsing fails.");
+        assertEquals(rows - 1., columns[0].get(rows - 1), "Chunks are out of order.");
+
+        val file = Files.createTempFile("jamjam", ".csv");
+        try {
+            Files.writeString(file, "value\n" + text);
+            assertArrayEquals(expected, NumericCsvReader.read(file, ',', 1)[1].toArray(), "File parsing fails.");
+
+            Files.writeString(file, text + "1,oops\n");
+            val e = assertThrows(MalformedValueException.class, () -> NumericCsvReader.read(file, ',', 0));
+            assertEquals(rows + 1, e.getRow(), "Wrong row in the last chunk.");
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
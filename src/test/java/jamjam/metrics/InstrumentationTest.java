@@ -0,0 +1,93 @@
+package jamjam.metrics;
+
+import jamjam.Sum;
+import jamjam.Variance;
+import jamjam.arrays.Product;
+import jamjam.probability.Metric;
+import jamjam.probability.SparseDistribution;
+import jamjam.probability.StatisticalDistance;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.DoubleStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentationTest {
+    record Call(String kernel, CodePath path, long elements, long nanos) {
+    }
+
+    static List<Call> install() {
+        val calls = new ArrayList<Call>();
+        Instrumentation.install((kernel, path, elements, nanos) ->
+            calls.add(new Call(kernel, path, elements, nanos)));
+        return calls;
+    }
+
+    @AfterEach
+    void tearDown() {
+        Instrumentation.install(null);
+    }
+
+    @Test
+    @DisplayName("Test that kernels report calls, sizes and code paths")
+    void record() {
+        val calls = install();
+        assertTrue(Instrumentation.isEnabled(), "Metrics must be enabled.");
+
+        Sum.sum(new double[]{1., 2., 3.});
+        assertEquals(new Call("Sum.sum", CodePath.SCALAR, 3, calls.get(0).nanos()), calls.get(0));
+        assertTrue(calls.get(0).nanos() >= 0, "Wall time can't be negative.");
+
+        Sum.sum(DoubleStream.of(1., 2.));
+        assertEquals(2, calls.get(1).elements(), "Stream elements must be counted.");
+
+        calls.clear();
+        Product.product(new double[10], new double[10]);
+        Product.product(new double[10_000], new double[10_000]);
+        assertEquals(List.of(CodePath.SCALAR, CodePath.VECTOR), calls.stream().map(Call::path).toList(),
+            "The vector path must be reported for large arrays only.");
+
+        calls.clear();
+        Variance.unweightedUnbiasedVariance(new double[]{1., 2., 4.});
+        assertEquals("Variance.unweightedUnbiasedVariance", calls.get(calls.size() - 1).kernel(),
+            "The variance is reported after kernels it is made of.");
+        assertTrue(calls.stream().anyMatch(c -> c.kernel().equals("Sum.broadcastSub")), "Nested calls are lost.");
+
+        calls.clear();
+        StatisticalDistance.HellingerDistance(new double[]{0.5, 0.5}, new double[]{0.25, 0.75}, false);
+        StatisticalDistance.distance(Metric.TOTAL_VARIATION, SparseDistribution.of(0.5, 0., 0.5),
+            SparseDistribution.of(0., 0.5, 0.5), false);
+        assertEquals(List.of(new Call("StatisticalDistance.HELLINGER", CodePath.VECTOR, 2, calls.get(0).nanos()),
+                new Call("StatisticalDistance.TOTAL_VARIATION", CodePath.SCALAR, 4, calls.get(1).nanos())), calls,
+            "Distances are not reported properly.");
+
+        calls.clear();
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.HellingerDistance(new double[]{0.5, 0.6}, new double[]{0.5, 0.5}, false));
+        assertTrue(calls.isEmpty(), "Failed calls must not be reported.");
+    }
+
+    @Test
+    @DisplayName("Test disabled instrumentation")
+    void disabled() {
+        val calls = install();
+        Instrumentation.install(null);
+        assertFalse(Instrumentation.isEnabled(), "Metrics must be disabled.");
+        assertSame(KernelMetrics.NOOP, Instrumentation.current(), "Disabled metrics must be the no-op ones.");
+        assertNull(Instrumentation.start(new SummationEvent()), "Disabled events must not be started.");
+        Sum.sum(new double[]{1., 2.});
+        assertTrue(calls.isEmpty(), "Nothing must be reported.");
+    }
+
+    @Test
+    @DisplayName("Test loading metrics by name")
+    void load() {
+        assertSame(KernelMetrics.NOOP, Instrumentation.load(null), "Metrics are disabled by default.");
+        assertSame(KernelMetrics.NOOP, Instrumentation.load("com.example.Missing"), "Unknown metrics are ignored.");
+    }
+}
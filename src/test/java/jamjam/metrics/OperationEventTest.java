@@ -0,0 +1,89 @@
+package jamjam.metrics;
+
+import jamjam.Sum;
+import jamjam.Variance;
+import jamjam.arrays.LinearSpace;
+import jamjam.probability.StatisticalDistance;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OperationEventTest {
+    static List<RecordedEvent> events(final Path file, final String name) throws IOException {
+        return RecordingFile.readAllEvents(file).stream()
+            .filter(e -> e.getEventType().getName().equals(name)).toList();
+    }
+
+    @Test
+    @DisplayName("Test that kernel calls become flight recorder events")
+    void record() throws IOException {
+        val file = Files.createTempFile("jamjam", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable(SummationEvent.class);
+            recording.enable(VarianceEvent.class);
+            recording.enable(ProductEvent.class);
+            recording.enable(DivergenceEvent.class);
+            recording.enable(GridEvent.class);
+            recording.start();
+            assertFalse(Instrumentation.isEnabled(), "Events must not depend on kernel metrics.");
+            Sum.sum(new double[]{1., 2., 3., 4.});
+            Variance.unweightedUnbiasedVariance(new double[]{1., 2., 4.});
+            StatisticalDistance.HellingerDistance(new double[]{0.5, 0.5}, new double[]{0.25, 0.75}, false);
+            LinearSpace.linspace(0., 1., 11, true);
+            recording.stop();
+            recording.dump(file);
+
+            val sums = events(file, "jamjam.Summation");
+            val sum = sums.get(0);
+            assertEquals("Sum.sum", sum.getString("kernel"), "Wrong kernel name.");
+            assertEquals("SCALAR", sum.getString("path"), "Wrong code path.");
+            assertEquals(4L, sum.getLong("length"), "Wrong array length.");
+            assertEquals(0L, sum.getLong("allocated"), "Summation doesn't allocate.");
+            assertFalse(sum.getDuration().isNegative(), "Wrong duration.");
+
+            assertTrue(sums.stream().anyMatch(e -> e.getString("kernel").equals("Sum.broadcastSub")
+                && e.getLong("allocated") == 24L), "Scratch buffers of nested calls are lost.");
+            val variance = events(file, "jamjam.Variance");
+            assertEquals(1, variance.size(), "There must be exactly one variance event.");
+            assertEquals(24L, variance.get(0).getLong("allocated"), "Wrong scratch size of the variance.");
+            assertEquals(1, events(file, "jamjam.Product").size(), "There must be exactly one product event.");
+            assertEquals("StatisticalDistance.HELLINGER",
+                events(file, "jamjam.Divergence").get(0).getString("kernel"), "Wrong divergence kernel.");
+            val grid = events(file, "jamjam.Grid").get(0);
+            assertEquals(11L, grid.getLong("length"), "Wrong grid length.");
+            assertEquals(88L, grid.getLong("allocated"), "Wrong grid size.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Test that disabled events are not started")
+    void disabled() throws IOException {
+        val file = Files.createTempFile("jamjam", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable(SummationEvent.class);
+            recording.disable(VarianceEvent.class);
+            recording.start();
+            assertNull(Instrumentation.start(new VarianceEvent()), "Disabled events must not be started.");
+            assertNotNull(Instrumentation.start(new SummationEvent()), "Enabled events must be started.");
+            Variance.unweightedBiasedVariance(new double[]{1., 2.});
+            recording.stop();
+            recording.dump(file);
+            assertTrue(events(file, "jamjam.Variance").isEmpty(), "Disabled events must not be recorded.");
+            assertFalse(events(file, "jamjam.Summation").isEmpty(), "Enabled events must be recorded.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package jamjam.probability;
+
+import jamjam.aux.Utils;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AliasSamplerTest {
+
+    static double[] frequencies(final int[] outcomes, final int size) {
+        val histogram = Histogram.linspace(0., size, size);
+        for (val outcome : outcomes) histogram.add(outcome + 0.5);
+        return histogram.toDistribution();
+    }
+
+    @Test
+    @DisplayName("Test that draws follow the distribution")
+    void sample() {
+        val distribution = BatchDistanceTest.distributions(1, 50, 0)[0];
+        val sampler = new AliasSampler(distribution);
+        assertEquals(50, sampler.size());
+
+        val out = new int[1_000_000];
+        sampler.sample(out, new Random(1));
+        val frequencies = frequencies(out, distribution.length);
+        for (var i = 0; i < distribution.length; i++)
+            assertEquals(distribution[i], frequencies[i], 5. * Math.sqrt(distribution[i] / out.length) + 1e-12,
+                "Frequency of outcome " + i + " is off.");
+        assertTrue(StatisticalDistance.KullbackLeiblerDivergence(distribution, frequencies) < 1e-4,
+            "Sample must match the distribution.");
+
+        val single = new AliasSampler(new double[]{0., 1., 0.});
+        val generator = new Random(2);
+        for (var i = 0; i < 1000; i++) assertEquals(1, single.sample(generator), "Impossible outcome is drawn.");
+    }
+
+    @Test
+    @DisplayName("Test parallel sampling")
+    void parallelSample() {
+        val distribution = BatchDistanceTest.distributions(1, 7, 3)[0];
+        val sampler = new AliasSampler(distribution);
+        val first = new int[AliasSampler.CHUNK_SIZE * 5 + 3];
+        val second = new int[first.length];
+        sampler.parallelSample(first, 42L);
+        sampler.parallelSample(second, Utils.splittableGenerator(42L));
+        assertArrayEquals(first, second, "Parallel sampling must be reproducible.");
+
+        val frequencies = frequencies(first, distribution.length);
+        for (var i = 0; i < distribution.length; i++)
+            assertEquals(distribution[i], frequencies[i], 5. * Math.sqrt(distribution[i] / first.length) + 1e-12);
+
+        sampler.sample(second);
+        for (val outcome : second) assertTrue(outcome >= 0 && outcome < distribution.length);
+    }
+
+    @Test
+    @DisplayName("Test validation")
+    void validation() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[]{1.}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasSampler(new double[]{0.5, 0.6}));
+        assertEquals(2, new AliasSampler(new double[]{0.5, 0.6}, true).size(), "Trusted input is not validated.");
+    }
+}
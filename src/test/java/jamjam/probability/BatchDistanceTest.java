@@ -0,0 +1,77 @@
+package jamjam.probability;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchDistanceTest {
+
+    static double[][] distributions(final int count, final int length, final long seed) {
+        val generator = new Random(seed);
+        val result = new double[count][length];
+        for (val distribution : result) {
+            for (var i = 0; i < length; i++) distribution[i] = i % 5 == 0 ? 0. : generator.nextDouble();
+            StatisticalDistanceTest.normalize(distribution);
+        }
+        return result;
+    }
+
+    @Test
+    void kullbackLeiblerDivergence() {
+        val candidates = distributions(50, 37, 0);
+        val reference = candidates[7];
+
+        val result = BatchDistance.KullbackLeiblerDivergence(reference, candidates, true);
+        for (var j = 0; j < candidates.length; j++)
+            assertEquals(StatisticalDistanceTest.naive(reference, candidates[j]), result[j], 1e-14,
+                "Batch result differs from the single one.");
+        assertEquals(Double.MIN_NORMAL, result[7], 1e-16, "Self-divergence must be trimmed to zero.");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> BatchDistance.KullbackLeiblerDivergence(reference, candidates, new double[1], true),
+            "Output size check fails.");
+        assertThrows(IllegalArgumentException.class,
+            () -> BatchDistance.KullbackLeiblerDivergence(reference, new double[][]{{0.5, 0.5}}, true),
+            "Shape check fails.");
+        assertThrows(IllegalArgumentException.class,
+            () -> BatchDistance.KullbackLeiblerDivergence(new double[]{0.5, 0.5}, new double[][]{{1.5, -0.5}}, false),
+            "Candidates are not validated.");
+    }
+
+    @Test
+    void kullbackLeiblerDivergenceMatrix() {
+        val distributions = distributions(20, 41, 1);
+        val matrix = BatchDistance.KullbackLeiblerDivergenceMatrix(distributions, true);
+        for (var i = 0; i < distributions.length; i++)
+            for (var j = 0; j < distributions.length; j++)
+                assertEquals(StatisticalDistanceTest.naive(distributions[i], distributions[j]), matrix[i][j], 1e-14,
+                    "Matrix element differs from the single one.");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> BatchDistance.KullbackLeiblerDivergenceMatrix(new double[][]{{0.5, 0.5}, {0.5, 0.6}}, false),
+            "Distributions are not validated.");
+        assertEquals(0, BatchDistance.KullbackLeiblerDivergenceMatrix(new double[][]{}, false).length);
+    }
+
+    @Test
+    void distance() {
+        val distributions = distributions(15, 29, 2);
+        for (val metric : Metric.values()) {
+            val batch = BatchDistance.distance(metric, distributions[3], distributions, false);
+            val matrix = BatchDistance.distanceMatrix(metric, distributions, false);
+            for (var i = 0; i < distributions.length; i++) {
+                assertEquals(StatisticalDistance.distance(metric, distributions[3], distributions[i], true), batch[i],
+                    1e-14, "Batch result differs for " + metric);
+                for (var j = 0; j < distributions.length; j++)
+                    assertEquals(StatisticalDistance.distance(metric, distributions[i], distributions[j], true),
+                        matrix[i][j], 1e-14, "Matrix element differs for " + metric);
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+            () -> BatchDistance.distance(Metric.HELLINGER, new double[]{0.5, 0.5}, new double[][]{{1.5, -0.5}},
+                false), "Candidates are not validated.");
+    }
+}
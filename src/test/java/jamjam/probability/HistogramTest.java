@@ -0,0 +1,109 @@
+package jamjam.probability;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    @DisplayName("Test binning into uniform bins")
+    void linspace() {
+        val histogram = Histogram.linspace(0., 1., 10);
+        assertEquals(10, histogram.bins());
+        assertEquals(0, histogram.binIndex(0.));
+        assertEquals(1, histogram.binIndex(0.1), "Left edges belong to their bins.");
+        assertEquals(2, histogram.binIndex(0.3 - 1e-17), "The estimate must be corrected by edges.");
+        assertEquals(9, histogram.binIndex(1.), "The last bin is closed.");
+        assertEquals(-1, histogram.binIndex(Math.nextUp(1.)));
+        assertEquals(-1, histogram.binIndex(-0.1));
+
+        histogram.addAll(-1., 0.05, 0.05, 0.55, 1., 2., Double.NaN);
+        assertArrayEquals(new long[]{2, 0, 0, 0, 0, 1, 0, 0, 0, 1}, histogram.counts());
+        assertEquals(4, histogram.total());
+        assertEquals(1, histogram.underflow());
+        assertEquals(1, histogram.overflow());
+        assertEquals(1, histogram.nanCount());
+
+        val edges = histogram.edges();
+        val generator = new Random(0);
+        for (var i = 0; i < 100_000; i++) {
+            val x = generator.nextDouble();
+            val k = histogram.binIndex(x);
+            assertTrue(edges[k] <= x && x < edges[k + 1], "Arithmetic binning disagrees with edges.");
+        }
+    }
+
+    @Test
+    @DisplayName("Test arange, arbitrary and adaptive bins")
+    void edges() {
+        assertArrayEquals(new double[]{0., 0.25, 0.5, 0.75, 1.}, Histogram.arange(0., 1., 0.25).edges());
+        val histogram = Histogram.arange(0., 1., 0.3);
+        assertEquals(4, histogram.bins(), "The last bin must be narrower.");
+        assertEquals(3, histogram.binIndex(0.95));
+        assertEquals(2, histogram.binIndex(0.9 - 1e-12));
+
+        val custom = new Histogram(new double[]{0., 1., 10., 100.});
+        assertEquals(1, custom.binIndex(1.));
+        assertEquals(2, custom.binIndex(100.));
+
+        val sample = new Random(1).doubles(10_001).map(x -> x * x * x).toArray();
+        val adaptive = Histogram.adaptive(sample, 10).addAll(sample);
+        for (val count : adaptive.counts()) assertEquals(1000., count, 2., "Bins must hold equal mass.");
+        assertEquals(2, Histogram.adaptive(new double[]{0., 0., 0., 1., 2.}, 4).bins(), "Ties must be collapsed.");
+
+        assertThrows(IllegalArgumentException.class, () -> new Histogram(new double[]{0., 0.}));
+        assertThrows(IllegalArgumentException.class, () -> Histogram.arange(1., 0., 0.1));
+        assertThrows(IllegalArgumentException.class, () -> Histogram.linspace(0., 1., 0));
+    }
+
+    @Test
+    @DisplayName("Test parallel ingestion and merging")
+    void merge() {
+        val x = new Random(2).doubles(Histogram.PARALLEL_THRESHOLD * 2 + 17).map(v -> 4. * v - 2.).toArray();
+        val sequential = Histogram.linspace(-1., 1., 64);
+        for (val v : x) sequential.add(v);
+
+        assertArrayEquals(sequential.counts(), sequential.emptyCopy().addAll(x).counts(),
+            "Parallel binning must give the same counts.");
+        assertArrayEquals(sequential.counts(), sequential.emptyCopy().addAll(Arrays.stream(x).parallel()).counts(),
+            "Stream binning must give the same counts.");
+
+        val left = sequential.emptyCopy().addAll(Arrays.copyOfRange(x, 0, 1000));
+        val right = sequential.emptyCopy().addAll(Arrays.copyOfRange(x, 1000, x.length));
+        assertArrayEquals(sequential.counts(), left.merge(right).counts(), "Merged counts differ.");
+        assertEquals(sequential.underflow(), left.underflow());
+
+        assertThrows(IllegalArgumentException.class, () -> left.merge(Histogram.linspace(-1., 1., 63)));
+    }
+
+    @Test
+    @DisplayName("Test normalization")
+    void toDistribution() {
+        val generator = new Random(3);
+        for (var trial = 0; trial < 100; trial++) {
+            val histogram = Histogram.linspace(0., 1., 1 + generator.nextInt(1000));
+            for (var i = 0; i < 1 + generator.nextInt(10_000); i++) histogram.add(generator.nextDouble());
+            val distribution = histogram.toDistribution();
+            DivergenceKernel.validate(distribution);
+            for (var k = 0; k < distribution.length; k++)
+                assertEquals((double) histogram.count(k) / histogram.total(), distribution[k], 1e-14);
+        }
+
+        val p = Histogram.linspace(0., 1., 4).addAll(0.1, 0.3, 0.6, 0.9);
+        val q = Histogram.linspace(0., 1., 4).addAll(0.1, 0.1);
+        assertEquals(0.25, p.toDistribution()[0]);
+        assertEquals(0.125, q.toDistribution(0.5)[3], 1e-15, "Smoothing must add mass to empty bins.");
+        assertTrue(Double.isFinite(StatisticalDistance.KullbackLeiblerDivergence(p.toDistribution(),
+            q.toDistribution(0.5))), "Histograms must be ready for divergences.");
+        assertEquals(1, q.toSparseDistribution().storedCount());
+
+        assertThrows(IllegalArgumentException.class, () -> Histogram.linspace(0., 1., 4).toDistribution(),
+            "Empty histograms can't be normalized.");
+    }
+}
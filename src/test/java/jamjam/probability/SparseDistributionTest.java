@@ -0,0 +1,81 @@
+package jamjam.probability;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SparseDistributionTest {
+
+    /**
+     * A distribution with a few runs of non-zero mass, the rest is empty.
+     */
+    static double[] sparse(final int size, final long seed) {
+        val generator = new Random(seed);
+        val result = new double[size];
+        for (var run = 0; run < 5; run++) {
+            val start = generator.nextInt(size - 10);
+            for (var i = start; i < start + generator.nextInt(10); i++) result[i] = generator.nextDouble();
+        }
+        result[generator.nextInt(size)] = 1.;
+        StatisticalDistanceTest.normalize(result);
+        return result;
+    }
+
+    @Test
+    @DisplayName("Test conversion and access")
+    void construction() {
+        val dense = new double[]{0., 0.25, 0., 0., 0.75};
+        val sparse = SparseDistribution.of(dense);
+        assertEquals(5, sparse.size(), "Size must include impossible outcomes.");
+        assertEquals(2, sparse.storedCount(), "Zeros must be dropped.");
+        assertEquals(4, sparse.index(1));
+        assertEquals(0.25, sparse.value(0));
+        assertEquals(0.75, sparse.get(4));
+        assertEquals(0., sparse.get(2));
+        assertArrayEquals(dense, sparse.toDense(), "Round trip must be exact.");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> sparse.get(5));
+        assertThrows(IllegalArgumentException.class,
+            () -> new SparseDistribution(5, new int[]{1, 1}, new double[]{0.5, 0.5}), "Duplicates are not allowed.");
+        assertThrows(IllegalArgumentException.class,
+            () -> new SparseDistribution(5, new int[]{5}, new double[]{1.}), "Indices must be within the size.");
+        assertThrows(IllegalArgumentException.class,
+            () -> new SparseDistribution(5, new int[]{1}, new double[]{0.5, 0.5}), "Lengths must match.");
+    }
+
+    @Test
+    @DisplayName("Test that sparse distances equal dense ones")
+    void distance() {
+        val size = 10_000;
+        val p = sparse(size, 0);
+        val q = sparse(size, 1);
+        val support = new double[size];
+        for (var i = 0; i < size; i++) support[i] = Math.sqrt(i);
+
+        for (val metric : Metric.values()) {
+            val dense = StatisticalDistance.distance(metric, p, q, false);
+            val result = StatisticalDistance.distance(metric, SparseDistribution.of(p), SparseDistribution.of(q),
+                false);
+            assertEquals(dense, result, 1e-12 * Math.max(1., Math.abs(dense)), "Sparse result differs for " + metric);
+            assertEquals(StatisticalDistance.distance(metric, p, p, false),
+                StatisticalDistance.distance(metric, SparseDistribution.of(p), SparseDistribution.of(p), false),
+                1e-15, "Self-distance differs for " + metric);
+        }
+
+        val kernel = new DivergenceKernel.Wasserstein(true, true, support);
+        kernel.merge(SparseDistribution.of(p), SparseDistribution.of(q));
+        assertEquals(StatisticalDistance.WassersteinDistance(p, q, support, false), kernel.result(), 1e-12,
+            "Gaps must be weighted by the support.");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.KullbackLeiblerDivergence(SparseDistribution.of(p),
+                new SparseDistribution(size, new int[]{0}, new double[]{0.5}), false), "Sums are not validated.");
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.KullbackLeiblerDivergence(SparseDistribution.of(p),
+                new SparseDistribution(size + 1, new int[]{0}, new double[]{1.}), true), "Sizes are not checked.");
+    }
+}
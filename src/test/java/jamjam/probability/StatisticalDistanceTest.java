@@ -1,8 +1,15 @@
 package jamjam.probability;
 
+import jamjam.Sum;
 import lombok.val;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+import java.util.Random;
+
+import static jamjam.aux.Utils.trim;
+import static java.lang.StrictMath.log10;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class StatisticalDistanceTest {
@@ -64,4 +71,183 @@ class StatisticalDistanceTest {
         assertThrows(IllegalArgumentException.class,
             () -> StatisticalDistance.KullbackLeiblerDivergence(new double[]{0.5, 0.5}, new double[]{2.5, -1.5}));
     }
+
+    @Test
+    void kullbackLeiblerDivergenceFused() {
+        val generator = new Random(0);
+        for (val length : new int[]{2, 3, 7, 8, 31, 1000, 1001}) {
+            val reference = new double[length];
+            val actual = new double[length];
+            for (var i = 0; i < length; i++) {
+                reference[i] = i % 3 == 0 ? 0. : generator.nextDouble();
+                actual[i] = generator.nextDouble();
+            }
+            normalize(reference);
+            normalize(actual);
+
+            val expected = naive(reference, actual);
+            assertEquals(expected, StatisticalDistance.KullbackLeiblerDivergence(reference, actual, true),
+                1e-14 * expected, "Trusted mode diverges from the naive implementation.");
+            assertEquals(expected, StatisticalDistance.KullbackLeiblerDivergence(reference, actual),
+                1e-14 * expected, "Validated mode diverges from the naive implementation.");
+        }
+
+        val invalid = new double[64];
+        invalid[10] = 2.;
+        invalid[11] = -1.;
+        val uniform = new double[64];
+        Arrays.fill(uniform, 1. / 64);
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.KullbackLeiblerDivergence(uniform, invalid),
+            "Vectorized range check fails.");
+        assertTrue(Double.isFinite(StatisticalDistance.KullbackLeiblerDivergence(uniform, invalid, true)),
+            "Trusted mode must skip validation.");
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.KullbackLeiblerDivergence(new double[]{1}, new double[]{1}, true),
+            "Shape checks can't be skipped.");
+    }
+
+    @Test
+    void extendedMetrics() {
+        for (val length : new int[]{2, 37, 2 * DivergenceKernel.BLOCK_SIZE + 13}) {
+            val d = BatchDistanceTest.distributions(2, length, length);
+            val p = d[0];
+            val q = d[1];
+            val js = new double[length];
+            val hellinger = new double[length];
+            val coefficient = new double[length];
+            val variation = new double[length];
+            val chi = new double[length];
+            val cdf = new double[length];
+            val pCdf = Sum.cumulativeSum(p);
+            val qCdf = Sum.cumulativeSum(q);
+            for (var i = 0; i < length; i++) {
+                val m = trim(0.5 * (p[i] + q[i]));
+                js[i] = 0.5 * (p[i] * log10(trim(p[i]) / m) + q[i] * log10(trim(q[i]) / m));
+                hellinger[i] = (Math.sqrt(p[i]) - Math.sqrt(q[i])) * (Math.sqrt(p[i]) - Math.sqrt(q[i]));
+                coefficient[i] = Math.sqrt(p[i] * q[i]);
+                variation[i] = Math.abs(p[i] - q[i]);
+                chi[i] = p[i] == q[i] ? 0. : (q[i] - p[i]) * (q[i] - p[i]) / p[i];
+                cdf[i] = Math.abs(pCdf[i] - qCdf[i]);
+            }
+
+            assertEquals(trim(Sum.sum(js)), StatisticalDistance.JensenShannonDivergence(p, q, false), 1e-14,
+                "Jensen-Shannon divergence is wrong.");
+            assertEquals(Math.sqrt(0.5 * Sum.sum(hellinger)), StatisticalDistance.HellingerDistance(p, q, false),
+                1e-14, "Hellinger distance is wrong.");
+            assertEquals(-Math.log(Sum.sum(coefficient)), StatisticalDistance.BhattacharyyaDistance(p, q, false),
+                1e-14, "Bhattacharyya distance is wrong.");
+            assertEquals(0.5 * Sum.sum(variation), StatisticalDistance.TotalVariationDistance(p, q, false), 1e-14,
+                "Total variation distance is wrong.");
+            assertEquals(Sum.sum(chi), StatisticalDistance.ChiSquaredDivergence(p, q, false),
+                1e-12 * Sum.sum(chi), "Chi-squared divergence is wrong.");
+            assertEquals(Sum.sum(cdf), StatisticalDistance.WassersteinDistance(p, q, false), 1e-12,
+                "Wasserstein distance is wrong.");
+
+            for (val metric : Metric.values()) {
+                val accumulator = new DistanceAccumulator(metric, false);
+                for (var from = 0; from < length; from += 7)
+                    accumulator.update(p, q, from, Math.min(from + 7, length));
+                assertEquals(StatisticalDistance.distance(metric, p, q, false), accumulator.getDistance(),
+                    1e-12 * Math.max(1., Math.abs(accumulator.getDistance())),
+                    "Streaming result differs for " + metric);
+                if (metric.isSymmetric())
+                    assertEquals(StatisticalDistance.distance(metric, p, q, true),
+                        StatisticalDistance.distance(metric, q, p, true), 1e-14, metric + " must be symmetric.");
+            }
+        }
+    }
+
+    @Test
+    void extendedMetricsKnownValues() {
+        val p = new double[]{1., 0., 0., 0.};
+        val q = new double[]{0., 0., 0., 1.};
+        assertEquals(log10(2.), StatisticalDistance.JensenShannonDivergence(p, q, false), 1e-15,
+            "Disjoint supports must give the maximum divergence.");
+        assertEquals(1., StatisticalDistance.HellingerDistance(p, q, false), 1e-15,
+            "Disjoint supports must give the maximum distance.");
+        assertEquals(Double.POSITIVE_INFINITY, StatisticalDistance.BhattacharyyaDistance(p, q, false),
+            "Disjoint supports must give an infinite distance.");
+        assertEquals(1., StatisticalDistance.TotalVariationDistance(p, q, false), 1e-15,
+            "Disjoint supports must give the maximum distance.");
+        assertEquals(Double.POSITIVE_INFINITY, StatisticalDistance.ChiSquaredDivergence(p, q, false),
+            "Impossible outcomes must give an infinite divergence.");
+        assertEquals(3., StatisticalDistance.WassersteinDistance(p, q, false), 1e-15,
+            "The whole mass is moved by 3.");
+        assertEquals(0.75, StatisticalDistance.WassersteinDistance(p, q, new double[]{0., 0.25, 0.5, 0.75}, false),
+            1e-15, "The whole mass is moved by 0.75.");
+
+        for (val metric : Metric.values())
+            if (metric != Metric.KULLBACK_LEIBLER && metric != Metric.JENSEN_SHANNON)
+                assertEquals(0., StatisticalDistance.distance(metric, p, p, false), 1e-15,
+                    metric + " of equal distributions must be zero.");
+
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.WassersteinDistance(p, q, new double[]{1., 0., 2., 3.}, false),
+            "Support order is not checked.");
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.HellingerDistance(p, new double[]{0.5, 0.5, 0.5, 0.}, false),
+            "Sums are not validated.");
+        assertThrows(IllegalArgumentException.class,
+            () -> new DistanceAccumulator(Metric.HELLINGER, true).update(p, q, 0, 1).getDistance(),
+            "A single outcome must be rejected.");
+    }
+
+    /**
+     * Scales values so that they add up to 1, the last one absorbs the rounding error.
+     */
+    static void normalize(final double[] x) {
+        val total = Sum.sum(x);
+        for (var i = 0; i < x.length; i++) x[i] /= total;
+        x[x.length - 1] = 0.;
+        x[x.length - 1] = Math.max(0., 1. - Sum.sum(x));
+        double sum;
+        for (var i = 0; i < Long.SIZE && (sum = Sum.sum(x)) != 1.; i++)
+            x[x.length - 1] = sum > 1. ? Math.nextDown(x[x.length - 1]) : Math.nextUp(x[x.length - 1]);
+        assertEquals(1., Sum.sum(x), "Normalized distributions must sum up to exactly 1.");
+    }
+
+    static double naive(final double[] reference, final double[] actual) {
+        val temp = new double[reference.length];
+        for (var i = 0; i < reference.length; i++)
+            temp[i] = reference[i] * log10(trim(reference[i]) / trim(actual[i]));
+        return trim(Sum.sum(temp));
+    }
+
+    @Test
+    void distanceFloat() {
+        val generator = new Random(13);
+        val size = 3000;
+        val reference = new float[size];
+        val actual = new float[size];
+        // Multiples of 2^-20 add up to 1 exactly in both precisions
+        reference[0] = actual[0] = 1f;
+        for (var i = 1; i < size; i++) {
+            reference[i] = Math.scalb((float) generator.nextInt(1, 256), -20);
+            actual[i] = Math.scalb((float) generator.nextInt(1, 256), -20);
+            reference[0] -= reference[i];
+            actual[0] -= actual[i];
+        }
+        val widenedReference = new double[size];
+        val widenedActual = new double[size];
+        for (var i = 0; i < size; i++) {
+            widenedReference[i] = reference[i];
+            widenedActual[i] = actual[i];
+        }
+        for (val metric : Metric.values()) {
+            val expected = StatisticalDistance.distance(metric, widenedReference, widenedActual, true);
+            assertEquals(expected, StatisticalDistance.distance(metric, reference, actual, false),
+                Math.abs(expected) * 1e-12, "Floats must give the same distance for " + metric);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.distance(Metric.HELLINGER, new float[]{0.5f, 0.6f}, new float[]{0.5f, 0.5f},
+                false), "Distributions of floats must add up to 1.");
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.distance(Metric.HELLINGER, new float[]{1f}, new float[]{1f}, false),
+            "Distributions with one outcome only are not filtered out.");
+        assertThrows(IllegalArgumentException.class,
+            () -> StatisticalDistance.distance(Metric.HELLINGER, new float[2], new float[3], true),
+            "Check for uneven input shapes fails.");
+    }
 }
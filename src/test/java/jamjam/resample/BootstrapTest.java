@@ -0,0 +1,58 @@
+package jamjam.resample;
+
+import jamjam.Mean;
+import jamjam.Variance;
+import jamjam.aux.Utils;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BootstrapTest {
+
+    @Test
+    @DisplayName("Test statistics over counts against weighted moments")
+    void statistics() {
+        val generator = new Random(0);
+        val x = generator.doubles(1000).map(v -> 1e3 + v).toArray();
+        val counts = new int[x.length];
+        for (var trial = 0; trial < 20; trial++) {
+            Bootstrap.resample(counts, generator);
+            assertEquals(x.length, Arrays.stream(counts).sum(), "Counts must add up to the sample size.");
+            val weights = Arrays.stream(counts).asDoubleStream().toArray();
+            assertEquals(Mean.weightedMean(x, weights), Bootstrap.MEAN.apply(x, counts), 1e-12);
+            assertEquals(Variance.weightedUnbiasedVariance(x, counts), Bootstrap.VARIANCE.apply(x, counts), 1e-12);
+            assertEquals(Math.sqrt(Variance.weightedUnbiasedVariance(x, counts)),
+                Bootstrap.STANDARD_DEVIATION.apply(x, counts), 1e-12);
+        }
+    }
+
+    @Test
+    @DisplayName("Test replicates, intervals and standard errors")
+    void replicates() {
+        val x = new Random(1).doubles(2000).map(v -> 10. + 2. * v).toArray();
+        val first = Bootstrap.replicates(x, Bootstrap.MEAN, Bootstrap.BLOCK_SIZE * 10 + 3, 7L);
+        val second = Bootstrap.replicates(x, Bootstrap.MEAN, Bootstrap.BLOCK_SIZE * 10 + 3,
+            Utils.splittableGenerator(7L));
+        assertArrayEquals(first, second, "Replicates must be reproducible.");
+
+        val standardError = Bootstrap.standardError(x, Bootstrap.MEAN, 2000, Utils.splittableGenerator(8L));
+        val expected = Math.sqrt(Variance.unweightedUnbiasedVariance(x) / x.length);
+        assertEquals(expected, standardError, 0.1 * expected, "Standard error of the mean is off.");
+
+        val interval = Bootstrap.percentileInterval(x, Bootstrap.MEAN, 2000, 0.95, Utils.splittableGenerator(9L));
+        assertEquals(Mean.mean(x), interval.estimate(), 1e-12);
+        assertTrue(interval.lower() < interval.estimate() && interval.estimate() < interval.upper());
+        assertEquals(2. * 1.96 * expected, interval.upper() - interval.lower(), 0.2 * expected,
+            "The interval width is off.");
+
+        assertThrows(IllegalArgumentException.class, () -> Bootstrap.replicates(new double[]{}, Bootstrap.MEAN, 1, 0L));
+        assertThrows(IllegalArgumentException.class, () -> Bootstrap.replicates(x, Bootstrap.MEAN, 0, 0L));
+        assertThrows(IllegalArgumentException.class,
+            () -> Bootstrap.percentileInterval(x, Bootstrap.MEAN, 10, 1., Utils.splittableGenerator(0L)));
+    }
+}
@@ -0,0 +1,41 @@
+package jamjam.resample;
+
+import jamjam.aux.Utils;
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermutationTestTest {
+
+    @Test
+    @DisplayName("Test p-values of the mean difference")
+    void pValue() {
+        val generator = new Random(0);
+        val first = generator.doubles(300).toArray();
+        val same = generator.doubles(200).toArray();
+        val shifted = generator.doubles(200).map(v -> v + 0.3).toArray();
+        val permutations = PermutationTest.BLOCK_SIZE * 30 + 1;
+
+        val null1 = PermutationTest.pValue(first, same, PermutationTest.MEAN_DIFFERENCE,
+            PermutationTest.Alternative.TWO_SIDED, permutations, 1L);
+        assertTrue(null1 > 0.01, "Samples from the same distribution must not differ.");
+        assertEquals(null1, PermutationTest.pValue(first, same, PermutationTest.MEAN_DIFFERENCE,
+                PermutationTest.Alternative.TWO_SIDED, permutations, Utils.splittableGenerator(1L)),
+            "P-values must be reproducible.");
+
+        assertEquals(1. / (1. + permutations), PermutationTest.pValue(first, shifted,
+            PermutationTest.MEAN_DIFFERENCE, PermutationTest.Alternative.TWO_SIDED, permutations, 2L),
+            "A clear shift must give the smallest p-value.");
+        assertEquals(1. / (1. + permutations), PermutationTest.pValue(first, shifted,
+            PermutationTest.MEAN_DIFFERENCE, PermutationTest.Alternative.LESS, permutations, 3L));
+        assertTrue(PermutationTest.pValue(first, shifted, PermutationTest.MEAN_DIFFERENCE,
+            PermutationTest.Alternative.GREATER, permutations, 4L) > 0.99, "The opposite alternative must fail.");
+
+        assertThrows(IllegalArgumentException.class, () -> PermutationTest.pValue(first, new double[]{},
+            PermutationTest.MEAN_DIFFERENCE, PermutationTest.Alternative.TWO_SIDED, 10, 0L));
+    }
+}
@@ -0,0 +1,58 @@
+package jamjam.simd;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static jamjam.simd.SimdLevel.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimdTest {
+
+    @Test
+    @DisplayName("Test levels of vector shapes")
+    void of() {
+        assertEquals(SCALAR, SimdLevel.of(64), "One double per vector isn't worth it.");
+        assertEquals(VECTOR_128, SimdLevel.of(128), "Wrong level of 128-bit vectors.");
+        assertEquals(VECTOR_256, SimdLevel.of(256), "Wrong level of AVX2.");
+        assertEquals(VECTOR_512, SimdLevel.of(512), "Wrong level of AVX-512.");
+        assertEquals(VECTOR_512, SimdLevel.of(2048), "Wider vectors must use the widest level.");
+        assertEquals(1, SCALAR.lanes(), "Scalar kernels process one value at a time.");
+        assertEquals(8, VECTOR_512.lanes(), "Wrong number of lanes.");
+    }
+
+    @Test
+    @DisplayName("Test that the property caps the level")
+    void detect() {
+        assertEquals(VECTOR_512, Simd.detect(VECTOR_512, null), "The hardware level is the default.");
+        assertEquals(VECTOR_256, Simd.detect(VECTOR_512, "vector_256"), "The level must be capped.");
+        assertEquals(SCALAR, Simd.detect(VECTOR_256, "SCALAR"), "Vectorization must be turned off.");
+        assertEquals(VECTOR_128, Simd.detect(VECTOR_128, "VECTOR_512"), "The level must not exceed the hardware.");
+        assertEquals(VECTOR_256, Simd.detect(VECTOR_256, "AVX9"), "Unknown levels must be ignored.");
+        assertEquals(SCALAR, Simd.detect(SCALAR, " "), "Blank values must be ignored.");
+    }
+
+    @Test
+    @DisplayName("Test the level chosen at start-up")
+    void level() {
+        // Tests run with the Vector API, the level is that of the hardware unless the property is set.
+        val hardware = Simd.hardware();
+        assertEquals(Simd.detect(hardware, System.getProperty(Simd.PROPERTY)), Simd.level(), "Wrong level.");
+        assertEquals(Simd.level() != SCALAR, Simd.isVectorized(), "Inconsistent vectorization flag.");
+        assertEquals(Simd.level().bitSize(), Simd.vectorBitSize(), "Inconsistent vector size.");
+        assertTrue(Simd.describe().startsWith(hardware == SCALAR ? "SCALAR" : Simd.level().name()),
+            "The description must start with the level.");
+    }
+
+    @Test
+    @DisplayName("Test diagnostics")
+    void describe() {
+        assertEquals("VECTOR_512 (8 doubles per vector, amd64)", Simd.describe(VECTOR_512, VECTOR_512, "amd64"),
+            "Wrong description.");
+        assertEquals("VECTOR_256 (4 doubles per vector, amd64, capped from VECTOR_512)",
+            Simd.describe(VECTOR_256, VECTOR_512, "amd64"), "The cap must be mentioned.");
+        assertEquals("SCALAR (scalar kernels, aarch64, capped from VECTOR_128)",
+            Simd.describe(SCALAR, VECTOR_128, "aarch64"), "Wrong description of disabled vectors.");
+        assertTrue(Simd.describe(SCALAR, SCALAR, "amd64").contains(Simd.MODULE), "The module must be mentioned.");
+    }
+}
@@ -0,0 +1,60 @@
+package jamjam.simd;
+
+import lombok.val;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WithoutModuleTest {
+    /**
+     * A service that knows nothing of the Vector API.
+     */
+    private static final String CALLER = """
+        public class Caller {
+            public static void main(final String[] args) {
+                final double[] x = {1., 2., 3., 4.};
+                System.out.println(jamjam.Sum.sum(1., 2.) + " " + jamjam.Mean.mean(x) + " "
+                    + jamjam.Variance.unweightedBiasedVariance(x) + " " + jamjam.Deterministic.sum(x) + " "
+                    + jamjam.Mean.mean(new int[]{1, 2}) + " " + jamjam.Sum.nanSum(x).count() + " "
+                    + jamjam.simd.Simd.level());
+                final double[] p = {0.5, 0.5};
+                final double[] q = {0.25, 0.75};
+                System.out.println(new jamjam.probability.AliasSampler(p).sample(new java.util.Random(1)) + " "
+                    + jamjam.probability.StatisticalDistance.TotalVariationDistance(p, q, false) + " "
+                    + jamjam.probability.StatisticalDistance.distance(jamjam.probability.Metric.KULLBACK_LEIBLER,
+                        new float[]{0.5f, 0.5f}, new float[]{0.5f, 0.5f}, false));
+            }
+        }
+        """;
+
+    @Test
+    @DisplayName("Test that callers compile and run without jdk.incubator.vector")
+    void compileAndRun() throws Exception {
+        val dir = Files.createTempDirectory("caller");
+        val source = Files.writeString(dir.resolve("Caller.java"), CALLER);
+        val classPath = System.getProperty("java.class.path");
+
+        // Neither the compiler nor the JVM get --add-modules, so the incubator module is not resolved
+        val errors = new ByteArrayOutputStream();
+        val status = ToolProvider.getSystemJavaCompiler().run(null, null, errors, "--release", "21",
+            "--enable-preview", "-classpath", classPath, "-d", dir.toString(), source.toString());
+        assertEquals(0, status, "The caller must compile without the module: " + errors);
+
+        val java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        val process = new ProcessBuilder(java, "--enable-preview", "-cp", dir + File.pathSeparator + classPath,
+            "Caller").redirectErrorStream(true).start();
+        val output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), "The caller must run without the module: " + output);
+        assertTrue(output.contains("3.0 2.5 1.25 10.0 1.5 4 SCALAR"), "Scalar kernels must be used: " + output);
+        assertTrue(output.matches("(?s).*\\R[01] 0\\.25 " + Double.MIN_NORMAL + "\\R?"),
+            "Sampling and distances must work with scalar kernels: " + output);
+    }
+}